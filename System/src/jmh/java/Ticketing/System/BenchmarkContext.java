@@ -0,0 +1,34 @@
+package Ticketing.System;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the application context for benchmarks against an embedded H2 database,
+ * without the web server.
+ */
+public final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * Starts a fresh application context.
+     *
+     * @return The running context; close it in the benchmark's tear-down.
+     */
+    public static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(SystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--ticketing.log.directory=target/benchmark-logs",
+                        "--logging.level.root=WARN");
+    }
+}
@@ -0,0 +1,66 @@
+package Ticketing.System.repo;
+
+import Ticketing.System.BenchmarkContext;
+import Ticketing.System.model.TicketRecord;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares saving tickets one repository call at a time with saving them as one
+ * JDBC batch, against an embedded H2 database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TicketRecordSaveBenchmark {
+
+    @Param({"100", "1000"})
+    public int ticketCount; // Tickets saved per benchmark call
+
+    private ConfigurableApplicationContext context; // Application context backing the repository
+    private TicketRecordRepo ticketRecordRepo; // Repository under test
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkContext.start();
+        ticketRecordRepo = context.getBean(TicketRecordRepo.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearTable() {
+        ticketRecordRepo.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void closeContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public void perTicketSaves() {
+        for (int i = 0; i < ticketCount; i++) {
+            ticketRecordRepo.save(new TicketRecord("benchmark", (long) i, null));
+        }
+    }
+
+    @Benchmark
+    public List<TicketRecord> batchedSaves() {
+        List<TicketRecord> tickets = new ArrayList<>(ticketCount);
+        for (int i = 0; i < ticketCount; i++) {
+            TicketRecord ticket = new TicketRecord("benchmark", (long) i, null);
+            ticket.setNodeId("benchmark");
+            tickets.add(ticket);
+        }
+        return ticketRecordRepo.saveAll(tickets);
+    }
+
+    @Benchmark
+    public List<Long> bulkClaim() {
+        batchedSaves();
+        return ticketRecordRepo.claimTickets("benchmark", 1, "benchmark", 1, ticketCount);
+    }
+}
@@ -0,0 +1,38 @@
+package Ticketing.System.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the lock-free ticket pool on its own, with producers and consumers
+ * running concurrently. Vary the number of each with JMH's -tg option, for example
+ * -Djmh.args="-tg 4,4 TicketPoolBenchmark".
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TicketPoolBenchmark {
+
+    private RingBufferTicketPool pool; // Pool shared by the producer and consumer threads
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        pool = new RingBufferTicketPool(1 << 16);
+    }
+
+    @Benchmark
+    @Group("pool")
+    @GroupThreads(1)
+    public boolean offer() {
+        return pool.offer(42L);
+    }
+
+    @Benchmark
+    @Group("pool")
+    @GroupThreads(1)
+    public void poll(Blackhole blackhole) {
+        blackhole.consume(pool.poll());
+    }
+}
@@ -0,0 +1,74 @@
+package Ticketing.System.service;
+
+import Ticketing.System.BenchmarkContext;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Throughput of TicketService.addTickets and retrieveTickets, including the write-behind
+ * pipeline and the transaction log, against an embedded H2 database. The benchmark threads
+ * play the vendors and customers; vary their number with -tg, for example
+ * -Djmh.args="-tg 2,8 TicketServiceBenchmark".
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TicketServiceBenchmark {
+
+    private static final int MAX_TICKET_CAPACITY = 1 << 22; // Large enough not to sell out within an iteration
+
+    private ConfigurableApplicationContext context; // Application context backing the service
+    private TicketService ticketService; // Simulation under test
+    private final AtomicInteger nextActorId = new AtomicInteger(); // Gives every benchmark thread its own actor ID
+
+    @State(Scope.Thread)
+    public static class Actor {
+        int id; // Vendor or customer ID of this benchmark thread
+
+        @Setup
+        public void setUp(TicketServiceBenchmark benchmark) {
+            id = benchmark.nextActorId.incrementAndGet();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkContext.start();
+        ticketService = context.getBean(SimulationRegistry.class).getOrCreate("benchmark");
+    }
+
+    @Setup(Level.Iteration)
+    public void startSimulation() {
+        ticketService.setVendorTotal(0); // The benchmark threads act as vendors and customers
+        ticketService.setCustomerTotal(0);
+        ticketService.setSimulationConfig(1, 1, MAX_TICKET_CAPACITY);
+        ticketService.simulateVendorsAndCustomers();
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopSimulation() {
+        ticketService.stopSimulation();
+    }
+
+    @TearDown(Level.Trial)
+    public void closeContext() {
+        context.close();
+    }
+
+    @Benchmark
+    @Group("service")
+    @GroupThreads(1)
+    public void addTickets(Actor vendor) {
+        ticketService.addTickets(vendor.id);
+    }
+
+    @Benchmark
+    @Group("service")
+    @GroupThreads(1)
+    public boolean retrieveTickets(Actor customer) {
+        return ticketService.tryRetrieveTickets(customer.id);
+    }
+}
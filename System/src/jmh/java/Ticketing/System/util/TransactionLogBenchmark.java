@@ -0,0 +1,68 @@
+package Ticketing.System.util;
+
+import com.google.gson.JsonObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of persisting a run's transaction log: serialising the whole list of Gson
+ * objects with JSONFileWriter versus streaming the same events through TransactionLogWriter,
+ * as JSON lines and as binary records.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TransactionLogBenchmark {
+
+    @Param({"10000", "100000"})
+    public int eventCount; // Number of log events per run
+
+    private List<JsonObject> logs; // Events in the form JSONFileWriter expects
+    private Path directory; // Scratch directory for the output files
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("transaction-log-benchmark");
+        logs = new ArrayList<>(eventCount);
+        for (int i = 0; i < eventCount; i++) {
+            JsonObject logEntry = new JsonObject();
+            logEntry.addProperty("actionType", i % 2 == 0 ? "ADD" : "RETRIEVE");
+            logEntry.addProperty("entityName", (i % 2 == 0 ? "Vendor-" : "Customer-") + (i % 10));
+            logEntry.addProperty("ticketCount", 1);
+            logEntry.addProperty("remainingTickets", i % 100);
+            logs.add(logEntry);
+        }
+    }
+
+    @Benchmark
+    public void jsonFileWriter() {
+        JSONFileWriter.writeLogsToJSON(logs, directory.resolve("transaction_logs.json").toString());
+    }
+
+    @Benchmark
+    public void transactionLogWriter() throws IOException {
+        writeSegments(TransactionLogWriter.Format.JSON);
+    }
+
+    @Benchmark
+    public void binaryTransactionLogWriter() throws IOException {
+        writeSegments(TransactionLogWriter.Format.BINARY);
+    }
+
+    private void writeSegments(TransactionLogWriter.Format format) throws IOException {
+        Path segments = directory.resolve("segments");
+        TransactionLogWriter.deleteSegments(segments);
+        TransactionLogWriter writer = new TransactionLogWriter(segments, 64 * 1024, 64L * 1024 * 1024,
+                TransactionLogWriter.FsyncPolicy.NEVER, 1000, TransactionLogCheckpoint.empty(1), format);
+        for (int i = 0; i < eventCount; i++) {
+            writer.append(i % 2 == 0 ? "ADD" : "RETRIEVE", i % 2 == 0 ? "Vendor" : "Customer", i % 10, 1, i % 100);
+        }
+        writer.close();
+    }
+}
@@ -0,0 +1,85 @@
+package Ticketing.System.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Result of one load stage: the requests sent, how they were answered, and the latency
+ * percentiles measured from each request's intended send time.
+ */
+public final class LoadReport {
+
+    private final int targetRate; // Requests per second the stage was meant to send
+    private final long sent; // Requests sent
+    private final double throughput; // Answers per second over the sending time
+    private final long purchased; // Requests that bought tickets
+    private final long rejected; // Requests answered with 409, no tickets available
+    private final long shed; // Requests answered with 503, shed by admission control
+    private final long errors; // Requests that failed, timed out or were never answered
+    private final Histogram latency; // Nanoseconds from intended send time to answer
+    private final Histogram serviceTime; // Nanoseconds from actual send time to answer
+
+    LoadReport(int targetRate, long sent, double throughput, long purchased, long rejected, long shed, long errors,
+               Histogram latency, Histogram serviceTime) {
+        this.targetRate = targetRate;
+        this.sent = sent;
+        this.throughput = throughput;
+        this.purchased = purchased;
+        this.rejected = rejected;
+        this.shed = shed;
+        this.errors = errors;
+        this.latency = latency;
+        this.serviceTime = serviceTime;
+    }
+
+    /**
+     * Returns the report as a map, ready to be written as JSON. Times are in milliseconds.
+     *
+     * @return The report fields.
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("targetRate", targetRate);
+        report.put("sent", sent);
+        report.put("throughput", throughput);
+        report.put("purchased", purchased);
+        report.put("rejected", rejected);
+        report.put("shed", shed);
+        report.put("errors", errors);
+        report.put("latencyMillis", percentiles(latency));
+        report.put("serviceTimeMillis", percentiles(serviceTime));
+        return report;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "rate %7d/s  sent %9d  throughput %10.1f/s  purchased %9d  rejected %9d  shed %7d  errors %7d%n"
+                        + "  latency      p50 %9.3f ms  p99 %9.3f ms  p999 %9.3f ms  max %9.3f ms%n"
+                        + "  service time p50 %9.3f ms  p99 %9.3f ms  p999 %9.3f ms  max %9.3f ms",
+                targetRate, sent, throughput, purchased, rejected, shed, errors,
+                millis(latency, 50), millis(latency, 99), millis(latency, 99.9), millis(latency.getMaxValue()),
+                millis(serviceTime, 50), millis(serviceTime, 99), millis(serviceTime, 99.9),
+                millis(serviceTime.getMaxValue()));
+    }
+
+    private static Map<String, Double> percentiles(Histogram histogram) {
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        percentiles.put("p50", millis(histogram, 50));
+        percentiles.put("p99", millis(histogram, 99));
+        percentiles.put("p999", millis(histogram, 99.9));
+        percentiles.put("max", millis(histogram.getMaxValue()));
+        return percentiles;
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return millis(histogram.getValueAtPercentile(percentile));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,112 @@
+package Ticketing.System.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+/**
+ * Sends requests at a fixed arrival rate, whether or not earlier requests have been answered.
+ * Each request has an intended send time on a fixed schedule, and its latency is measured
+ * from that time rather than from when it was actually sent. A stalled server therefore shows
+ * up as latency for every request that should have been sent during the stall, instead of
+ * silently lowering the request rate (coordinated omission). The time from the actual send is
+ * recorded separately as service time, so the two can be compared.
+ */
+public final class OpenLoopLoadGenerator {
+
+    private final HttpClient client; // Sends requests asynchronously
+    private final Duration requestTimeout; // Requests not answered within this time count as errors
+
+    /**
+     * Constructor to initialize the generator.
+     *
+     * @param client         The asynchronous HTTP client.
+     * @param requestTimeout How long a request may take before it counts as an error.
+     */
+    public OpenLoopLoadGenerator(HttpClient client, Duration requestTimeout) {
+        this.client = client;
+        this.requestTimeout = requestTimeout;
+    }
+
+    /**
+     * Sends requests at a fixed rate for a fixed time and waits for the last answers.
+     *
+     * @param ratePerSecond The requests to send per second.
+     * @param duration      How long to send requests.
+     * @param requests      Builds the request with the given sequence number, starting at 0.
+     * @return The counts and latency distributions of the run.
+     * @throws InterruptedException If interrupted while waiting for the answers.
+     */
+    public LoadReport run(int ratePerSecond, Duration duration, LongFunction<HttpRequest> requests)
+            throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long total = duration.toNanos() / intervalNanos;
+        Recorder latency = new Recorder(3);
+        Recorder serviceTime = new Recorder(3);
+        LongAdder purchased = new LongAdder();
+        LongAdder rejected = new LongAdder();
+        LongAdder shed = new LongAdder();
+        LongAdder errors = new LongAdder();
+        AtomicLong inFlight = new AtomicLong();
+
+        long startedAt = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long intendedAt = startedAt + i * intervalNanos;
+            long wait = intendedAt - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait); // When the generator falls behind, overdue requests go out at once
+            }
+            HttpRequest request = requests.apply(i);
+            long sentAt = System.nanoTime();
+            inFlight.incrementAndGet();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+                long answeredAt = System.nanoTime();
+                latency.recordValue(answeredAt - intendedAt);
+                serviceTime.recordValue(answeredAt - sentAt);
+                if (failure != null) {
+                    errors.increment();
+                } else if (response.statusCode() == 200) {
+                    purchased.increment();
+                } else if (response.statusCode() == 409) {
+                    rejected.increment();
+                } else if (response.statusCode() == 503) {
+                    shed.increment();
+                } else {
+                    errors.increment();
+                }
+                inFlight.decrementAndGet();
+            });
+        }
+        long sendingNanos = System.nanoTime() - startedAt;
+
+        // Requests still open after their timeout have failed and been counted
+        long deadline = System.nanoTime() + requestTimeout.toNanos() + TimeUnit.SECONDS.toNanos(1);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        long answered = purchased.sum() + rejected.sum() + shed.sum() + errors.sum();
+        Histogram latencies = latency.getIntervalHistogram();
+        Histogram serviceTimes = serviceTime.getIntervalHistogram();
+        return new LoadReport(ratePerSecond, total, answered * 1e9 / Math.max(sendingNanos, 1), purchased.sum(),
+                rejected.sum(), shed.sum(), errors.sum() + total - answered, latencies, serviceTimes);
+    }
+
+    /**
+     * Builds requests that time out after the generator's request timeout.
+     *
+     * @param builder The request builder.
+     * @return The builder with the timeout set.
+     */
+    public HttpRequest.Builder withTimeout(HttpRequest.Builder builder) {
+        return builder.timeout(requestTimeout);
+    }
+}
@@ -0,0 +1,159 @@
+package Ticketing.System.loadtest;
+
+import Ticketing.System.SystemApplication;
+import com.google.gson.GsonBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Load test of the purchase endpoint. A simulation is started whose vendors release tickets
+ * faster than the clients buy them and whose simulated customers hardly act, and then
+ * POST /api/simulation/{id}/purchase is driven at each configured arrival rate in turn, with
+ * random customers. Each stage is preceded by an unrecorded warm-up at the same rate.
+ * <p>
+ * Without --url the application is started in this JVM against an embedded H2 database.
+ * Options are passed as --name=value: url, rates (comma-separated requests per second),
+ * duration-seconds, warmup-seconds, vendors, customers, tickets, timeout-millis and output.
+ */
+public final class PurchaseLoadTest {
+
+    private static final String SIMULATION_ID = "loadtest";
+    private static final int VENDOR_TICKETS_PER_SECOND = 5000; // Five tickets per attempt, one attempt per millisecond
+
+    private PurchaseLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int[] rates = Arrays.stream(options.getOrDefault("rates", "1000,5000,10000").split(","))
+                .mapToInt(rate -> Integer.parseInt(rate.trim()))
+                .toArray();
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration-seconds", "10"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup-seconds", "3"));
+        int customers = Integer.parseInt(options.getOrDefault("customers", "1000"));
+        int tickets = Integer.parseInt(options.getOrDefault("tickets", "1"));
+        long timeoutMillis = Long.parseLong(options.getOrDefault("timeout-millis", "2000"));
+        Path output = Paths.get(options.getOrDefault("output", "target/loadtest-result.json"));
+
+        // Release twice the tickets the busiest stage buys, and enough for every stage
+        int maxRate = Arrays.stream(rates).max().orElse(1);
+        int vendors = Integer.parseInt(options.getOrDefault("vendors",
+                String.valueOf(Math.max(1, 2 * maxRate * tickets / VENDOR_TICKETS_PER_SECOND + 1))));
+        long demand = (long) tickets * (durationSeconds + warmupSeconds) * Arrays.stream(rates).asLongStream().sum();
+        int capacity = (int) Math.min(Integer.MAX_VALUE - 1, 2 * demand);
+
+        ConfigurableApplicationContext embedded = options.containsKey("url") ? null : startEmbedded();
+        String baseUrl = embedded == null ? options.get("url")
+                : "http://localhost:" + embedded.getEnvironment().getProperty("local.server.port");
+        String simulationUrl = baseUrl + "/api/simulation/" + SIMULATION_ID;
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofMillis(timeoutMillis))
+                    .build();
+            post(client, simulationUrl + "/setVendorTotal", String.valueOf(vendors));
+            post(client, simulationUrl + "/setCustomerTotal", String.valueOf(customers));
+            post(client, simulationUrl + "/start", "{\"ticketReleaseRate\":1,\"ticketRetrievalRate\":600000,"
+                    + "\"maxTicketCapacity\":" + capacity + "}");
+            System.out.printf("Simulation %s: %d vendors, %d customers, %d tickets%n", SIMULATION_ID, vendors,
+                    customers, capacity);
+
+            OpenLoopLoadGenerator generator = new OpenLoopLoadGenerator(client, Duration.ofMillis(timeoutMillis));
+            URI purchaseUri = URI.create(simulationUrl + "/purchase");
+            List<Map<String, Object>> results = new ArrayList<>();
+            for (int rate : rates) {
+                generator.run(rate, Duration.ofSeconds(warmupSeconds), i -> purchase(generator, purchaseUri,
+                        customers, tickets));
+                LoadReport report = generator.run(rate, Duration.ofSeconds(durationSeconds),
+                        i -> purchase(generator, purchaseUri, customers, tickets));
+                System.out.println(report);
+                results.add(report.toMap());
+            }
+            post(client, simulationUrl + "/stop", "");
+
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("url", baseUrl);
+            summary.put("durationSeconds", durationSeconds);
+            summary.put("warmupSeconds", warmupSeconds);
+            summary.put("customers", customers);
+            summary.put("ticketsPerPurchase", tickets);
+            summary.put("stages", results);
+            Files.createDirectories(output.toAbsolutePath().getParent());
+            Files.writeString(output, new GsonBuilder().setPrettyPrinting().create().toJson(summary),
+                    StandardCharsets.UTF_8);
+            System.out.println("Results written to " + output);
+        } finally {
+            if (embedded != null) {
+                embedded.close();
+            }
+        }
+    }
+
+    private static HttpRequest purchase(OpenLoopLoadGenerator generator, URI uri, int customers, int tickets) {
+        int customerId = ThreadLocalRandom.current().nextInt(customers) + 1;
+        return generator.withTimeout(HttpRequest.newBuilder(uri))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"customerId\":" + customerId + ",\"tickets\":" + tickets + "}"))
+                .build();
+    }
+
+    private static void post(HttpClient client, String url, String body) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(url))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(url + " answered " + response.statusCode() + ": " + response.body());
+        }
+    }
+
+    /**
+     * Starts the application on a random port against an embedded H2 database.
+     */
+    private static ConfigurableApplicationContext startEmbedded() {
+        return new SpringApplicationBuilder(SystemApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--ticketing.log.directory=target/loadtest-logs",
+                        "--ticketing.recovery.enabled=false",
+                        "--ticketing.admission.enabled=true",
+                        "--logging.level.root=WARN");
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value: " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+}
@@ -1,7 +1,10 @@
 package Ticketing.System;
 
+import Ticketing.System.config.TicketingRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 /**
  * Entry point of the Ticketing System application.
@@ -9,6 +12,8 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  */
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@ImportRuntimeHints(TicketingRuntimeHints.class)
 public class SystemApplication {
 
 	public static void main(String[] args) {
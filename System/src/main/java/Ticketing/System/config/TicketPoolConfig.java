@@ -0,0 +1,22 @@
+package Ticketing.System.config;
+
+import Ticketing.System.service.RingBufferTicketPool;
+import Ticketing.System.service.TicketPoolFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the default ticket pool implementation.
+ * Applications can provide their own TicketPoolFactory bean to plug in a different pool.
+ */
+
+@Configuration
+public class TicketPoolConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public TicketPoolFactory ticketPoolFactory() {
+        return RingBufferTicketPool::new;
+    }
+}
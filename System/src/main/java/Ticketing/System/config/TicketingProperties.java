@@ -0,0 +1,761 @@
+package Ticketing.System.config;
+
+import Ticketing.System.service.AllocationPolicy;
+import Ticketing.System.service.ExecutionMode;
+import Ticketing.System.service.InventoryMode;
+import Ticketing.System.util.TransactionLogWriter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Tunable settings for the ticketing engine, bound from the "ticketing.*" keys in application.properties.
+ */
+
+@ConfigurationProperties(prefix = "ticketing")
+public class TicketingProperties {
+
+    private final Persistence persistence = new Persistence(); // Settings for the write-behind persistence pipeline
+    private final Log log = new Log(); // Settings for the streaming transaction log
+    private final Simulation simulation = new Simulation(); // Settings for how vendors and customers are run
+    private final Metrics metrics = new Metrics(); // Settings for metrics and hot-path logging
+    private final Stream stream = new Stream(); // Settings for the live pool-state stream
+    private final Headless headless = new Headless(); // Limits for virtual-clock simulation runs
+    private final Ledger ledger = new Ledger(); // Settings for the in-memory ticket ledger
+    private final Allocation allocation = new Allocation(); // Settings for sharing tickets among customers
+    private final Inventory inventory = new Inventory(); // Settings for sharing event capacity between nodes
+    private final Holds holds = new Holds(); // Settings for reserving tickets before checkout
+    private final Recovery recovery = new Recovery(); // Settings for rebuilding runs interrupted by a crash
+    private final Outbox outbox = new Outbox(); // Settings for relaying persisted ticket events to the log
+    private final Stats stats = new Stats(); // Settings for the sales aggregates and their cache
+    private final Admission admission = new Admission(); // Settings for admission control on the purchase endpoint
+
+    public Persistence getPersistence() {
+        return persistence;
+    }
+
+    public Log getLog() {
+        return log;
+    }
+
+    public Simulation getSimulation() {
+        return simulation;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public Stream getStream() {
+        return stream;
+    }
+
+    public Headless getHeadless() {
+        return headless;
+    }
+
+    public Ledger getLedger() {
+        return ledger;
+    }
+
+    public Allocation getAllocation() {
+        return allocation;
+    }
+
+    public Inventory getInventory() {
+        return inventory;
+    }
+
+    public Holds getHolds() {
+        return holds;
+    }
+
+    public Recovery getRecovery() {
+        return recovery;
+    }
+
+    public Outbox getOutbox() {
+        return outbox;
+    }
+
+    public Stats getStats() {
+        return stats;
+    }
+
+    public Admission getAdmission() {
+        return admission;
+    }
+
+    /**
+     * Settings for the write-behind pipeline that batches ticket saves.
+     */
+    public static class Persistence {
+
+        private int queueCapacity = 10_000; // Pending ticket mutations before vendors and customers are slowed down
+        private int flushSize = 500; // Maximum number of mutations written in one database transaction
+        private long flushIntervalMillis = 50; // Longest time a mutation waits before being flushed
+        private long retryBackoffMillis = 100; // Wait before a failed batch is written again, doubled per failure
+        private long maxRetryBackoffMillis = 5_000; // Longest wait between attempts to write a failed batch
+        private int maxRetries = 8; // Attempts after the first to write a batch that failed for a transient reason
+        private int shutdownRetries = 3; // Retries left to a failing batch once the pipeline is stopping
+        private long drainTimeoutMillis = 30_000; // Longest wait for queued mutations to be written when a run stops
+        private String deadLetterDirectory = "dead-letters"; // Directory batches that could not be written are kept in
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getFlushSize() {
+            return flushSize;
+        }
+
+        public void setFlushSize(int flushSize) {
+            this.flushSize = flushSize;
+        }
+
+        public long getFlushIntervalMillis() {
+            return flushIntervalMillis;
+        }
+
+        public void setFlushIntervalMillis(long flushIntervalMillis) {
+            this.flushIntervalMillis = flushIntervalMillis;
+        }
+
+        public long getRetryBackoffMillis() {
+            return retryBackoffMillis;
+        }
+
+        public void setRetryBackoffMillis(long retryBackoffMillis) {
+            this.retryBackoffMillis = retryBackoffMillis;
+        }
+
+        public long getMaxRetryBackoffMillis() {
+            return maxRetryBackoffMillis;
+        }
+
+        public void setMaxRetryBackoffMillis(long maxRetryBackoffMillis) {
+            this.maxRetryBackoffMillis = maxRetryBackoffMillis;
+        }
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+
+        public int getShutdownRetries() {
+            return shutdownRetries;
+        }
+
+        public void setShutdownRetries(int shutdownRetries) {
+            this.shutdownRetries = shutdownRetries;
+        }
+
+        public long getDrainTimeoutMillis() {
+            return drainTimeoutMillis;
+        }
+
+        public void setDrainTimeoutMillis(long drainTimeoutMillis) {
+            this.drainTimeoutMillis = drainTimeoutMillis;
+        }
+
+        public String getDeadLetterDirectory() {
+            return deadLetterDirectory;
+        }
+
+        public void setDeadLetterDirectory(String deadLetterDirectory) {
+            this.deadLetterDirectory = deadLetterDirectory;
+        }
+    }
+
+    /**
+     * Settings for the append-only transaction log.
+     */
+    public static class Log {
+
+        private String directory = "transaction-logs"; // Directory the log segments are written to
+        private int bufferSize = 64 * 1024; // Bytes buffered in memory before they are written out
+        private long segmentSize = 64L * 1024 * 1024; // Bytes after which a new segment file is started
+        private TransactionLogWriter.FsyncPolicy fsyncPolicy = TransactionLogWriter.FsyncPolicy.ON_ROTATE; // When data is forced to disk
+        private long flushIntervalMillis = 200; // Longest time an event stays in the buffer
+        private TransactionLogWriter.Format format = TransactionLogWriter.Format.JSON; // How events are encoded
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public long getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(long segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+
+        public TransactionLogWriter.FsyncPolicy getFsyncPolicy() {
+            return fsyncPolicy;
+        }
+
+        public void setFsyncPolicy(TransactionLogWriter.FsyncPolicy fsyncPolicy) {
+            this.fsyncPolicy = fsyncPolicy;
+        }
+
+        public long getFlushIntervalMillis() {
+            return flushIntervalMillis;
+        }
+
+        public void setFlushIntervalMillis(long flushIntervalMillis) {
+            this.flushIntervalMillis = flushIntervalMillis;
+        }
+
+        public TransactionLogWriter.Format getFormat() {
+            return format;
+        }
+
+        public void setFormat(TransactionLogWriter.Format format) {
+            this.format = format;
+        }
+    }
+
+    /**
+     * Settings for how vendor and customer actors are executed.
+     */
+    public static class Simulation {
+
+        private ExecutionMode executionMode = ExecutionMode.PLATFORM; // Thread model used for the actors
+        private int schedulerThreads = Runtime.getRuntime().availableProcessors(); // Scheduler threads shared by all simulations
+        private int maxRunning = 16; // Simulations allowed to run at the same time
+        private int retainedFinished = 100; // Finished simulations kept before the oldest are evicted
+        private int maxSimulations = 1_000; // Simulations kept at once; new IDs are refused beyond it
+        private long idleTtlMillis = 600_000; // Time a simulation that never ran is kept after it was last configured
+        private long timerTickMillis = 1; // Resolution of the timing wheel that paces scheduled actors
+        private int timerSlots = 512; // Slots in the timing wheel
+        private int bucketCapacity = 3; // Attempts an actor that fell behind may make back to back to catch up
+
+        public ExecutionMode getExecutionMode() {
+            return executionMode;
+        }
+
+        public void setExecutionMode(ExecutionMode executionMode) {
+            this.executionMode = executionMode;
+        }
+
+        public int getSchedulerThreads() {
+            return schedulerThreads;
+        }
+
+        public void setSchedulerThreads(int schedulerThreads) {
+            this.schedulerThreads = schedulerThreads;
+        }
+
+        public int getMaxRunning() {
+            return maxRunning;
+        }
+
+        public void setMaxRunning(int maxRunning) {
+            this.maxRunning = maxRunning;
+        }
+
+        public int getRetainedFinished() {
+            return retainedFinished;
+        }
+
+        public void setRetainedFinished(int retainedFinished) {
+            this.retainedFinished = retainedFinished;
+        }
+
+        public int getMaxSimulations() {
+            return maxSimulations;
+        }
+
+        public void setMaxSimulations(int maxSimulations) {
+            this.maxSimulations = maxSimulations;
+        }
+
+        public long getIdleTtlMillis() {
+            return idleTtlMillis;
+        }
+
+        public void setIdleTtlMillis(long idleTtlMillis) {
+            this.idleTtlMillis = idleTtlMillis;
+        }
+
+        public long getTimerTickMillis() {
+            return timerTickMillis;
+        }
+
+        public void setTimerTickMillis(long timerTickMillis) {
+            this.timerTickMillis = timerTickMillis;
+        }
+
+        public int getTimerSlots() {
+            return timerSlots;
+        }
+
+        public void setTimerSlots(int timerSlots) {
+            this.timerSlots = timerSlots;
+        }
+
+        public int getBucketCapacity() {
+            return bucketCapacity;
+        }
+
+        public void setBucketCapacity(int bucketCapacity) {
+            this.bucketCapacity = bucketCapacity;
+        }
+    }
+
+    /**
+     * Settings for metrics and for logging on the ticket hot path.
+     */
+    public static class Metrics {
+
+        private int logSampleRate = 1000; // One in this many vendor and customer messages is logged; 0 disables them
+
+        public int getLogSampleRate() {
+            return logSampleRate;
+        }
+
+        public void setLogSampleRate(int logSampleRate) {
+            this.logSampleRate = logSampleRate;
+        }
+    }
+
+    /**
+     * Settings for the server-sent event stream of pool state.
+     */
+    public static class Stream {
+
+        private long tickMillis = 250; // Interval at which pool state is sampled and pushed
+        private int bufferSize = 16; // Frames buffered per subscriber before the oldest are dropped
+        private int senderThreads = 4; // Threads writing frames to subscribers
+
+        public long getTickMillis() {
+            return tickMillis;
+        }
+
+        public void setTickMillis(long tickMillis) {
+            this.tickMillis = tickMillis;
+        }
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public int getSenderThreads() {
+            return senderThreads;
+        }
+
+        public void setSenderThreads(int senderThreads) {
+            this.senderThreads = senderThreads;
+        }
+    }
+
+    /**
+     * Limits for headless simulations, which run on a virtual clock in the request thread.
+     */
+    public static class Headless {
+
+        private int maxTickets = 10_000_000; // Largest max ticket capacity a run may use
+        private int maxActors = 1_000_000; // Largest number of vendors and customers a run may use
+        private long maxEvents = 500_000_000; // Attempts after which a run is cut off
+
+        public int getMaxTickets() {
+            return maxTickets;
+        }
+
+        public void setMaxTickets(int maxTickets) {
+            this.maxTickets = maxTickets;
+        }
+
+        public int getMaxActors() {
+            return maxActors;
+        }
+
+        public void setMaxActors(int maxActors) {
+            this.maxActors = maxActors;
+        }
+
+        public long getMaxEvents() {
+            return maxEvents;
+        }
+
+        public void setMaxEvents(long maxEvents) {
+            this.maxEvents = maxEvents;
+        }
+    }
+
+    /**
+     * Settings for ledger mode, where ticket ownership is kept in a compact in-memory
+     * ledger during the run and written to the database in bulk when the run stops.
+     */
+    public static class Ledger {
+
+        private boolean enabled = false; // Use the in-memory ledger instead of the write-behind pipeline
+        private String snapshotDirectory = "ticket-ledgers"; // Directory the ledger snapshots are written to
+        private long snapshotIntervalMillis = 5_000; // Interval between snapshots of running simulations
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getSnapshotDirectory() {
+            return snapshotDirectory;
+        }
+
+        public void setSnapshotDirectory(String snapshotDirectory) {
+            this.snapshotDirectory = snapshotDirectory;
+        }
+
+        public long getSnapshotIntervalMillis() {
+            return snapshotIntervalMillis;
+        }
+
+        public void setSnapshotIntervalMillis(long snapshotIntervalMillis) {
+            this.snapshotIntervalMillis = snapshotIntervalMillis;
+        }
+    }
+
+    /**
+     * Settings for how tickets are shared among waiting customers.
+     */
+    public static class Allocation {
+
+        private AllocationPolicy policy = AllocationPolicy.FIFO; // Order in which waiting customers are served
+        private int maxTicketsPerCustomer = 0; // Most tickets one customer may buy in a run, or 0 for no cap
+        private List<Integer> tierWeights = new ArrayList<>(List.of(1)); // Share of tickets per tier for TIERED
+
+        public AllocationPolicy getPolicy() {
+            return policy;
+        }
+
+        public void setPolicy(AllocationPolicy policy) {
+            this.policy = policy;
+        }
+
+        public int getMaxTicketsPerCustomer() {
+            return maxTicketsPerCustomer;
+        }
+
+        public void setMaxTicketsPerCustomer(int maxTicketsPerCustomer) {
+            this.maxTicketsPerCustomer = maxTicketsPerCustomer;
+        }
+
+        public List<Integer> getTierWeights() {
+            return tierWeights;
+        }
+
+        public void setTierWeights(List<Integer> tierWeights) {
+            this.tierWeights = tierWeights;
+        }
+    }
+
+    /**
+     * Settings for where event capacity is tracked. In distributed mode several nodes
+     * sell one event against shared counters in the database.
+     */
+    public static class Inventory {
+
+        private InventoryMode mode = InventoryMode.LOCAL; // Track capacity in memory or in the shared database
+        private String nodeId = UUID.randomUUID().toString(); // Identifies this node's leases and tickets; random unless set
+        private int leaseSize = 100; // Ticket positions a node leases from the database at a time
+        private int maxRetries = 50; // Attempts at a lease before giving up on conflicting updates
+
+        public InventoryMode getMode() {
+            return mode;
+        }
+
+        public void setMode(InventoryMode mode) {
+            this.mode = mode;
+        }
+
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        public void setNodeId(String nodeId) {
+            this.nodeId = nodeId;
+        }
+
+        public int getLeaseSize() {
+            return leaseSize;
+        }
+
+        public void setLeaseSize(int leaseSize) {
+            this.leaseSize = leaseSize;
+        }
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+    }
+
+    /**
+     * Settings for ticket holds: tickets reserved for a customer for a limited time
+     * before checkout, and returned to the pool if the checkout never happens.
+     */
+    public static class Holds {
+
+        private long ttlMillis = 10_000; // How long a hold lasts unless the request sets its own
+        private boolean checkoutEnabled = false; // Simulated customers hold tickets and confirm on their next attempt
+        private int abandonPercent = 0; // Share of simulated checkouts left to expire, in percent
+        private long timerTickMillis = 100; // Granularity of hold expiry
+        private int timerSlots = 1024; // Slots of the hold expiry wheel; one turn should cover a typical TTL
+
+        public long getTtlMillis() {
+            return ttlMillis;
+        }
+
+        public void setTtlMillis(long ttlMillis) {
+            this.ttlMillis = ttlMillis;
+        }
+
+        public boolean isCheckoutEnabled() {
+            return checkoutEnabled;
+        }
+
+        public void setCheckoutEnabled(boolean checkoutEnabled) {
+            this.checkoutEnabled = checkoutEnabled;
+        }
+
+        public int getAbandonPercent() {
+            return abandonPercent;
+        }
+
+        public void setAbandonPercent(int abandonPercent) {
+            this.abandonPercent = abandonPercent;
+        }
+
+        public long getTimerTickMillis() {
+            return timerTickMillis;
+        }
+
+        public void setTimerTickMillis(long timerTickMillis) {
+            this.timerTickMillis = timerTickMillis;
+        }
+
+        public int getTimerSlots() {
+            return timerSlots;
+        }
+
+        public void setTimerSlots(int timerSlots) {
+            this.timerSlots = timerSlots;
+        }
+    }
+
+    /**
+     * Settings for crash recovery: runs whose transaction log was not closed are replayed
+     * from their last checkpoint on startup.
+     */
+    public static class Recovery {
+
+        private boolean enabled = false; // Replay interrupted runs on startup
+        private boolean resume = false; // Continue interrupted runs instead of finalizing them
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isResume() {
+            return resume;
+        }
+
+        public void setResume(boolean resume) {
+            this.resume = resume;
+        }
+    }
+
+    /**
+     * Settings for the transactional outbox: log events are written with the ticket records
+     * and relayed to the transaction log in the background.
+     */
+    public static class Outbox {
+
+        private boolean enabled = false; // Write log events to an outbox table with the ticket records and relay them
+        private int batchSize = 1000; // Outbox events relayed and deleted per transaction
+        private long relayIntervalMillis = 50; // How long the relay waits for new events when it is idle
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getRelayIntervalMillis() {
+            return relayIntervalMillis;
+        }
+
+        public void setRelayIntervalMillis(long relayIntervalMillis) {
+            this.relayIntervalMillis = relayIntervalMillis;
+        }
+    }
+
+    /**
+     * Settings for the sales aggregates of each run and the cache the stats endpoints are served from.
+     */
+    public static class Stats {
+
+        private long bucketMillis = 1000; // Initial width of a sales histogram bucket; also how often runs are sampled
+        private int maxBuckets = 720; // Histogram buckets kept per run before neighbours are merged
+        private long cacheTtlMillis = 250; // How long a computed stats response is served before it is recomputed
+        private int cacheSize = 1000; // Stats responses cached, least recently used evicted first
+
+        public long getBucketMillis() {
+            return bucketMillis;
+        }
+
+        public void setBucketMillis(long bucketMillis) {
+            this.bucketMillis = bucketMillis;
+        }
+
+        public int getMaxBuckets() {
+            return maxBuckets;
+        }
+
+        public void setMaxBuckets(int maxBuckets) {
+            this.maxBuckets = maxBuckets;
+        }
+
+        public long getCacheTtlMillis() {
+            return cacheTtlMillis;
+        }
+
+        public void setCacheTtlMillis(long cacheTtlMillis) {
+            this.cacheTtlMillis = cacheTtlMillis;
+        }
+
+        public int getCacheSize() {
+            return cacheSize;
+        }
+
+        public void setCacheSize(int cacheSize) {
+            this.cacheSize = cacheSize;
+        }
+    }
+
+    /**
+     * Settings for admission control on the purchase endpoint: an adaptive limit on concurrent
+     * purchases, a bounded waiting room and the retry delays suggested to refused purchases.
+     */
+    public static class Admission {
+
+        private boolean enabled = false; // Limit concurrent purchases; otherwise every purchase runs at once
+        private int initialLimit = 64; // Concurrent purchases allowed before the limit has adapted
+        private int minLimit = 4; // Concurrent purchases always allowed
+        private int maxLimit = 1024; // Most concurrent purchases ever allowed
+        private long targetLatencyMillis = 20; // Purchases slower than this shrink the limit
+        private int waitingRoomSize = 256; // Purchases that may wait for a free slot before more are shed
+        private long maxWaitMillis = 50; // How long a purchase waits for a free slot
+        private long maxRetryAfterMillis = 5000; // Longest retry delay suggested to a refused purchase
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public long getTargetLatencyMillis() {
+            return targetLatencyMillis;
+        }
+
+        public void setTargetLatencyMillis(long targetLatencyMillis) {
+            this.targetLatencyMillis = targetLatencyMillis;
+        }
+
+        public int getWaitingRoomSize() {
+            return waitingRoomSize;
+        }
+
+        public void setWaitingRoomSize(int waitingRoomSize) {
+            this.waitingRoomSize = waitingRoomSize;
+        }
+
+        public long getMaxWaitMillis() {
+            return maxWaitMillis;
+        }
+
+        public void setMaxWaitMillis(long maxWaitMillis) {
+            this.maxWaitMillis = maxWaitMillis;
+        }
+
+        public long getMaxRetryAfterMillis() {
+            return maxRetryAfterMillis;
+        }
+
+        public void setMaxRetryAfterMillis(long maxRetryAfterMillis) {
+            this.maxRetryAfterMillis = maxRetryAfterMillis;
+        }
+    }
+}
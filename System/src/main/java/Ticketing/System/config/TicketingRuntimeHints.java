@@ -0,0 +1,22 @@
+package Ticketing.System.config;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+/**
+ * Registers what a native image cannot find out on its own: the run manifest, which Gson reads
+ * and writes by reflection, and the schema migrations, which Flyway looks up per database.
+ */
+public class TicketingRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.reflection().registerType(TypeReference.of("Ticketing.System.service.RunManifest"),
+                MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        hints.reflection().registerType(TypeReference.of("Ticketing.System.service.InventoryMode"),
+                MemberCategory.DECLARED_FIELDS);
+        hints.resources().registerPattern("db/migration/*/*.sql");
+    }
+}
@@ -1,97 +1,433 @@
 package Ticketing.System.controller;
 
+import Ticketing.System.dto.HeadlessSimulationDTO;
+import Ticketing.System.dto.HeadlessSimulationReport;
+import Ticketing.System.dto.HoldRequestDTO;
+import Ticketing.System.dto.PurchaseRequestDTO;
 import Ticketing.System.dto.SimulationConfigDTO;
+import Ticketing.System.service.CustomerWaitStats;
+import Ticketing.System.service.HeadlessSimulationService;
+import Ticketing.System.service.HoldConflictException;
+import Ticketing.System.service.PurchaseResult;
+import Ticketing.System.service.SalesStatsService;
+import Ticketing.System.service.SimulationEventBroadcaster;
+import Ticketing.System.service.SimulationRegistry;
+import Ticketing.System.service.TicketHold;
 import Ticketing.System.service.TicketService;
+import Ticketing.System.util.TransactionLogReader;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * REST endpoints for configuring, running and observing simulations.
+ * Every operation is available per simulation under /api/simulation/{simulationId}/...;
+ * the original endpoints without an ID operate on the "default" simulation.
+ */
 @CrossOrigin(origins = "http://localhost:5173/") // Allow Cross-Origin requests from the specified origin
 @RestController  // Marks this class as a RESTful controller
 @RequestMapping("/api/simulation") // Base path for all endpoints in this controller
 public class SimulationController {
 
-    private final TicketService ticketService; // Dependency for handling ticket-related operations
+    private static final String DEFAULT = SimulationRegistry.DEFAULT_SIMULATION_ID;
 
-    // Constructor injection for TicketService
-    public SimulationController(TicketService ticketService) {
-        this.ticketService = ticketService;
+    private final SimulationRegistry simulationRegistry; // Registry of all simulations on this node
+    private final SimulationEventBroadcaster eventBroadcaster; // Pushes pool state to subscribed dashboards
+    private final HeadlessSimulationService headlessSimulationService; // Runs simulations on a virtual clock
+    private final SalesStatsService salesStatsService; // Serves the cached sales aggregates
+
+    // Constructor injection for the registry, the broadcaster, the headless simulation service and the sales stats
+    public SimulationController(SimulationRegistry simulationRegistry, SimulationEventBroadcaster eventBroadcaster,
+                                HeadlessSimulationService headlessSimulationService,
+                                SalesStatsService salesStatsService) {
+        this.simulationRegistry = simulationRegistry;
+        this.eventBroadcaster = eventBroadcaster;
+        this.headlessSimulationService = headlessSimulationService;
+        this.salesStatsService = salesStatsService;
+    }
+
+    /**
+     * Lists the simulations known to this node.
+     *
+     * @return The ID, state, failure and remaining tickets of each simulation
+     */
+    @GetMapping
+    public List<Map<String, Object>> getSimulations() {
+        return simulationRegistry.getSimulations().stream()
+                .map(simulation -> Map.<String, Object>of(
+                        "simulationId", simulation.getSimulationId(),
+                        "running", simulation.isSimulationRunning(),
+                        "failed", simulation.getFailure() != null,
+                        "remainingTickets", simulation.getRemainingTickets()))
+                .toList();
     }
 
     /**
      * Sets the total number of vendors for the simulation.
      *
-     * @param vendorTotal The total number of vendors
-     * @return A confirmation message
+     * @param simulationId The simulation ID
+     * @param vendorTotal  The total number of vendors
+     * @return A confirmation message, or a 409 response while the simulation is running
      */
+    @PostMapping("/{simulationId}/setVendorTotal")
+    public String setVendorTotal(@PathVariable String simulationId, @RequestBody int vendorTotal) {
+        simulationRegistry.getOrCreate(simulationId).setVendorTotal(vendorTotal);
+        return "Vendor total set to: " + vendorTotal;
+    }
+
     @PostMapping("/setVendorTotal")
     public String setVendorTotal(@RequestBody int vendorTotal) {
-        ticketService.setVendorTotal(vendorTotal);
-        return "Vendor total set to: " + vendorTotal;
+        return setVendorTotal(DEFAULT, vendorTotal);
     }
 
     /**
      * Sets the total number of customers for the simulation.
      *
+     * @param simulationId  The simulation ID
      * @param customerTotal The total number of customers
-     * @return A confirmation message
+     * @return A confirmation message, or a 409 response while the simulation is running
      */
+    @PostMapping("/{simulationId}/setCustomerTotal")
+    public String setCustomerTotal(@PathVariable String simulationId, @RequestBody int customerTotal) {
+        simulationRegistry.getOrCreate(simulationId).setCustomerTotal(customerTotal);
+        return "Customer total set to: " + customerTotal;
+    }
+
     @PostMapping("/setCustomerTotal")
     public String setCustomerTotal(@RequestBody int customerTotal) {
-        ticketService.setCustomerTotal(customerTotal);
-        return "Customer total set to: " + customerTotal;
+        return setCustomerTotal(DEFAULT, customerTotal);
     }
 
     /**
      * Starts the simulation with the provided configuration.
      *
-     * @param config The simulation configuration (release rate, retrieval rate, and max capacity)
-     * @return A confirmation message
+     * @param simulationId The simulation ID
+     * @param config       The simulation configuration (release rate, retrieval rate, max capacity, sections and rate profile)
+     * @return A confirmation message, or a 409 response if the simulation is already running
      */
+    @PostMapping("/{simulationId}/start")
+    public String startSimulation(@PathVariable String simulationId, @RequestBody SimulationConfigDTO config) {
+        simulationRegistry.start(simulationId, config); // Applied only if the simulation is not running
+        return "Simulation started!";
+    }
 
     @PostMapping("/start")
     public String startSimulation(@RequestBody SimulationConfigDTO config) {
-        ticketService.setSimulationConfig(config.getTicketReleaseRate(),
-                config.getTicketRetrievalRate(), config.getMaxTicketCapacity());
-        ticketService.simulateVendorsAndCustomers();
-        return "Simulation started!";
+        return startSimulation(DEFAULT, config);
+    }
+
+    /**
+     * Runs a simulation on a virtual clock, as fast as the CPU allows, and returns its summary.
+     * Nothing is written to the database or the transaction log.
+     *
+     * @param config The simulation configuration, including the vendor and customer totals
+     * @return The report with sell-out time, customer fairness and the pool-depth timeline
+     */
+    @PostMapping("/headless")
+    public HeadlessSimulationReport runHeadless(@RequestBody HeadlessSimulationDTO config) {
+        return headlessSimulationService.run(config);
     }
 
     /**
      * Stops the running simulation.
      *
+     * @param simulationId The simulation ID
      * @return A confirmation message
      */
+    @PostMapping("/{simulationId}/stop")
+    public String stopSimulation(@PathVariable String simulationId) {
+        simulationRegistry.get(simulationId).stopSimulation();
+        return "Simulation stopped!";
+    }
+
     @PostMapping("/stop")
     public String stopSimulation() {
-        ticketService.stopSimulation();
-        return "Simulation stopped!";
+        return stopSimulation(DEFAULT);
     }
 
     /**
      * Retrieves the remaining tickets in the simulation.
      *
+     * @param simulationId The simulation ID
      * @return A map containing the count of remaining tickets
      */
+    @GetMapping("/{simulationId}/tickets")
+    public Map<String, Integer> getRemainingTickets(@PathVariable String simulationId) {
+        return Map.of("remainingTickets", simulationRegistry.get(simulationId).getRemainingTickets());
+    }
+
     @GetMapping("/tickets")
     public Map<String, Integer> getRemainingTickets() {
-        return Map.of("remainingTickets", ticketService.getRemainingTickets());
+        return getRemainingTickets(DEFAULT);
+    }
+
+    /**
+     * Lists the inventory of each section of the simulation, read from the sections' own counters.
+     *
+     * @param simulationId The simulation ID
+     * @return The capacity and the issued, claimed and remaining tickets of each section
+     */
+    @GetMapping("/{simulationId}/sections")
+    public List<Map<String, Object>> getSections(@PathVariable String simulationId) {
+        return simulationRegistry.get(simulationId).getSectionStats();
+    }
+
+    @GetMapping("/sections")
+    public List<Map<String, Object>> getSections() {
+        return getSections(DEFAULT);
+    }
+
+    /**
+     * Retrieves the remaining tickets in one section of the simulation.
+     *
+     * @param simulationId The simulation ID
+     * @param section      The section number, starting at 1
+     * @return A map containing the count of remaining tickets in the section
+     */
+    @GetMapping("/{simulationId}/sections/{section}/tickets")
+    public Map<String, Integer> getRemainingTickets(@PathVariable String simulationId, @PathVariable int section) {
+        return Map.of("remainingTickets", simulationRegistry.get(simulationId).getRemainingTickets(section));
+    }
+
+    /**
+     * Buys tickets of the customer's section at once, for clients outside the simulation
+     * such as load generators. A purchase never waits for tickets to be released. Purchases
+     * that find no tickets get a 409, and those shed by admission control a 503; both carry
+     * a Retry-After header and "retryAfterMillis" when retrying may succeed, and status
+     * SOLD_OUT when it cannot.
+     *
+     * @param simulationId The simulation ID
+     * @param request      The customer and the most tickets to buy
+     * @return The outcome, the tickets bought and the tickets left
+     */
+    @PostMapping("/{simulationId}/purchase")
+    public ResponseEntity<Map<String, Object>> purchaseTickets(@PathVariable String simulationId,
+                                                               @RequestBody PurchaseRequestDTO request) {
+        TicketService simulation = simulationRegistry.get(simulationId);
+        PurchaseResult result = simulation.purchaseTickets(request.getCustomerId(), request.getTickets());
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", result.getStatus());
+        body.put("purchasedTickets", result.getTickets());
+        body.put("remainingTickets", simulation.getRemainingTickets());
+        // Sold out, not yet released and shed are expected answers under load, so no exception is raised for them
+        HttpStatus status = result.getStatus() == PurchaseResult.Status.PURCHASED ? HttpStatus.OK
+                : result.getStatus() == PurchaseResult.Status.SHED ? HttpStatus.SERVICE_UNAVAILABLE
+                : HttpStatus.CONFLICT;
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status);
+        if (result.getRetryAfterMillis() > 0) {
+            body.put("retryAfterMillis", result.getRetryAfterMillis());
+            response.header(HttpHeaders.RETRY_AFTER, String.valueOf((result.getRetryAfterMillis() + 999) / 1000));
+        }
+        return response.body(body);
+    }
+
+    @PostMapping("/purchase")
+    public ResponseEntity<Map<String, Object>> purchaseTickets(@RequestBody PurchaseRequestDTO request) {
+        return purchaseTickets(DEFAULT, request);
+    }
+
+    /**
+     * Holds tickets of the customer's section until the hold is confirmed or released,
+     * or until it expires and the tickets go back into the pool.
+     *
+     * @param simulationId The simulation ID
+     * @param request      The customer, the most tickets to hold and the hold's TTL
+     * @return The placed hold, or a 409 response if no tickets can be held now
+     */
+    @PostMapping("/{simulationId}/holds")
+    public ResponseEntity<TicketHold> placeHold(@PathVariable String simulationId, @RequestBody HoldRequestDTO request) {
+        TicketHold hold = simulationRegistry.get(simulationId)
+                .holdTickets(request.getCustomerId(), request.getTickets(), request.getTtlMillis());
+        if (hold == null) {
+            throw new HoldConflictException("No tickets available to hold in simulation " + simulationId);
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(hold);
     }
 
     /**
-     * Endpoint to fetch transaction logs from the JSON file.
+     * Buys the tickets of a hold.
      *
-     * @return The content of the transaction logs as JSON.
-     * @throws IOException If an error occurs while reading the file
+     * @param simulationId The simulation ID
+     * @param holdId       The hold ID
+     * @return The confirmed hold, or a 409 response if the hold has expired or ended
      */
+    @PostMapping("/{simulationId}/holds/{holdId}/confirm")
+    public TicketHold confirmHold(@PathVariable String simulationId, @PathVariable long holdId) {
+        return outstanding(simulationRegistry.get(simulationId).confirmHold(holdId), holdId);
+    }
+
+    /**
+     * Gives the tickets of a hold back to the pool.
+     *
+     * @param simulationId The simulation ID
+     * @param holdId       The hold ID
+     * @return The released hold, or a 409 response if the hold has expired or ended
+     */
+    @DeleteMapping("/{simulationId}/holds/{holdId}")
+    public TicketHold releaseHold(@PathVariable String simulationId, @PathVariable long holdId) {
+        return outstanding(simulationRegistry.get(simulationId).releaseHold(holdId), holdId);
+    }
+
+    private static TicketHold outstanding(TicketHold hold, long holdId) {
+        if (hold == null) {
+            throw new HoldConflictException("Hold " + holdId + " has expired or already ended");
+        }
+        return hold;
+    }
+
+    /**
+     * Reports how fairly tickets were shared among the customers of the simulation:
+     * a summary with Jain's fairness index and wait percentiles, plus per-customer
+     * tickets and waits for a page of customers.
+     *
+     * @param simulationId The simulation ID
+     * @param offset       Number of customers to skip
+     * @param limit        Maximum number of customers to list
+     * @return The summary and the per-customer statistics
+     */
+    @GetMapping("/{simulationId}/customers")
+    public Map<String, Object> getCustomerWaitStats(@PathVariable String simulationId,
+                                                    @RequestParam(defaultValue = "0") int offset,
+                                                    @RequestParam(defaultValue = "100") int limit) {
+        CustomerWaitStats waitStats = simulationRegistry.get(simulationId).getCustomerWaitStats();
+        Map<String, Object> response = new LinkedHashMap<>(waitStats.summary());
+        response.put("customerStats", waitStats.customers(offset, limit));
+        return response;
+    }
+
+    @GetMapping("/customers")
+    public Map<String, Object> getCustomerWaitStats(@RequestParam(defaultValue = "0") int offset,
+                                                    @RequestParam(defaultValue = "100") int limit) {
+        return getCustomerWaitStats(DEFAULT, offset, limit);
+    }
+
+    /**
+     * Reports the sales of the simulation's current or last run: ticket totals, sell-through
+     * rate, sales per second and a histogram of tickets released and sold over time.
+     * Served from in-memory aggregates and cached briefly, so dashboards can poll it freely.
+     *
+     * @param simulationId The simulation ID
+     * @return The sales summary and histogram
+     */
+    @GetMapping("/{simulationId}/stats")
+    public Map<String, Object> getSalesStats(@PathVariable String simulationId) {
+        return salesStatsService.summary(simulationId);
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Object> getSalesStats() {
+        return getSalesStats(DEFAULT);
+    }
+
+    /**
+     * Lists the tickets released by each vendor of the simulation.
+     *
+     * @param simulationId The simulation ID
+     * @param offset       Number of vendors to skip
+     * @param limit        Maximum number of vendors to list, at most 1000
+     * @return The tickets of each vendor
+     */
+    @GetMapping("/{simulationId}/stats/vendors")
+    public List<Map<String, Object>> getVendorSales(@PathVariable String simulationId,
+                                                    @RequestParam(defaultValue = "0") int offset,
+                                                    @RequestParam(defaultValue = "100") int limit) {
+        return salesStatsService.vendors(simulationId, offset, limit);
+    }
+
+    @GetMapping("/stats/vendors")
+    public List<Map<String, Object>> getVendorSales(@RequestParam(defaultValue = "0") int offset,
+                                                    @RequestParam(defaultValue = "100") int limit) {
+        return getVendorSales(DEFAULT, offset, limit);
+    }
+
+    /**
+     * Lists the customers of the simulation that bought the most tickets.
+     *
+     * @param simulationId The simulation ID
+     * @param limit        Maximum number of customers to list, at most 1000
+     * @return The top customers and their tickets, most tickets first
+     */
+    @GetMapping("/{simulationId}/stats/top-customers")
+    public List<Map<String, Object>> getTopCustomers(@PathVariable String simulationId,
+                                                     @RequestParam(defaultValue = "10") int limit) {
+        return salesStatsService.topCustomers(simulationId, limit);
+    }
+
+    @GetMapping("/stats/top-customers")
+    public List<Map<String, Object>> getTopCustomers(@RequestParam(defaultValue = "10") int limit) {
+        return getTopCustomers(DEFAULT, limit);
+    }
+
+    /**
+     * Streams the pool state of the simulation as server-sent "pool" events, replacing
+     * polling of /tickets. A frame is pushed at most once per tick and only when the
+     * state changed; it carries the running totals and the tickets added and retrieved
+     * since the previous frame.
+     *
+     * @param simulationId The simulation ID
+     * @return The event stream
+     */
+    @GetMapping(path = "/{simulationId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPoolState(@PathVariable String simulationId) {
+        simulationRegistry.get(simulationId);
+        return eventBroadcaster.subscribe(simulationId);
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPoolState() {
+        return streamPoolState(DEFAULT);
+    }
+
+    /**
+     * Endpoint to fetch transaction logs, streamed from the log segments.
+     * Every event carries a "seq" number; passing the last one received as "after"
+     * returns the next page, and polling with it tails the log.
+     *
+     * @param simulationId The simulation ID
+     * @param after        Only events with a sequence number greater than this are returned.
+     * @param offset       Number of matching events to skip.
+     * @param limit        Maximum number of events to return (0 for no limit).
+     * @param actionType   Optional filter on the action type (ADD or RETRIEVE).
+     * @param entityName   Optional filter on the entity name (for example Vendor-3).
+     * @return The matching transaction log events as a JSON array.
+     */
+    @GetMapping("/{simulationId}/transactions")
+    public ResponseEntity<StreamingResponseBody> getTransactions(@PathVariable String simulationId,
+                                                                 @RequestParam(defaultValue = "0") long after,
+                                                                 @RequestParam(defaultValue = "0") long offset,
+                                                                 @RequestParam(defaultValue = "0") int limit,
+                                                                 @RequestParam(required = false) String actionType,
+                                                                 @RequestParam(required = false) String entityName) {
+        TransactionLogReader reader = simulationRegistry.get(simulationId).getTransactionLogReader();
+        StreamingResponseBody body = out -> reader.writeJsonArray(after, offset, limit, actionType, entityName, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
     @GetMapping("/transactions")
-    public ResponseEntity<String> getTransactions() throws IOException {
-        String filePath = "C:/Users/HKCS/OneDrive/Desktop/OOP SD2 CW/System/transaction_logs.json";
-        String content = new String(Files.readAllBytes(Paths.get(filePath)));
-        return ResponseEntity.ok(content);
+    public ResponseEntity<StreamingResponseBody> getTransactions(@RequestParam(defaultValue = "0") long after,
+                                                                 @RequestParam(defaultValue = "0") long offset,
+                                                                 @RequestParam(defaultValue = "0") int limit,
+                                                                 @RequestParam(required = false) String actionType,
+                                                                 @RequestParam(required = false) String entityName) {
+        return getTransactions(DEFAULT, after, offset, limit, actionType, entityName);
+    }
+
+    /**
+     * Rejects malformed simulation IDs and configuration values.
+     *
+     * @param e The exception raised by the registry
+     * @return A 400 response carrying the error message
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
     }
 }
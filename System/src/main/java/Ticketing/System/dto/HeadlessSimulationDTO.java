@@ -0,0 +1,57 @@
+package Ticketing.System.dto;
+
+/**
+ * Data Transfer Object (DTO) for a headless simulation run.
+ * Extends the regular simulation configuration with the actor totals and the
+ * options of the virtual-clock engine.
+ */
+
+public class HeadlessSimulationDTO extends SimulationConfigDTO {
+
+    private int vendorTotal;          // Number of vendors releasing tickets
+    private int customerTotal;        // Number of customers retrieving tickets
+    private long seed = 1;            // Seed for interval jitter, so runs are repeatable
+    private boolean recordTickets;    // Keep an in-memory ledger of release and claim times for wait statistics
+    private int timelinePoints = 100; // Approximate number of points in the pool-depth timeline
+
+    // Getters and setters for the fields to access and modify the run options.
+    public int getVendorTotal() {
+        return vendorTotal;
+    }
+
+    public void setVendorTotal(int vendorTotal) {
+        this.vendorTotal = vendorTotal;
+    }
+
+    public int getCustomerTotal() {
+        return customerTotal;
+    }
+
+    public void setCustomerTotal(int customerTotal) {
+        this.customerTotal = customerTotal;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public boolean isRecordTickets() {
+        return recordTickets;
+    }
+
+    public void setRecordTickets(boolean recordTickets) {
+        this.recordTickets = recordTickets;
+    }
+
+    public int getTimelinePoints() {
+        return timelinePoints;
+    }
+
+    public void setTimelinePoints(int timelinePoints) {
+        this.timelinePoints = timelinePoints;
+    }
+}
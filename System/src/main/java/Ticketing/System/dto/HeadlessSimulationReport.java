@@ -0,0 +1,237 @@
+package Ticketing.System.dto;
+
+import java.util.List;
+
+/**
+ * Summary of a headless simulation run. Times are on the simulation's virtual
+ * clock unless stated otherwise.
+ */
+
+public class HeadlessSimulationReport {
+
+    private boolean soldOut;             // True if every ticket was retrieved
+    private long sellOutTimeMillis;      // Virtual time at which the last ticket was retrieved, or -1
+    private long simulatedTimeMillis;    // Virtual time at which the run ended
+    private int ticketsReleased;         // Tickets released by vendors
+    private int ticketsSold;             // Tickets retrieved by customers
+    private long eventsProcessed;        // Vendor and customer attempts simulated
+    private long wallClockMillis;        // Real time the run took
+    private Fairness customerFairness;   // How evenly tickets were spread over customers
+    private TicketWait ticketWait;       // Time tickets waited in the pool, or null if tickets were not recorded
+    private List<TimelinePoint> poolDepthTimeline; // Tickets in the pool over time
+
+    public boolean isSoldOut() {
+        return soldOut;
+    }
+
+    public void setSoldOut(boolean soldOut) {
+        this.soldOut = soldOut;
+    }
+
+    public long getSellOutTimeMillis() {
+        return sellOutTimeMillis;
+    }
+
+    public void setSellOutTimeMillis(long sellOutTimeMillis) {
+        this.sellOutTimeMillis = sellOutTimeMillis;
+    }
+
+    public long getSimulatedTimeMillis() {
+        return simulatedTimeMillis;
+    }
+
+    public void setSimulatedTimeMillis(long simulatedTimeMillis) {
+        this.simulatedTimeMillis = simulatedTimeMillis;
+    }
+
+    public int getTicketsReleased() {
+        return ticketsReleased;
+    }
+
+    public void setTicketsReleased(int ticketsReleased) {
+        this.ticketsReleased = ticketsReleased;
+    }
+
+    public int getTicketsSold() {
+        return ticketsSold;
+    }
+
+    public void setTicketsSold(int ticketsSold) {
+        this.ticketsSold = ticketsSold;
+    }
+
+    public long getEventsProcessed() {
+        return eventsProcessed;
+    }
+
+    public void setEventsProcessed(long eventsProcessed) {
+        this.eventsProcessed = eventsProcessed;
+    }
+
+    public long getWallClockMillis() {
+        return wallClockMillis;
+    }
+
+    public void setWallClockMillis(long wallClockMillis) {
+        this.wallClockMillis = wallClockMillis;
+    }
+
+    public Fairness getCustomerFairness() {
+        return customerFairness;
+    }
+
+    public void setCustomerFairness(Fairness customerFairness) {
+        this.customerFairness = customerFairness;
+    }
+
+    public TicketWait getTicketWait() {
+        return ticketWait;
+    }
+
+    public void setTicketWait(TicketWait ticketWait) {
+        this.ticketWait = ticketWait;
+    }
+
+    public List<TimelinePoint> getPoolDepthTimeline() {
+        return poolDepthTimeline;
+    }
+
+    public void setPoolDepthTimeline(List<TimelinePoint> poolDepthTimeline) {
+        this.poolDepthTimeline = poolDepthTimeline;
+    }
+
+    /**
+     * Distribution of retrieved tickets over customers.
+     */
+    public static class Fairness {
+
+        private int customers;          // Number of customers
+        private int customersServed;    // Customers that retrieved at least one ticket
+        private int minTickets;         // Fewest tickets retrieved by one customer
+        private int maxTickets;         // Most tickets retrieved by one customer
+        private double meanTickets;     // Average tickets per customer
+        private double jainIndex;       // Jain's fairness index: 1 when all customers got the same number of tickets
+        private double maxMeanWaitMillis; // Highest average ticket wait of a single customer, or 0 if not recorded
+
+        public int getCustomers() {
+            return customers;
+        }
+
+        public void setCustomers(int customers) {
+            this.customers = customers;
+        }
+
+        public int getCustomersServed() {
+            return customersServed;
+        }
+
+        public void setCustomersServed(int customersServed) {
+            this.customersServed = customersServed;
+        }
+
+        public int getMinTickets() {
+            return minTickets;
+        }
+
+        public void setMinTickets(int minTickets) {
+            this.minTickets = minTickets;
+        }
+
+        public int getMaxTickets() {
+            return maxTickets;
+        }
+
+        public void setMaxTickets(int maxTickets) {
+            this.maxTickets = maxTickets;
+        }
+
+        public double getMeanTickets() {
+            return meanTickets;
+        }
+
+        public void setMeanTickets(double meanTickets) {
+            this.meanTickets = meanTickets;
+        }
+
+        public double getJainIndex() {
+            return jainIndex;
+        }
+
+        public void setJainIndex(double jainIndex) {
+            this.jainIndex = jainIndex;
+        }
+
+        public double getMaxMeanWaitMillis() {
+            return maxMeanWaitMillis;
+        }
+
+        public void setMaxMeanWaitMillis(double maxMeanWaitMillis) {
+            this.maxMeanWaitMillis = maxMeanWaitMillis;
+        }
+    }
+
+    /**
+     * Time from a ticket being released to a customer retrieving it.
+     */
+    public static class TicketWait {
+
+        private double p50Millis;  // Median wait
+        private double p99Millis;  // 99th percentile wait
+        private double p999Millis; // 99.9th percentile wait
+        private double maxMillis;  // Longest wait
+
+        public double getP50Millis() {
+            return p50Millis;
+        }
+
+        public void setP50Millis(double p50Millis) {
+            this.p50Millis = p50Millis;
+        }
+
+        public double getP99Millis() {
+            return p99Millis;
+        }
+
+        public void setP99Millis(double p99Millis) {
+            this.p99Millis = p99Millis;
+        }
+
+        public double getP999Millis() {
+            return p999Millis;
+        }
+
+        public void setP999Millis(double p999Millis) {
+            this.p999Millis = p999Millis;
+        }
+
+        public double getMaxMillis() {
+            return maxMillis;
+        }
+
+        public void setMaxMillis(double maxMillis) {
+            this.maxMillis = maxMillis;
+        }
+    }
+
+    /**
+     * Pool depth at one point in virtual time.
+     */
+    public static class TimelinePoint {
+
+        private final long timeMillis; // Virtual time
+        private final int poolDepth;   // Tickets in the pool
+
+        public TimelinePoint(long timeMillis, int poolDepth) {
+            this.timeMillis = timeMillis;
+            this.poolDepth = poolDepth;
+        }
+
+        public long getTimeMillis() {
+            return timeMillis;
+        }
+
+        public int getPoolDepth() {
+            return poolDepth;
+        }
+    }
+}
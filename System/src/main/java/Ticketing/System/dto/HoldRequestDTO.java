@@ -0,0 +1,39 @@
+package Ticketing.System.dto;
+
+/**
+ * Data Transfer Object (DTO) for placing a ticket hold.
+ * The tickets are taken from the customer's section and reserved until the hold
+ * is confirmed, released or expires.
+ */
+
+public class HoldRequestDTO {
+
+    private int customerId;  // Customer placing the hold
+    private int tickets = 4; // Most tickets to hold
+    private long ttlMillis;  // How long the hold lasts; 0 for the configured default
+
+    // Getters and setters for the fields to access and modify the hold request.
+    public int getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(int customerId) {
+        this.customerId = customerId;
+    }
+
+    public int getTickets() {
+        return tickets;
+    }
+
+    public void setTickets(int tickets) {
+        this.tickets = tickets;
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    public void setTtlMillis(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+}
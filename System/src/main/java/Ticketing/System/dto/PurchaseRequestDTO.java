@@ -0,0 +1,30 @@
+package Ticketing.System.dto;
+
+/**
+ * Data Transfer Object (DTO) for buying tickets through the REST API.
+ * The tickets are taken from the customer's section at once; nothing waits for tickets
+ * that have not been released yet.
+ */
+
+public class PurchaseRequestDTO {
+
+    private int customerId;  // Customer buying the tickets
+    private int tickets = 1; // Most tickets to buy
+
+    // Getters and setters for the fields to access and modify the purchase request.
+    public int getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(int customerId) {
+        this.customerId = customerId;
+    }
+
+    public int getTickets() {
+        return tickets;
+    }
+
+    public void setTickets(int tickets) {
+        this.tickets = tickets;
+    }
+}
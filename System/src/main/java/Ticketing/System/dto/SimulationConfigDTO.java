@@ -1,5 +1,6 @@
 package Ticketing.System.dto;
 
+import Ticketing.System.service.RateProfile;
 
 /**
  * Data Transfer Object (DTO) for simulation configuration.
@@ -12,6 +13,11 @@ public class SimulationConfigDTO {
     private int ticketReleaseRate;    // Time interval (in milliseconds) between ticket releases by vendors
     private int ticketRetrievalRate; // Time interval (in milliseconds) between ticket retrieval by customers
     private int maxTicketCapacity;   // Maximum number of tickets the system can hold
+    private int sections = 1;        // Number of sections the event's tickets are split into
+    private RateProfile rateProfile = RateProfile.STEADY; // Load shape of the customers (STEADY or FLASH_SALE)
+    private int jitterPercent;       // How much each vendor and customer interval may randomly vary, in percent
+    private int burstMultiplier = 10; // How many times faster customers retrieve during a flash-sale spike
+    private long burstDurationMillis = 5000; // How long a flash-sale spike lasts
 
     // Getters and setters for the fields to access and modify the configuration parameters.
     public int getTicketReleaseRate() {
@@ -37,6 +43,46 @@ public class SimulationConfigDTO {
     public void setMaxTicketCapacity(int maxTicketCapacity) {
         this.maxTicketCapacity = maxTicketCapacity;
     }
+
+    public int getSections() {
+        return sections;
+    }
+
+    public void setSections(int sections) {
+        this.sections = sections;
+    }
+
+    public RateProfile getRateProfile() {
+        return rateProfile;
+    }
+
+    public void setRateProfile(RateProfile rateProfile) {
+        this.rateProfile = rateProfile;
+    }
+
+    public int getJitterPercent() {
+        return jitterPercent;
+    }
+
+    public void setJitterPercent(int jitterPercent) {
+        this.jitterPercent = jitterPercent;
+    }
+
+    public int getBurstMultiplier() {
+        return burstMultiplier;
+    }
+
+    public void setBurstMultiplier(int burstMultiplier) {
+        this.burstMultiplier = burstMultiplier;
+    }
+
+    public long getBurstDurationMillis() {
+        return burstDurationMillis;
+    }
+
+    public void setBurstDurationMillis(long burstDurationMillis) {
+        this.burstDurationMillis = burstDurationMillis;
+    }
 }
 
 
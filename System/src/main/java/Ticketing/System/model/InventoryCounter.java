@@ -0,0 +1,81 @@
+package Ticketing.System.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
+
+/**
+ * Shared capacity counter of one section of an event in distributed inventory mode.
+ * Nodes lease ticket positions by advancing nextPosition; the version column makes
+ * concurrent advances from different nodes fail and retry instead of overlapping.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_inventory_section", columnNames = {"simulation_id", "section"}))
+public class InventoryCounter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long counterId; // Unique counter ID
+    private String simulationId; // Simulation (event) the capacity belongs to
+    private int section; // Section of the event, starting at 1
+    private int sectionTotal; // Number of sections the event was created with
+    private int eventCapacity; // Capacity of the whole event it was created with
+    private int capacity; // Ticket positions of this section
+    private int nextPosition; // First position not yet leased to any node
+    @Version
+    private Long version; // Optimistic lock against concurrent leases
+
+    // No-argument constructor for JPA
+    public InventoryCounter() {}
+
+    // Constructor to initialize the counter of a new section with nothing leased
+    public InventoryCounter(String simulationId, int section, int sectionTotal, int eventCapacity, int capacity) {
+        this.simulationId = simulationId;
+        this.section = section;
+        this.sectionTotal = sectionTotal;
+        this.eventCapacity = eventCapacity;
+        this.capacity = capacity;
+        this.nextPosition = 1;
+    }
+
+    // Getters and Setters
+    public Long getCounterId() {
+        return counterId;
+    }
+
+    public String getSimulationId() {
+        return simulationId;
+    }
+
+    public int getSection() {
+        return section;
+    }
+
+    public int getSectionTotal() {
+        return sectionTotal;
+    }
+
+    public int getEventCapacity() {
+        return eventCapacity;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getNextPosition() {
+        return nextPosition;
+    }
+
+    public void setNextPosition(int nextPosition) {
+        this.nextPosition = nextPosition;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,79 @@
+package Ticketing.System.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+
+/**
+ * A block of ticket positions of one section, held by a node in distributed inventory mode.
+ * A node sells only positions from its own leases. Positions a node gives back are
+ * kept as a lease without a node, which the next node in need takes over.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_lease_holder", columnList = "simulation_id, section, node_id")) // Finds free leases without a scan
+public class InventoryLease {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long leaseId; // Unique lease ID
+    private String simulationId; // Simulation (event) the positions belong to
+    private int section; // Section of the event, starting at 1
+    private String nodeId; // Node holding the lease (null while the positions are free)
+    private int firstPosition; // First position of the block
+    private int lastPosition; // Last position of the block, inclusive
+    @Version
+    private Long version; // Optimistic lock so a free lease is taken over by one node only
+
+    // No-argument constructor for JPA
+    public InventoryLease() {}
+
+    // Constructor to initialize a lease of a block of positions
+    public InventoryLease(String simulationId, int section, String nodeId, int firstPosition, int lastPosition) {
+        this.simulationId = simulationId;
+        this.section = section;
+        this.nodeId = nodeId;
+        this.firstPosition = firstPosition;
+        this.lastPosition = lastPosition;
+    }
+
+    // Getters and Setters
+    public Long getLeaseId() {
+        return leaseId;
+    }
+
+    public String getSimulationId() {
+        return simulationId;
+    }
+
+    public int getSection() {
+        return section;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public int getFirstPosition() {
+        return firstPosition;
+    }
+
+    public int getLastPosition() {
+        return lastPosition;
+    }
+
+    public void setLastPosition(int lastPosition) {
+        this.lastPosition = lastPosition;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+}
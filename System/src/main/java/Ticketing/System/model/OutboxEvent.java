@@ -0,0 +1,131 @@
+package Ticketing.System.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+/**
+ * A ticket release or claim waiting to be relayed to the transaction log and other subscribers.
+ * Outbox events are written in the same transaction as the ticket records they describe,
+ * so the log never shows a change the database does not have, and deleted once relayed.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_outbox_relay", columnList = "simulation_id, node_id, sequence")) // Relays each run in order without a scan
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")  // Pooled IDs keep inserts batchable
+    @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_event_seq", allocationSize = 50)
+    private Long eventId;  // Unique event ID
+    private String simulationId; // Simulation (event) the tickets belong to
+    private String nodeId; // Node that sold the tickets and relays the event
+    private long sequence; // Sequence number of the event in the run's transaction log
+    private String actionType; // ADD for released tickets, RETRIEVE for claimed tickets
+    private String entityType; // Vendor or Customer
+    private long entityId; // ID of the vendor or customer
+    private int section = 1; // Section of the event the tickets belong to, starting at 1
+    private int ticketCount; // Number of tickets released or claimed
+    private int remainingTickets; // Tickets left in the section's pool afterwards
+
+    // No-argument constructor for JPA
+    public OutboxEvent() {}
+
+    // Constructor to initialize an event of a run
+    public OutboxEvent(String simulationId, String nodeId, long sequence, String actionType, String entityType,
+                       long entityId, int section, int ticketCount, int remainingTickets) {
+        this.simulationId = simulationId;
+        this.nodeId = nodeId;
+        this.sequence = sequence;
+        this.actionType = actionType;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.section = section;
+        this.ticketCount = ticketCount;
+        this.remainingTickets = remainingTickets;
+    }
+
+    // Getters and Setters
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(Long eventId) {
+        this.eventId = eventId;
+    }
+
+    public String getSimulationId() {
+        return simulationId;
+    }
+
+    public void setSimulationId(String simulationId) {
+        this.simulationId = simulationId;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public String getActionType() {
+        return actionType;
+    }
+
+    public void setActionType(String actionType) {
+        this.actionType = actionType;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(String entityType) {
+        this.entityType = entityType;
+    }
+
+    public long getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(long entityId) {
+        this.entityId = entityId;
+    }
+
+    public int getSection() {
+        return section;
+    }
+
+    public void setSection(int section) {
+        this.section = section;
+    }
+
+    public int getTicketCount() {
+        return ticketCount;
+    }
+
+    public void setTicketCount(int ticketCount) {
+        this.ticketCount = ticketCount;
+    }
+
+    public int getRemainingTickets() {
+        return remainingTickets;
+    }
+
+    public void setRemainingTickets(int remainingTickets) {
+        this.remainingTickets = remainingTickets;
+    }
+}
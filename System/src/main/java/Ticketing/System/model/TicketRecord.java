@@ -4,13 +4,21 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 
 @Entity
+@Table(indexes = @Index(name = "idx_ticket_claim", columnList = "simulation_id, section, node_id, customer_id, vendor_id, ticket_id")) // Finds unclaimed tickets of a section without a scan
 public class TicketRecord {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)  // Auto-generate ticketId for each record
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ticket_record_seq")  // Pooled IDs keep inserts batchable
+    @SequenceGenerator(name = "ticket_record_seq", sequenceName = "ticket_record_seq", allocationSize = 50)
     private Long ticketId;  // Unique ticket ID
+    private String simulationId; // Simulation (event) the ticket was released in
+    private int section = 1; // Section of the event the ticket belongs to, starting at 1
+    private String nodeId; // Node that sold the ticket
     private Long vendorId;  // Vendor who added the ticket
     private Long customerId; // Customer who retrieved the ticket (null initially)
 
@@ -23,6 +31,21 @@ public class TicketRecord {
         this.customerId = customerId;
     }
 
+    // Constructor to initialize ticket for a specific simulation
+    public TicketRecord(String simulationId, Long vendorId, Long customerId) {
+        this.simulationId = simulationId;
+        this.vendorId = vendorId;
+        this.customerId = customerId;
+    }
+
+    // Constructor to initialize ticket for a specific section of a simulation
+    public TicketRecord(String simulationId, int section, Long vendorId, Long customerId) {
+        this.simulationId = simulationId;
+        this.section = section;
+        this.vendorId = vendorId;
+        this.customerId = customerId;
+    }
+
     // Getters and Setters
     public Long getTicketId() {
         return ticketId;
@@ -32,6 +55,30 @@ public class TicketRecord {
         this.ticketId = ticketId;
     }
 
+    public String getSimulationId() {
+        return simulationId;
+    }
+
+    public void setSimulationId(String simulationId) {
+        this.simulationId = simulationId;
+    }
+
+    public int getSection() {
+        return section;
+    }
+
+    public void setSection(int section) {
+        this.section = section;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
     public Long getVendorId() {
         return vendorId;
     }
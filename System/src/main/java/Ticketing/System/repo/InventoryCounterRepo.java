@@ -0,0 +1,31 @@
+package Ticketing.System.repo;
+
+import Ticketing.System.model.InventoryCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface InventoryCounterRepo extends JpaRepository<InventoryCounter, Long> {
+
+    Optional<InventoryCounter> findBySimulationIdAndSection(String simulationId, int section);
+
+    /**
+     * Moves the first unleased position of a section, provided no other node has moved it
+     * since the counter was read at the given version.
+     *
+     * @param counterId    The ID of the counter.
+     * @param version      The version the counter was read at.
+     * @param nextPosition The new first unleased position.
+     * @return 1 if the counter was moved, 0 if another node got there first.
+     */
+    @Modifying
+    @Query("update InventoryCounter c set c.nextPosition = :nextPosition, c.version = c.version + 1"
+            + " where c.counterId = :counterId and c.version = :version")
+    int advance(@Param("counterId") Long counterId, @Param("version") Long version,
+                @Param("nextPosition") int nextPosition);
+}
@@ -0,0 +1,37 @@
+package Ticketing.System.repo;
+
+import Ticketing.System.model.InventoryLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface InventoryLeaseRepo extends JpaRepository<InventoryLease, Long> {
+
+    /**
+     * Finds a block of positions that a node gave back and nobody holds.
+     *
+     * @param simulationId The ID of the simulation the positions belong to.
+     * @param section      The section the positions belong to.
+     * @return The free lease with the lowest positions, if any.
+     */
+    Optional<InventoryLease> findFirstBySimulationIdAndSectionAndNodeIdIsNullOrderByFirstPosition(String simulationId,
+                                                                                                  int section);
+
+    /**
+     * Hands a free lease to a node, provided no other node has taken it since it was read at the given version.
+     *
+     * @param leaseId The ID of the lease.
+     * @param version The version the lease was read at.
+     * @param nodeId  The node taking the lease over.
+     * @return 1 if the node now holds the lease, 0 if another node got there first.
+     */
+    @Modifying
+    @Query("update InventoryLease l set l.nodeId = :nodeId, l.version = l.version + 1"
+            + " where l.leaseId = :leaseId and l.version = :version and l.nodeId is null")
+    int takeOver(@Param("leaseId") Long leaseId, @Param("version") Long version, @Param("nodeId") String nodeId);
+}
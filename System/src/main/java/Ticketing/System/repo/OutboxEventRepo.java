@@ -0,0 +1,49 @@
+package Ticketing.System.repo;
+
+import Ticketing.System.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepo extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Finds the oldest events of a run that have not been relayed yet, in log order.
+     * Answered from the relay index.
+     *
+     * @param simulationId The ID of the simulation the events belong to.
+     * @param nodeId       The node that wrote the events.
+     * @param page         The number of events to return.
+     * @return The events, lowest sequence number first.
+     */
+    List<OutboxEvent> findBySimulationIdAndNodeIdOrderBySequenceAsc(String simulationId, String nodeId, Pageable page);
+
+    /**
+     * Counts the events of a run that have not been relayed yet.
+     *
+     * @param simulationId The ID of the simulation the events belong to.
+     * @param nodeId       The node that wrote the events.
+     * @return The number of events.
+     */
+    long countBySimulationIdAndNodeId(String simulationId, String nodeId);
+
+    /**
+     * Deletes the events of a run up to a sequence number in one statement, once they have been relayed.
+     *
+     * @param simulationId The ID of the simulation the events belong to.
+     * @param nodeId       The node that wrote the events.
+     * @param sequence     The sequence number of the last relayed event.
+     * @return The number of events deleted.
+     */
+    @Modifying
+    @Query("delete from OutboxEvent e where e.simulationId = :simulationId and e.nodeId = :nodeId"
+            + " and e.sequence <= :sequence")
+    int deleteRelayed(@Param("simulationId") String simulationId, @Param("nodeId") String nodeId,
+                      @Param("sequence") long sequence);
+}
@@ -2,12 +2,56 @@ package Ticketing.System.repo;
 
 import Ticketing.System.model.TicketRecord;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface TicketRecordRepo extends JpaRepository<TicketRecord, Long> {
+public interface TicketRecordRepo extends JpaRepository<TicketRecord, Long>, TicketRecordRepoCustom {
 
-    // Custom method to find the first ticket added by a vendor (not yet retrieved by a customer)
-    TicketRecord findFirstByVendorIdNotNullAndCustomerIdNull();
-}
+    /**
+     * Counts the released tickets of one section that no customer has claimed.
+     * Answered from the claim index, so it never scans other events or sections.
+     *
+     * @param simulationId The ID of the simulation the tickets belong to.
+     * @param section      The section the tickets belong to.
+     * @return The number of unclaimed tickets.
+     */
+    long countBySimulationIdAndSectionAndCustomerIdIsNullAndVendorIdIsNotNull(String simulationId, int section);
+
+    /**
+     * Counts the tickets of one section that a node released.
+     *
+     * @param simulationId The ID of the simulation the tickets belong to.
+     * @param section      The section the tickets belong to.
+     * @param nodeId       The node that released the tickets.
+     * @return The number of released tickets.
+     */
+    long countBySimulationIdAndSectionAndNodeId(String simulationId, int section, String nodeId);
 
+    /**
+     * Counts the tickets of one section that a node released and customers claimed.
+     *
+     * @param simulationId The ID of the simulation the tickets belong to.
+     * @param section      The section the tickets belong to.
+     * @param nodeId       The node that released the tickets.
+     * @return The number of claimed tickets.
+     */
+    long countBySimulationIdAndSectionAndNodeIdAndCustomerIdIsNotNull(String simulationId, int section, String nodeId);
+
+    /**
+     * Moves the tickets of a simulation from one node ID to another, for example to a node
+     * that took over the run of a crashed node.
+     *
+     * @param simulationId   The ID of the simulation the tickets belong to.
+     * @param previousNodeId The node the tickets were stamped with.
+     * @param nodeId         The node to stamp them with.
+     * @return The number of tickets moved.
+     */
+    @Modifying
+    @Query("update TicketRecord t set t.nodeId = :nodeId where t.simulationId = :simulationId"
+            + " and t.nodeId = :previousNodeId")
+    int reassignNode(@Param("simulationId") String simulationId, @Param("previousNodeId") String previousNodeId,
+                     @Param("nodeId") String nodeId);
+}
@@ -0,0 +1,25 @@
+package Ticketing.System.repo;
+
+import java.util.List;
+
+/**
+ * Custom repository operations for TicketRecord that cannot be expressed as derived queries.
+ */
+public interface TicketRecordRepoCustom {
+
+    /**
+     * Assigns up to n unclaimed tickets that a node released in one section of a simulation to a customer
+     * in a single transaction. Claims stay within the node that released the tickets, so nodes sharing
+     * an event never take each other's rows.
+     * Rows locked by a concurrent claim are skipped rather than waited on, so
+     * two customers can never be handed the same ticket.
+     *
+     * @param simulationId The ID of the simulation the tickets belong to.
+     * @param section      The section the tickets belong to.
+     * @param nodeId       The node that released the tickets.
+     * @param customerId   The ID of the customer claiming the tickets.
+     * @param n            The maximum number of tickets to claim.
+     * @return The IDs of the tickets that were claimed.
+     */
+    List<Long> claimTickets(String simulationId, int section, String nodeId, long customerId, int n);
+}
@@ -0,0 +1,47 @@
+package Ticketing.System.repo;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.LockMode;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Implementation of the custom TicketRecord repository operations.
+ */
+public class TicketRecordRepoImpl implements TicketRecordRepoCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager; // Entity manager bound to the current transaction
+
+    @Override
+    @Transactional
+    public List<Long> claimTickets(String simulationId, int section, String nodeId, long customerId, int n) {
+        if (n <= 0) {
+            return List.of();
+        }
+
+        // Lock the oldest unclaimed rows, skipping rows another claim already holds (FOR UPDATE SKIP LOCKED)
+        List<Long> ticketIds = entityManager.unwrap(Session.class).createSelectionQuery(
+                        "select t.ticketId from TicketRecord t"
+                                + " where t.simulationId = :simulationId and t.section = :section and t.nodeId = :nodeId"
+                                + " and t.customerId is null and t.vendorId is not null"
+                                + " order by t.ticketId", Long.class)
+                .setParameter("simulationId", simulationId)
+                .setParameter("section", section)
+                .setParameter("nodeId", nodeId)
+                .setMaxResults(n)
+                .setHibernateLockMode(LockMode.UPGRADE_SKIPLOCKED)
+                .getResultList();
+
+        if (!ticketIds.isEmpty()) {
+            entityManager.createQuery("update TicketRecord t set t.customerId = :customerId where t.ticketId in :ticketIds")
+                    .setParameter("customerId", customerId)
+                    .setParameter("ticketIds", ticketIds)
+                    .executeUpdate();
+        }
+        return ticketIds;
+    }
+}
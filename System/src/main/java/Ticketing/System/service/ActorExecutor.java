@@ -0,0 +1,22 @@
+package Ticketing.System.service;
+
+import java.util.List;
+
+/**
+ * Runs the vendor and customer actors of a simulation.
+ */
+interface ActorExecutor {
+
+    /**
+     * Starts all actors.
+     *
+     * @param vendors   The vendors to run.
+     * @param customers The customers to run.
+     */
+    void start(List<Vendor> vendors, List<Customer> customers);
+
+    /**
+     * Stops all actors and waits until none of them is running any more.
+     */
+    void stop();
+}
@@ -0,0 +1,94 @@
+package Ticketing.System.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+/**
+ * Paces the attempts of vendors or customers at their configured rate.
+ * Each actor keeps a theoretical deadline that advances by one interval per attempt,
+ * so rates do not drift when attempts run late. An actor that falls behind may catch
+ * up with at most bucketCapacity back-to-back attempts, like a token bucket of that size;
+ * anything beyond that is skipped. Intervals can be jittered and, for the flash-sale
+ * profile, shortened for a spike at the start of the run.
+ */
+public class ActorPacer {
+
+    private final long intervalNanos; // Configured interval between attempts
+    private final double jitter; // Fraction by which each interval may randomly vary
+    private final RateProfile profile; // Load shape applied to the interval
+    private final int burstMultiplier; // Rate multiplier during a flash-sale spike
+    private final long burstEndNanos; // End of the flash-sale spike (System.nanoTime)
+    private final int bucketCapacity; // Attempts an actor may make back to back to catch up
+    private final RandomGenerator random; // Source of jitter, or null for the calling thread's random
+
+    /**
+     * Constructor to initialize the pacer.
+     *
+     * @param intervalMillis      The configured interval between attempts.
+     * @param jitterPercent       How much each interval may randomly vary, in percent.
+     * @param profile             The load shape.
+     * @param burstMultiplier     How many times faster actors run during a flash-sale spike.
+     * @param burstDurationMillis How long the flash-sale spike lasts.
+     * @param bucketCapacity      How many attempts an actor that fell behind may make back to back.
+     */
+    public ActorPacer(int intervalMillis, int jitterPercent, RateProfile profile, int burstMultiplier,
+                      long burstDurationMillis, int bucketCapacity) {
+        this(intervalMillis, jitterPercent, profile, burstMultiplier, burstDurationMillis, bucketCapacity,
+                System.nanoTime(), null);
+    }
+
+    /**
+     * Constructor to initialize a pacer on a clock of the caller's choosing, such as the
+     * virtual clock of a headless simulation.
+     *
+     * @param intervalMillis      The configured interval between attempts.
+     * @param jitterPercent       How much each interval may randomly vary, in percent.
+     * @param profile             The load shape.
+     * @param burstMultiplier     How many times faster actors run during a flash-sale spike.
+     * @param burstDurationMillis How long the flash-sale spike lasts.
+     * @param bucketCapacity      How many attempts an actor that fell behind may make back to back.
+     * @param startNanos          The start of the run on the caller's clock.
+     * @param random              The source of jitter, or null to use the calling thread's random.
+     */
+    public ActorPacer(int intervalMillis, int jitterPercent, RateProfile profile, int burstMultiplier,
+                      long burstDurationMillis, int bucketCapacity, long startNanos, RandomGenerator random) {
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, intervalMillis));
+        this.jitter = Math.min(100, Math.max(0, jitterPercent)) / 100.0;
+        this.profile = profile;
+        this.burstMultiplier = Math.max(1, burstMultiplier);
+        this.burstEndNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(burstDurationMillis);
+        this.bucketCapacity = Math.max(1, bucketCapacity);
+        this.random = random;
+    }
+
+    /**
+     * Creates a pacer that runs at a steady rate without jitter or catch-up.
+     *
+     * @param intervalMillis The interval between attempts.
+     * @return The pacer.
+     */
+    public static ActorPacer steady(int intervalMillis) {
+        return new ActorPacer(intervalMillis, 0, RateProfile.STEADY, 1, 0, 1);
+    }
+
+    /**
+     * Returns the deadline of the next attempt.
+     *
+     * @param previousDeadline The deadline of the previous attempt (System.nanoTime), or the start time.
+     * @param now              The current time (System.nanoTime).
+     * @return The deadline of the next attempt; it may lie in the past when the actor is catching up.
+     */
+    public long nextDeadline(long previousDeadline, long now) {
+        long interval = intervalNanos;
+        if (profile == RateProfile.FLASH_SALE && now - burstEndNanos < 0) {
+            interval = Math.max(1, interval / burstMultiplier);
+        }
+        if (jitter > 0) {
+            RandomGenerator source = random != null ? random : ThreadLocalRandom.current();
+            interval += (long) (interval * jitter * source.nextDouble(-1.0, 1.0));
+        }
+        long earliest = now - (bucketCapacity - 1) * interval; // Drop attempts beyond the bucket
+        return Math.max(previousDeadline + interval, earliest);
+    }
+}
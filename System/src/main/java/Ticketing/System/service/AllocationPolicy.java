@@ -0,0 +1,10 @@
+package Ticketing.System.service;
+
+/**
+ * How tickets are shared out among customers that are waiting for them.
+ */
+public enum AllocationPolicy {
+    BARGING, // Whichever customer asks first gets the ticket; fastest, but customers can starve
+    FIFO, // Customers are served strictly in the order they started waiting
+    TIERED // Customers wait in tiers served by weighted round robin, FIFO within each tier
+}
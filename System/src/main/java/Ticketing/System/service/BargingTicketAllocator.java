@@ -0,0 +1,84 @@
+package Ticketing.System.service;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Allocator backed by a non-fair semaphore. Each release wakes one waiting customer,
+ * but a customer that is already running may take the ticket first, so waiting
+ * customers are not served in order.
+ */
+class BargingTicketAllocator implements TicketAllocator {
+
+    private final Semaphore availableTickets = new Semaphore(0); // One permit per ticket in the pool; customers park here
+    private final CustomerWaitStats waitStats; // Per-customer tickets and waits
+    private final int ticketCap; // Most tickets one customer may buy, or 0 for no cap
+
+    /**
+     * Constructor to initialize the allocator.
+     *
+     * @param customerTotal The number of customers.
+     * @param ticketCap     The most tickets one customer may buy, or 0 for no cap.
+     */
+    BargingTicketAllocator(int customerTotal, int ticketCap) {
+        this(new CustomerWaitStats(AllocationPolicy.BARGING, customerTotal), ticketCap);
+    }
+
+    /**
+     * Constructor to initialize an allocator that records into shared statistics,
+     * such as one allocator per section of an event.
+     *
+     * @param waitStats The statistics to record grants and waits in.
+     * @param ticketCap The most tickets one customer may buy, or 0 for no cap.
+     */
+    BargingTicketAllocator(CustomerWaitStats waitStats, int ticketCap) {
+        this.waitStats = waitStats;
+        this.ticketCap = ticketCap;
+    }
+
+    @Override
+    public int acquire(int customerID, int maxTickets) throws InterruptedException {
+        int limit = waitStats.limit(customerID, maxTickets, ticketCap);
+        if (limit == 0) {
+            return 0;
+        }
+        long waitingSince = System.nanoTime();
+        availableTickets.acquire();
+        return grantMore(customerID, limit, waitingSince);
+    }
+
+    @Override
+    public int tryAcquire(int customerID, int maxTickets) {
+        int limit = waitStats.limit(customerID, maxTickets, ticketCap);
+        if (limit == 0 || !availableTickets.tryAcquire()) {
+            return 0;
+        }
+        return grantMore(customerID, limit, System.nanoTime());
+    }
+
+    @Override
+    public int poll(int customerID, int maxTickets) {
+        return tryAcquire(customerID, maxTickets); // Nobody keeps a place, so a scheduled customer just tries again
+    }
+
+    @Override
+    public void release(int tickets) {
+        availableTickets.release(tickets);
+    }
+
+    @Override
+    public CustomerWaitStats getWaitStats() {
+        return waitStats;
+    }
+
+    /**
+     * Takes further permits without waiting, up to the limit, for a customer that already holds one.
+     */
+    private int grantMore(int customerID, int limit, long waitingSince) {
+        int granted = 1;
+        while (granted < limit && availableTickets.tryAcquire()) {
+            granted++;
+        }
+        waitStats.record(customerID, granted, System.nanoTime() - waitingSince);
+        return granted;
+    }
+}
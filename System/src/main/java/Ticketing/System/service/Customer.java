@@ -1,5 +1,7 @@
 package Ticketing.System.service;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * The Customer class simulates a customer in the ticketing system.
  * A customer periodically attempts to retrieve tickets from the shared ticket pool.
@@ -10,6 +12,7 @@ public class Customer implements Runnable {
 
     private final TicketService ticketService; // Reference to the TicketService to interact with the ticket pool
     private final int retrievalInterval; // Time interval (in milliseconds) between ticket retrieval attempts
+    private final ActorPacer pacer; // Decides when each retrieval attempt is due
     private final int customerID;  // Unique identifier for the customer
 
     /**
@@ -21,26 +24,60 @@ public class Customer implements Runnable {
      */
 
     public Customer(TicketService ticketService, int retrievalInterval, int customerID) {
+        this(ticketService, retrievalInterval, ActorPacer.steady(retrievalInterval), customerID);
+    }
+
+    /**
+     * Constructor to initialize a Customer whose retrieval attempts follow a pacer.
+     *
+     * @param ticketService     The TicketService to manage ticket operations.
+     * @param retrievalInterval The configured time interval between ticket retrieval attempts.
+     * @param pacer             The pacer deciding when each attempt is due.
+     * @param customerID        The unique ID of the customer.
+     */
+
+    public Customer(TicketService ticketService, int retrievalInterval, ActorPacer pacer, int customerID) {
         this.ticketService = ticketService;
         this.retrievalInterval = retrievalInterval;
+        this.pacer = pacer;
         this.customerID = customerID;
     }
 
     /**
      * The run method is executed when the thread starts.
      * The customer repeatedly attempts to retrieve tickets from the pool
-     * at specified intervals while the simulation is running.
+     * at specified intervals while the simulation is running. Attempts are
+     * timed against deadlines rather than sleeps, so time spent waiting for
+     * tickets does not slow the rate.
      */
 
     @Override
     public void run() {
+        long deadline = System.nanoTime();
         while (ticketService.isSimulationRunning()) { // Check if the simulation is active
             try {
-                Thread.sleep(retrievalInterval); // Pause the thread for the specified interval
+                deadline = pacer.nextDeadline(deadline, System.nanoTime());
+                TimeUnit.NANOSECONDS.sleep(deadline - System.nanoTime()); // Pause until the next attempt is due
                 ticketService.retrieveTickets(customerID); // Attempt to retrieve tickets
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt(); // Restore the interrupted status of the thread
             }
         }
     }
+
+    /**
+     * Performs a single retrieval attempt that never waits for tickets,
+     * used when the customer is driven by a scheduler.
+     */
+    public void retrieveOnce() {
+        ticketService.tryRetrieveTickets(customerID);
+    }
+
+    public int getRetrievalInterval() {
+        return retrievalInterval;
+    }
+
+    public ActorPacer getPacer() {
+        return pacer;
+    }
 }
@@ -0,0 +1,167 @@
+package Ticketing.System.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-customer allocation statistics of one run: tickets granted, how often the
+ * customer was served and how long it waited. Stored in primitive arrays indexed
+ * by customer ID, so tracking tens of thousands of customers costs a few bytes each.
+ */
+public class CustomerWaitStats {
+
+    private final AllocationPolicy policy; // Policy the tickets were allocated with
+    private final int customerTotal; // Number of customers; IDs run from 1 to customerTotal
+    private final AtomicIntegerArray tickets; // Tickets granted to each customer
+    private final AtomicIntegerArray grants; // Times each customer was granted tickets
+    private final AtomicLongArray totalWaitNanos; // Total wait of each customer
+    private final AtomicLongArray maxWaitNanos; // Longest single wait of each customer
+
+    /**
+     * Constructor to initialize empty statistics.
+     *
+     * @param policy        The allocation policy in use.
+     * @param customerTotal The number of customers.
+     */
+    public CustomerWaitStats(AllocationPolicy policy, int customerTotal) {
+        this.policy = policy;
+        this.customerTotal = customerTotal;
+        this.tickets = new AtomicIntegerArray(customerTotal + 1);
+        this.grants = new AtomicIntegerArray(customerTotal + 1);
+        this.totalWaitNanos = new AtomicLongArray(customerTotal + 1);
+        this.maxWaitNanos = new AtomicLongArray(customerTotal + 1);
+    }
+
+    /**
+     * Records tickets granted to a customer after it waited.
+     *
+     * @param customerID The ID of the customer.
+     * @param granted    The number of tickets granted.
+     * @param waitNanos  How long the customer waited for them.
+     */
+    void record(int customerID, int granted, long waitNanos) {
+        if (customerID < 1 || customerID > customerTotal) {
+            return;
+        }
+        tickets.addAndGet(customerID, granted);
+        grants.incrementAndGet(customerID);
+        totalWaitNanos.addAndGet(customerID, waitNanos);
+        maxWaitNanos.accumulateAndGet(customerID, waitNanos, Math::max);
+    }
+
+    /**
+     * Takes back tickets granted to a customer that went back into the pool unsold,
+     * so they no longer count towards the customer's purchase cap.
+     *
+     * @param customerID The ID of the customer.
+     * @param returned   The number of tickets returned.
+     */
+    void returned(int customerID, int returned) {
+        if (customerID < 1 || customerID > customerTotal) {
+            return;
+        }
+        tickets.addAndGet(customerID, -returned);
+    }
+
+    /**
+     * Returns how many tickets a customer may be granted now.
+     *
+     * @param customerID The ID of the customer.
+     * @param maxTickets The most tickets the customer wants.
+     * @param ticketCap  The most tickets one customer may buy, or 0 for no cap.
+     * @return The number of tickets, 0 if the customer has reached the cap.
+     */
+    int limit(int customerID, int maxTickets, int ticketCap) {
+        if (ticketCap <= 0 || customerID < 1 || customerID > customerTotal) {
+            return maxTickets;
+        }
+        return Math.max(0, Math.min(maxTickets, ticketCap - tickets.get(customerID)));
+    }
+
+    /**
+     * Summarises how evenly tickets and waiting time were spread over customers.
+     *
+     * @return The policy, customer count, Jain's fairness index of tickets per customer,
+     * and the median, 99th percentile and maximum of the customers' mean waits.
+     */
+    public Map<String, Object> summary() {
+        double sum = 0;
+        double sumOfSquares = 0;
+        int served = 0;
+        long maxWait = 0;
+        double[] meanWaits = new double[customerTotal];
+        for (int customerID = 1; customerID <= customerTotal; customerID++) {
+            int customerTickets = tickets.get(customerID);
+            sum += customerTickets;
+            sumOfSquares += (double) customerTickets * customerTickets;
+            served += customerTickets > 0 ? 1 : 0;
+            maxWait = Math.max(maxWait, maxWaitNanos.get(customerID));
+            meanWaits[customerID - 1] = meanWaitNanos(customerID);
+        }
+        Arrays.sort(meanWaits);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("policy", policy);
+        summary.put("customers", customerTotal);
+        summary.put("customersServed", served);
+        summary.put("ticketsGranted", (long) sum);
+        summary.put("jainIndex", sumOfSquares == 0 ? 1.0 : sum * sum / (customerTotal * sumOfSquares));
+        summary.put("p50MeanWaitMillis", toMillis(percentile(meanWaits, 0.50)));
+        summary.put("p99MeanWaitMillis", toMillis(percentile(meanWaits, 0.99)));
+        summary.put("maxWaitMillis", toMillis(maxWait));
+        return summary;
+    }
+
+    /**
+     * Returns the statistics of a range of customers.
+     *
+     * @param offset The number of customers to skip.
+     * @param limit  The most customers to return.
+     * @return One entry per customer with its tickets, grants, mean wait and longest wait.
+     */
+    public List<Map<String, Object>> customers(int offset, int limit) {
+        List<Map<String, Object>> customers = new ArrayList<>();
+        int first = Math.max(1, offset + 1);
+        int last = (int) Math.min(customerTotal, (long) first + Math.max(0, limit) - 1);
+        for (int customerID = first; customerID <= last; customerID++) {
+            Map<String, Object> customer = new LinkedHashMap<>();
+            customer.put("customerId", customerID);
+            customer.put("tickets", tickets.get(customerID));
+            customer.put("grants", grants.get(customerID));
+            customer.put("meanWaitMillis", toMillis(meanWaitNanos(customerID)));
+            customer.put("maxWaitMillis", toMillis(maxWaitNanos.get(customerID)));
+            customers.add(customer);
+        }
+        return customers;
+    }
+
+    public int getTickets(int customerID) {
+        return tickets.get(customerID);
+    }
+
+    public int getCustomerTotal() {
+        return customerTotal;
+    }
+
+    private double meanWaitNanos(int customerID) {
+        int customerGrants = grants.get(customerID);
+        return customerGrants == 0 ? 0 : (double) totalWaitNanos.get(customerID) / customerGrants;
+    }
+
+    private static double percentile(double[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static double toMillis(double nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,10 @@
+package Ticketing.System.service;
+
+/**
+ * How vendor and customer actors are run during a simulation.
+ */
+public enum ExecutionMode {
+    PLATFORM, // One platform thread per actor
+    VIRTUAL, // One virtual thread per actor (requires Java 21 or newer)
+    SCHEDULED // Paced tasks on a timing wheel over a small worker pool; customers never block
+}
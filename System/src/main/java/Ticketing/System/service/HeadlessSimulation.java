@@ -0,0 +1,334 @@
+package Ticketing.System.service;
+
+import Ticketing.System.dto.HeadlessSimulationReport;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Discrete-event version of a simulation that runs on a virtual clock.
+ * Vendors and customers are paced exactly as in SCHEDULED mode and follow the same
+ * rules as TicketService: vendors release batches of up to five tickets until
+ * maxTicketCapacity is reached, customers retrieve up to four tickets without waiting,
+ * and the run ends when every ticket has been retrieved. Instead of sleeping, the
+ * engine jumps straight to the next due attempt, so a run is bounded by CPU only.
+ * Tickets are released and retrieved in order, so the pool is just the range of
+ * ticket IDs between the claimed and issued counters.
+ */
+class HeadlessSimulation {
+
+    private static final long SAMPLE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1); // First timeline resolution
+
+    private final int vendorTotal; // Number of vendors; actors 0..vendorTotal-1
+    private final int customerTotal; // Number of customers; actors vendorTotal.. onwards
+    private final int maxTicketCapacity; // Tickets to sell
+    private final ActorPacer[] pacers; // Pacer of each actor
+    private final long maxEvents; // Attempts simulated before the run is cut off
+
+    // Event queue: binary min-heap of (deadline, actor), ties broken by actor for repeatable runs
+    private final long[] heapDeadlines;
+    private final int[] heapActors;
+    private int heapSize;
+
+    private int issuedTickets; // Tickets released so far
+    private int claimedTickets; // Tickets retrieved so far
+    private int activeVendors; // Vendors still releasing
+    private final int[] ticketsPerCustomer; // Tickets retrieved by each customer
+    private final long[] releasedAt; // Release time of each ticket by ticket ID, or null if tickets are not recorded
+    private final long[] ticketWaits; // Wait of each retrieved ticket in retrieval order, or null
+    private final long[] waitPerCustomer; // Total ticket wait of each customer, or null
+
+    private final int timelineCapacity; // Timeline points kept before the resolution is halved
+    private final long[] timelineTimes;
+    private final int[] timelineDepths;
+    private int timelineSize;
+    private long sampleIntervalNanos = SAMPLE_INTERVAL_NANOS;
+    private long nextSampleAt;
+
+    /**
+     * Constructor to set up a run.
+     *
+     * @param vendorTotal       The number of vendors.
+     * @param customerTotal     The number of customers.
+     * @param maxTicketCapacity The number of tickets to sell.
+     * @param vendorPacers      Creates the pacer of each vendor, by vendor index.
+     * @param customerPacers    Creates the pacer of each customer, by customer index.
+     * @param recordTickets     Whether to keep release times for ticket wait statistics.
+     * @param timelinePoints    The approximate number of points in the pool-depth timeline.
+     * @param maxEvents         The number of attempts after which the run is cut off.
+     */
+    HeadlessSimulation(int vendorTotal, int customerTotal, int maxTicketCapacity,
+                       IntFunction<ActorPacer> vendorPacers,
+                       IntFunction<ActorPacer> customerPacers,
+                       boolean recordTickets, int timelinePoints, long maxEvents) {
+        this.vendorTotal = vendorTotal;
+        this.customerTotal = customerTotal;
+        this.maxTicketCapacity = maxTicketCapacity;
+        this.maxEvents = maxEvents;
+        int actors = vendorTotal + customerTotal;
+        this.pacers = new ActorPacer[actors];
+        for (int i = 0; i < vendorTotal; i++) {
+            pacers[i] = vendorPacers.apply(i);
+        }
+        for (int i = 0; i < customerTotal; i++) {
+            pacers[vendorTotal + i] = customerPacers.apply(i);
+        }
+        this.heapDeadlines = new long[actors];
+        this.heapActors = new int[actors];
+        this.ticketsPerCustomer = new int[customerTotal];
+        this.releasedAt = recordTickets ? new long[maxTicketCapacity + 1] : null;
+        this.ticketWaits = recordTickets ? new long[maxTicketCapacity] : null;
+        this.waitPerCustomer = recordTickets ? new long[customerTotal] : null;
+        this.timelineCapacity = 2 * Math.max(2, timelinePoints);
+        this.timelineTimes = new long[timelineCapacity + 1];
+        this.timelineDepths = new int[timelineCapacity + 1];
+    }
+
+    /**
+     * Runs the simulation until every ticket is sold, nothing more can happen,
+     * or the event limit is reached.
+     *
+     * @return The summary report.
+     */
+    HeadlessSimulationReport run() {
+        long wallClockStart = System.nanoTime();
+        for (int actor = 0; actor < pacers.length; actor++) {
+            push(pacers[actor].nextDeadline(0, 0), actor);
+        }
+        activeVendors = vendorTotal;
+        sample(0);
+
+        long now = 0;
+        long events = 0;
+        long sellOutAt = -1;
+        while (heapSize > 0 && events < maxEvents) {
+            now = heapDeadlines[0];
+            int actor = heapActors[0];
+            events++;
+
+            if (actor < vendorTotal) {
+                addTickets(now);
+                if (issuedTickets >= maxTicketCapacity) {
+                    pop(); // Vendors stop once max capacity is reached
+                    activeVendors--;
+                    continue;
+                }
+            } else {
+                retrieveTickets(actor - vendorTotal, now);
+                if (claimedTickets >= maxTicketCapacity) {
+                    sellOutAt = now;
+                    break;
+                }
+                if (activeVendors == 0 && claimedTickets == issuedTickets) {
+                    break; // No vendor left to release the rest
+                }
+            }
+            replaceTop(pacers[actor].nextDeadline(now, now));
+        }
+        appendSample(now);
+
+        return report(sellOutAt, now, events, System.nanoTime() - wallClockStart);
+    }
+
+    /**
+     * Releases a batch of tickets, following TicketService.addTickets.
+     */
+    private void addTickets(long now) {
+        int ticketsToAdd = Math.min(TicketService.TICKETS_PER_RELEASE, maxTicketCapacity - issuedTickets);
+        if (releasedAt != null) {
+            Arrays.fill(releasedAt, issuedTickets + 1, issuedTickets + ticketsToAdd + 1, now);
+        }
+        issuedTickets += ticketsToAdd;
+        sample(now);
+    }
+
+    /**
+     * Retrieves up to a batch of tickets without waiting, following TicketService.tryRetrieveTickets.
+     */
+    private void retrieveTickets(int customer, long now) {
+        int ticketsToRetrieve = Math.min(TicketService.TICKETS_PER_RETRIEVAL, issuedTickets - claimedTickets);
+        if (ticketsToRetrieve <= 0) {
+            return;
+        }
+        if (releasedAt != null) {
+            for (int ticketId = claimedTickets + 1; ticketId <= claimedTickets + ticketsToRetrieve; ticketId++) {
+                long wait = now - releasedAt[ticketId];
+                ticketWaits[ticketId - 1] = wait;
+                waitPerCustomer[customer] += wait;
+            }
+        }
+        claimedTickets += ticketsToRetrieve;
+        ticketsPerCustomer[customer] += ticketsToRetrieve;
+        sample(now);
+    }
+
+    private HeadlessSimulationReport report(long sellOutAt, long endedAt, long events, long wallClockNanos) {
+        HeadlessSimulationReport report = new HeadlessSimulationReport();
+        report.setSoldOut(sellOutAt >= 0);
+        report.setSellOutTimeMillis(sellOutAt >= 0 ? TimeUnit.NANOSECONDS.toMillis(sellOutAt) : -1);
+        report.setSimulatedTimeMillis(TimeUnit.NANOSECONDS.toMillis(endedAt));
+        report.setTicketsReleased(issuedTickets);
+        report.setTicketsSold(claimedTickets);
+        report.setEventsProcessed(events);
+        report.setWallClockMillis(TimeUnit.NANOSECONDS.toMillis(wallClockNanos));
+        report.setCustomerFairness(fairness());
+        if (ticketWaits != null && claimedTickets > 0) {
+            long[] waits = Arrays.copyOf(ticketWaits, claimedTickets);
+            Arrays.sort(waits);
+            HeadlessSimulationReport.TicketWait ticketWait = new HeadlessSimulationReport.TicketWait();
+            ticketWait.setP50Millis(toMillis(percentile(waits, 0.50)));
+            ticketWait.setP99Millis(toMillis(percentile(waits, 0.99)));
+            ticketWait.setP999Millis(toMillis(percentile(waits, 0.999)));
+            ticketWait.setMaxMillis(toMillis(waits[waits.length - 1]));
+            report.setTicketWait(ticketWait);
+        }
+        List<HeadlessSimulationReport.TimelinePoint> timeline = new ArrayList<>(timelineSize);
+        for (int i = 0; i < timelineSize; i++) {
+            timeline.add(new HeadlessSimulationReport.TimelinePoint(
+                    TimeUnit.NANOSECONDS.toMillis(timelineTimes[i]), timelineDepths[i]));
+        }
+        report.setPoolDepthTimeline(timeline);
+        return report;
+    }
+
+    private HeadlessSimulationReport.Fairness fairness() {
+        HeadlessSimulationReport.Fairness fairness = new HeadlessSimulationReport.Fairness();
+        fairness.setCustomers(customerTotal);
+        if (customerTotal == 0) {
+            return fairness;
+        }
+        int served = 0;
+        int min = Integer.MAX_VALUE;
+        int max = 0;
+        double sum = 0;
+        double sumOfSquares = 0;
+        double maxMeanWait = 0;
+        for (int customer = 0; customer < customerTotal; customer++) {
+            int tickets = ticketsPerCustomer[customer];
+            served += tickets > 0 ? 1 : 0;
+            min = Math.min(min, tickets);
+            max = Math.max(max, tickets);
+            sum += tickets;
+            sumOfSquares += (double) tickets * tickets;
+            if (waitPerCustomer != null && tickets > 0) {
+                maxMeanWait = Math.max(maxMeanWait, (double) waitPerCustomer[customer] / tickets);
+            }
+        }
+        fairness.setCustomersServed(served);
+        fairness.setMinTickets(min);
+        fairness.setMaxTickets(max);
+        fairness.setMeanTickets(sum / customerTotal);
+        fairness.setJainIndex(sumOfSquares == 0 ? 1.0 : sum * sum / (customerTotal * sumOfSquares));
+        fairness.setMaxMeanWaitMillis(toMillis(maxMeanWait));
+        return fairness;
+    }
+
+    /**
+     * Records the pool depth if the current sampling interval has elapsed.
+     * When the timeline is full, every other point is dropped and the interval doubled,
+     * so the timeline covers the whole run without knowing its length in advance.
+     */
+    private void sample(long now) {
+        if (now < nextSampleAt) {
+            return;
+        }
+        appendSample(now);
+        nextSampleAt = now + sampleIntervalNanos;
+        if (timelineSize >= timelineCapacity) {
+            int kept = 0;
+            for (int i = 0; i < timelineSize; i += 2) {
+                timelineTimes[kept] = timelineTimes[i];
+                timelineDepths[kept] = timelineDepths[i];
+                kept++;
+            }
+            timelineSize = kept;
+            sampleIntervalNanos *= 2;
+        }
+    }
+
+    private void appendSample(long now) {
+        if (timelineSize > 0 && timelineTimes[timelineSize - 1] == now) {
+            timelineSize--; // Keep only the latest depth for one instant
+        }
+        timelineTimes[timelineSize] = now;
+        timelineDepths[timelineSize] = issuedTickets - claimedTickets;
+        timelineSize++;
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static double toMillis(double nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private void push(long deadline, int actor) {
+        int i = heapSize++;
+        heapDeadlines[i] = deadline;
+        heapActors[i] = actor;
+        siftUp(i);
+    }
+
+    private void pop() {
+        heapSize--;
+        if (heapSize > 0) {
+            heapDeadlines[0] = heapDeadlines[heapSize];
+            heapActors[0] = heapActors[heapSize];
+            siftDown(0);
+        }
+    }
+
+    private void replaceTop(long deadline) {
+        heapDeadlines[0] = deadline;
+        siftDown(0);
+    }
+
+    private boolean isBefore(int a, int b) {
+        return heapDeadlines[a] < heapDeadlines[b]
+                || (heapDeadlines[a] == heapDeadlines[b] && heapActors[a] < heapActors[b]);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!isBefore(i, parent)) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < heapSize && isBefore(left, smallest)) {
+                smallest = left;
+            }
+            if (right < heapSize && isBefore(right, smallest)) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long deadline = heapDeadlines[a];
+        heapDeadlines[a] = heapDeadlines[b];
+        heapDeadlines[b] = deadline;
+        int actor = heapActors[a];
+        heapActors[a] = heapActors[b];
+        heapActors[b] = actor;
+    }
+}
@@ -0,0 +1,67 @@
+package Ticketing.System.service;
+
+import Ticketing.System.config.TicketingProperties;
+import Ticketing.System.dto.HeadlessSimulationDTO;
+import Ticketing.System.dto.HeadlessSimulationReport;
+import org.springframework.stereotype.Service;
+
+import java.util.SplittableRandom;
+
+/**
+ * The HeadlessSimulationService runs simulations on a virtual clock for capacity planning.
+ * Runs do not touch the ticket pool, the database or the transaction log of any live
+ * simulation, and return a summary report instead.
+ */
+@Service
+public class HeadlessSimulationService {
+
+    private final TicketingProperties.Simulation simulationSettings; // Pacing settings shared with live simulations
+    private final TicketingProperties.Headless headlessSettings; // Limits for headless runs
+
+    /**
+     * Constructor to initialize the service.
+     *
+     * @param properties The ticketing configuration.
+     */
+    public HeadlessSimulationService(TicketingProperties properties) {
+        this.simulationSettings = properties.getSimulation();
+        this.headlessSettings = properties.getHeadless();
+    }
+
+    /**
+     * Runs a headless simulation to completion.
+     *
+     * @param config The simulation configuration.
+     * @return The summary report.
+     * @throws IllegalArgumentException If the configuration is invalid or exceeds the configured limits.
+     */
+    public HeadlessSimulationReport run(HeadlessSimulationDTO config) {
+        if (config.getVendorTotal() < 0 || config.getCustomerTotal() < 0
+                || config.getVendorTotal() + config.getCustomerTotal() > headlessSettings.getMaxActors()) {
+            throw new IllegalArgumentException("Vendor and customer totals must be between 0 and "
+                    + headlessSettings.getMaxActors() + " in total");
+        }
+        if (config.getMaxTicketCapacity() <= 0 || config.getMaxTicketCapacity() > headlessSettings.getMaxTickets()) {
+            throw new IllegalArgumentException("Max ticket capacity must be between 1 and " + headlessSettings.getMaxTickets());
+        }
+        if (config.getTicketReleaseRate() <= 0 || config.getTicketRetrievalRate() <= 0) {
+            throw new IllegalArgumentException("Release and retrieval rates must be positive");
+        }
+        if (config.getJitterPercent() < 0 || config.getJitterPercent() > 100 || config.getBurstMultiplier() < 1) {
+            throw new IllegalArgumentException("Jitter must be between 0 and 100 percent and burst multiplier at least 1");
+        }
+
+        // One seeded random for all actors; the engine is single-threaded, so runs are repeatable
+        SplittableRandom random = new SplittableRandom(config.getSeed());
+        int bucketCapacity = simulationSettings.getBucketCapacity();
+        RateProfile profile = config.getRateProfile() == null ? RateProfile.STEADY : config.getRateProfile();
+        HeadlessSimulation simulation = new HeadlessSimulation(config.getVendorTotal(), config.getCustomerTotal(),
+                config.getMaxTicketCapacity(),
+                vendor -> new ActorPacer(config.getTicketReleaseRate(), config.getJitterPercent(), RateProfile.STEADY,
+                        1, 0, bucketCapacity, 0, random),
+                customer -> new ActorPacer(config.getTicketRetrievalRate(), config.getJitterPercent(), profile,
+                        config.getBurstMultiplier(), config.getBurstDurationMillis(), bucketCapacity, 0, random),
+                config.isRecordTickets(), config.getTimelinePoints(), headlessSettings.getMaxEvents());
+        return simulation.run();
+    }
+}
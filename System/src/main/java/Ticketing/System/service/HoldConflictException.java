@@ -0,0 +1,16 @@
+package Ticketing.System.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a hold cannot be placed because no tickets are available, or cannot be
+ * confirmed or released because it has expired or already ended.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class HoldConflictException extends RuntimeException {
+
+    public HoldConflictException(String message) {
+        super(message);
+    }
+}
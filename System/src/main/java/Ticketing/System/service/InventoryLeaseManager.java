@@ -0,0 +1,177 @@
+package Ticketing.System.service;
+
+import Ticketing.System.config.TicketingProperties;
+import Ticketing.System.model.InventoryCounter;
+import Ticketing.System.model.InventoryLease;
+import Ticketing.System.repo.InventoryCounterRepo;
+import Ticketing.System.repo.InventoryLeaseRepo;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * The InventoryLeaseManager shares the capacity of an event between nodes in distributed
+ * inventory mode. Each section has a counter row in the database; a node leases a block of
+ * positions by advancing it, and gives back the positions it did not sell when its run stops.
+ * Counters and leases carry a version column and are only changed by updates conditional on
+ * the version that was read, so concurrent nodes never take the same positions: the loser
+ * of a race retries instead of waiting on a lock.
+ */
+@Component
+public class InventoryLeaseManager {
+
+    private static final TicketLease CONFLICT = new TicketLease(0, 0, -1); // Attempt lost to another node
+
+    private final InventoryCounterRepo counterRepository; // Capacity counters by section
+    private final InventoryLeaseRepo leaseRepository; // Blocks of positions held by nodes or given back
+    private final TransactionTemplate transactionTemplate; // Runs each lease operation in its own transaction
+    private final String nodeId; // This node's ID on the leases it holds
+    private final int leaseSize; // Positions per lease
+    private final int maxRetries; // Attempts before a conflicting operation gives up
+
+    /**
+     * Constructor to initialize the lease manager.
+     *
+     * @param counterRepository  The repository of section counters.
+     * @param leaseRepository    The repository of leases.
+     * @param transactionManager The transaction manager used for each lease operation.
+     * @param properties         The ticketing configuration.
+     */
+    public InventoryLeaseManager(InventoryCounterRepo counterRepository, InventoryLeaseRepo leaseRepository,
+                                 PlatformTransactionManager transactionManager, TicketingProperties properties) {
+        this.counterRepository = counterRepository;
+        this.leaseRepository = leaseRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.nodeId = properties.getInventory().getNodeId();
+        this.leaseSize = Math.max(1, properties.getInventory().getLeaseSize());
+        this.maxRetries = Math.max(1, properties.getInventory().getMaxRetries());
+    }
+
+    /**
+     * Creates the section counters of an event, unless another node already has.
+     * Every node selling the event must split it the same way.
+     *
+     * @param simulationId  The ID of the simulation (event).
+     * @param sectionTotal  The number of sections.
+     * @param eventCapacity The capacity of the whole event.
+     * @throws IllegalStateException If the event exists with a different capacity or section count.
+     */
+    public void register(String simulationId, int sectionTotal, int eventCapacity) {
+        for (int section = 1; section <= sectionTotal; section++) {
+            int current = section;
+            InventoryCounter counter = withRetries(() -> counterRepository.findBySimulationIdAndSection(simulationId, current)
+                    .orElseGet(() -> counterRepository.saveAndFlush(new InventoryCounter(simulationId, current, sectionTotal,
+                            eventCapacity, TicketSection.capacityOf(current, sectionTotal, eventCapacity)))));
+            if (counter.getSectionTotal() != sectionTotal || counter.getEventCapacity() != eventCapacity) {
+                throw new IllegalStateException("Event " + simulationId + " is shared with capacity "
+                        + counter.getEventCapacity() + " in " + counter.getSectionTotal() + " sections");
+            }
+        }
+    }
+
+    /**
+     * Leases a block of positions of a section to this node. Positions given back by other
+     * nodes are handed out first; otherwise the section counter is advanced.
+     *
+     * @param simulationId The ID of the simulation (event).
+     * @param section      The section, starting at 1.
+     * @return The lease, or null if every position of the section is leased.
+     * @throws IllegalStateException If other nodes won every attempt.
+     */
+    TicketLease acquire(String simulationId, int section) {
+        for (int attempt = 0; attempt < maxRetries; attempt++) {
+            TicketLease lease = transactionTemplate.execute(status -> tryAcquire(simulationId, section));
+            if (lease != CONFLICT) {
+                return lease;
+            }
+            Thread.onSpinWait();
+        }
+        throw new IllegalStateException("Gave up leasing tickets of " + simulationId + " after "
+                + maxRetries + " conflicting updates");
+    }
+
+    /**
+     * Makes one attempt at a lease. Both updates are conditional on the version that was
+     * read, so a node that loses a race changes nothing and tries again.
+     *
+     * @return The lease, null if the section is fully leased, or CONFLICT if another node got there first.
+     */
+    private TicketLease tryAcquire(String simulationId, int section) {
+        Optional<InventoryLease> free = leaseRepository
+                .findFirstBySimulationIdAndSectionAndNodeIdIsNullOrderByFirstPosition(simulationId, section);
+        if (free.isPresent()) {
+            InventoryLease lease = free.get();
+            if (leaseRepository.takeOver(lease.getLeaseId(), lease.getVersion(), nodeId) == 0) {
+                return CONFLICT;
+            }
+            return new TicketLease(lease.getLeaseId(), lease.getFirstPosition(), lease.getLastPosition());
+        }
+
+        InventoryCounter counter = counterRepository.findBySimulationIdAndSection(simulationId, section)
+                .orElseThrow(() -> new IllegalStateException("Event " + simulationId + " has no section " + section));
+        int first = counter.getNextPosition();
+        int last = Math.min(counter.getCapacity(), first + leaseSize - 1);
+        if (first > last) {
+            return null;
+        }
+        if (counterRepository.advance(counter.getCounterId(), counter.getVersion(), last + 1) == 0) {
+            return CONFLICT;
+        }
+        InventoryLease lease = leaseRepository.save(new InventoryLease(simulationId, section, nodeId, first, last));
+        return new TicketLease(lease.getLeaseId(), first, last);
+    }
+
+    /**
+     * Gives back the positions of a lease that this node did not sell. The lease keeps the
+     * positions that were sold, and the rest becomes a free lease for other nodes.
+     *
+     * @param simulationId The ID of the simulation (event).
+     * @param section      The section, starting at 1.
+     * @param lease        The lease.
+     * @param usedThrough  The last position that was sold, or firstPosition - 1 if none was.
+     */
+    void giveBack(String simulationId, int section, TicketLease lease, int usedThrough) {
+        if (usedThrough >= lease.getLastPosition()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            InventoryLease held = leaseRepository.findById(lease.getLeaseId())
+                    .orElseThrow(() -> new IllegalStateException("Lease " + lease.getLeaseId() + " no longer exists"));
+            if (usedThrough < held.getFirstPosition()) {
+                held.setNodeId(null); // Nothing sold: the whole block becomes free
+                return;
+            }
+            held.setLastPosition(usedThrough);
+            leaseRepository.save(new InventoryLease(simulationId, section, null, usedThrough + 1, lease.getLastPosition()));
+        });
+    }
+
+    /**
+     * Returns the ID this node leases under.
+     *
+     * @return The node ID.
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Runs an operation, repeating it when a concurrent node inserted the same rows first.
+     */
+    private <T> T withRetries(Supplier<T> operation) {
+        RuntimeException lastConflict = null;
+        for (int attempt = 0; attempt < maxRetries; attempt++) {
+            try {
+                return operation.get();
+            } catch (DataIntegrityViolationException e) {
+                lastConflict = e;
+                Thread.onSpinWait();
+            }
+        }
+        throw new IllegalStateException("Gave up on inventory after " + maxRetries + " conflicting updates", lastConflict);
+    }
+}
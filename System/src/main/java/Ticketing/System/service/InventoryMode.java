@@ -0,0 +1,9 @@
+package Ticketing.System.service;
+
+/**
+ * Where the capacity of an event is tracked.
+ */
+public enum InventoryMode {
+    LOCAL, // Capacity is counted in memory; only one node may sell an event
+    DISTRIBUTED // Capacity is counted in the database and leased to nodes in blocks, so several nodes can sell one event
+}
@@ -0,0 +1,136 @@
+package Ticketing.System.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ticket source of a section shared with other nodes in distributed inventory mode.
+ * Vendors reserve positions with a CAS inside the current lease, so the database is
+ * only visited once per lease: the vendor that finds the lease used up fetches the next
+ * one while the others wait for it. Unreserved positions are given back when the run stops.
+ */
+final class LeasedTicketSource implements TicketSource {
+
+    private static final Logger log = LoggerFactory.getLogger(LeasedTicketSource.class);
+
+    private final InventoryLeaseManager leaseManager; // Leases positions from the shared counters
+    private final String simulationId; // Simulation (event) the section belongs to
+    private final int section; // Section number, starting at 1
+    private final List<LeasedBlock> heldBlocks = new ArrayList<>(); // Every lease taken in this run, guarded by this
+    private volatile LeasedBlock currentBlock; // Lease vendors currently reserve from
+    private volatile boolean isExhausted = false; // Flag indicating every position of the section is leased
+    private final AtomicInteger issuedTickets = new AtomicInteger(); // Positions reserved by vendors so far
+    private final AtomicInteger highestPosition = new AtomicInteger(); // Highest position reserved so far
+
+    LeasedTicketSource(InventoryLeaseManager leaseManager, String simulationId, int section) {
+        this.leaseManager = leaseManager;
+        this.simulationId = simulationId;
+        this.section = section;
+    }
+
+    @Override
+    public long reserve(int wanted) {
+        while (true) {
+            LeasedBlock block = currentBlock;
+            if (block != null) {
+                long reservation = block.reserve(wanted);
+                if (reservation != NONE) {
+                    int count = TicketSource.count(reservation);
+                    issuedTickets.addAndGet(count);
+                    highestPosition.accumulateAndGet(TicketSource.firstPosition(reservation) + count - 1, Math::max);
+                    return reservation;
+                }
+            }
+            if (isExhausted || !renew(block)) {
+                return NONE;
+            }
+        }
+    }
+
+    /**
+     * Replaces a used-up lease with the next one, unless another vendor already has.
+     *
+     * @return False if no lease could be obtained.
+     */
+    private synchronized boolean renew(LeasedBlock usedUp) {
+        if (currentBlock != usedUp) {
+            return true;
+        }
+        TicketLease lease;
+        try {
+            lease = leaseManager.acquire(simulationId, section);
+        } catch (RuntimeException e) {
+            log.error("Failed to lease tickets of section {} of simulation {}: {}", section, simulationId, e.getMessage());
+            return false; // Retried on the vendor's next attempt
+        }
+        if (lease == null) {
+            isExhausted = true;
+            return false;
+        }
+        LeasedBlock block = new LeasedBlock(lease);
+        heldBlocks.add(block);
+        currentBlock = block;
+        return true;
+    }
+
+    @Override
+    public int getIssued() {
+        return issuedTickets.get();
+    }
+
+    @Override
+    public int getHighestPosition() {
+        return highestPosition.get();
+    }
+
+    @Override
+    public boolean isExhausted() {
+        return isExhausted;
+    }
+
+    @Override
+    public synchronized void close() {
+        for (LeasedBlock block : heldBlocks) {
+            try {
+                leaseManager.giveBack(simulationId, section, block.lease, block.usedThrough());
+            } catch (RuntimeException e) {
+                log.error("Failed to give back lease {} of simulation {}: {}", block.lease.getLeaseId(), simulationId,
+                        e.getMessage());
+            }
+        }
+        heldBlocks.clear();
+        currentBlock = null;
+    }
+
+    /**
+     * A lease together with the next position to reserve from it.
+     */
+    private static final class LeasedBlock {
+
+        private final TicketLease lease; // Positions held by this node
+        private final AtomicInteger nextPosition; // First position not yet reserved
+
+        private LeasedBlock(TicketLease lease) {
+            this.lease = lease;
+            this.nextPosition = new AtomicInteger(lease.getFirstPosition());
+        }
+
+        private long reserve(int wanted) {
+            int first;
+            int count;
+            do {
+                first = nextPosition.get();
+                count = Math.min(wanted, lease.getLastPosition() - first + 1);
+            } while (count > 0 && !nextPosition.compareAndSet(first, first + count));
+            return TicketSource.reservation(first, count);
+        }
+
+        private int usedThrough() {
+            return Math.min(nextPosition.get(), lease.getLastPosition() + 1) - 1;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package Ticketing.System.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ticket source of a section whose whole capacity belongs to this node.
+ * Positions are reserved with a CAS on the issued-ticket counter, so vendors never
+ * block each other and the capacity can never be exceeded.
+ */
+final class LocalTicketSource implements TicketSource {
+
+    private final int capacity; // Positions the section can issue
+    private final AtomicInteger issuedTickets = new AtomicInteger(); // Positions reserved by vendors so far
+
+    LocalTicketSource(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public long reserve(int wanted) {
+        int issued;
+        int count;
+        do {
+            issued = issuedTickets.get();
+            count = Math.min(wanted, capacity - issued);
+        } while (count > 0 && !issuedTickets.compareAndSet(issued, issued + count));
+        return TicketSource.reservation(issued + 1, count);
+    }
+
+    @Override
+    public int getIssued() {
+        return issuedTickets.get();
+    }
+
+    @Override
+    public int getHighestPosition() {
+        return issuedTickets.get();
+    }
+
+    @Override
+    public boolean isExhausted() {
+        return issuedTickets.get() >= capacity;
+    }
+
+    @Override
+    public void close() {
+        // Nothing is shared with other nodes
+    }
+}
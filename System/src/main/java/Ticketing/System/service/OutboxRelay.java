@@ -0,0 +1,275 @@
+package Ticketing.System.service;
+
+import Ticketing.System.config.TicketingProperties;
+import Ticketing.System.model.OutboxEvent;
+import Ticketing.System.repo.OutboxEventRepo;
+import Ticketing.System.util.TransactionLogWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The OutboxRelay streams the outbox events written by the TicketWriteBehind pipeline to their
+ * subscribers, such as a run's transaction log, and deletes them in batches once delivered.
+ * A single relay thread serves every simulation this node writes events for, in sequence order.
+ * Events are deleted only after delivery, so a crash in between delivers them again on the
+ * next relay; subscribers skip what they already hold by its sequence number, which the
+ * transaction log does, so every event reaches the log exactly once.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    /**
+     * Receives the relayed events of a simulation.
+     */
+    public interface Listener {
+
+        /**
+         * Called for every event of the simulation, in sequence order.
+         *
+         * @param event The event; its sequence number identifies it in the run.
+         */
+        void onEvent(OutboxEvent event);
+
+        /**
+         * Called after each batch has been delivered and before it is deleted from the outbox,
+         * so the listener can make the batch durable first.
+         */
+        default void onBatchRelayed() {
+        }
+    }
+
+    private final OutboxEventRepo outboxEventRepository; // Repository to manage outbox events
+    private final TransactionTemplate transactionTemplate; // Deletes each relayed batch in one transaction
+    private final String nodeId; // Node whose events this relay delivers
+    private final int batchSize; // Events relayed per batch
+    private final long relayIntervalMillis; // How long the relay waits for new events when idle
+    private final Map<String, List<Listener>> subscribers = new ConcurrentHashMap<>(); // Listeners per simulation
+    private final ReentrantLock relayLock = new ReentrantLock(); // Keeps batches of one simulation in order
+    private final Object newEvents = new Object(); // Monitor the relay thread waits on
+    private final Thread relay = new Thread(this::runRelay, "outbox-relay"); // Thread relaying batches
+    private volatile boolean isRunning = false; // Flag indicating if the relay thread keeps polling
+    private final Counter relayedEvents; // Events delivered to subscribers
+
+    /**
+     * Constructor to initialize the relay.
+     *
+     * @param outboxEventRepository The repository to manage outbox events.
+     * @param transactionManager    The transaction manager used to delete relayed batches.
+     * @param properties            The ticketing configuration.
+     * @param meterRegistry         The registry the relay meters are published to.
+     */
+    public OutboxRelay(OutboxEventRepo outboxEventRepository, PlatformTransactionManager transactionManager,
+                       TicketingProperties properties, MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.nodeId = properties.getInventory().getNodeId();
+        this.batchSize = Math.max(1, properties.getOutbox().getBatchSize());
+        this.relayIntervalMillis = properties.getOutbox().getRelayIntervalMillis();
+        this.relayedEvents = Counter.builder("ticketing.outbox.relayed")
+                .description("Outbox events delivered to their subscribers")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        isRunning = true;
+        relay.setDaemon(true);
+        relay.start();
+    }
+
+    /**
+     * Delivers the events of a simulation to a listener from now on.
+     *
+     * @param simulationId The ID of the simulation.
+     * @param listener     The listener.
+     */
+    public void subscribe(String simulationId, Listener listener) {
+        subscribers.computeIfAbsent(simulationId, id -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Stops delivering the events of a simulation to a listener.
+     *
+     * @param simulationId The ID of the simulation.
+     * @param listener     The listener.
+     */
+    public void unsubscribe(String simulationId, Listener listener) {
+        subscribers.computeIfPresent(simulationId, (id, listeners) -> {
+            listeners.remove(listener);
+            return listeners.isEmpty() ? null : listeners;
+        });
+    }
+
+    /**
+     * Returns a listener that appends events to a transaction log under their own sequence
+     * numbers, skipping those the log already holds, and writes each batch to the log's segment
+     * before the batch is deleted.
+     *
+     * @param transactionLog The log of the run.
+     * @return The listener.
+     */
+    public static Listener appendingTo(TransactionLogWriter transactionLog) {
+        return new Listener() {
+            @Override
+            public void onEvent(OutboxEvent event) {
+                transactionLog.append(event.getSequence(), event.getActionType(), event.getEntityType(),
+                        event.getEntityId(), event.getSection(), event.getTicketCount(), event.getRemainingTickets());
+            }
+
+            @Override
+            public void onBatchRelayed() {
+                transactionLog.flush();
+            }
+        };
+    }
+
+    /**
+     * Wakes the relay thread, for example after a batch with outbox events was committed.
+     */
+    void signal() {
+        synchronized (newEvents) {
+            newEvents.notifyAll();
+        }
+    }
+
+    /**
+     * Delivers every event of a simulation committed so far to its subscribers and deletes them.
+     *
+     * @param simulationId The ID of the simulation.
+     */
+    public void drain(String simulationId) {
+        List<Listener> listeners = subscribers.get(simulationId);
+        if (listeners != null) {
+            relayAll(simulationId, nodeId, listeners);
+        }
+    }
+
+    /**
+     * Delivers every event a node wrote for a simulation to one listener and deletes them.
+     * Used to bring the log of a run interrupted by a crash up to the database.
+     *
+     * @param simulationId The ID of the simulation.
+     * @param writerNodeId The node that wrote the events.
+     * @param listener     The listener.
+     * @return The number of events delivered.
+     */
+    long relayAll(String simulationId, String writerNodeId, Listener listener) {
+        return relayAll(simulationId, writerNodeId, List.of(listener));
+    }
+
+    /**
+     * Counts the events a node wrote for a simulation that have not been relayed.
+     *
+     * @param simulationId The ID of the simulation.
+     * @param writerNodeId The node that wrote the events.
+     * @return The number of events.
+     */
+    long countPending(String simulationId, String writerNodeId) {
+        return outboxEventRepository.countBySimulationIdAndNodeId(simulationId, writerNodeId);
+    }
+
+    /**
+     * Deletes the events of a simulation without relaying them, before a new run starts.
+     *
+     * @param simulationId The ID of the simulation.
+     */
+    void discard(String simulationId) {
+        transactionTemplate.executeWithoutResult(status ->
+                outboxEventRepository.deleteRelayed(simulationId, nodeId, Long.MAX_VALUE));
+    }
+
+    @PreDestroy
+    void stop() {
+        isRunning = false;
+        signal();
+        try {
+            relay.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (String simulationId : subscribers.keySet()) {
+            drain(simulationId);
+        }
+    }
+
+    private void runRelay() {
+        while (isRunning) {
+            boolean isBehind = false;
+            for (Map.Entry<String, List<Listener>> subscription : subscribers.entrySet()) {
+                try {
+                    isBehind |= relayBatch(subscription.getKey(), nodeId, subscription.getValue()) == batchSize;
+                } catch (RuntimeException e) {
+                    log.error("Failed to relay outbox events of simulation {}: {}", subscription.getKey(),
+                            e.getMessage());
+                }
+            }
+            if (!isBehind) {
+                synchronized (newEvents) {
+                    try {
+                        newEvents.wait(relayIntervalMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        isRunning = false;
+                    }
+                }
+            }
+        }
+    }
+
+    private long relayAll(String simulationId, String writerNodeId, List<Listener> listeners) {
+        long relayed = 0;
+        int batch;
+        do {
+            batch = relayBatch(simulationId, writerNodeId, listeners);
+            relayed += batch;
+        } while (batch == batchSize);
+        return relayed;
+    }
+
+    /**
+     * Delivers the oldest batch of a simulation's events and deletes it.
+     *
+     * @return The number of events delivered.
+     */
+    private int relayBatch(String simulationId, String writerNodeId, List<Listener> listeners) {
+        relayLock.lock();
+        try {
+            List<OutboxEvent> events = outboxEventRepository.findBySimulationIdAndNodeIdOrderBySequenceAsc(
+                    simulationId, writerNodeId, PageRequest.of(0, batchSize));
+            if (events.isEmpty()) {
+                return 0;
+            }
+            for (OutboxEvent event : events) {
+                for (Listener listener : listeners) {
+                    listener.onEvent(event);
+                }
+            }
+            for (Listener listener : listeners) {
+                listener.onBatchRelayed();
+            }
+            long lastSequence = events.get(events.size() - 1).getSequence();
+            transactionTemplate.executeWithoutResult(status ->
+                    outboxEventRepository.deleteRelayed(simulationId, writerNodeId, lastSequence));
+            relayedEvents.increment(events.size());
+            return events.size();
+        } finally {
+            relayLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package Ticketing.System.service;
+
+import Ticketing.System.config.TicketingProperties;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission control in front of one simulation's purchase endpoint. At most a limited number
+ * of purchases run at once; the limit adapts to their latency (AIMD): it grows by about one for
+ * every limit's worth of purchases that finish within the target latency, and shrinks by a
+ * tenth, at most once per target latency, when one finishes late, for example because the
+ * write-behind queue pushes back. Purchases over the limit wait in a bounded waiting room for a
+ * short time; any beyond that are shed at once with an estimate of when to retry.
+ */
+public class PurchaseAdmission {
+
+    private final int minLimit; // Limit never shrinks below this
+    private final int maxLimit; // Limit never grows above this
+    private final long targetLatencyNanos; // Purchases slower than this shrink the limit
+    private final int waitingRoomSize; // Purchases that may wait for a free slot
+    private final long maxWaitNanos; // How long a purchase waits in the waiting room
+    private final long maxRetryAfterMillis; // Longest retry delay suggested to a shed purchase
+
+    private final AtomicInteger inFlight = new AtomicInteger(); // Purchases admitted and not yet finished
+    private final AtomicInteger waiting = new AtomicInteger(); // Purchases in the waiting room
+    private final ReentrantLock lock = new ReentrantLock(); // Guards the waiting room and limit changes
+    private final Condition slotFreed = lock.newCondition(); // Signalled when a purchase finishes
+    private volatile double limit; // Current concurrency limit
+    private volatile double meanLatencyNanos; // Moving average of purchase latency; racing updates only blur it
+    private long lastDecreaseAt; // Time (System.nanoTime) the limit last shrank; guarded by lock
+
+    /**
+     * Constructor to initialize the admission control.
+     *
+     * @param settings The admission settings.
+     */
+    public PurchaseAdmission(TicketingProperties.Admission settings) {
+        this.minLimit = Math.max(1, settings.getMinLimit());
+        this.maxLimit = Math.max(minLimit, settings.getMaxLimit());
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, settings.getTargetLatencyMillis()));
+        this.waitingRoomSize = Math.max(0, settings.getWaitingRoomSize());
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(settings.getMaxWaitMillis());
+        this.maxRetryAfterMillis = Math.max(1, settings.getMaxRetryAfterMillis());
+        this.limit = Math.min(maxLimit, Math.max(minLimit, settings.getInitialLimit()));
+        this.lastDecreaseAt = System.nanoTime() - targetLatencyNanos;
+    }
+
+    /**
+     * Admits a purchase if the limit allows it, waiting in the waiting room for a slot if it is full.
+     *
+     * @return True if the purchase was admitted and must call release when done, false if it was shed.
+     */
+    boolean tryAdmit() {
+        if (tryTakeSlot()) {
+            return true;
+        }
+        if (waiting.incrementAndGet() > waitingRoomSize) {
+            waiting.decrementAndGet();
+            return false;
+        }
+        lock.lock();
+        try {
+            long remaining = maxWaitNanos;
+            while (!tryTakeSlot()) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = slotFreed.awaitNanos(remaining);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waiting.decrementAndGet();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Finishes an admitted purchase and adapts the limit to its latency.
+     *
+     * @param latencyNanos How long the purchase took.
+     */
+    void release(long latencyNanos) {
+        inFlight.decrementAndGet();
+        meanLatencyNanos += (latencyNanos - meanLatencyNanos) * 0.05;
+        boolean isLate = latencyNanos > targetLatencyNanos;
+        if (!isLate && limit >= maxLimit && waiting.get() == 0) {
+            return; // Nothing to adapt and nobody to wake
+        }
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            if (!isLate) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            } else if (now - lastDecreaseAt >= targetLatencyNanos) {
+                limit = Math.max(minLimit, limit * 0.9);
+                lastDecreaseAt = now;
+            }
+            if (waiting.get() > 0) {
+                slotFreed.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Estimates when a shed purchase should retry, by Little's law: with the limit's worth of
+     * purchases in flight, each taking the mean latency, the purchases already waiting are
+     * through after waiting * latency / limit.
+     *
+     * @return The suggested delay in milliseconds.
+     */
+    long retryAfterMillis() {
+        double drainNanos = (waiting.get() + 1) * Math.max(meanLatencyNanos, 1) / limit;
+        return Math.max(1, Math.min(maxRetryAfterMillis, (long) Math.ceil(drainNanos / 1_000_000.0)));
+    }
+
+    long getMaxRetryAfterMillis() {
+        return maxRetryAfterMillis;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    private boolean tryTakeSlot() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+}
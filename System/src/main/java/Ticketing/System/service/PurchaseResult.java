@@ -0,0 +1,54 @@
+package Ticketing.System.service;
+
+/**
+ * Outcome of a purchase through the purchase endpoint. Every purchase is answered at once:
+ * with the tickets bought, with the news that there are none left, or with a delay after
+ * which it is worth trying again.
+ */
+public class PurchaseResult {
+
+    /**
+     * How a purchase was answered.
+     */
+    public enum Status {
+        PURCHASED, // Tickets were bought
+        SOLD_OUT, // Every ticket of the customer's section is sold; retrying cannot help
+        NOT_RUNNING, // The simulation is not selling tickets
+        UNAVAILABLE, // The pool is empty, but more tickets will be released or come back from holds
+        SHED // Too many purchases are in progress; retry after the suggested delay
+    }
+
+    private final Status status; // How the purchase was answered
+    private final int tickets; // Tickets bought
+    private final long retryAfterMillis; // Suggested delay before retrying, or 0 if retrying is pointless
+
+    private PurchaseResult(Status status, int tickets, long retryAfterMillis) {
+        this.status = status;
+        this.tickets = tickets;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    static PurchaseResult purchased(int tickets) {
+        return new PurchaseResult(Status.PURCHASED, tickets, 0);
+    }
+
+    static PurchaseResult refused(Status status) {
+        return new PurchaseResult(status, 0, 0);
+    }
+
+    static PurchaseResult retryAfter(Status status, long retryAfterMillis) {
+        return new PurchaseResult(status, 0, retryAfterMillis);
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public int getTickets() {
+        return tickets;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
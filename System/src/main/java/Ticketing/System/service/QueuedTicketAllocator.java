@@ -0,0 +1,254 @@
+package Ticketing.System.service;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Allocator that serves waiting customers in order. Customers wait in one queue per
+ * tier; tiers are served by smooth weighted round robin and each tier strictly FIFO,
+ * so a single tier gives a plain FIFO queue. Tickets are handed to the customer at
+ * the head of the chosen queue, which is then woken on its own, so releases never
+ * wake a herd. Customers driven by a scheduler cannot park: when they poll they take
+ * a place in the queue and collect their grant on their next poll. One-shot callers
+ * never queue; they are only served while nobody is waiting.
+ */
+class QueuedTicketAllocator implements TicketAllocator {
+
+    private final ReentrantLock lock = new ReentrantLock(); // Guards the queues and the available count
+    private final ArrayDeque<Waiter>[] tiers; // Waiting customers by tier
+    private final int[] weights; // Share of releases each tier receives
+    private final int[] currentWeights; // Running credit of each tier for smooth weighted round robin
+    private final Waiter[] queuedAttempts; // Place in the queue held by a scheduled customer, by customer ID
+    private final CustomerWaitStats waitStats; // Per-customer tickets and waits
+    private final int ticketCap; // Most tickets one customer may buy, or 0 for no cap
+    private int availableTickets; // Tickets in the pool not granted to anyone
+    private int waiting; // Customers in all queues
+
+    /**
+     * Constructor to initialize the allocator.
+     *
+     * @param policy        FIFO, or TIERED for one queue per weight.
+     * @param customerTotal The number of customers.
+     * @param ticketCap     The most tickets one customer may buy, or 0 for no cap.
+     * @param tierWeights   The weight of each tier; customer N waits in tier (N - 1) modulo the tier count.
+     */
+    QueuedTicketAllocator(AllocationPolicy policy, int customerTotal, int ticketCap, List<Integer> tierWeights) {
+        this(policy, new CustomerWaitStats(policy, customerTotal), ticketCap, tierWeights);
+    }
+
+    /**
+     * Constructor to initialize an allocator that records into shared statistics,
+     * such as one allocator per section of an event.
+     *
+     * @param policy      FIFO, or TIERED for one queue per weight.
+     * @param waitStats   The statistics to record grants and waits in; sized for every customer ID.
+     * @param ticketCap   The most tickets one customer may buy, or 0 for no cap.
+     * @param tierWeights The weight of each tier; customer N waits in tier (N - 1) modulo the tier count.
+     */
+    @SuppressWarnings("unchecked")
+    QueuedTicketAllocator(AllocationPolicy policy, CustomerWaitStats waitStats, int ticketCap, List<Integer> tierWeights) {
+        int tierCount = policy == AllocationPolicy.TIERED && !tierWeights.isEmpty() ? tierWeights.size() : 1;
+        this.tiers = new ArrayDeque[tierCount];
+        this.weights = new int[tierCount];
+        this.currentWeights = new int[tierCount];
+        for (int i = 0; i < tierCount; i++) {
+            tiers[i] = new ArrayDeque<>();
+            weights[i] = tierCount == 1 ? 1 : Math.max(1, tierWeights.get(i));
+        }
+        this.queuedAttempts = new Waiter[waitStats.getCustomerTotal() + 1];
+        this.waitStats = waitStats;
+        this.ticketCap = ticketCap;
+    }
+
+    @Override
+    public int acquire(int customerID, int maxTickets) throws InterruptedException {
+        Waiter waiter;
+        lock.lock();
+        try {
+            int limit = waitStats.limit(customerID, maxTickets, ticketCap);
+            if (limit == 0) {
+                return 0;
+            }
+            if (waiting == 0 && availableTickets > 0) {
+                return grant(customerID, limit, System.nanoTime());
+            }
+            waiter = enqueue(customerID, limit, Thread.currentThread());
+        } finally {
+            lock.unlock();
+        }
+
+        while (waiter.granted == 0) {
+            LockSupport.park(this);
+            if (Thread.interrupted()) {
+                lock.lock();
+                try {
+                    if (waiter.granted == 0) {
+                        tiers[tierOf(customerID)].remove(waiter);
+                        waiting--;
+                        throw new InterruptedException();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                Thread.currentThread().interrupt(); // Granted just in time; keep the tickets and the interrupt
+            }
+        }
+        return waiter.granted;
+    }
+
+    @Override
+    public int tryAcquire(int customerID, int maxTickets) {
+        lock.lock();
+        try {
+            int limit = waitStats.limit(customerID, maxTickets, ticketCap);
+            if (limit == 0 || waiting > 0 || availableTickets == 0) {
+                return 0; // Nothing is reserved, so a caller that gives up strands no tickets
+            }
+            return grant(customerID, limit, System.nanoTime());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int poll(int customerID, int maxTickets) {
+        lock.lock();
+        try {
+            Waiter queued = customerID < queuedAttempts.length ? queuedAttempts[customerID] : null;
+            if (queued != null) {
+                if (queued.granted == 0) {
+                    return 0; // Still waiting for its turn
+                }
+                queuedAttempts[customerID] = null;
+                return collect(queued, maxTickets);
+            }
+            int limit = waitStats.limit(customerID, maxTickets, ticketCap);
+            if (limit == 0) {
+                return 0;
+            }
+            if (waiting == 0 && availableTickets > 0) {
+                return grant(customerID, limit, System.nanoTime());
+            }
+            if (customerID < queuedAttempts.length) {
+                queuedAttempts[customerID] = enqueue(customerID, limit, null);
+            }
+            return 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void release(int tickets) {
+        lock.lock();
+        try {
+            serve(tickets);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public CustomerWaitStats getWaitStats() {
+        return waitStats;
+    }
+
+    /**
+     * Hands tickets to a customer. Called with the lock held.
+     */
+    private int grant(int customerID, int limit, long waitingSince) {
+        int granted = Math.min(limit, availableTickets);
+        availableTickets -= granted;
+        waitStats.record(customerID, granted, System.nanoTime() - waitingSince);
+        return granted;
+    }
+
+    /**
+     * Adds tickets to the available count and hands them to the customers at the head
+     * of the queues. Called with the lock held.
+     */
+    private void serve(int tickets) {
+        availableTickets += tickets;
+        while (availableTickets > 0 && waiting > 0) {
+            Waiter waiter = tiers[nextTier()].poll();
+            waiting--;
+            waiter.granted = grant(waiter.customerID, waiter.limit, waiter.waitingSince);
+            if (waiter.thread != null) {
+                LockSupport.unpark(waiter.thread); // Wake only the customer that was served
+            }
+        }
+    }
+
+    /**
+     * Hands a scheduled customer the grant it queued for, no more than it asks for now.
+     * Tickets beyond that go on to the next customers. Called with the lock held.
+     */
+    private int collect(Waiter queued, int maxTickets) {
+        int excess = queued.granted - Math.max(0, maxTickets);
+        if (excess <= 0) {
+            return queued.granted;
+        }
+        waitStats.returned(queued.customerID, excess);
+        serve(excess);
+        return queued.granted - excess;
+    }
+
+    /**
+     * Puts a customer at the back of its tier's queue. Called with the lock held.
+     */
+    private Waiter enqueue(int customerID, int limit, Thread thread) {
+        Waiter waiter = new Waiter(customerID, limit, thread, System.nanoTime());
+        tiers[tierOf(customerID)].add(waiter);
+        waiting++;
+        return waiter;
+    }
+
+    /**
+     * Picks the non-empty tier with the highest credit (smooth weighted round robin).
+     * Called with the lock held while at least one customer is waiting.
+     */
+    private int nextTier() {
+        if (tiers.length == 1) {
+            return 0;
+        }
+        int chosen = -1;
+        int totalWeight = 0;
+        for (int i = 0; i < tiers.length; i++) {
+            if (tiers[i].isEmpty()) {
+                continue;
+            }
+            currentWeights[i] += weights[i];
+            totalWeight += weights[i];
+            if (chosen < 0 || currentWeights[i] > currentWeights[chosen]) {
+                chosen = i;
+            }
+        }
+        currentWeights[chosen] -= totalWeight;
+        return chosen;
+    }
+
+    private int tierOf(int customerID) {
+        return Math.floorMod(customerID - 1, tiers.length);
+    }
+
+    /**
+     * A customer waiting for tickets.
+     */
+    private static class Waiter {
+
+        private final int customerID; // ID of the waiting customer
+        private final int limit; // Most tickets the customer may be granted
+        private final Thread thread; // Parked thread to wake, or null for a scheduled customer
+        private final long waitingSince; // When the customer joined the queue
+        private volatile int granted; // Tickets granted; 0 while still waiting
+
+        private Waiter(int customerID, int limit, Thread thread, long waitingSince) {
+            this.customerID = customerID;
+            this.limit = limit;
+            this.thread = thread;
+            this.waitingSince = waitingSince;
+        }
+    }
+}
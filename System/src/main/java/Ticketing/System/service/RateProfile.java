@@ -0,0 +1,9 @@
+package Ticketing.System.service;
+
+/**
+ * Load shape of a simulation's customers.
+ */
+public enum RateProfile {
+    STEADY, // Customers retrieve at their configured rate for the whole run
+    FLASH_SALE // Customers retrieve several times faster for a short spike at the start, then settle to the configured rate
+}
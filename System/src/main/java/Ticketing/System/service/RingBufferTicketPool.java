@@ -0,0 +1,100 @@
+package Ticketing.System.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, lock-free multi-producer/multi-consumer ring buffer of ticket IDs.
+ * Each slot carries a sequence number that tells producers and consumers whose
+ * turn it is, so offers and polls only contend on a single CAS of the
+ * enqueue or dequeue position instead of a shared monitor.
+ */
+
+public class RingBufferTicketPool implements TicketPool {
+
+    private final int capacity; // Number of slots in the ring (a power of two)
+    private final int mask; // Bit mask used to map a position to a slot index
+    private final long[] tickets; // Ticket IDs stored in the ring
+    private final AtomicLongArray sequences; // Per-slot sequence numbers that publish writes and reads
+    private final AtomicLong enqueuePosition = new AtomicLong(); // Next position a producer will claim
+    private final AtomicLong dequeuePosition = new AtomicLong(); // Next position a consumer will claim
+
+    /**
+     * Constructor to initialize the ring buffer.
+     *
+     * @param maxTicketCapacity The minimum number of tickets the pool must hold.
+     */
+    public RingBufferTicketPool(int maxTicketCapacity) {
+        this.capacity = roundUpToPowerOfTwo(Math.max(2, maxTicketCapacity));
+        this.mask = capacity - 1;
+        this.tickets = new long[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    @Override
+    public boolean offer(long ticketId) {
+        long position = enqueuePosition.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.getAcquire(index) - position;
+            if (difference == 0) {
+                if (enqueuePosition.compareAndSet(position, position + 1)) {
+                    tickets[index] = ticketId;
+                    sequences.setRelease(index, position + 1); // Publish the ticket to consumers
+                    return true;
+                }
+                position = enqueuePosition.get();
+            } else if (difference < 0) {
+                return false; // The ring is full
+            } else {
+                position = enqueuePosition.get(); // Another producer claimed this slot
+            }
+        }
+    }
+
+    @Override
+    public long poll() {
+        long position = dequeuePosition.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.getAcquire(index) - (position + 1);
+            if (difference == 0) {
+                if (dequeuePosition.compareAndSet(position, position + 1)) {
+                    long ticketId = tickets[index];
+                    sequences.setRelease(index, position + capacity); // Hand the slot back to producers
+                    return ticketId;
+                }
+                position = dequeuePosition.get();
+            } else if (difference < 0) {
+                return EMPTY; // Nothing has been published at this position yet
+            } else {
+                position = dequeuePosition.get(); // Another consumer took this slot
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        long size = enqueuePosition.get() - dequeuePosition.get();
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    private static int roundUpToPowerOfTwo(int value) {
+        int highestBit = Integer.highestOneBit(value);
+        if (highestBit == value) {
+            return value;
+        }
+        if (highestBit >= (1 << 30)) {
+            throw new IllegalArgumentException("Ticket pool capacity too large: " + value);
+        }
+        return highestBit << 1;
+    }
+}
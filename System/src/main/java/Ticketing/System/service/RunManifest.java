@@ -0,0 +1,139 @@
+package Ticketing.System.service;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Configuration of a run, written next to its transaction log when the run starts,
+ * so a run interrupted by a crash can be rebuilt from its log on the next startup.
+ */
+final class RunManifest {
+
+    static final String FILE_NAME = "run.json"; // File the manifest is stored in
+    private static final Gson gson = new Gson();
+
+    private String simulationId; // Simulation the run belongs to
+    private String nodeId; // Node that stamped the run's ticket records
+    private int vendorTotal; // Total number of vendors
+    private int customerTotal; // Total number of customers
+    private int ticketReleaseRate; // Rate at which vendors release tickets
+    private int customerRetrievalRate; // Rate at which customers retrieve tickets
+    private int maxTicketCapacity; // Maximum number of tickets of the event
+    private int sectionTotal; // Number of sections the tickets are split into
+    private boolean ledgerMode; // Whether the run kept ticket ownership in a ledger
+    private InventoryMode inventoryMode; // Whether capacity was counted locally or shared
+    private boolean logFailed; // Whether a failed write stopped the run's transaction log
+
+    RunManifest(String simulationId, String nodeId, int vendorTotal, int customerTotal, int ticketReleaseRate,
+                int customerRetrievalRate, int maxTicketCapacity, int sectionTotal, boolean ledgerMode,
+                InventoryMode inventoryMode) {
+        this.simulationId = simulationId;
+        this.nodeId = nodeId;
+        this.vendorTotal = vendorTotal;
+        this.customerTotal = customerTotal;
+        this.ticketReleaseRate = ticketReleaseRate;
+        this.customerRetrievalRate = customerRetrievalRate;
+        this.maxTicketCapacity = maxTicketCapacity;
+        this.sectionTotal = sectionTotal;
+        this.ledgerMode = ledgerMode;
+        this.inventoryMode = inventoryMode;
+    }
+
+    /**
+     * Writes the manifest to a log directory, replacing the previous run's.
+     *
+     * @param directory The log directory.
+     * @throws IOException If the manifest cannot be written.
+     */
+    void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path temporary = directory.resolve(FILE_NAME + ".tmp");
+        Files.writeString(temporary, gson.toJson(this), StandardCharsets.UTF_8);
+        Files.move(temporary, directory.resolve(FILE_NAME), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Records that a failed write stopped the run's transaction log, so the log is known to miss events.
+     *
+     * @param directory The log directory.
+     * @throws IOException If the manifest cannot be written.
+     */
+    void markLogFailed(Path directory) throws IOException {
+        logFailed = true;
+        write(directory);
+    }
+
+    /**
+     * Reads the manifest of a log directory.
+     *
+     * @param directory The log directory.
+     * @return The manifest, or null if the directory has none.
+     * @throws IOException If the manifest cannot be read or parsed.
+     */
+    static RunManifest read(Path directory) throws IOException {
+        Path file = directory.resolve(FILE_NAME);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            RunManifest manifest = gson.fromJson(Files.readString(file, StandardCharsets.UTF_8), RunManifest.class);
+            if (manifest == null || manifest.simulationId == null) {
+                throw new IOException("Empty run manifest: " + file);
+            }
+            return manifest;
+        } catch (JsonParseException e) {
+            throw new IOException("Invalid run manifest: " + file, e);
+        }
+    }
+
+    String getSimulationId() {
+        return simulationId;
+    }
+
+    String getNodeId() {
+        return nodeId;
+    }
+
+    int getVendorTotal() {
+        return vendorTotal;
+    }
+
+    int getCustomerTotal() {
+        return customerTotal;
+    }
+
+    int getTicketReleaseRate() {
+        return ticketReleaseRate;
+    }
+
+    int getCustomerRetrievalRate() {
+        return customerRetrievalRate;
+    }
+
+    int getMaxTicketCapacity() {
+        return maxTicketCapacity;
+    }
+
+    int getSectionTotal() {
+        return Math.max(1, sectionTotal);
+    }
+
+    boolean isLedgerMode() {
+        return ledgerMode;
+    }
+
+    boolean isLogFailed() {
+        return logFailed;
+    }
+
+    InventoryMode getInventoryMode() {
+        return inventoryMode == null ? InventoryMode.LOCAL : inventoryMode;
+    }
+}
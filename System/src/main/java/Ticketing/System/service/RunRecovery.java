@@ -0,0 +1,221 @@
+package Ticketing.System.service;
+
+import Ticketing.System.config.TicketingProperties;
+import Ticketing.System.model.TicketRecord;
+import Ticketing.System.repo.TicketRecordRepo;
+import Ticketing.System.util.TransactionLogCheckpoint;
+import Ticketing.System.util.TransactionLogReplay;
+import Ticketing.System.util.TransactionLogWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rebuilds the state of a run interrupted by a crash from its transaction log.
+ * The log is replayed from its last checkpoint, or from the start if the database has
+ * not caught up with the checkpoint, and the ticket releases and claims the write-behind
+ * pipeline lost are written to the database. The database holds a prefix of the run's
+ * mutations, since the pipeline writes them in order, so only the events beyond the
+ * persisted counts of each section are written.
+ * Events the outbox committed with the ticket records but never relayed are appended to the
+ * log first, so the log is complete up to the database.
+ */
+@Component
+public class RunRecovery {
+
+    private static final Logger log = LoggerFactory.getLogger(RunRecovery.class);
+
+    private final TicketRecordRepo ticketRecordRepository; // Repository to manage ticket records
+    private final TransactionTemplate transactionTemplate; // Runs each chunk of recovered tickets in one transaction
+    private final OutboxRelay outboxRelay; // Appends events committed but not relayed before the crash
+    private final TicketingProperties.Log logSettings; // Settings for the transaction log
+    private final String nodeId; // Node the recovered tickets are stamped with
+    private final int flushSize; // Recovered mutations written per transaction
+
+    /**
+     * Constructor to initialize the recovery.
+     *
+     * @param ticketRecordRepository The repository to manage ticket records.
+     * @param transactionManager     The transaction manager used for each chunk.
+     * @param outboxRelay            The relay of events committed with the ticket records.
+     * @param properties             The ticketing configuration.
+     */
+    public RunRecovery(TicketRecordRepo ticketRecordRepository, PlatformTransactionManager transactionManager,
+                       OutboxRelay outboxRelay, TicketingProperties properties) {
+        this.ticketRecordRepository = ticketRecordRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.outboxRelay = outboxRelay;
+        this.logSettings = properties.getLog();
+        this.nodeId = properties.getInventory().getNodeId();
+        this.flushSize = Math.max(1, properties.getPersistence().getFlushSize());
+    }
+
+    /**
+     * Replays the log of an interrupted run and completes its ticket records in the database.
+     * A torn tail is cut off the log, so the run can be continued after its last valid event.
+     *
+     * @param directory The log directory of the run.
+     * @param manifest  The configuration of the run.
+     * @return The tickets added and retrieved per section, up to the last valid event.
+     * @throws IOException If the log cannot be read.
+     */
+    TransactionLogCheckpoint recover(Path directory, RunManifest manifest) throws IOException {
+        String simulationId = manifest.getSimulationId();
+        int sections = manifest.getSectionTotal();
+        TransactionLogCheckpoint checkpoint = readCheckpoint(directory, sections);
+        if (manifest.isLedgerMode()) {
+            // Ticket records of a ledger-mode run are restored from its ledger snapshot
+            return TransactionLogReplay.replay(directory, checkpoint, null, true);
+        }
+        if (manifest.getNodeId() != null) {
+            appendOutboxEvents(directory, manifest, checkpoint);
+        }
+
+        // The run continues under this node's ID, so claims find the tickets it released before the crash
+        if (manifest.getNodeId() != null && !manifest.getNodeId().equals(nodeId)) {
+            transactionTemplate.execute(status ->
+                    ticketRecordRepository.reassignNode(simulationId, manifest.getNodeId(), nodeId));
+        }
+        long[] persistedReleases = new long[sections];
+        long[] persistedClaims = new long[sections];
+        boolean isCheckpointPersisted = true;
+        for (int section = 1; section <= sections; section++) {
+            persistedReleases[section - 1] = ticketRecordRepository.countBySimulationIdAndSectionAndNodeId(
+                    simulationId, section, nodeId);
+            persistedClaims[section - 1] = ticketRecordRepository
+                    .countBySimulationIdAndSectionAndNodeIdAndCustomerIdIsNotNull(simulationId, section, nodeId);
+            isCheckpointPersisted &= checkpoint.getAdded(section) <= persistedReleases[section - 1]
+                    && checkpoint.getRetrieved(section) <= persistedClaims[section - 1];
+        }
+        TransactionLogCheckpoint from = isCheckpointPersisted ? checkpoint : TransactionLogCheckpoint.empty(sections);
+
+        // Releases first, so every recovered claim finds its ticket
+        MissingTickets releases = new MissingTickets(simulationId, true, from, persistedReleases);
+        TransactionLogCheckpoint replayed = TransactionLogReplay.replay(directory, from, releases, true);
+        releases.flush();
+        MissingTickets claims = new MissingTickets(simulationId, false, from, persistedClaims);
+        TransactionLogReplay.replay(directory, from, claims, false);
+        claims.flush();
+        log.info("Replayed simulation {} from sequence {} to {}; recovered {} released and {} claimed tickets.",
+                simulationId, from.getLastSequence(), replayed.getLastSequence(), releases.recovered, claims.recovered);
+
+        // The database can be ahead of a log whose last events were still buffered
+        long[] added = new long[sections];
+        long[] retrieved = new long[sections];
+        for (int section = 1; section <= sections; section++) {
+            added[section - 1] = Math.max(replayed.getAdded(section), persistedReleases[section - 1]);
+            retrieved[section - 1] = Math.max(replayed.getRetrieved(section), persistedClaims[section - 1]);
+        }
+        return new TransactionLogCheckpoint(replayed.getLastSequence(), false, added, retrieved);
+    }
+
+    /**
+     * Appends the run's outbox events to its log after the last valid event. The log is left
+     * open for recovery, and events it already holds are skipped.
+     */
+    private void appendOutboxEvents(Path directory, RunManifest manifest, TransactionLogCheckpoint checkpoint)
+            throws IOException {
+        String simulationId = manifest.getSimulationId();
+        if (outboxRelay.countPending(simulationId, manifest.getNodeId()) == 0) {
+            return;
+        }
+        TransactionLogCheckpoint logged = TransactionLogReplay.replay(directory, checkpoint, null, true);
+        TransactionLogWriter writer = new TransactionLogWriter(directory, logSettings.getBufferSize(),
+                logSettings.getSegmentSize(), logSettings.getFsyncPolicy(), logSettings.getFlushIntervalMillis(), logged,
+                logSettings.getFormat());
+        try {
+            long appended = outboxRelay.relayAll(simulationId, manifest.getNodeId(), OutboxRelay.appendingTo(writer));
+            log.info("Appended {} outbox events of simulation {} to its log.", appended, simulationId);
+        } finally {
+            writer.close(false);
+        }
+    }
+
+    private static TransactionLogCheckpoint readCheckpoint(Path directory, int sections) {
+        try {
+            TransactionLogCheckpoint checkpoint = TransactionLogCheckpoint.read(directory);
+            return checkpoint != null ? checkpoint : TransactionLogCheckpoint.empty(sections);
+        } catch (IOException e) {
+            log.warn("Ignoring checkpoint of {}: {}", directory, e.getMessage());
+            return TransactionLogCheckpoint.empty(sections);
+        }
+    }
+
+    /**
+     * Collects the replayed releases or claims beyond the persisted count of each section
+     * and writes them in chunks.
+     */
+    private final class MissingTickets implements TransactionLogReplay.Listener {
+
+        private final String simulationId; // Simulation the tickets belong to
+        private final boolean isRelease; // Whether releases or claims are recovered
+        private final long[] replayed; // Tickets replayed per section - 1, including the checkpoint
+        private final long[] persisted; // Tickets already in the database per section - 1
+        private final List<TicketMutation> pending = new ArrayList<>(); // Mutations not written yet
+        private long recovered; // Tickets written so far
+
+        private MissingTickets(String simulationId, boolean isRelease, TransactionLogCheckpoint from, long[] persisted) {
+            this.simulationId = simulationId;
+            this.isRelease = isRelease;
+            this.persisted = persisted;
+            this.replayed = new long[persisted.length];
+            for (int section = 1; section <= persisted.length; section++) {
+                replayed[section - 1] = isRelease ? from.getAdded(section) : from.getRetrieved(section);
+            }
+        }
+
+        @Override
+        public void onEvent(long sequence, boolean isAdd, long entityId, int section, int ticketCount) {
+            if (isAdd != isRelease || section > persisted.length) {
+                return;
+            }
+            long before = replayed[section - 1];
+            long after = before + ticketCount;
+            replayed[section - 1] = after;
+            long missing = after - Math.max(before, persisted[section - 1]);
+            if (missing <= 0) {
+                return;
+            }
+            pending.add(isRelease
+                    ? TicketMutation.release(simulationId, section, entityId, (int) missing)
+                    : TicketMutation.claim(simulationId, section, entityId, (int) missing));
+            if (pending.size() >= flushSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                List<TicketRecord> releasedTickets = new ArrayList<>();
+                for (TicketMutation mutation : pending) {
+                    if (isRelease) {
+                        for (int i = 0; i < mutation.getTicketCount(); i++) {
+                            TicketRecord ticket = new TicketRecord(simulationId, mutation.getSection(),
+                                    mutation.getEntityId(), null);
+                            ticket.setNodeId(nodeId);
+                            releasedTickets.add(ticket);
+                        }
+                    } else {
+                        ticketRecordRepository.claimTickets(simulationId, mutation.getSection(), nodeId,
+                                mutation.getEntityId(), mutation.getTicketCount());
+                    }
+                }
+                ticketRecordRepository.saveAll(releasedTickets);
+            });
+            for (TicketMutation mutation : pending) {
+                recovered += mutation.getTicketCount();
+            }
+            pending.clear();
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package Ticketing.System.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Sales aggregates of one run, maintained as tickets are released and bought: tickets per
+ * vendor, tickets per customer and a histogram of sales over time. Vendors and customers are
+ * counted in primitive arrays indexed by ID, like CustomerWaitStats. The histogram is built by
+ * sampling the run's running totals, so the selling threads only pay for the per-actor counters;
+ * when it fills up, neighbouring buckets are merged and the bucket width doubles.
+ */
+public class SalesStats {
+
+    private final int vendorTotal; // Number of vendors; IDs run from 1 to vendorTotal
+    private final int customerTotal; // Number of customers; IDs run from 1 to customerTotal
+    private final int capacity; // Tickets of the event, over all sections
+    private final long startedAt; // Time (epoch milliseconds) the run started
+    private final AtomicIntegerArray vendorTickets; // Tickets released by each vendor
+    private final AtomicIntegerArray customerTickets; // Tickets bought by each customer
+
+    private final int maxBuckets; // Most histogram buckets kept before they are merged
+    private long bucketMillis; // Width of one histogram bucket
+    private long[] added; // Tickets released in each bucket
+    private long[] retrieved; // Tickets bought in each bucket
+    private int bucketCount; // Buckets in use
+    private long sampledIssued; // Tickets released up to the last sample
+    private long sampledClaimed; // Tickets bought up to the last sample
+
+    /**
+     * Constructor to initialize empty aggregates for a run.
+     *
+     * @param vendorTotal   The number of vendors.
+     * @param customerTotal The number of customers.
+     * @param capacity      The number of tickets of the event.
+     * @param bucketMillis  The initial width of a histogram bucket.
+     * @param maxBuckets    The most histogram buckets to keep.
+     * @param issued        Tickets already released when the run started, for a recovered run.
+     * @param claimed       Tickets already bought when the run started, for a recovered run.
+     */
+    public SalesStats(int vendorTotal, int customerTotal, int capacity, long bucketMillis, int maxBuckets,
+                      long issued, long claimed) {
+        this.vendorTotal = vendorTotal;
+        this.customerTotal = customerTotal;
+        this.capacity = capacity;
+        this.startedAt = System.currentTimeMillis();
+        this.vendorTickets = new AtomicIntegerArray(vendorTotal + 1);
+        this.customerTickets = new AtomicIntegerArray(customerTotal + 1);
+        this.bucketMillis = Math.max(1, bucketMillis);
+        this.maxBuckets = Math.max(2, maxBuckets);
+        this.added = new long[Math.min(this.maxBuckets, 64)];
+        this.retrieved = new long[added.length];
+        this.sampledIssued = issued;
+        this.sampledClaimed = claimed;
+    }
+
+    /**
+     * Records tickets released by a vendor.
+     *
+     * @param vendorID The ID of the vendor.
+     * @param tickets  The number of tickets released.
+     */
+    void recordRelease(int vendorID, int tickets) {
+        if (vendorID >= 1 && vendorID <= vendorTotal) {
+            vendorTickets.addAndGet(vendorID, tickets);
+        }
+    }
+
+    /**
+     * Records tickets bought by a customer. Customers outside the simulated range, such as
+     * clients of the purchase endpoint, only count towards the totals.
+     *
+     * @param customerID The ID of the customer.
+     * @param tickets    The number of tickets bought.
+     */
+    void recordPurchase(int customerID, int tickets) {
+        if (customerID >= 1 && customerID <= customerTotal) {
+            customerTickets.addAndGet(customerID, tickets);
+        }
+    }
+
+    /**
+     * Adds the tickets released and bought since the previous sample to the histogram bucket
+     * of the given time.
+     *
+     * @param issued  Tickets released in the run so far.
+     * @param claimed Tickets bought in the run so far.
+     * @param now     The current time (epoch milliseconds).
+     */
+    synchronized void sample(long issued, long claimed, long now) {
+        long addedSince = issued - sampledIssued;
+        long retrievedSince = claimed - sampledClaimed;
+        if (addedSince == 0 && retrievedSince == 0) {
+            return;
+        }
+        long bucket = Math.max(0, now - startedAt) / bucketMillis;
+        while (bucket >= maxBuckets) {
+            mergeBuckets();
+            bucket = Math.max(0, now - startedAt) / bucketMillis;
+        }
+        int index = (int) bucket;
+        if (index >= added.length) {
+            int length = Math.min(maxBuckets, Math.max(index + 1, added.length * 2));
+            added = Arrays.copyOf(added, length);
+            retrieved = Arrays.copyOf(retrieved, length);
+        }
+        added[index] += addedSince;
+        retrieved[index] += retrievedSince;
+        bucketCount = Math.max(bucketCount, index + 1);
+        sampledIssued = issued;
+        sampledClaimed = claimed;
+    }
+
+    /**
+     * Summarises the run's sales as of the last sample.
+     *
+     * @return The ticket totals, the sell-through rate and the sales rate since the start.
+     */
+    public synchronized Map<String, Object> summary() {
+        long elapsedMillis = Math.max(1, System.currentTimeMillis() - startedAt);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("startedAt", startedAt);
+        summary.put("capacity", capacity);
+        summary.put("issuedTickets", sampledIssued);
+        summary.put("claimedTickets", sampledClaimed);
+        summary.put("sellThroughPercent", capacity == 0 ? 0.0 : 100.0 * sampledClaimed / capacity);
+        summary.put("ticketsPerSecond", sampledClaimed * 1000.0 / elapsedMillis);
+        summary.put("vendors", vendorTotal);
+        summary.put("customers", customerTotal);
+        return summary;
+    }
+
+    /**
+     * Returns the sales histogram.
+     *
+     * @return One entry per bucket with its start relative to the run's start, the tickets
+     * released and bought in it, and the sell-through rate at its end.
+     */
+    public synchronized Map<String, Object> histogram() {
+        List<Map<String, Object>> buckets = new ArrayList<>(bucketCount);
+        long claimedSoFar = sampledClaimed;
+        for (int i = 0; i < bucketCount; i++) {
+            claimedSoFar -= retrieved[i];
+        }
+        for (int i = 0; i < bucketCount; i++) {
+            claimedSoFar += retrieved[i];
+            Map<String, Object> bucket = new LinkedHashMap<>();
+            bucket.put("offsetMillis", i * bucketMillis);
+            bucket.put("added", added[i]);
+            bucket.put("retrieved", retrieved[i]);
+            bucket.put("sellThroughPercent", capacity == 0 ? 0.0 : 100.0 * claimedSoFar / capacity);
+            buckets.add(bucket);
+        }
+        Map<String, Object> histogram = new LinkedHashMap<>();
+        histogram.put("bucketMillis", bucketMillis);
+        histogram.put("buckets", buckets);
+        return histogram;
+    }
+
+    /**
+     * Returns the tickets released by a range of vendors.
+     *
+     * @param offset The number of vendors to skip.
+     * @param limit  The most vendors to return.
+     * @return One entry per vendor with its tickets.
+     */
+    public List<Map<String, Object>> vendors(int offset, int limit) {
+        List<Map<String, Object>> vendors = new ArrayList<>();
+        int first = Math.max(1, offset + 1);
+        int last = (int) Math.min(vendorTotal, (long) first + Math.max(0, limit) - 1);
+        for (int vendorID = first; vendorID <= last; vendorID++) {
+            Map<String, Object> vendor = new LinkedHashMap<>();
+            vendor.put("vendorId", vendorID);
+            vendor.put("tickets", vendorTickets.get(vendorID));
+            vendors.add(vendor);
+        }
+        return vendors;
+    }
+
+    /**
+     * Returns the customers that bought the most tickets, found with a bounded heap in one pass.
+     *
+     * @param limit The most customers to return.
+     * @return One entry per customer with its tickets, most tickets first and lower IDs first on ties.
+     */
+    public List<Map<String, Object>> topCustomers(int limit) {
+        int size = Math.max(0, Math.min(limit, customerTotal));
+        if (size == 0) {
+            return List.of();
+        }
+        // Heap of {tickets, customerID} with the weakest entry on top
+        PriorityQueue<int[]> top = new PriorityQueue<>(size, (a, b) -> a[0] != b[0]
+                ? Integer.compare(a[0], b[0]) : Integer.compare(b[1], a[1]));
+        for (int customerID = 1; customerID <= customerTotal; customerID++) {
+            int tickets = customerTickets.get(customerID);
+            if (tickets == 0) {
+                continue;
+            }
+            if (top.size() < size) {
+                top.add(new int[]{tickets, customerID});
+            } else if (tickets > top.peek()[0]) {
+                top.poll();
+                top.add(new int[]{tickets, customerID});
+            }
+        }
+        List<int[]> ranked = new ArrayList<>(top);
+        ranked.sort(top.comparator().reversed());
+        List<Map<String, Object>> customers = new ArrayList<>(ranked.size());
+        for (int[] entry : ranked) {
+            Map<String, Object> customer = new LinkedHashMap<>();
+            customer.put("customerId", entry[1]);
+            customer.put("tickets", entry[0]);
+            customers.add(customer);
+        }
+        return customers;
+    }
+
+    public int getVendorTickets(int vendorID) {
+        return vendorTickets.get(vendorID);
+    }
+
+    public int getCustomerTickets(int customerID) {
+        return customerTickets.get(customerID);
+    }
+
+    /**
+     * Halves the number of buckets in use by merging neighbours, doubling the bucket width.
+     */
+    private void mergeBuckets() {
+        int merged = (bucketCount + 1) / 2;
+        for (int i = 0; i < merged; i++) {
+            int second = 2 * i + 1;
+            added[i] = added[2 * i] + (second < bucketCount ? added[second] : 0);
+            retrieved[i] = retrieved[2 * i] + (second < bucketCount ? retrieved[second] : 0);
+        }
+        Arrays.fill(added, merged, added.length, 0);
+        Arrays.fill(retrieved, merged, retrieved.length, 0);
+        bucketCount = merged;
+        bucketMillis *= 2;
+    }
+}
@@ -0,0 +1,177 @@
+package Ticketing.System.service;
+
+import Ticketing.System.config.TicketingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * The SalesStatsService serves the sales aggregates of each simulation to dashboards. A single
+ * sampler feeds the running simulations' sales histograms once per bucket. Responses are computed
+ * from the in-memory aggregates, never from the database, and kept in a bounded cache for a short
+ * time, so any number of dashboards polling the same view cost one computation per interval.
+ * The least recently used responses are evicted once the cache is full, and a response is never
+ * served for a run other than the one it was computed from.
+ */
+@Service
+public class SalesStatsService {
+
+    private static final int MAX_LIMIT = 1000; // Most vendors or customers listed per request
+
+    private final SimulationRegistry simulationRegistry; // Registry the simulations are looked up in
+    private final long cacheTtlNanos; // How long a cached response is served
+    private final Map<String, CachedView> cache; // Computed responses by simulation and view, in access order
+    private final ScheduledExecutorService sampler; // Samples the running simulations into their histograms
+    private final Counter cacheHits; // Responses served from the cache
+    private final Counter cacheMisses; // Responses computed from the aggregates
+
+    /**
+     * Constructor to initialize the cache and start the sampler.
+     *
+     * @param simulationRegistry The registry of simulations.
+     * @param properties         The ticketing configuration.
+     * @param meterRegistry      The registry the cache meters are published to.
+     */
+    public SalesStatsService(SimulationRegistry simulationRegistry, TicketingProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.simulationRegistry = simulationRegistry;
+        TicketingProperties.Stats settings = properties.getStats();
+        this.cacheTtlNanos = TimeUnit.MILLISECONDS.toNanos(settings.getCacheTtlMillis());
+        int cacheSize = Math.max(1, settings.getCacheSize());
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedView> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        this.cacheHits = Counter.builder("ticketing.stats.cache").tag("result", "hit")
+                .description("Stats responses served from the cache or computed")
+                .register(meterRegistry);
+        this.cacheMisses = Counter.builder("ticketing.stats.cache").tag("result", "miss")
+                .description("Stats responses served from the cache or computed")
+                .register(meterRegistry);
+        this.sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sales-stats-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, settings.getBucketMillis());
+        sampler.scheduleAtFixedRate(this::sampleRunning, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the sales summary and histogram of a simulation.
+     *
+     * @param simulationId The ID of the simulation.
+     * @return The ticket totals, sell-through and sales rates, and the sales histogram.
+     * @throws SimulationNotFoundException If no simulation with this ID exists.
+     */
+    public Map<String, Object> summary(String simulationId) {
+        return cached(simulationId, "summary", stats -> {
+            Map<String, Object> summary = new LinkedHashMap<>(stats.summary());
+            summary.put("sales", stats.histogram());
+            return summary;
+        });
+    }
+
+    /**
+     * Returns the tickets released by a page of a simulation's vendors.
+     *
+     * @param simulationId The ID of the simulation.
+     * @param offset       The number of vendors to skip.
+     * @param limit        The most vendors to return, at most 1000.
+     * @return One entry per vendor.
+     * @throws SimulationNotFoundException If no simulation with this ID exists.
+     */
+    public List<Map<String, Object>> vendors(String simulationId, int offset, int limit) {
+        int pageSize = checkLimit(limit);
+        return cached(simulationId, "vendors:" + offset + ":" + pageSize, stats -> stats.vendors(offset, pageSize));
+    }
+
+    /**
+     * Returns the customers of a simulation that bought the most tickets.
+     *
+     * @param simulationId The ID of the simulation.
+     * @param limit        The most customers to return, at most 1000.
+     * @return One entry per customer, most tickets first.
+     * @throws SimulationNotFoundException If no simulation with this ID exists.
+     */
+    public List<Map<String, Object>> topCustomers(String simulationId, int limit) {
+        int size = checkLimit(limit);
+        return cached(simulationId, "top-customers:" + size, stats -> stats.topCustomers(size));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sampler.shutdownNow();
+    }
+
+    /**
+     * Serves a view from the cache, or brings the run's aggregates up to date and computes it.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T cached(String simulationId, String view, Function<SalesStats, T> compute) {
+        TicketService simulation = simulationRegistry.get(simulationId);
+        SalesStats stats = simulation.getSalesStats();
+        String key = simulationId + "/" + view;
+        long now = System.nanoTime();
+        synchronized (cache) {
+            CachedView cachedView = cache.get(key);
+            if (cachedView != null && cachedView.stats == stats && now - cachedView.computedAt < cacheTtlNanos) {
+                cacheHits.increment();
+                return (T) cachedView.value;
+            }
+        }
+        cacheMisses.increment();
+        simulation.sampleSales();
+        T value = compute.apply(stats);
+        synchronized (cache) {
+            cache.put(key, new CachedView(stats, now, value));
+        }
+        return value;
+    }
+
+    private void sampleRunning() {
+        try {
+            for (TicketService simulation : simulationRegistry.getSimulations()) {
+                if (simulation.isSimulationRunning()) {
+                    simulation.sampleSales();
+                }
+            }
+        } catch (RuntimeException e) {
+            // Keep the sampler alive; the next tick catches up
+        }
+    }
+
+    private static int checkLimit(int limit) {
+        if (limit < 0 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 0 and " + MAX_LIMIT + ": " + limit);
+        }
+        return limit;
+    }
+
+    /**
+     * A computed response and the run aggregates it was computed from.
+     */
+    private static class CachedView {
+
+        private final SalesStats stats; // Aggregates of the run the response describes
+        private final long computedAt; // Time (System.nanoTime) the response was computed
+        private final Object value; // The response
+
+        private CachedView(SalesStats stats, long computedAt, Object value) {
+            this.stats = stats;
+            this.computedAt = computedAt;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package Ticketing.System.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs vendors and customers as paced tasks on a timing wheel shared by all simulations.
+ * Each task performs a single release or retrieval attempt, asks its actor's pacer for
+ * the next deadline and puts itself back on the wheel, so a small worker pool can
+ * drive a very large number of actors at their configured rates.
+ */
+class ScheduledActorExecutor implements ActorExecutor {
+
+    private final TimingWheel timingWheel; // Wheel and worker pool shared by all simulations
+    private final AtomicInteger runningTasks = new AtomicInteger(); // Tasks of this simulation currently executing
+    private volatile boolean isStopped = false; // Flag telling tasks not to start another attempt
+
+    /**
+     * Constructor to initialize the executor.
+     *
+     * @param timingWheel The timing wheel the actor tasks are scheduled on.
+     */
+    ScheduledActorExecutor(TimingWheel timingWheel) {
+        this.timingWheel = timingWheel;
+    }
+
+    @Override
+    public void start(List<Vendor> vendors, List<Customer> customers) {
+        long now = System.nanoTime();
+        for (Vendor vendor : vendors) {
+            new ActorTask(vendor::releaseOnce, vendor.getPacer(), now).scheduleNext();
+        }
+        for (Customer customer : customers) {
+            new ActorTask(customer::retrieveOnce, customer.getPacer(), now).scheduleNext();
+        }
+    }
+
+    @Override
+    public void stop() {
+        isStopped = true; // Tasks still on the wheel return without an attempt
+
+        // Wait for attempts that were already executing
+        while (runningTasks.get() > 0) {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * One actor's repeating attempt.
+     */
+    private class ActorTask implements Runnable {
+
+        private final Runnable attempt; // Release or retrieval attempt
+        private final ActorPacer pacer; // Computes the deadline of each attempt
+        private long deadline; // Deadline of the last scheduled attempt
+
+        private ActorTask(Runnable attempt, ActorPacer pacer, long startNanos) {
+            this.attempt = attempt;
+            this.pacer = pacer;
+            this.deadline = startNanos;
+        }
+
+        @Override
+        public void run() {
+            runningTasks.incrementAndGet();
+            try {
+                if (isStopped) {
+                    return;
+                }
+                attempt.run();
+                scheduleNext();
+            } finally {
+                runningTasks.decrementAndGet();
+            }
+        }
+
+        private void scheduleNext() {
+            deadline = pacer.nextDeadline(deadline, System.nanoTime());
+            timingWheel.schedule(this, deadline);
+        }
+    }
+}
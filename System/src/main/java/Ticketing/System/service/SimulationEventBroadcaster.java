@@ -0,0 +1,261 @@
+package Ticketing.System.service;
+
+import Ticketing.System.config.TicketingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The SimulationEventBroadcaster pushes pool state to dashboards as server-sent events.
+ * A single ticker samples each watched simulation once per tick and builds one shared
+ * frame, so the simulation threads never see the subscribers. Each subscriber has a
+ * small bounded buffer drained by a sender pool; when a slow client falls behind, its
+ * oldest frames are dropped. Frames carry running totals, and the tickets added and
+ * retrieved since the last frame that subscriber actually received, worked out as the
+ * frame is sent; so a dropped frame only conflates two ticks into one and never loses tickets.
+ * Transaction events are not streamed one by one: they are coalesced into those counts,
+ * and the individual events stay available from the transactions endpoint.
+ */
+@Component
+public class SimulationEventBroadcaster {
+
+    private final SimulationRegistry simulationRegistry; // Registry the watched simulations are looked up in
+    private final int bufferSize; // Frames buffered per subscriber
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>(); // Connected subscribers
+    private final Map<String, SimulationState> lastStates = new HashMap<>(); // Last sampled state per simulation; ticker thread only
+    private final ScheduledExecutorService ticker; // Samples the simulations once per tick
+    private final ExecutorService senders; // Writes buffered frames to subscribers
+    private final Counter droppedFrames; // Frames dropped because a subscriber fell behind
+
+    /**
+     * Constructor to initialize the broadcaster and start its ticker.
+     *
+     * @param simulationRegistry The registry of simulations that can be watched.
+     * @param properties         The ticketing configuration.
+     * @param meterRegistry      The registry the stream meters are published to.
+     */
+    public SimulationEventBroadcaster(SimulationRegistry simulationRegistry, TicketingProperties properties,
+                                      MeterRegistry meterRegistry) {
+        this.simulationRegistry = simulationRegistry;
+        TicketingProperties.Stream settings = properties.getStream();
+        this.bufferSize = Math.max(1, settings.getBufferSize());
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "simulation-broadcaster");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(Math.max(1, settings.getSenderThreads()), runnable -> {
+            Thread thread = new Thread(runnable, "simulation-stream-sender-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.droppedFrames = Counter.builder("ticketing.stream.dropped")
+                .description("Pool-state frames dropped because a subscriber fell behind")
+                .register(meterRegistry);
+        Gauge.builder("ticketing.stream.subscribers", subscribers, List::size)
+                .description("Clients subscribed to the pool-state stream")
+                .register(meterRegistry);
+        ticker.scheduleAtFixedRate(this::tick, settings.getTickMillis(), settings.getTickMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Subscribes a client to the pool state of a simulation. The first frame is sent
+     * on the next tick; after that a frame is sent whenever the state changes.
+     *
+     * @param simulationId The ID of the simulation to watch.
+     * @return The emitter the frames are written to.
+     */
+    public SseEmitter subscribe(String simulationId) {
+        SseEmitter emitter = new SseEmitter(0L); // Streams stay open until the client disconnects
+        Subscriber subscriber = new Subscriber(simulationId, emitter, bufferSize);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        ticker.shutdownNow();
+        senders.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    /**
+     * Samples every watched simulation once and hands the resulting frame to its subscribers.
+     */
+    private void tick() {
+        try {
+            Map<String, SimulationState> states = new HashMap<>();
+            for (Subscriber subscriber : subscribers) {
+                SimulationState state = states.computeIfAbsent(subscriber.simulationId, this::sample);
+                if (state == null) {
+                    continue;
+                }
+                if (state.changed || subscriber.isNew) {
+                    subscriber.isNew = false;
+                    if (subscriber.offer(state)) {
+                        droppedFrames.increment();
+                    }
+                    schedule(subscriber);
+                }
+            }
+            lastStates.keySet().retainAll(states.keySet()); // Forget simulations nobody watches any more
+        } catch (RuntimeException e) {
+            // Keep the ticker alive; a failed sample is retried on the next tick
+        }
+    }
+
+    /**
+     * Reads the current state of a simulation and builds its frame.
+     *
+     * @return The state, or null if the simulation no longer exists.
+     */
+    private SimulationState sample(String simulationId) {
+        TicketService simulation;
+        try {
+            simulation = simulationRegistry.get(simulationId);
+        } catch (SimulationNotFoundException e) {
+            return null;
+        }
+        boolean running = simulation.isSimulationRunning();
+        int remaining = simulation.getRemainingTickets();
+        int issued = simulation.getIssuedTickets();
+        int claimed = simulation.getClaimedTickets();
+
+        SimulationState last = lastStates.get(simulationId);
+        boolean changed = last == null || last.running != running || last.remaining != remaining
+                || last.issued != issued || last.claimed != claimed;
+
+        String frame = "{\"simulationId\":\"" + simulationId + "\""
+                + ",\"running\":" + running
+                + ",\"remainingTickets\":" + remaining
+                + ",\"issuedTickets\":" + issued
+                + ",\"claimedTickets\":" + claimed
+                + ",\"timestamp\":" + System.currentTimeMillis(); // Each subscriber adds its own deltas
+        SimulationState state = new SimulationState(running, remaining, issued, claimed, changed, frame);
+        lastStates.put(simulationId, state);
+        return state;
+    }
+
+    /**
+     * Starts draining a subscriber's buffer unless a sender is already doing so.
+     */
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.isDraining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            SimulationState state;
+            while ((state = subscriber.buffer.poll()) != null) {
+                subscriber.emitter.send(SseEmitter.event().name("pool").data(subscriber.frame(state),
+                        MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(subscriber); // The client went away
+            subscriber.emitter.completeWithError(e);
+            return;
+        } finally {
+            subscriber.isDraining.set(false);
+        }
+        if (!subscriber.buffer.isEmpty()) {
+            schedule(subscriber); // A frame arrived after the last poll
+        }
+    }
+
+    /**
+     * Pool state of one simulation at one tick.
+     */
+    private static class SimulationState {
+
+        private final boolean running; // Flag indicating if the simulation was running
+        private final int remaining; // Tickets in the pool
+        private final int issued; // Tickets released in the current run
+        private final int claimed; // Tickets retrieved in the current run
+        private final boolean changed; // Flag indicating the state differs from the previous tick
+        private final String frame; // JSON frame shared by all subscribers, without the deltas and closing brace
+
+        private SimulationState(boolean running, int remaining, int issued, int claimed, boolean changed, String frame) {
+            this.running = running;
+            this.remaining = remaining;
+            this.issued = issued;
+            this.claimed = claimed;
+            this.changed = changed;
+            this.frame = frame;
+        }
+    }
+
+    /**
+     * A connected client and its bounded frame buffer.
+     */
+    private static class Subscriber {
+
+        private final String simulationId; // Simulation this client watches
+        private final SseEmitter emitter; // Connection to the client
+        private final BlockingQueue<SimulationState> buffer; // Frames waiting to be sent
+        private final AtomicBoolean isDraining = new AtomicBoolean(); // Flag indicating a sender owns this subscriber
+        private volatile boolean isNew = true; // Flag indicating the client has not received a frame yet
+        private boolean hasSent; // Flag indicating a frame was sent; owned by the draining sender
+        private int sentIssued; // Issued tickets in the last frame sent; owned by the draining sender
+        private int sentClaimed; // Claimed tickets in the last frame sent; owned by the draining sender
+
+        private Subscriber(String simulationId, SseEmitter emitter, int bufferSize) {
+            this.simulationId = simulationId;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        /**
+         * Buffers a frame, dropping the oldest one if the buffer is full.
+         *
+         * @return True if a frame was dropped.
+         */
+        private boolean offer(SimulationState state) {
+            boolean dropped = false;
+            while (!buffer.offer(state)) {
+                dropped |= buffer.poll() != null;
+            }
+            return dropped;
+        }
+
+        /**
+         * Completes a frame with the tickets added and retrieved since the last frame this
+         * subscriber was sent, so frames dropped in between are counted in this one.
+         */
+        private String frame(SimulationState state) {
+            // The first frame has no predecessor; counters restart at zero with each run
+            int added = !hasSent ? 0 : state.issued >= sentIssued ? state.issued - sentIssued : state.issued;
+            int retrieved = !hasSent ? 0 : state.claimed >= sentClaimed ? state.claimed - sentClaimed : state.claimed;
+            hasSent = true;
+            sentIssued = state.issued;
+            sentClaimed = state.claimed;
+            return state.frame + ",\"ticketsAdded\":" + added + ",\"ticketsRetrieved\":" + retrieved + "}";
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package Ticketing.System.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when starting a simulation would exceed the number of simulations allowed to run at once,
+ * or creating one would exceed the number of simulations kept.
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class SimulationLimitException extends RuntimeException {
+
+    public SimulationLimitException(int maxRunning) {
+        super("Too many simulations running (limit " + maxRunning + ")");
+    }
+
+    public SimulationLimitException(String message) {
+        super(message);
+    }
+}
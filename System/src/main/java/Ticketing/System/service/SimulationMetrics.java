@@ -0,0 +1,167 @@
+package Ticketing.System.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Micrometer meters for one simulation, tagged with its simulation ID.
+ * Counters and timers are lock-free, so recording them on the ticket hot path is cheap.
+ */
+public class SimulationMetrics implements AutoCloseable {
+
+    private final MeterRegistry meterRegistry; // Registry the meters are published to
+    private final String simulationId; // Value of the "simulation" tag
+    private final List<Meter> meters = new ArrayList<>(); // Meters to remove when the simulation is evicted
+    private final Counter ticketsAdded; // Tickets released by vendors
+    private final Counter ticketsRetrieved; // Tickets retrieved by customers
+    private final Timer customerParkTime; // Time customers spend parked waiting for a ticket
+    private final Timer ticketWaitTime; // Time from a ticket becoming available to it being claimed
+    private final Counter holdsPlaced; // Holds placed by customers
+    private final Counter holdsConfirmed; // Holds confirmed at checkout
+    private final Counter holdsReleased; // Holds given back before they expired
+    private final Counter holdsExpired; // Holds that expired and went back to the pool
+    private final Counter runsFailed; // Runs that failed, for example because their tickets could not be written
+    private final Map<PurchaseResult.Status, Counter> purchases = new EnumMap<>(PurchaseResult.Status.class); // Purchases by outcome
+
+    /**
+     * Constructor to register the meters of a simulation.
+     *
+     * @param meterRegistry The registry to publish to.
+     * @param simulationId  The ID of the simulation.
+     */
+    public SimulationMetrics(MeterRegistry meterRegistry, String simulationId) {
+        this.meterRegistry = meterRegistry;
+        this.simulationId = simulationId;
+        this.ticketsAdded = register(Counter.builder("ticketing.tickets.added")
+                .description("Tickets released into the pool by vendors")
+                .tag("simulation", simulationId)
+                .register(meterRegistry));
+        this.ticketsRetrieved = register(Counter.builder("ticketing.tickets.retrieved")
+                .description("Tickets retrieved from the pool by customers")
+                .tag("simulation", simulationId)
+                .register(meterRegistry));
+        this.customerParkTime = register(Timer.builder("ticketing.customer.park")
+                .description("Time customers spend parked waiting for the pool to have a ticket")
+                .tag("simulation", simulationId)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        this.ticketWaitTime = register(Timer.builder("ticketing.ticket.wait")
+                .description("Time from a ticket becoming available to a customer claiming it")
+                .tag("simulation", simulationId)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        this.runsFailed = register(Counter.builder("ticketing.simulation.failures")
+                .description("Runs that failed, for example because their ticket records could not be written")
+                .tag("simulation", simulationId)
+                .register(meterRegistry));
+        this.holdsPlaced = holdCounter("placed");
+        this.holdsConfirmed = holdCounter("confirmed");
+        this.holdsReleased = holdCounter("released");
+        this.holdsExpired = holdCounter("expired");
+        for (PurchaseResult.Status status : PurchaseResult.Status.values()) {
+            purchases.put(status, register(Counter.builder("ticketing.purchases")
+                    .description("Purchases through the purchase endpoint by outcome")
+                    .tag("simulation", simulationId)
+                    .tag("outcome", status.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry)));
+        }
+    }
+
+    /**
+     * Publishes the pool depth of the simulation as a gauge.
+     *
+     * @param poolDepth Supplies the current number of tickets in the pool.
+     */
+    public void registerPoolDepth(IntSupplier poolDepth) {
+        register(Gauge.builder("ticketing.pool.depth", poolDepth, IntSupplier::getAsInt)
+                .description("Tickets currently waiting in the pool")
+                .tag("simulation", simulationId)
+                .register(meterRegistry));
+    }
+
+    /**
+     * Publishes the concurrency limit of the purchase endpoint's admission control as a gauge.
+     *
+     * @param limit Supplies the current limit.
+     */
+    public void registerAdmissionLimit(IntSupplier limit) {
+        register(Gauge.builder("ticketing.admission.limit", limit, IntSupplier::getAsInt)
+                .description("Concurrent purchases currently admitted by the adaptive limit")
+                .tag("simulation", simulationId)
+                .register(meterRegistry));
+    }
+
+    public void ticketsAdded(int count) {
+        ticketsAdded.increment(count);
+    }
+
+    public void ticketsRetrieved(int count) {
+        ticketsRetrieved.increment(count);
+    }
+
+    public void customerParked(long nanos) {
+        customerParkTime.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void ticketWaited(long nanos) {
+        ticketWaitTime.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void holdPlaced() {
+        holdsPlaced.increment();
+    }
+
+    public void holdConfirmed() {
+        holdsConfirmed.increment();
+    }
+
+    public void holdReleased() {
+        holdsReleased.increment();
+    }
+
+    public void holdExpired() {
+        holdsExpired.increment();
+    }
+
+    public void runFailed() {
+        runsFailed.increment();
+    }
+
+    public void purchaseAnswered(PurchaseResult.Status status) {
+        purchases.get(status).increment();
+    }
+
+    /**
+     * Removes the meters of this simulation from the registry.
+     */
+    @Override
+    public void close() {
+        meters.forEach(meterRegistry::remove);
+        meters.clear();
+    }
+
+    private Counter holdCounter(String outcome) {
+        return register(Counter.builder("ticketing.holds")
+                .description("Ticket holds by outcome")
+                .tag("simulation", simulationId)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    private <T extends Meter> T register(T meter) {
+        meters.add(meter);
+        return meter;
+    }
+}
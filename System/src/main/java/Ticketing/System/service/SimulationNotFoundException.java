@@ -0,0 +1,15 @@
+package Ticketing.System.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a request refers to a simulation ID that is not known to the SimulationRegistry.
+ */
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class SimulationNotFoundException extends RuntimeException {
+
+    public SimulationNotFoundException(String simulationId) {
+        super("Simulation not found: " + simulationId);
+    }
+}
@@ -0,0 +1,415 @@
+package Ticketing.System.service;
+
+import Ticketing.System.config.TicketingProperties;
+import Ticketing.System.dto.SimulationConfigDTO;
+import Ticketing.System.util.TransactionLogCheckpoint;
+import Ticketing.System.util.TransactionLogWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * The SimulationRegistry keeps one isolated TicketService per simulation ID, so several
+ * simulations can run side by side on one node. All simulations share the write-behind
+ * pipeline and a timing wheel over a bounded pool of worker threads. Finished simulations are evicted,
+ * oldest first, once more than the configured number have been kept, and simulations that never ran
+ * once they have been left alone for the idle TTL; past the configured number of simulations, new IDs
+ * are refused. The default simulation is always kept. On startup, runs interrupted
+ * by a crash are rebuilt from their transaction logs. The registry is created at startup even when
+ * beans are initialized lazily, so recovery and the shared pipelines are ready before the first request.
+ */
+@Service
+@Lazy(false)
+public class SimulationRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(SimulationRegistry.class);
+    static final String LEDGER_SUFFIX = ".ledger"; // Extension of ticket ledger snapshot files
+
+    public static final String DEFAULT_SIMULATION_ID = "default"; // Simulation used by the original single-run endpoints
+    private static final Pattern SIMULATION_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}"); // IDs are also directory names
+
+    private final TicketWriteBehind ticketWriteBehind; // Write-behind pipeline shared by all simulations
+    private final TicketPoolFactory ticketPoolFactory; // Factory for the in-memory ticket pools
+    private final TicketingProperties properties; // The ticketing configuration
+    private final MeterRegistry meterRegistry; // Registry the per-simulation meters are published to
+    private final InventoryLeaseManager inventoryLeases; // Shares event capacity with other nodes in distributed mode
+    private final RunRecovery runRecovery; // Rebuilds interrupted runs from their transaction logs
+    private final OutboxRelay outboxRelay; // Relays persisted ticket events to the transaction logs
+    private final ExecutorService actorWorkers; // Bounded worker pool shared by all simulations
+    private final TimingWheel actorTimer; // Fires paced actor attempts on the worker pool
+    private final TimingWheel holdTimer; // Expires ticket holds on the worker pool
+    private final ScheduledExecutorService ledgerSnapshots; // Snapshots running ledgers in ledger mode, otherwise null
+    private final Map<String, TicketService> simulations = new ConcurrentHashMap<>(); // Simulations by ID
+
+    /**
+     * Constructor to initialize the registry.
+     *
+     * @param ticketWriteBehind The write-behind pipeline that persists ticket records.
+     * @param ticketPoolFactory The factory used to create ticket pools.
+     * @param properties        The ticketing configuration.
+     * @param meterRegistry     The registry the simulation meters are published to.
+     * @param inventoryLeases   The lease manager for capacity shared with other nodes.
+     * @param runRecovery       The recovery that rebuilds interrupted runs from their logs.
+     * @param outboxRelay       The relay that appends persisted ticket events to the logs.
+     */
+    public SimulationRegistry(TicketWriteBehind ticketWriteBehind, TicketPoolFactory ticketPoolFactory,
+                              TicketingProperties properties, MeterRegistry meterRegistry,
+                              InventoryLeaseManager inventoryLeases, RunRecovery runRecovery,
+                              OutboxRelay outboxRelay) {
+        this.ticketWriteBehind = ticketWriteBehind;
+        this.ticketPoolFactory = ticketPoolFactory;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.inventoryLeases = inventoryLeases;
+        this.runRecovery = runRecovery;
+        this.outboxRelay = outboxRelay;
+        TicketingProperties.Simulation simulationSettings = properties.getSimulation();
+        simulationSettings.setExecutionMode(resolveExecutionMode(simulationSettings.getExecutionMode()));
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.actorWorkers = Executors.newFixedThreadPool(
+                Math.max(1, properties.getSimulation().getSchedulerThreads()),
+                runnable -> new Thread(runnable, "simulation-actor-" + threadNumber.incrementAndGet()));
+        this.actorTimer = new TimingWheel(properties.getSimulation().getTimerTickMillis(),
+                properties.getSimulation().getTimerSlots(), actorWorkers, "simulation-timer");
+        this.holdTimer = new TimingWheel(properties.getHolds().getTimerTickMillis(),
+                properties.getHolds().getTimerSlots(), actorWorkers, "hold-expiry-timer");
+        if (properties.getLedger().isEnabled()) {
+            long interval = Math.max(1, properties.getLedger().getSnapshotIntervalMillis());
+            this.ledgerSnapshots = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ticket-ledger-snapshots");
+                thread.setDaemon(true);
+                return thread;
+            });
+            ledgerSnapshots.scheduleWithFixedDelay(() -> simulations.values().forEach(TicketService::snapshotLedger),
+                    interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.ledgerSnapshots = null;
+        }
+        simulations.put(DEFAULT_SIMULATION_ID, newSimulation(DEFAULT_SIMULATION_ID));
+    }
+
+    /**
+     * Writes the ticket ledgers of runs that were interrupted by a crash or shutdown to the
+     * database. Each snapshot holds the tickets of its run as of the last snapshot.
+     */
+    /**
+     * Picks the execution mode the actors run in. Virtual threads need Java 21, so on an older
+     * JVM the VIRTUAL mode falls back to SCHEDULED, which also keeps actors off dedicated threads.
+     *
+     * @param configured The configured execution mode.
+     * @return The execution mode to use.
+     */
+    static ExecutionMode resolveExecutionMode(ExecutionMode configured) {
+        if (configured == ExecutionMode.VIRTUAL && !ThreadPerActorExecutor.isVirtualThreadSupported()) {
+            log.warn("Virtual threads require Java 21 or newer (running {}); running actors in SCHEDULED mode instead.",
+                    System.getProperty("java.version"));
+            return ExecutionMode.SCHEDULED;
+        }
+        return configured;
+    }
+
+    @PostConstruct
+    void restoreLedgers() {
+        Path directory = Paths.get(properties.getLedger().getSnapshotDirectory());
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> snapshots;
+        try (Stream<Path> files = Files.list(directory)) {
+            snapshots = files.filter(file -> file.getFileName().toString().endsWith(LEDGER_SUFFIX)).sorted().toList();
+        } catch (IOException e) {
+            log.error("Failed to list ticket ledger snapshots: {}", e.getMessage());
+            return;
+        }
+        for (Path snapshot : snapshots) {
+            String fileName = snapshot.getFileName().toString();
+            String simulationId = fileName.substring(0, fileName.length() - LEDGER_SUFFIX.length());
+            try {
+                TicketLedger ledger = TicketLedger.readSnapshot(snapshot);
+                ticketWriteBehind.persistLedger(simulationId, ledger, ledger.getCapacity());
+                Files.delete(snapshot);
+                log.info("Restored {} tickets of simulation {} from its ledger snapshot.", ledger.getCapacity(), simulationId);
+            } catch (IOException | RuntimeException e) {
+                log.error("Failed to restore ticket ledger snapshot {}: {}", snapshot, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the runs that a crash or kill interrupted, once the application is up.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void recoverOnStartup() {
+        if (properties.getRecovery().isEnabled()) {
+            recoverInterruptedRuns();
+        }
+    }
+
+    /**
+     * Rebuilds every run whose transaction log was not closed. The log is replayed from its last
+     * checkpoint, ticket records the write-behind pipeline had not written are added, and the run
+     * is finalized with the recovered counters. If resuming is enabled, a run that had not sold out
+     * continues instead; that requires local inventory without ledger mode, as the run had.
+     */
+    void recoverInterruptedRuns() {
+        Path root = Paths.get(properties.getLog().getDirectory());
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        List<Path> directories;
+        try (Stream<Path> files = Files.list(root)) {
+            directories = files.filter(Files::isDirectory).sorted().toList();
+        } catch (IOException e) {
+            log.error("Failed to list transaction logs: {}", e.getMessage());
+            return;
+        }
+        for (Path directory : directories) {
+            try {
+                recoverRun(directory);
+            } catch (IOException | RuntimeException e) {
+                log.error("Failed to recover the run logged in {}: {}", directory, e.getMessage());
+            }
+        }
+    }
+
+    private void recoverRun(Path directory) throws IOException {
+        RunManifest manifest = RunManifest.read(directory);
+        if (manifest == null || !isInterrupted(directory)
+                || !directory.getFileName().toString().equals(manifest.getSimulationId())) {
+            return;
+        }
+        TicketService current = simulations.get(manifest.getSimulationId());
+        if (current != null && current.isSimulationRunning()) {
+            return; // The log belongs to a run of this node
+        }
+        if (manifest.isLogFailed()) {
+            log.warn("Not recovering simulation {}: its transaction log stopped after a failed write and misses events.",
+                    manifest.getSimulationId());
+            return;
+        }
+        long startedAt = System.nanoTime();
+        TransactionLogCheckpoint recovered = runRecovery.recover(directory, manifest);
+        TicketService simulation = getOrCreate(manifest.getSimulationId());
+        simulation.setVendorTotal(manifest.getVendorTotal());
+        simulation.setCustomerTotal(manifest.getCustomerTotal());
+        simulation.setSimulationConfig(manifest.getTicketReleaseRate(), manifest.getCustomerRetrievalRate(),
+                manifest.getMaxTicketCapacity());
+        simulation.setSectionTotal(manifest.getSectionTotal());
+
+        long claimed = 0;
+        for (int section = 1; section <= manifest.getSectionTotal(); section++) {
+            claimed += recovered.getRetrieved(section);
+        }
+        boolean canResume = manifest.getInventoryMode() == InventoryMode.LOCAL && !manifest.isLedgerMode()
+                && properties.getInventory().getMode() == InventoryMode.LOCAL && !properties.getLedger().isEnabled();
+        long tookMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        if (properties.getRecovery().isResume() && canResume && claimed < manifest.getMaxTicketCapacity()) {
+            simulation.resumeRun(recovered);
+            log.info("Resumed simulation {} after event {} ({} ms).", manifest.getSimulationId(),
+                    recovered.getLastSequence(), tookMillis);
+        } else {
+            simulation.finishRecoveredRun(recovered);
+            recovered.finish().write(directory);
+            log.info("Finalized simulation {} after event {} with {} tickets sold ({} ms).",
+                    manifest.getSimulationId(), recovered.getLastSequence(), claimed, tookMillis);
+        }
+    }
+
+    /**
+     * Checks whether a log was left open by a run that never stopped.
+     */
+    private static boolean isInterrupted(Path directory) {
+        if (TransactionLogWriter.listSegments(directory).isEmpty()) {
+            return false;
+        }
+        try {
+            TransactionLogCheckpoint checkpoint = TransactionLogCheckpoint.read(directory);
+            return checkpoint == null || !checkpoint.isFinished();
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Returns the simulation with the given ID, creating it if it does not exist yet.
+     *
+     * @param simulationId The simulation ID.
+     * @return The simulation.
+     * @throws IllegalArgumentException If the ID contains characters other than letters, digits, '-' and '_'.
+     * @throws SimulationLimitException If the simulation does not exist and no more simulations may be kept.
+     */
+    public TicketService getOrCreate(String simulationId) {
+        if (!SIMULATION_ID.matcher(simulationId).matches()) {
+            throw new IllegalArgumentException("Invalid simulation ID: " + simulationId);
+        }
+        TicketService simulation = simulations.get(simulationId);
+        if (simulation != null) {
+            return simulation;
+        }
+        return create(simulationId);
+    }
+
+    /**
+     * Creates a simulation, after evicting the ones that are no longer kept, provided the
+     * limit on simulations kept allows it.
+     */
+    private synchronized TicketService create(String simulationId) {
+        TicketService simulation = simulations.get(simulationId);
+        if (simulation != null) {
+            return simulation;
+        }
+        evictFinishedSimulations();
+        evictIdleSimulations();
+        int maxSimulations = properties.getSimulation().getMaxSimulations();
+        if (simulations.size() >= maxSimulations) {
+            throw new SimulationLimitException("Too many simulations (limit " + maxSimulations + ")");
+        }
+        simulation = newSimulation(simulationId);
+        simulations.put(simulationId, simulation);
+        return simulation;
+    }
+
+    private TicketService newSimulation(String simulationId) {
+        return new TicketService(simulationId, ticketWriteBehind, ticketPoolFactory, properties, actorTimer, holdTimer,
+                new SimulationMetrics(meterRegistry, simulationId), inventoryLeases, outboxRelay);
+    }
+
+    /**
+     * Returns an existing simulation.
+     *
+     * @param simulationId The simulation ID.
+     * @return The simulation.
+     * @throws SimulationNotFoundException If no simulation with this ID exists.
+     */
+    public TicketService get(String simulationId) {
+        TicketService simulation = simulations.get(simulationId);
+        if (simulation == null) {
+            throw new SimulationNotFoundException(simulationId);
+        }
+        return simulation;
+    }
+
+    /**
+     * Starts a simulation, provided the limit on concurrently running simulations allows it.
+     * A simulation whose last run sold out moments ago starts once that run has been stopped.
+     *
+     * @param simulationId The simulation ID.
+     * @throws SimulationRunningException If this simulation is already running.
+     * @throws SimulationLimitException   If too many simulations are already running.
+     */
+    public void start(String simulationId) {
+        start(simulationId, null);
+    }
+
+    /**
+     * Starts a simulation with a new configuration, provided the limit on concurrently running
+     * simulations allows it. The configuration is applied only if the run starts; a start that
+     * is refused leaves a running simulation's settings untouched.
+     *
+     * @param simulationId The simulation ID.
+     * @param config       The configuration of the run, or null to keep the current one.
+     * @throws SimulationRunningException If this simulation is already running.
+     * @throws SimulationLimitException   If too many simulations are already running.
+     * @throws IllegalArgumentException   If the configuration is invalid.
+     */
+    public synchronized void start(String simulationId, SimulationConfigDTO config) {
+        TicketService simulation = getOrCreate(simulationId);
+        if (simulation.isSimulationRunning()) {
+            throw new SimulationRunningException(simulationId);
+        }
+        int maxRunning = properties.getSimulation().getMaxRunning();
+        long running = simulations.values().stream().filter(TicketService::isSimulationRunning).count();
+        if (running >= maxRunning) {
+            throw new SimulationLimitException(maxRunning);
+        }
+        if (config != null) {
+            simulation.simulateVendorsAndCustomers(config);
+        } else {
+            simulation.simulateVendorsAndCustomers();
+        }
+    }
+
+    /**
+     * Returns all simulations currently kept by the registry.
+     *
+     * @return The simulations.
+     */
+    public Collection<TicketService> getSimulations() {
+        return List.copyOf(simulations.values());
+    }
+
+    /**
+     * Drops finished simulations beyond the retention limit. Only simulations whose
+     * run has stopped and been drained to the database are candidates.
+     */
+    private synchronized void evictFinishedSimulations() {
+        List<TicketService> finished = new ArrayList<>();
+        for (TicketService simulation : simulations.values()) {
+            if (simulation.isSimulationFinished() && !DEFAULT_SIMULATION_ID.equals(simulation.getSimulationId())) {
+                finished.add(simulation);
+            }
+        }
+        int excess = finished.size() - properties.getSimulation().getRetainedFinished();
+        finished.sort((a, b) -> Long.compare(a.getFinishedAt(), b.getFinishedAt()));
+        for (int i = 0; i < excess; i++) {
+            evict(finished.get(i));
+        }
+    }
+
+    /**
+     * Drops simulations that were created but never started and have not been configured
+     * for the idle TTL, so IDs a client never comes back to do not pile up.
+     */
+    private synchronized void evictIdleSimulations() {
+        long idleSince = System.currentTimeMillis() - properties.getSimulation().getIdleTtlMillis();
+        for (TicketService simulation : simulations.values()) {
+            if (simulation.isIdleSince(idleSince) && !DEFAULT_SIMULATION_ID.equals(simulation.getSimulationId())) {
+                evict(simulation);
+            }
+        }
+    }
+
+    private void evict(TicketService simulation) {
+        if (simulations.remove(simulation.getSimulationId(), simulation)) {
+            simulation.getMetrics().close();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (ledgerSnapshots != null) {
+            ledgerSnapshots.shutdownNow();
+        }
+        for (TicketService simulation : simulations.values()) {
+            if (simulation.isSimulationRunning()) {
+                simulation.stopSimulation();
+            }
+        }
+        actorTimer.stop();
+        holdTimer.stop();
+        actorWorkers.shutdownNow();
+    }
+}
@@ -0,0 +1,15 @@
+package Ticketing.System.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when starting a simulation that is already running.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class SimulationRunningException extends IllegalStateException {
+
+    public SimulationRunningException(String simulationId) {
+        super("Simulation already running: " + simulationId);
+    }
+}
@@ -0,0 +1,107 @@
+package Ticketing.System.service;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs every vendor and customer on its own thread, either a platform thread
+ * or, on Java 21 and newer, a virtual thread.
+ */
+class ThreadPerActorExecutor implements ActorExecutor {
+
+    private static final ThreadFactory VIRTUAL_THREAD_FACTORY = virtualThreadFactory(); // Null before Java 21
+    private final ThreadFactory threadFactory; // Creates the actor threads
+    private final ArrayList<Thread> vendorThreads = new ArrayList<>(); // List of vendor threads
+    private final ArrayList<Thread> customerThreads = new ArrayList<>(); // List of customer threads
+
+    private ThreadPerActorExecutor(ThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+    }
+
+    /**
+     * Creates an executor that runs each actor on a platform thread.
+     *
+     * @return The executor.
+     */
+    static ThreadPerActorExecutor platformThreads() {
+        return new ThreadPerActorExecutor(Thread::new);
+    }
+
+    /**
+     * Creates an executor that runs each actor on a virtual thread.
+     *
+     * @return The executor.
+     * @throws IllegalStateException If the running JVM does not support virtual threads.
+     */
+    static ThreadPerActorExecutor virtualThreads() {
+        if (VIRTUAL_THREAD_FACTORY == null) {
+            throw new IllegalStateException("Virtual threads require Java 21 or newer (running "
+                    + System.getProperty("java.version") + ")");
+        }
+        return new ThreadPerActorExecutor(VIRTUAL_THREAD_FACTORY);
+    }
+
+    /**
+     * Checks whether the running JVM can run actors on virtual threads.
+     *
+     * @return True on Java 21 and newer.
+     */
+    static boolean isVirtualThreadSupported() {
+        return VIRTUAL_THREAD_FACTORY != null;
+    }
+
+    @Override
+    public void start(List<Vendor> vendors, List<Customer> customers) {
+        // Create and start vendor threads
+        for (Vendor vendor : vendors) {
+            Thread vendorThread = threadFactory.newThread(vendor);
+            vendorThreads.add(vendorThread);
+            vendorThread.start();
+        }
+
+        // Create and start customer threads
+        for (Customer customer : customers) {
+            Thread customerThread = threadFactory.newThread(customer);
+            customerThreads.add(customerThread);
+            customerThread.start();
+        }
+    }
+
+    @Override
+    public void stop() {
+        // Interrupt all threads
+        vendorThreads.forEach(Thread::interrupt);
+        customerThreads.forEach(Thread::interrupt);
+
+        // Wait for all threads to finish
+        try {
+            for (Thread thread : vendorThreads) {
+                thread.join();
+            }
+            for (Thread thread : customerThreads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        vendorThreads.clear();
+        customerThreads.clear();
+    }
+
+    /**
+     * Looks up Thread.ofVirtual().factory() reflectively so the application still
+     * compiles and runs on Java 17, where virtual threads do not exist. Returns null there.
+     */
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
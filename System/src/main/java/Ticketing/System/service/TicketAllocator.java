@@ -0,0 +1,55 @@
+package Ticketing.System.service;
+
+/**
+ * Decides which customer gets the tickets in the pool and how many.
+ * An allocator holds one permit per pooled ticket; a customer may only take
+ * as many tickets from the pool as it was granted permits.
+ */
+interface TicketAllocator {
+
+    /**
+     * Waits until the customer is granted at least one ticket.
+     *
+     * @param customerID The ID of the customer.
+     * @param maxTickets The most tickets the customer wants.
+     * @return The number of tickets granted, or 0 if the customer has reached its purchase cap.
+     * @throws InterruptedException If the customer is interrupted before being granted a ticket.
+     */
+    int acquire(int customerID, int maxTickets) throws InterruptedException;
+
+    /**
+     * Grants tickets to the customer without waiting. Tickets are only granted when no
+     * other customer is waiting for them; otherwise nothing is granted and nothing is
+     * reserved, so one-shot callers may simply give up.
+     *
+     * @param customerID The ID of the customer.
+     * @param maxTickets The most tickets the customer wants.
+     * @return The number of tickets granted, or 0 if none can be granted now.
+     */
+    int tryAcquire(int customerID, int maxTickets);
+
+    /**
+     * Grants tickets to a customer driven by a scheduler, which cannot park. A customer
+     * that cannot be served now may keep a place among the waiting customers and collect
+     * its grant on a later call, so the caller must keep polling for as long as the run lasts.
+     *
+     * @param customerID The ID of the customer.
+     * @param maxTickets The most tickets the customer wants.
+     * @return The number of tickets granted, or 0 if none can be granted now.
+     */
+    int poll(int customerID, int maxTickets);
+
+    /**
+     * Makes tickets that were just added to the pool available to customers.
+     *
+     * @param tickets The number of tickets added.
+     */
+    void release(int tickets);
+
+    /**
+     * Returns the per-customer allocation statistics.
+     *
+     * @return The statistics.
+     */
+    CustomerWaitStats getWaitStats();
+}
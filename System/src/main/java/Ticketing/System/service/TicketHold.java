@@ -0,0 +1,78 @@
+package Ticketing.System.service;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tickets a customer has taken out of the pool and reserved for a limited time.
+ * A hold ends exactly once: confirmed, when the tickets become the customer's; or
+ * released or expired, when they go back into the pool for other customers.
+ */
+public class TicketHold {
+
+    /**
+     * Lifecycle of a hold.
+     */
+    public enum State {
+        HELD, // Reserved for the customer until the hold expires
+        CONFIRMED, // Bought by the customer
+        RELEASED, // Given back by the customer or when the run stopped
+        EXPIRED // Not confirmed in time and returned to the pool
+    }
+
+    private final long holdId; // Unique ID of the hold within its simulation
+    private final int customerID; // Customer holding the tickets
+    private final long[] ticketIds; // Tickets taken out of the pool
+    private final long expiresAt; // Time (epoch milliseconds) the hold expires
+    private final TicketSection section; // Section the tickets were taken from
+    private final AtomicReference<State> state = new AtomicReference<>(State.HELD); // Current state; changes once
+
+    TicketHold(long holdId, int customerID, long[] ticketIds, long expiresAt, TicketSection section) {
+        this.holdId = holdId;
+        this.customerID = customerID;
+        this.ticketIds = ticketIds;
+        this.expiresAt = expiresAt;
+        this.section = section;
+    }
+
+    /**
+     * Ends the hold, unless it has already ended.
+     *
+     * @param outcome The state the hold ends in.
+     * @return True if this call ended the hold.
+     */
+    boolean end(State outcome) {
+        return state.compareAndSet(State.HELD, outcome);
+    }
+
+    public long getHoldId() {
+        return holdId;
+    }
+
+    public int getCustomerID() {
+        return customerID;
+    }
+
+    public int getTicketCount() {
+        return ticketIds.length;
+    }
+
+    public int getSection() {
+        return section.getSection();
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    long[] getTicketIds() {
+        return ticketIds;
+    }
+
+    TicketSection getTicketSection() {
+        return section;
+    }
+}
@@ -0,0 +1,29 @@
+package Ticketing.System.service;
+
+/**
+ * A block of ticket positions of one section that this node holds in distributed inventory mode.
+ */
+final class TicketLease {
+
+    private final long leaseId; // ID of the lease row
+    private final int firstPosition; // First position of the block
+    private final int lastPosition; // Last position of the block, inclusive
+
+    TicketLease(long leaseId, int firstPosition, int lastPosition) {
+        this.leaseId = leaseId;
+        this.firstPosition = firstPosition;
+        this.lastPosition = lastPosition;
+    }
+
+    long getLeaseId() {
+        return leaseId;
+    }
+
+    int getFirstPosition() {
+        return firstPosition;
+    }
+
+    int getLastPosition() {
+        return lastPosition;
+    }
+}
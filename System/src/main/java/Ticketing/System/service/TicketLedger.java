@@ -0,0 +1,204 @@
+package Ticketing.System.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.zip.CRC32;
+
+/**
+ * Compact in-memory record of who released and who retrieved each ticket of a run.
+ * Vendor and customer IDs live in two primitive arrays indexed by ticket ID, which
+ * costs eight bytes per ticket instead of a managed entity per ticket. Each slot has a
+ * single writer, so writes are plain release stores and never contend.
+ * Ticket IDs are interleaved over the sections of the event: ticket N belongs to
+ * section ((N - 1) modulo the section count) + 1, so no per-ticket section is stored.
+ * The ledger can be written to and read back from a checksummed binary snapshot.
+ */
+public class TicketLedger {
+
+    private static final int MAGIC = 0x544C4447; // "TLDG"
+    private static final int VERSION = 2; // Version 2 added the section count; version 1 snapshots have one section
+    private static final int HEADER_BYTES = 5 * Integer.BYTES;
+    private static final int V1_HEADER_BYTES = 4 * Integer.BYTES;
+
+    private final int capacity; // Number of tickets the ledger can hold
+    private final int sections; // Number of sections the ticket IDs are interleaved over
+    private final AtomicIntegerArray vendorIds; // Vendor of each ticket, by ticket ID - 1
+    private final AtomicIntegerArray customerIds; // Customer of each ticket, by ticket ID - 1
+
+    /**
+     * Constructor to initialize an empty ledger.
+     *
+     * @param capacity The number of tickets the ledger can hold.
+     */
+    public TicketLedger(int capacity) {
+        this(capacity, 1);
+    }
+
+    /**
+     * Constructor to initialize an empty ledger for an event split into sections.
+     *
+     * @param capacity The number of tickets the ledger can hold.
+     * @param sections The number of sections.
+     */
+    public TicketLedger(int capacity, int sections) {
+        this.capacity = capacity;
+        this.sections = Math.max(1, sections);
+        this.vendorIds = new AtomicIntegerArray(capacity);
+        this.customerIds = new AtomicIntegerArray(capacity);
+    }
+
+    /**
+     * Records that a vendor released a ticket.
+     *
+     * @param ticketId The ticket ID (1-based).
+     * @param vendorID The ID of the vendor.
+     */
+    public void release(long ticketId, int vendorID) {
+        vendorIds.setRelease((int) ticketId - 1, vendorID);
+    }
+
+    /**
+     * Records that a customer retrieved a ticket.
+     *
+     * @param ticketId   The ticket ID (1-based).
+     * @param customerID The ID of the customer.
+     */
+    public void claim(long ticketId, int customerID) {
+        customerIds.setRelease((int) ticketId - 1, customerID);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getSections() {
+        return sections;
+    }
+
+    /**
+     * Returns the section a ticket belongs to.
+     *
+     * @param ticketId The ticket ID (1-based).
+     * @return The section, starting at 1.
+     */
+    public int getSection(long ticketId) {
+        return (int) ((ticketId - 1) % sections) + 1;
+    }
+
+    /**
+     * Returns the vendor of a ticket.
+     *
+     * @param ticketId The ticket ID (1-based).
+     * @return The vendor ID, or 0 if the ticket has not been recorded yet.
+     */
+    public int getVendorId(long ticketId) {
+        return vendorIds.getAcquire((int) ticketId - 1);
+    }
+
+    /**
+     * Returns the customer of a ticket.
+     *
+     * @param ticketId The ticket ID (1-based).
+     * @return The customer ID, or 0 if the ticket has not been retrieved.
+     */
+    public int getCustomerId(long ticketId) {
+        return customerIds.getAcquire((int) ticketId - 1);
+    }
+
+    /**
+     * Writes the first tickets of the ledger to a snapshot file. The file is written
+     * next to the target and moved into place, so a crash never leaves a torn snapshot.
+     * Slots still being written by a vendor or customer are captured as not yet written.
+     *
+     * @param file     The snapshot file.
+     * @param released The highest ticket ID issued so far; later slots are empty.
+     * @throws IOException If the snapshot cannot be written.
+     */
+    public void writeSnapshot(Path file, int released) throws IOException {
+        released = Math.min(released, capacity);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(HEADER_BYTES + 2 * released * Integer.BYTES + Long.BYTES);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(capacity).putInt(released).putInt(sections);
+        for (int i = 0; i < released; i++) {
+            buffer.putInt(vendorIds.getAcquire(i));
+        }
+        for (int i = 0; i < released; i++) {
+            buffer.putInt(customerIds.getAcquire(i));
+        }
+        buffer.putLong(checksum(buffer, buffer.position()));
+        buffer.flip();
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a ledger back from a snapshot file. The restored ledger holds exactly
+     * the tickets that were issued when the snapshot was taken.
+     *
+     * @param file The snapshot file.
+     * @return The restored ledger.
+     * @throws IOException If the file cannot be read or is not a valid snapshot.
+     */
+    public static TicketLedger readSnapshot(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // Read rather than mapped, so the snapshot can be replaced or deleted as soon as it is restored
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Not a ticket ledger snapshot: " + file);
+            }
+            buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    break; // Shorter than it was a moment ago; the checks below reject it
+                }
+            }
+            buffer.flip();
+        }
+        if (buffer.remaining() < V1_HEADER_BYTES + Long.BYTES || buffer.getInt(0) != MAGIC
+                || (buffer.getInt(4) != VERSION && buffer.getInt(4) != 1)) {
+            throw new IOException("Not a ticket ledger snapshot: " + file);
+        }
+        boolean hasSections = buffer.getInt(4) == VERSION;
+        int headerBytes = hasSections ? HEADER_BYTES : V1_HEADER_BYTES;
+        int capacity = buffer.getInt(8);
+        int released = buffer.getInt(12);
+        int sections = hasSections && buffer.limit() >= HEADER_BYTES ? buffer.getInt(16) : 1;
+        int end = headerBytes + 2 * released * Integer.BYTES;
+        if (released < 0 || released > capacity || sections < 1 || buffer.limit() != end + Long.BYTES
+                || buffer.getLong(end) != checksum(buffer, end)) {
+            throw new IOException("Corrupt ticket ledger snapshot: " + file);
+        }
+        TicketLedger ledger = new TicketLedger(released, sections);
+        buffer.position(headerBytes);
+        for (int i = 0; i < released; i++) {
+            ledger.vendorIds.setPlain(i, buffer.getInt());
+        }
+        for (int i = 0; i < released; i++) {
+            ledger.customerIds.setPlain(i, buffer.getInt());
+        }
+        return ledger;
+    }
+
+    private static long checksum(ByteBuffer buffer, int length) {
+        CRC32 crc = new CRC32();
+        ByteBuffer content = buffer.duplicate();
+        content.position(0).limit(length);
+        crc.update(content);
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,86 @@
+package Ticketing.System.service;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A pending change to the ticket table, queued by vendors and customers
+ * and applied to the database later by the TicketWriteBehind flusher.
+ */
+
+final class TicketMutation {
+
+    enum Type {
+        RELEASE, // A vendor released new tickets
+        CLAIM, // A customer retrieved tickets
+        BARRIER // Marker used to wait until everything queued before it is persisted
+    }
+
+    private final Type type; // Kind of change
+    private final String simulationId; // Simulation the tickets belong to
+    private final int section; // Section of the simulation the tickets belong to
+    private final long entityId; // Vendor or customer ID that made the change
+    private final int ticketCount; // Number of tickets affected
+    private final int remainingTickets; // Tickets left in the section's pool afterwards, for the transaction log
+    private final CountDownLatch barrier; // Released once a BARRIER has been reached (null otherwise)
+
+    private TicketMutation(Type type, String simulationId, int section, long entityId, int ticketCount,
+                           int remainingTickets, CountDownLatch barrier) {
+        this.type = type;
+        this.simulationId = simulationId;
+        this.section = section;
+        this.entityId = entityId;
+        this.ticketCount = ticketCount;
+        this.remainingTickets = remainingTickets;
+        this.barrier = barrier;
+    }
+
+    static TicketMutation release(String simulationId, int section, long vendorId, int ticketCount) {
+        return release(simulationId, section, vendorId, ticketCount, 0);
+    }
+
+    static TicketMutation release(String simulationId, int section, long vendorId, int ticketCount,
+                                  int remainingTickets) {
+        return new TicketMutation(Type.RELEASE, simulationId, section, vendorId, ticketCount, remainingTickets, null);
+    }
+
+    static TicketMutation claim(String simulationId, int section, long customerId, int ticketCount) {
+        return claim(simulationId, section, customerId, ticketCount, 0);
+    }
+
+    static TicketMutation claim(String simulationId, int section, long customerId, int ticketCount,
+                                int remainingTickets) {
+        return new TicketMutation(Type.CLAIM, simulationId, section, customerId, ticketCount, remainingTickets, null);
+    }
+
+    static TicketMutation barrier() {
+        return new TicketMutation(Type.BARRIER, null, 0, 0, 0, 0, new CountDownLatch(1));
+    }
+
+    Type getType() {
+        return type;
+    }
+
+    String getSimulationId() {
+        return simulationId;
+    }
+
+    int getSection() {
+        return section;
+    }
+
+    long getEntityId() {
+        return entityId;
+    }
+
+    int getTicketCount() {
+        return ticketCount;
+    }
+
+    int getRemainingTickets() {
+        return remainingTickets;
+    }
+
+    CountDownLatch getBarrier() {
+        return barrier;
+    }
+}
@@ -0,0 +1,42 @@
+package Ticketing.System.service;
+
+/**
+ * The TicketPool interface describes the shared in-memory pool that vendors
+ * release tickets into and customers retrieve tickets from.
+ * Implementations must be safe for many concurrent producers and consumers
+ * and must never block; waiting for tickets is handled by the TicketService.
+ */
+
+public interface TicketPool {
+
+    long EMPTY = -1L; // Value returned by poll() when no ticket could be taken
+
+    /**
+     * Adds a ticket to the pool.
+     *
+     * @param ticketId The ID of the ticket to add.
+     * @return True if the ticket was added, false if the pool is full.
+     */
+    boolean offer(long ticketId);
+
+    /**
+     * Removes a ticket from the pool.
+     *
+     * @return The ID of the removed ticket, or EMPTY if no ticket is available.
+     */
+    long poll();
+
+    /**
+     * Returns the number of tickets currently held in the pool.
+     *
+     * @return The current pool size.
+     */
+    int size();
+
+    /**
+     * Returns the maximum number of tickets the pool can hold.
+     *
+     * @return The pool capacity.
+     */
+    int capacity();
+}
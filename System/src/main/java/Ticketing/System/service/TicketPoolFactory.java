@@ -0,0 +1,18 @@
+package Ticketing.System.service;
+
+/**
+ * Factory used by the TicketService to create a fresh TicketPool for each simulation run.
+ * Declaring a different TicketPoolFactory bean replaces the default pool implementation.
+ */
+
+@FunctionalInterface
+public interface TicketPoolFactory {
+
+    /**
+     * Creates a new, empty ticket pool.
+     *
+     * @param maxTicketCapacity The maximum number of tickets the pool must be able to hold.
+     * @return The new ticket pool.
+     */
+    TicketPool create(int maxTicketCapacity);
+}
@@ -0,0 +1,199 @@
+package Ticketing.System.service;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One section of an event's inventory: its own ticket source, pool, allocator and counters.
+ * Sections share no state on the vendor and customer hot path, so a rush on one
+ * section never contends with the vendors and customers of another.
+ * Ticket IDs are interleaved over the sections: the ticket at position k of section s in an
+ * event of n sections has ID (k - 1) * n + s, so the IDs of a sold-out event run from 1
+ * to its capacity without gaps, whichever node sold them.
+ */
+final class TicketSection {
+
+    private final int section; // Section number, starting at 1
+    private final int sectionTotal; // Number of sections of the event
+    private final int capacity; // Tickets of this section over all nodes
+    private final TicketSource source; // Hands out the positions this node may release
+    private final TicketAllocator allocator; // Grants this section's pooled tickets to its customers
+    private final AtomicInteger claimedTickets = new AtomicInteger(); // Tickets retrieved by this section's customers
+    private final AtomicBoolean isSoldOut = new AtomicBoolean(); // Set once every ticket of the section is retrieved
+    private volatile TicketPool pool; // Tickets released and not yet retrieved
+    private volatile boolean isMaxCapacityReached = false; // Flag indicating the source has run dry
+    private volatile boolean isRetired = false; // Flag indicating the run stopped and the pool was released
+    private volatile int ticketsLeftAtStop; // Pool size when the run stopped
+
+    /**
+     * Constructor to initialize an empty section.
+     *
+     * @param section      The section number, starting at 1.
+     * @param sectionTotal The number of sections of the event.
+     * @param capacity     The number of tickets of the section.
+     * @param source       The source of the positions this node may release.
+     * @param pool         The pool holding the section's released tickets.
+     * @param allocator    The allocator granting the section's tickets to customers.
+     */
+    TicketSection(int section, int sectionTotal, int capacity, TicketSource source, TicketPool pool,
+                  TicketAllocator allocator) {
+        this.section = section;
+        this.sectionTotal = sectionTotal;
+        this.capacity = capacity;
+        this.source = source;
+        this.pool = pool;
+        this.allocator = allocator;
+    }
+
+    /**
+     * Returns how many of an event's tickets fall into one of its sections.
+     * The remainder of an uneven split goes to the first sections.
+     *
+     * @param section       The section number, starting at 1.
+     * @param sectionTotal  The number of sections.
+     * @param eventCapacity The number of tickets of the whole event.
+     * @return The capacity of the section.
+     */
+    static int capacityOf(int section, int sectionTotal, int eventCapacity) {
+        return eventCapacity / sectionTotal + (section <= eventCapacity % sectionTotal ? 1 : 0);
+    }
+
+    /**
+     * Returns the section a vendor or customer buys and sells in.
+     * Actors are spread round robin, so actor N uses section ((N - 1) modulo the section count) + 1.
+     *
+     * @param actorID      The ID of the vendor or customer.
+     * @param sectionTotal The number of sections.
+     * @return The section number, starting at 1.
+     */
+    static int sectionOf(int actorID, int sectionTotal) {
+        return Math.floorMod(actorID - 1, sectionTotal) + 1;
+    }
+
+    /**
+     * Returns the event-wide ID of one of this section's tickets.
+     *
+     * @param position The position of the ticket within the section, starting at 1.
+     * @return The ticket ID.
+     */
+    long ticketId(int position) {
+        return (long) (position - 1) * sectionTotal + section;
+    }
+
+    /**
+     * Returns the highest event-wide ticket ID this section has issued.
+     *
+     * @return The ticket ID, or 0 if nothing was issued.
+     */
+    long highestTicketId() {
+        int highest = source.getHighestPosition();
+        return highest == 0 ? 0 : ticketId(highest);
+    }
+
+    /**
+     * Records that customers retrieved tickets of this section.
+     *
+     * @param tickets The number of tickets retrieved.
+     * @return True for exactly one caller: the one that completed the section.
+     */
+    boolean claim(int tickets) {
+        claimedTickets.addAndGet(tickets);
+        return completeIfSoldOut();
+    }
+
+    /**
+     * Marks the section sold out once the source has run dry and every ticket it issued here
+     * has been retrieved. Called by customers after retrieving and by the vendor that finds
+     * the source dry, so whichever comes last sees both conditions.
+     *
+     * @return True for exactly one caller: the one that completed the section.
+     */
+    boolean completeIfSoldOut() {
+        return isMaxCapacityReached && claimedTickets.get() >= source.getIssued() && isSoldOut.compareAndSet(false, true);
+    }
+
+    /**
+     * Brings a new section to the state of an interrupted run: the first positions are taken
+     * from the source as issued, and the tickets customers had not retrieved go back into the pool.
+     *
+     * @param issued  The number of tickets released before the interruption.
+     * @param claimed The number of tickets retrieved before the interruption.
+     * @return The number of tickets put back into the pool.
+     */
+    int restore(int issued, int claimed) {
+        int reserved = 0;
+        while (reserved < issued) {
+            int count = TicketSource.count(source.reserve(issued - reserved));
+            if (count == 0) {
+                break;
+            }
+            reserved += count;
+        }
+        int retrieved = Math.min(claimed, reserved);
+        claimedTickets.set(retrieved);
+        for (int position = retrieved + 1; position <= reserved; position++) {
+            pool.offer(ticketId(position));
+        }
+        if (source.isExhausted()) {
+            isMaxCapacityReached = true;
+        }
+        return reserved - retrieved;
+    }
+
+    /**
+     * Releases the pool of a stopped run, keeping only its final size, and gives back
+     * the positions that were never released.
+     *
+     * @param emptyPool The pool to keep in place of the released one.
+     */
+    void retire(TicketPool emptyPool) {
+        source.close();
+        ticketsLeftAtStop = pool.size();
+        isRetired = true;
+        pool = emptyPool;
+    }
+
+    int getSection() {
+        return section;
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    TicketPool getPool() {
+        return pool;
+    }
+
+    TicketSource getSource() {
+        return source;
+    }
+
+    TicketAllocator getAllocator() {
+        return allocator;
+    }
+
+    int getIssuedTickets() {
+        return source.getIssued();
+    }
+
+    int getClaimedTickets() {
+        return claimedTickets.get();
+    }
+
+    int getRemainingTickets() {
+        return isRetired ? ticketsLeftAtStop : pool.size();
+    }
+
+    boolean isSoldOut() {
+        return isSoldOut.get();
+    }
+
+    boolean isMaxCapacityReached() {
+        return isMaxCapacityReached;
+    }
+
+    void setMaxCapacityReached() {
+        isMaxCapacityReached = true;
+    }
+}
@@ -1,48 +1,153 @@
 package Ticketing.System.service;
 
-import Ticketing.System.model.TicketRecord;
-import Ticketing.System.repo.TicketRecordRepo;
-import Ticketing.System.util.JSONFileWriter;
-import com.google.gson.JsonObject;
-import org.springframework.stereotype.Service;
+import Ticketing.System.config.TicketingProperties;
+import Ticketing.System.dto.SimulationConfigDTO;
+import Ticketing.System.util.SampledLogger;
+import Ticketing.System.util.TransactionLogCheckpoint;
+import Ticketing.System.util.TransactionLogReader;
+import Ticketing.System.util.TransactionLogWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * The TicketService class manages the simulation of vendors and customers
- * interacting with a shared ticket pool. It handles adding and retrieving
+ * The TicketService class manages one simulation of vendors and customers
+ * interacting with the ticket inventory of one event. It handles adding and retrieving
  * tickets, logging transactions, and managing the simulation's lifecycle.
+ * The inventory can be split into sections, each with its own pool, allocator and
+ * counters; every vendor and customer trades in one section.
+ * Customers can also hold tickets for a limited time before confirming them; holds
+ * that are neither confirmed nor released expire on a timing wheel and their tickets
+ * go straight back into the section's pool.
+ * Instances are created and tracked by the SimulationRegistry, one per simulation ID.
  */
-@Service
 public class TicketService {
 
-    private final TicketRecordRepo ticketRecordRepository; // Repository to manage ticket records
-    private final List<JsonObject> transactionLogs = new ArrayList<>(); // List to store transaction logs
-    private static final String LOGS_FILE = "C:/Users/HKCS/OneDrive/Desktop/OOP SD2 CW/System/transaction_logs.json"; // Path to save transaction logs
+    private static final Logger log = LoggerFactory.getLogger(TicketService.class);
+    static final int TICKETS_PER_RELEASE = 5; // Tickets a vendor releases per attempt
+    static final int TICKETS_PER_RETRIEVAL = 4; // Tickets a customer retrieves per attempt
+
+    private final String simulationId; // ID of the simulation this service runs
+    private final TicketWriteBehind ticketWriteBehind; // Persists ticket releases and claims in batches
+    private final TicketPoolFactory ticketPoolFactory; // Factory for the in-memory ticket pool
+    private final InventoryLeaseManager inventoryLeases; // Leases capacity shared with other nodes in distributed mode
+    private final InventoryMode inventoryMode; // Whether capacity is counted here or shared through the database
+    private final String nodeId; // Node that stamps this simulation's ticket records
+    private final SimulationMetrics metrics; // Meters for this simulation
+    private final SampledLogger sampledLog; // Logs a sample of the per-attempt messages
+    private final TicketingProperties.Log logSettings; // Settings for the transaction log
+    private final TicketingProperties.Ledger ledgerSettings; // Settings for ledger mode
+    private final Path ledgerSnapshot; // Snapshot file of the ticket ledger
+    private volatile TicketLedger ledger; // Source of truth for ticket ownership in ledger mode, otherwise null
+    private final Path logDirectory; // Directory the transaction log segments are written to
+    private volatile TransactionLogWriter transactionLog; // Append-only log of the current run
+    private final OutboxRelay outboxRelay; // Relays the events committed with the ticket records to the log
+    private final boolean isOutboxEnabled; // Whether log events go through the outbox outside ledger mode
+    private volatile boolean isOutboxRun; // Flag indicating the current run's log is fed by the outbox
+    private OutboxRelay.Listener logRelay; // Appends the current run's relayed events to its log
+    private final TransactionLogReader transactionLogReader; // Indexed reader over the log segments
 
     private int vendorTotal; // Total number of vendors
     private int customerTotal; // Total number of customers
     private int ticketReleaseRate; // Rate at which vendors release tickets
     private int customerRetrievalRate; // Rate at which customers retrieve tickets
-    private int maxTicketCapacity; // Maximum capacity of the ticket pool
-    private int remainingTickets = 0; // Tickets remaining in the pool
-    private int currentTicketId = 0; // Counter for ticket IDs
-    private boolean isSimulationRunning = false; // Flag indicating if the simulation is running
-    private boolean isMaxCapacityReached = false; // Flag indicating if max ticket capacity is reached
+    private RateProfile rateProfile = RateProfile.STEADY; // Load shape of the customers
+    private int jitterPercent; // How much each actor interval may randomly vary, in percent
+    private int burstMultiplier = 10; // How many times faster customers retrieve during a flash-sale spike
+    private long burstDurationMillis = 5_000; // How long a flash-sale spike lasts
+    private int maxTicketCapacity; // Maximum number of tickets of the event, over all sections
+    private int sectionTotal = 1; // Number of sections the event's tickets are split into
+    private volatile TicketSection[] sections; // Pool, allocator and counters of each section, by section - 1
+    private final AtomicInteger soldOutSections = new AtomicInteger(); // Sections whose tickets are all retrieved
+    private final TicketingProperties.Allocation allocationSettings; // Settings for sharing tickets among customers
+    private volatile CustomerWaitStats customerWaitStats; // Per-customer grants and waits, shared by all sections
+    private final TicketingProperties.Stats statsSettings; // Settings for the sales aggregates
+    private volatile SalesStats salesStats; // Sales per vendor, per customer and over time of the current run
+    private final PurchaseAdmission purchaseAdmission; // Limits concurrent purchases, or null if admission control is off
+    private volatile long[] releasedAt = new long[0]; // Release time (System.nanoTime) of each ticket by ticket ID
+    private volatile boolean isSimulationRunning = false; // Flag indicating if the simulation is running
+    private volatile boolean isSimulationFinished = false; // Flag indicating the last run is stopped and persisted
+    private volatile long finishedAt; // Time (epoch milliseconds) the last run finished
+    private volatile String failure; // Why the current or last run failed, or null if it did not
+    private volatile boolean hasRun = false; // Flag indicating a run was started or recovered
+    private volatile long touchedAt = System.currentTimeMillis(); // Time (epoch milliseconds) of creation or the last configuration
     private boolean isUserStopped = false; // Flag for manual stop by user
-    private boolean isSimulationAutomaticallyStopped = false; // Flag for automatic simulation stop
+    private volatile boolean isStopping = false; // Flag for a sold-out run whose automatic stop has not finished
+    private final AtomicBoolean isSimulationAutomaticallyStopped = new AtomicBoolean(); // Flag for automatic simulation stop
+
+    private final TicketingProperties.Simulation simulationSettings; // Settings for how actors are run
+    private final TimingWheel actorTimer; // Timing wheel shared by all simulations in SCHEDULED mode
+    private ActorExecutor actorExecutor; // Runs the vendors and customers of the current run
 
-    private final ArrayList<Thread> vendorThreads = new ArrayList<>(); // List of vendor threads
-    private final ArrayList<Thread> customerThreads = new ArrayList<>(); // List of customer threads
+    private final TicketingProperties.Holds holdSettings; // Settings for ticket holds
+    private final TimingWheel holdTimer; // Expires holds; shared by all simulations
+    private final Map<Long, TicketHold> holds = new ConcurrentHashMap<>(); // Outstanding holds by hold ID
+    private final AtomicLong holdIds = new AtomicLong(); // Last hold ID handed out
+    private final Object holdLock = new Object(); // Orders returning held tickets against the pool being retired
+    private boolean isHoldingClosed = true; // Flag indicating held tickets can no longer go back to the pool
+    private volatile TicketHold[] checkouts = new TicketHold[0]; // Pending hold of each simulated customer by ID
 
     /**
-     * Constructor to initialize the TicketService with a ticket record repository.
+     * Constructor to initialize the TicketService for one simulation.
      *
-     * @param ticketRecordRepository The repository to manage ticket records.
+     * @param simulationId      The ID of the simulation.
+     * @param ticketWriteBehind The write-behind pipeline that persists ticket records.
+     * @param ticketPoolFactory The factory used to create the ticket pool for each run.
+     * @param properties        The ticketing configuration.
+     * @param actorTimer        The timing wheel shared by all simulations in SCHEDULED mode.
+     * @param holdTimer         The timing wheel that expires ticket holds.
+     * @param metrics           The meters this simulation records to.
+     * @param inventoryLeases   The lease manager used in distributed inventory mode.
+     * @param outboxRelay       The relay that appends the events committed with the ticket records to the log.
      */
-    public TicketService(TicketRecordRepo ticketRecordRepository) {
-        this.ticketRecordRepository = ticketRecordRepository;
+    public TicketService(String simulationId, TicketWriteBehind ticketWriteBehind, TicketPoolFactory ticketPoolFactory,
+                         TicketingProperties properties, TimingWheel actorTimer, TimingWheel holdTimer,
+                         SimulationMetrics metrics, InventoryLeaseManager inventoryLeases, OutboxRelay outboxRelay) {
+        this.simulationId = simulationId;
+        this.metrics = metrics;
+        this.sampledLog = new SampledLogger(log, properties.getMetrics().getLogSampleRate());
+        this.ticketWriteBehind = ticketWriteBehind;
+        this.logSettings = properties.getLog();
+        this.simulationSettings = properties.getSimulation();
+        this.actorTimer = actorTimer;
+        this.holdTimer = holdTimer;
+        this.holdSettings = properties.getHolds();
+        this.logDirectory = Paths.get(logSettings.getDirectory()).resolve(simulationId);
+        this.ledgerSettings = properties.getLedger();
+        this.allocationSettings = properties.getAllocation();
+        this.statsSettings = properties.getStats();
+        this.purchaseAdmission = properties.getAdmission().isEnabled()
+                ? new PurchaseAdmission(properties.getAdmission())
+                : null;
+        this.ledgerSnapshot = ledgerSnapshotPath(ledgerSettings, simulationId);
+        this.transactionLogReader = new TransactionLogReader(logDirectory);
+        this.ticketPoolFactory = ticketPoolFactory;
+        this.inventoryLeases = inventoryLeases;
+        this.outboxRelay = outboxRelay;
+        this.isOutboxEnabled = properties.getOutbox().isEnabled();
+        this.inventoryMode = properties.getInventory().getMode();
+        this.nodeId = properties.getInventory().getNodeId();
+        this.sections = createSections(1, 0, 0, InventoryMode.LOCAL);
+        this.salesStats = createSalesStats(0, 0);
+        metrics.registerPoolDepth(this::getRemainingTickets);
+        if (purchaseAdmission != null) {
+            metrics.registerAdmissionLimit(purchaseAdmission::getLimit);
+        }
     }
 
     /**
@@ -51,19 +156,61 @@ public class TicketService {
      * @param ticketReleaseRate    The rate at which tickets are released.
      * @param customerRetrievalRate The rate at which tickets are retrieved.
      * @param maxTicketCapacity     The maximum capacity of the ticket pool.
+     * @throws SimulationRunningException If the simulation is running.
      */
-    public void setSimulationConfig(int ticketReleaseRate, int customerRetrievalRate, int maxTicketCapacity) {
+    public synchronized void setSimulationConfig(int ticketReleaseRate, int customerRetrievalRate, int maxTicketCapacity) {
+        checkNotRunning();
+        touchedAt = System.currentTimeMillis();
         this.ticketReleaseRate = ticketReleaseRate;
         this.customerRetrievalRate = customerRetrievalRate;
         this.maxTicketCapacity = maxTicketCapacity;
     }
 
+    /**
+     * Sets how actor attempts are spread over time.
+     *
+     * @param rateProfile         The load shape of the customers.
+     * @param jitterPercent       How much each vendor and customer interval may randomly vary, in percent.
+     * @param burstMultiplier     How many times faster customers retrieve during a flash-sale spike.
+     * @param burstDurationMillis How long a flash-sale spike lasts.
+     * @throws SimulationRunningException If the simulation is running.
+     */
+    public synchronized void setRateProfile(RateProfile rateProfile, int jitterPercent, int burstMultiplier,
+                                            long burstDurationMillis) {
+        checkNotRunning();
+        checkRateProfile(jitterPercent, burstMultiplier, burstDurationMillis);
+        touchedAt = System.currentTimeMillis();
+        this.rateProfile = rateProfile == null ? RateProfile.STEADY : rateProfile;
+        this.jitterPercent = jitterPercent;
+        this.burstMultiplier = burstMultiplier;
+        this.burstDurationMillis = burstDurationMillis;
+    }
+
+    /**
+     * Sets how many sections the event's tickets are split into. Tickets are shared out
+     * evenly, and vendors and customers are spread round robin over the sections.
+     *
+     * @param sectionTotal The number of sections.
+     * @throws SimulationRunningException If the simulation is running.
+     */
+    public synchronized void setSectionTotal(int sectionTotal) {
+        checkNotRunning();
+        if (sectionTotal < 1) {
+            throw new IllegalArgumentException("An event needs at least one section: " + sectionTotal);
+        }
+        touchedAt = System.currentTimeMillis();
+        this.sectionTotal = sectionTotal;
+    }
+
     /**
      * Sets the total number of vendors.
      *
      * @param vendorTotal The total number of vendors.
+     * @throws SimulationRunningException If the simulation is running.
      */
-    public void setVendorTotal(int vendorTotal) {
+    public synchronized void setVendorTotal(int vendorTotal) {
+        checkNotRunning();
+        touchedAt = System.currentTimeMillis();
         this.vendorTotal = vendorTotal;
     }
 
@@ -71,165 +218,898 @@ public class TicketService {
      * Sets the total number of customers.
      *
      * @param customerTotal The total number of customers.
+     * @throws SimulationRunningException If the simulation is running.
      */
-    public void setCustomerTotal(int customerTotal) {
+    public synchronized void setCustomerTotal(int customerTotal) {
+        checkNotRunning();
+        touchedAt = System.currentTimeMillis();
         this.customerTotal = customerTotal;
     }
 
     /**
-     * Starts the simulation by creating and starting vendor and customer threads.
+     * Starts the simulation by creating the vendors and customers and running them
+     * in the configured execution mode.
+     *
+     * @throws SimulationRunningException If the simulation is already running.
+     */
+    public synchronized void simulateVendorsAndCustomers() {
+        startRun(null);
+    }
+
+    /**
+     * Applies the configuration of a new run and starts it, in one step under this
+     * simulation's lock. The whole configuration is checked before any of it is applied,
+     * and only if the simulation is not running, so a refused start leaves the current
+     * run and its settings untouched.
+     *
+     * @param config The rates, capacity, sections and rate profile of the run.
+     * @throws SimulationRunningException If the simulation is already running.
+     * @throws IllegalArgumentException   If the configuration is invalid.
      */
-    public void simulateVendorsAndCustomers() {
+    public synchronized void simulateVendorsAndCustomers(SimulationConfigDTO config) {
+        awaitAutomaticStop();
+        checkNotRunning();
+        checkRateProfile(config.getJitterPercent(), config.getBurstMultiplier(), config.getBurstDurationMillis());
+        checkSections(config.getSections(), config.getMaxTicketCapacity());
+        ticketReleaseRate = config.getTicketReleaseRate();
+        customerRetrievalRate = config.getTicketRetrievalRate();
+        maxTicketCapacity = config.getMaxTicketCapacity();
+        sectionTotal = config.getSections();
+        rateProfile = config.getRateProfile() == null ? RateProfile.STEADY : config.getRateProfile();
+        jitterPercent = config.getJitterPercent();
+        burstMultiplier = config.getBurstMultiplier();
+        burstDurationMillis = config.getBurstDurationMillis();
+        startRun(null);
+    }
+
+    private void checkNotRunning() {
+        if (isSimulationRunning) {
+            throw new SimulationRunningException(simulationId);
+        }
+    }
+
+    private static void checkRateProfile(int jitterPercent, int burstMultiplier, long burstDurationMillis) {
+        if (jitterPercent < 0 || jitterPercent > 100) {
+            throw new IllegalArgumentException("Jitter must be between 0 and 100 percent: " + jitterPercent);
+        }
+        if (burstMultiplier < 1 || burstDurationMillis < 0) {
+            throw new IllegalArgumentException("Burst multiplier must be at least 1 and burst duration not negative");
+        }
+    }
+
+    private void checkSections(int sections, int ticketCapacity) {
+        if (sections < 1) {
+            throw new IllegalArgumentException("An event needs at least one section: " + sections);
+        }
+        if (sections > 1 && (sections > vendorTotal || sections > customerTotal || sections > ticketCapacity)) {
+            throw new IllegalArgumentException("Each of the " + sections
+                    + " sections needs at least one vendor, one customer and one ticket");
+        }
+    }
+
+    /**
+     * Continues a run that was interrupted by a crash. The sections start from the counters
+     * recovered from the run's transaction log, tickets released but never retrieved go back
+     * into the pools, and the log is continued after its last valid event.
+     *
+     * @param recovered The tickets added and retrieved per section, as replayed from the log.
+     */
+    synchronized void resumeRun(TransactionLogCheckpoint recovered) {
+        startRun(recovered);
+    }
+
+    /**
+     * Marks a run that was interrupted by a crash as finished, with the counters recovered
+     * from its transaction log.
+     *
+     * @param recovered The tickets added and retrieved per section, as replayed from the log.
+     */
+    synchronized void finishRecoveredRun(TransactionLogCheckpoint recovered) {
+        sections = createSections(sectionTotal, maxTicketCapacity, customerTotal, InventoryMode.LOCAL);
+        restoreSections(recovered);
+        salesStats = createSalesStats(0, 0);
+        sampleSales(); // The recovered tickets count as sold when the run is finalized
+        for (TicketSection section : sections) {
+            section.retire(ticketPoolFactory.create(0));
+        }
+        releasedAt = new long[0];
+        finishedAt = System.currentTimeMillis();
+        isSimulationFinished = true;
+        hasRun = true;
+    }
+
+    private void startRun(TransactionLogCheckpoint recovered) {
+        awaitAutomaticStop();
+        checkNotRunning();
+        checkSections(sectionTotal, maxTicketCapacity);
+        if (inventoryMode == InventoryMode.DISTRIBUTED) {
+            inventoryLeases.register(simulationId, sectionTotal, maxTicketCapacity); // Other nodes must split the event alike
+        }
+        ActorExecutor executor = createActorExecutor(simulationSettings.getExecutionMode());
+        sections = createSections(sectionTotal, maxTicketCapacity, customerTotal, inventoryMode);
+        soldOutSections.set(0);
+        if (recovered != null) {
+            restoreSections(recovered);
+        }
+        salesStats = createSalesStats(getIssuedTickets(), getClaimedTickets()); // A resumed run's histogram starts now
+        ledger = ledgerSettings.isEnabled() ? new TicketLedger(maxTicketCapacity, sectionTotal) : null;
+        releasedAt = new long[maxTicketCapacity + 1];
+        if (recovered != null) {
+            Arrays.fill(releasedAt, System.nanoTime()); // Restored tickets count as released now
+        }
+        holds.clear();
+        checkouts = new TicketHold[holdSettings.isCheckoutEnabled() ? customerTotal + 1 : 0];
+        synchronized (holdLock) {
+            isHoldingClosed = false;
+        }
+        isUserStopped = false;
+        isSimulationAutomaticallyStopped.set(false);
+        isSimulationFinished = false;
+        failure = null;
+        hasRun = true;
+
+        // Start a fresh transaction log for this run, or continue the log of a recovered run
+        isOutboxRun = isOutboxEnabled && ledger == null;
+        if (recovered == null) {
+            TransactionLogWriter.deleteSegments(logDirectory);
+            if (isOutboxRun) {
+                outboxRelay.discard(simulationId); // Events of an earlier run that never reached its log
+            }
+        }
+        RunManifest manifest = new RunManifest(simulationId, nodeId, vendorTotal, customerTotal, ticketReleaseRate,
+                customerRetrievalRate, maxTicketCapacity, sectionTotal, ledgerSettings.isEnabled(), inventoryMode);
+        try {
+            manifest.write(logDirectory);
+            transactionLog = new TransactionLogWriter(logDirectory, logSettings.getBufferSize(),
+                    logSettings.getSegmentSize(), logSettings.getFsyncPolicy(), logSettings.getFlushIntervalMillis(),
+                    recovered != null ? recovered : TransactionLogCheckpoint.empty(sectionTotal),
+                    logSettings.getFormat());
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not open transaction log in " + logDirectory, e);
+        }
+        transactionLog.onFailure(e -> logFailed(manifest, e));
+        ticketWriteBehind.watchRun(simulationId, this::runFailed);
+        if (isOutboxRun) {
+            logRelay = OutboxRelay.appendingTo(transactionLog);
+            outboxRelay.subscribe(simulationId, logRelay);
+            ticketWriteBehind.openOutbox(simulationId, transactionLog.getLastSequence());
+        }
         isSimulationRunning = true;
 
-        // Create and start vendor threads
+        // Vendors always release steadily; the rate profile shapes customer demand
+        int bucketCapacity = simulationSettings.getBucketCapacity();
+        List<Vendor> vendors = new ArrayList<>();
         for (int i = 1; i <= vendorTotal; i++) {
-            Vendor vendor = new Vendor(this, ticketReleaseRate, i);
-            Thread vendorThread = new Thread(vendor);
-            vendorThreads.add(vendorThread);
-            vendorThread.start();
+            vendors.add(new Vendor(this, ticketReleaseRate, new ActorPacer(ticketReleaseRate, jitterPercent,
+                    RateProfile.STEADY, 1, 0, bucketCapacity), i));
         }
-
-        // Create and start customer threads
+        List<Customer> customers = new ArrayList<>();
         for (int i = 1; i <= customerTotal; i++) {
-            Customer customer = new Customer(this, customerRetrievalRate, i);
-            Thread customerThread = new Thread(customer);
-            customerThreads.add(customerThread);
-            customerThread.start();
+            customers.add(new Customer(this, customerRetrievalRate, new ActorPacer(customerRetrievalRate, jitterPercent,
+                    rateProfile, burstMultiplier, burstDurationMillis, bucketCapacity), i));
         }
+        actorExecutor = executor;
+        actorExecutor.start(vendors, customers);
     }
 
     /**
-     * Stops the simulation by interrupting all threads and saving logs.
+     * Stops the simulation by interrupting all threads and closing the transaction log.
      */
-    public void stopSimulation() {
-        if (!isSimulationAutomaticallyStopped && !isUserStopped) {
-            System.out.println("User stopped the simulation.");
+    public synchronized void stopSimulation() {
+        if (!isSimulationAutomaticallyStopped.get() && !isUserStopped) {
+            log.info("User stopped simulation {}.", simulationId);
             isUserStopped = true;
         }
 
         isSimulationRunning = false;
 
-        // Interrupt all threads
-        vendorThreads.forEach(Thread::interrupt);
-        customerThreads.forEach(Thread::interrupt);
+        // Stop all actors and wait for them to finish
+        if (actorExecutor != null) {
+            actorExecutor.stop();
+            actorExecutor = null;
+        }
+
+        // Tickets still on hold were never bought; put them back before the pools are counted
+        releaseOutstandingHolds();
 
-        // Wait for all threads to finish
-        try {
-            for (Thread thread : vendorThreads) {
-                thread.join();
-            }
-            for (Thread thread : customerThreads) {
-                thread.join();
+        // Make sure every released and claimed ticket has reached the database or the dead-letter log
+        if (ledger != null) {
+            persistLedger();
+        } else if (!ticketWriteBehind.drain()) {
+            recordFailure("Ticket records were still being written when the run stopped");
+        }
+        ticketWriteBehind.unwatchRun(simulationId);
+
+        // Relay the events committed with the last batches before the log is closed
+        if (logRelay != null) {
+            ticketWriteBehind.closeOutbox(simulationId);
+            try {
+                outboxRelay.drain(simulationId);
+            } catch (RuntimeException e) {
+                recordFailure("Outbox events could not be relayed to the transaction log: " + e.getMessage());
             }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+            outboxRelay.unsubscribe(simulationId, logRelay);
+            logRelay = null;
         }
 
-        vendorThreads.clear();
-        customerThreads.clear();
+        // Flush the remaining log events to disk
+        if (transactionLog != null) {
+            transactionLog.close();
+        }
 
-        // Save transaction logs to file
-        JSONFileWriter.writeLogsToJSON(transactionLogs, LOGS_FILE);
+        // Take the last sales into the histogram while the sections still count them
+        sampleSales();
+
+        // Results are persisted; release the pools so a finished simulation stays cheap to keep around
+        for (TicketSection section : sections) {
+            section.retire(ticketPoolFactory.create(0));
+        }
+        releasedAt = new long[0];
+        finishedAt = System.currentTimeMillis();
+        isSimulationFinished = true;
+        isStopping = false;
+        notifyAll(); // Let a start that waited for this stop go ahead
+    }
+
+    /**
+     * Stops a run that sold out or failed from the stopper thread, unless it was already stopped in the meantime.
+     */
+    private synchronized void stopEndedRun() {
+        if (isStopping) {
+            stopSimulation();
+        }
     }
 
     /**
-     * Adds tickets to the pool by a vendor.
+     * Fails the current run, for example because its ticket records could not be written.
+     * The run is stopped from another thread, since the caller may be the write-behind flusher
+     * the stop has to wait for.
      *
-     * @param vendorID The ID of the vendor adding tickets.
+     * @param reason Why the run failed.
+     */
+    void runFailed(String reason) {
+        recordFailure(reason);
+        if (isSimulationRunning && isSimulationAutomaticallyStopped.compareAndSet(false, true)) {
+            log.error("Simulation {} failed: {}", simulationId, reason);
+            stopInBackground();
+        }
+    }
+
+    /**
+     * Fails the run whose transaction log stopped after a failed write, and marks the log as
+     * failed in its manifest so it is not taken for a complete record on the next startup.
      */
-    public synchronized void addTickets(int vendorID) {
-        while (!isSimulationRunning) {
+    private void logFailed(RunManifest manifest, IOException e) {
+        try {
+            manifest.markLogFailed(logDirectory);
+        } catch (IOException manifestFailure) {
+            log.error("Failed to mark the transaction log of simulation {} as failed: {}", simulationId,
+                    manifestFailure.getMessage());
+        }
+        runFailed("Transaction log write failed: " + e.getMessage());
+    }
+
+    /**
+     * Keeps the first reason the current run failed for and counts the failure.
+     */
+    private void recordFailure(String reason) {
+        if (failure == null) {
+            failure = reason;
+            metrics.runFailed();
+        }
+    }
+
+    /**
+     * Waits until a sold-out run has been stopped, so a new run never starts while the
+     * actors of the old one are still being stopped. Called with the monitor held.
+     */
+    private void awaitAutomaticStop() {
+        while (isStopping) {
             try {
                 wait();
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
-                return;
+                throw new IllegalStateException("Interrupted while simulation " + simulationId + " was stopping", e);
             }
         }
+    }
 
-        if (isMaxCapacityReached) {
+    /**
+     * Writes a snapshot of the ticket ledger, if this run keeps one.
+     * Called periodically while the simulation runs, so a crash loses at most one interval.
+     * Synchronized with stopSimulation so a snapshot never outlives the persisted run.
+     */
+    public synchronized void snapshotLedger() {
+        TicketLedger currentLedger = ledger;
+        if (currentLedger == null || !isSimulationRunning) {
+            return;
+        }
+        try {
+            currentLedger.writeSnapshot(ledgerSnapshot, highestIssuedTicketId());
+        } catch (IOException e) {
+            log.error("Failed to snapshot ticket ledger of simulation {}: {}", simulationId, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the snapshot file of a simulation's ticket ledger.
+     *
+     * @param ledgerSettings The ledger settings.
+     * @param simulationId   The simulation ID.
+     * @return The snapshot file.
+     */
+    static Path ledgerSnapshotPath(TicketingProperties.Ledger ledgerSettings, String simulationId) {
+        return Paths.get(ledgerSettings.getSnapshotDirectory()).resolve(simulationId + SimulationRegistry.LEDGER_SUFFIX);
+    }
+
+    /**
+     * Bulk-writes the ledger of the finished run to the database and drops its snapshot.
+     * If the database write fails, a final snapshot is kept so the tickets are written on the next startup.
+     */
+    private void persistLedger() {
+        TicketLedger finishedLedger = ledger;
+        ledger = null;
+        try {
+            ticketWriteBehind.persistLedger(simulationId, finishedLedger, highestIssuedTicketId());
+            Files.deleteIfExists(ledgerSnapshot);
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to persist ticket ledger of simulation {}: {}", simulationId, e.getMessage());
+            try {
+                finishedLedger.writeSnapshot(ledgerSnapshot, highestIssuedTicketId());
+            } catch (IOException snapshotError) {
+                log.error("Failed to snapshot ticket ledger of simulation {}: {}", simulationId, snapshotError.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Adds tickets to the pool of the vendor's section.
+     * Positions are reserved from the section's ticket source without blocking other vendors,
+     * so the section's capacity can never be exceeded, even when several nodes sell it.
+     *
+     * @param vendorID The ID of the vendor adding tickets.
+     */
+    public void addTickets(int vendorID) {
+        TicketSection section = sectionOf(vendorID);
+        if (!isSimulationRunning || section.isMaxCapacityReached()) {
             return;
         }
 
-        int ticketsToAdd = Math.min(5, maxTicketCapacity - currentTicketId);
+        // Reserve capacity for this release without blocking other vendors
+        long reservation = section.getSource().reserve(TICKETS_PER_RELEASE);
+        int ticketsToAdd = TicketSource.count(reservation);
+        int firstPosition = TicketSource.firstPosition(reservation);
+
+        TicketLedger currentLedger = ledger;
+        TicketPool pool = section.getPool();
+        boolean isLoggedByOutbox = isOutboxRun;
+        if (ticketsToAdd > 0 && currentLedger == null) {
+            // Queued before the tickets become visible
+            ticketWriteBehind.recordRelease(simulationId, section.getSection(), vendorID, ticketsToAdd,
+                    pool.size() + ticketsToAdd);
+        }
+        long[] releaseTimes = releasedAt;
+        long now = System.nanoTime();
         for (int i = 0; i < ticketsToAdd; i++) {
-            if (currentTicketId < maxTicketCapacity) {
-                currentTicketId++;
-                remainingTickets++;
-                try {
-                    TicketRecord ticket = new TicketRecord((long) vendorID, null);
-                    ticketRecordRepository.save(ticket);
-
-                    // Log the transaction
-                    JsonObject logEntry = new JsonObject();
-                    logEntry.addProperty("actionType", "ADD");
-                    logEntry.addProperty("entityName", "Vendor-" + vendorID);
-                    logEntry.addProperty("ticketCount", 1);
-                    logEntry.addProperty("remainingTickets", remainingTickets);
-                    transactionLogs.add(logEntry);
-                } catch (Exception e) {
-                    System.out.println("Error saving ticket to repository: " + e.getMessage());
-                }
+            long ticketId = section.ticketId(firstPosition + i);
+            if (ticketId < releaseTimes.length) {
+                releaseTimes[(int) ticketId] = now; // Published to customers by the pool's release store
+            }
+            if (currentLedger != null) {
+                currentLedger.release(ticketId, vendorID);
+            }
+            pool.offer(ticketId);
+
+            if (!isLoggedByOutbox) {
+                transactionLog.append("ADD", "Vendor", vendorID, section.getSection(), 1, pool.size()); // Log the transaction
             }
         }
-        System.out.println("Vendor " + vendorID + " added " + ticketsToAdd + " tickets. Current Pool: " + remainingTickets);
+        if (ticketsToAdd > 0) {
+            section.getAllocator().release(ticketsToAdd); // Hand the new tickets to waiting customers, waking each one served
+            salesStats.recordRelease(vendorID, ticketsToAdd);
+        }
+        metrics.ticketsAdded(ticketsToAdd);
+        sampledLog.info("Vendor {} added {} tickets. Current Pool: {}", vendorID, ticketsToAdd, pool.size());
 
-        if (currentTicketId >= maxTicketCapacity) {
-            isMaxCapacityReached = true;
-            System.out.println("Max capacity reached. Vendor " + vendorID + " stops adding tickets.");
+        if (section.getSource().isExhausted() && !section.isMaxCapacityReached()) {
+            section.setMaxCapacityReached();
+            log.info("Max capacity reached in section {} of simulation {}. Vendor {} stops adding tickets.",
+                    section.getSection(), simulationId, vendorID);
+            if (section.completeIfSoldOut()) {
+                sectionSoldOut(); // Customers already retrieved everything this node issued
+            }
         }
+    }
 
-        notifyAll();
+    /**
+     * Retrieves tickets from the pool of the customer's section.
+     * The customer parks until at least one ticket is available and then takes up to
+     * TICKETS_PER_RETRIEVAL tickets without waiting for more.
+     *
+     * @param customerID The ID of the customer retrieving tickets.
+     */
+    public void retrieveTickets(int customerID) {
+        if (checkouts.length > 0) {
+            settleCheckout(customerID); // Before parking, so a hold never waits on its own customer
+        }
+        TicketSection section = sectionOf(customerID);
+        long parkedSince = System.nanoTime();
+        int granted;
+        try {
+            granted = section.getAllocator().acquire(customerID, TICKETS_PER_RETRIEVAL);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (granted == 0) {
+            return; // The customer has bought as many tickets as it may
+        }
+        metrics.customerParked(System.nanoTime() - parkedSince);
+        if (checkouts.length > 0) {
+            placeCheckoutHold(section, customerID, granted);
+        } else {
+            completeRetrieval(section, customerID, granted);
+        }
     }
 
     /**
-     * Retrieves tickets from the pool by a customer.
+     * Retrieves tickets from the pool of the customer's section without waiting.
+     * Used by scheduled customers, which call again on every attempt: a customer that
+     * finds other customers waiting keeps its place and collects its tickets later.
      *
      * @param customerID The ID of the customer retrieving tickets.
+     * @return True if tickets were retrieved, false if the pool was empty.
      */
-    public synchronized void retrieveTickets(int customerID) {
-        while (remainingTickets <= 0) {
-            try {
-                wait();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+    public boolean tryRetrieveTickets(int customerID) {
+        if (!isSimulationRunning) {
+            return false;
+        }
+        if (checkouts.length > 0) {
+            settleCheckout(customerID);
+        }
+        TicketSection section = sectionOf(customerID);
+        int granted = section.getAllocator().poll(customerID, TICKETS_PER_RETRIEVAL);
+        if (granted == 0) {
+            return false;
+        }
+        if (checkouts.length > 0) {
+            placeCheckoutHold(section, customerID, granted);
+        } else {
+            completeRetrieval(section, customerID, granted);
+        }
+        return true;
+    }
+
+    /**
+     * Buys tickets of the customer's section for a client outside the simulation, without waiting.
+     * Simulated customers and checkout holds are bypassed; the purchase takes whatever the
+     * customer's section has available now, up to the requested number. A purchase is refused
+     * at once when the section is sold out or its pool is empty, before it takes an admission
+     * slot; otherwise it goes through admission control and may be shed when too many
+     * purchases are in progress. Refused purchases that may succeed later carry a retry delay.
+     * A purchase never queues behind waiting customers: it is only served while nobody is
+     * waiting, so a client that does not come back strands no tickets.
+     *
+     * @param customerID The ID of the customer, from 1 to the number of customers.
+     * @param tickets    The most tickets to buy.
+     * @return The outcome of the purchase.
+     * @throws IllegalArgumentException If the customer or ticket count is out of range.
+     */
+    public PurchaseResult purchaseTickets(int customerID, int tickets) {
+        if (customerID < 1 || customerID > customerTotal) {
+            throw new IllegalArgumentException("No customer " + customerID + " in simulation " + simulationId);
+        }
+        if (tickets < 1) {
+            throw new IllegalArgumentException("A purchase needs at least one ticket");
+        }
+        PurchaseResult result = admitPurchase(customerID, tickets);
+        metrics.purchaseAnswered(result.getStatus());
+        return result;
+    }
+
+    private PurchaseResult admitPurchase(int customerID, int tickets) {
+        if (!isSimulationRunning) {
+            return PurchaseResult.refused(isSoldOut() ? PurchaseResult.Status.SOLD_OUT : PurchaseResult.Status.NOT_RUNNING);
+        }
+        TicketSection section = sectionOf(customerID);
+        if (section.getPool().size() == 0) {
+            return unavailable(section); // Nothing to take, so no admission slot is spent on it
+        }
+        PurchaseAdmission admission = purchaseAdmission;
+        if (admission != null && !admission.tryAdmit()) {
+            return PurchaseResult.retryAfter(PurchaseResult.Status.SHED, admission.retryAfterMillis());
+        }
+        long admittedAt = System.nanoTime();
+        try {
+            int granted = section.getAllocator().tryAcquire(customerID, tickets); // Never queues, see TicketAllocator
+            if (granted > 0) {
+                completeRetrieval(section, customerID, granted);
+                return PurchaseResult.purchased(granted);
+            }
+        } finally {
+            if (admission != null) {
+                admission.release(System.nanoTime() - admittedAt);
+            }
+        }
+        return unavailable(section);
+    }
+
+    /**
+     * Refuses a purchase that found no tickets, telling the client whether and when to retry.
+     * While vendors still release tickets, the next release of the section is expected
+     * within one release interval divided by its vendors; once they have stopped, tickets
+     * can only come back from holds, which expire after the hold TTL.
+     */
+    private PurchaseResult unavailable(TicketSection section) {
+        if (section.isSoldOut()) {
+            return PurchaseResult.refused(PurchaseResult.Status.SOLD_OUT);
+        }
+        long retryAfterMillis;
+        if (section.isMaxCapacityReached()) {
+            retryAfterMillis = holdSettings.getTtlMillis();
+        } else {
+            int sectionCount = sections.length;
+            int vendors = vendorTotal / sectionCount + (section.getSection() <= vendorTotal % sectionCount ? 1 : 0);
+            retryAfterMillis = (long) Math.ceil((double) ticketReleaseRate / Math.max(1, vendors));
+        }
+        long maxRetryAfterMillis = purchaseAdmission != null ? purchaseAdmission.getMaxRetryAfterMillis() : retryAfterMillis;
+        return PurchaseResult.retryAfter(PurchaseResult.Status.UNAVAILABLE,
+                Math.max(1, Math.min(maxRetryAfterMillis, retryAfterMillis)));
+    }
+
+    /**
+     * Holds tickets of the customer's section for a customer without waiting.
+     * The tickets leave the pool at once but are not bought until the hold is confirmed;
+     * unless it is confirmed or released first, the hold expires after the given time
+     * and its tickets go back into the pool. Like a purchase, a hold never queues behind
+     * waiting customers, so a refused hold request leaves nothing reserved.
+     *
+     * @param customerID The ID of the customer, from 1 to the number of customers.
+     * @param tickets    The most tickets to hold.
+     * @param ttlMillis  How long the hold lasts, or 0 for the configured default.
+     * @return The hold, or null if no tickets can be held now.
+     * @throws IllegalArgumentException If the customer or ticket count is out of range.
+     */
+    public TicketHold holdTickets(int customerID, int tickets, long ttlMillis) {
+        if (customerID < 1 || customerID > customerTotal) {
+            throw new IllegalArgumentException("No customer " + customerID + " in simulation " + simulationId);
+        }
+        if (tickets < 1 || ttlMillis < 0) {
+            throw new IllegalArgumentException("A hold needs at least one ticket and a TTL that is not negative");
+        }
+        if (!isSimulationRunning) {
+            return null;
+        }
+        TicketSection section = sectionOf(customerID);
+        int granted = section.getAllocator().tryAcquire(customerID, tickets); // Never queues, see TicketAllocator
+        if (granted == 0) {
+            return null;
+        }
+        return placeHold(section, customerID, granted, ttlMillis > 0 ? ttlMillis : holdSettings.getTtlMillis());
+    }
+
+    /**
+     * Buys the tickets of a hold that has not expired.
+     *
+     * @param holdId The ID of the hold.
+     * @return The hold, or null if there is no such outstanding hold.
+     */
+    public TicketHold confirmHold(long holdId) {
+        TicketHold hold = holds.get(holdId);
+        if (!isSimulationRunning || hold == null || !hold.end(TicketHold.State.CONFIRMED)) {
+            return null;
+        }
+        holds.remove(holdId);
+        completeRetrieval(hold.getTicketSection(), hold.getCustomerID(), hold.getTicketIds());
+        metrics.holdConfirmed();
+        return hold;
+    }
+
+    /**
+     * Gives the tickets of a hold back to the pool before it expires.
+     *
+     * @param holdId The ID of the hold.
+     * @return The hold, or null if there is no such outstanding hold.
+     */
+    public TicketHold releaseHold(long holdId) {
+        TicketHold hold = holds.get(holdId);
+        if (hold == null || !hold.end(TicketHold.State.RELEASED)) {
+            return null;
+        }
+        holds.remove(holdId);
+        returnHeldTickets(hold);
+        metrics.holdReleased();
+        return hold;
+    }
+
+    /**
+     * Returns an outstanding hold.
+     *
+     * @param holdId The ID of the hold.
+     * @return The hold, or null if it has ended or never existed.
+     */
+    public TicketHold getHold(long holdId) {
+        return holds.get(holdId);
+    }
+
+    /**
+     * Returns the number of holds that have neither ended nor expired.
+     *
+     * @return The outstanding hold count.
+     */
+    public int getOutstandingHolds() {
+        return holds.size();
+    }
+
+    /**
+     * Takes granted tickets out of the pool and holds them until the TTL passes.
+     * Expiry costs one entry on the hold timer, whatever the number of outstanding holds.
+     */
+    private TicketHold placeHold(TicketSection section, int customerID, int granted, long ttlMillis) {
+        TicketPool pool = section.getPool();
+        long[] ticketIds = new long[granted];
+        for (int i = 0; i < granted; i++) {
+            ticketIds[i] = takeTicket(pool);
+        }
+        TicketHold hold = new TicketHold(holdIds.incrementAndGet(), customerID, ticketIds,
+                System.currentTimeMillis() + ttlMillis, section);
+        holds.put(hold.getHoldId(), hold);
+        holdTimer.schedule(() -> expireHold(hold), System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMillis));
+        metrics.holdPlaced();
+        sampledLog.info("Customer {} held {} tickets. Current Pool: {}", customerID, granted, pool.size());
+        return hold;
+    }
+
+    /**
+     * Returns the tickets of a hold that timed out. A hold that was confirmed or released
+     * in the meantime is left alone.
+     */
+    private void expireHold(TicketHold hold) {
+        if (!hold.end(TicketHold.State.EXPIRED)) {
+            return;
+        }
+        holds.remove(hold.getHoldId());
+        returnHeldTickets(hold);
+        metrics.holdExpired();
+    }
+
+    /**
+     * Puts the tickets of an ended hold back into their section's pool and wakes the customers
+     * waiting for them. Once the run has stopped the pool is gone, and the tickets are only
+     * counted as unsold.
+     */
+    private void returnHeldTickets(TicketHold hold) {
+        TicketSection section = hold.getTicketSection();
+        long[] ticketIds = hold.getTicketIds();
+        synchronized (holdLock) {
+            if (isHoldingClosed) {
                 return;
             }
+            TicketPool pool = section.getPool();
+            long[] releaseTimes = releasedAt;
+            long now = System.nanoTime();
+            for (long ticketId : ticketIds) {
+                if (ticketId < releaseTimes.length) {
+                    releaseTimes[(int) ticketId] = now; // Waits are measured from the ticket becoming available again
+                }
+                pool.offer(ticketId);
+            }
         }
+        section.getAllocator().getWaitStats().returned(hold.getCustomerID(), ticketIds.length);
+        section.getAllocator().release(ticketIds.length);
+    }
 
-        int ticketsToRetrieve = Math.min(4, remainingTickets);
+    /**
+     * Returns every outstanding hold to its pool and stops accepting returned tickets.
+     */
+    private void releaseOutstandingHolds() {
+        for (TicketHold hold : holds.values()) {
+            if (hold.end(TicketHold.State.RELEASED)) {
+                returnHeldTickets(hold);
+                metrics.holdReleased();
+            }
+        }
+        holds.clear();
+        synchronized (holdLock) {
+            isHoldingClosed = true;
+        }
+    }
+
+    /**
+     * Places the hold of a simulated customer; the customer settles it on its next attempt.
+     */
+    private void placeCheckoutHold(TicketSection section, int customerID, int granted) {
+        checkouts[customerID] = placeHold(section, customerID, granted, holdSettings.getTtlMillis());
+    }
+
+    /**
+     * Settles the pending hold of a simulated customer: confirms it, or walks away from the
+     * checkout and leaves it to expire, as the configured share of customers do.
+     */
+    private void settleCheckout(int customerID) {
+        TicketHold[] pending = checkouts;
+        TicketHold hold = pending[customerID];
+        if (hold == null) {
+            return;
+        }
+        pending[customerID] = null;
+        if (ThreadLocalRandom.current().nextInt(100) >= holdSettings.getAbandonPercent()) {
+            confirmHold(hold.getHoldId());
+        }
+    }
+
+    /**
+     * Takes the tickets the section's allocator granted to a customer.
+     *
+     * @param section           The section the customer buys in.
+     * @param customerID        The ID of the customer retrieving tickets.
+     * @param ticketsToRetrieve The number of tickets granted.
+     */
+    private void completeRetrieval(TicketSection section, int customerID, int ticketsToRetrieve) {
+        TicketPool pool = section.getPool();
+        long[] ticketIds = new long[ticketsToRetrieve];
         for (int i = 0; i < ticketsToRetrieve; i++) {
-            remainingTickets--;
-            TicketRecord ticket = ticketRecordRepository.findFirstByVendorIdNotNullAndCustomerIdNull();
-
-            if (ticket != null) {
-                ticket.setCustomerId((long) customerID);
-                try {
-                    ticketRecordRepository.save(ticket);
-
-                    // Log the transaction
-                    JsonObject logEntry = new JsonObject();
-                    logEntry.addProperty("actionType", "RETRIEVE");
-                    logEntry.addProperty("entityName", "Customer-" + customerID);
-                    logEntry.addProperty("ticketCount", 1);
-                    logEntry.addProperty("remainingTickets", remainingTickets);
-                    transactionLogs.add(logEntry);
-
-                } catch (Exception e) {
-                    System.out.println("Error saving ticket to repository: " + e.getMessage());
-                }
+            ticketIds[i] = takeTicket(pool);
+        }
+        completeRetrieval(section, customerID, ticketIds);
+    }
+
+    /**
+     * Records tickets taken out of the section's pool as bought by a customer.
+     *
+     * @param section    The section the customer buys in.
+     * @param customerID The ID of the customer retrieving tickets.
+     * @param ticketIds  The tickets taken.
+     */
+    private void completeRetrieval(TicketSection section, int customerID, long[] ticketIds) {
+        int ticketsToRetrieve = ticketIds.length;
+        long[] releaseTimes = releasedAt;
+        TicketLedger currentLedger = ledger;
+        TicketPool pool = section.getPool();
+        boolean isLoggedByOutbox = isOutboxRun;
+        for (long ticketId : ticketIds) {
+            if (ticketId < releaseTimes.length) {
+                metrics.ticketWaited(System.nanoTime() - releaseTimes[(int) ticketId]);
+            }
+            if (currentLedger != null) {
+                currentLedger.claim(ticketId, customerID);
             }
+
+            if (!isLoggedByOutbox) {
+                transactionLog.append("RETRIEVE", "Customer", customerID, section.getSection(), 1, pool.size()); // Log the transaction
+            }
+        }
+        if (currentLedger == null) {
+            // Logged with the ticket records through the outbox
+            ticketWriteBehind.recordClaim(simulationId, section.getSection(), customerID, ticketsToRetrieve, pool.size());
         }
-        System.out.println("Customer " + customerID + " retrieved " + ticketsToRetrieve + " tickets. Current Pool: " + remainingTickets);
+        metrics.ticketsRetrieved(ticketsToRetrieve);
+        salesStats.recordPurchase(customerID, ticketsToRetrieve);
+        sampledLog.info("Customer {} retrieved {} tickets. Current Pool: {}", customerID, ticketsToRetrieve, pool.size());
 
-        if (isMaxCapacityReached && remainingTickets == 0) {
-            System.out.println("Simulation Ended");
-            isSimulationAutomaticallyStopped = true;
-            stopSimulation();
+        if (section.claim(ticketsToRetrieve)) {
+            sectionSoldOut();
+        }
+    }
+
+    /**
+     * Ends the run once the last section sells out; only sold-out transitions touch the shared counter.
+     */
+    private void sectionSoldOut() {
+        if (soldOutSections.incrementAndGet() >= sections.length
+                && isSimulationAutomaticallyStopped.compareAndSet(false, true)) {
+            log.info("Simulation {} ended.", simulationId);
+            stopInBackground();
         }
+    }
 
-        notifyAll();
+    /**
+     * Ends the run at once and stops it on a stopper thread.
+     */
+    private void stopInBackground() {
+        isStopping = true; // Before the run reads as stopped, so no start slips in ahead of the stopper
+        isSimulationRunning = false;
+        new Thread(this::stopEndedRun, "simulation-stopper").start(); // Join the actors from outside their own threads
+    }
+
+    /**
+     * Brings the new sections of a run to the counters recovered from an interrupted run's log
+     * and lets customers have the tickets that were released but not retrieved.
+     */
+    private void restoreSections(TransactionLogCheckpoint recovered) {
+        for (TicketSection section : sections) {
+            int issued = (int) Math.min(recovered.getAdded(section.getSection()), section.getCapacity());
+            int claimed = (int) Math.min(recovered.getRetrieved(section.getSection()), issued);
+            int pooled = section.restore(issued, claimed);
+            if (pooled > 0) {
+                section.getAllocator().release(pooled);
+            }
+            if (section.completeIfSoldOut()) {
+                soldOutSections.incrementAndGet();
+            }
+        }
+    }
+
+    private ActorExecutor createActorExecutor(ExecutionMode executionMode) {
+        switch (executionMode) {
+            case VIRTUAL:
+                return ThreadPerActorExecutor.virtualThreads();
+            case SCHEDULED:
+                return new ScheduledActorExecutor(actorTimer);
+            default:
+                return ThreadPerActorExecutor.platformThreads();
+        }
+    }
+
+    /**
+     * Creates the sections of a run, each with its own ticket source, pool and allocator.
+     * The allocators record into one CustomerWaitStats, since every customer buys in a single section.
+     */
+    private TicketSection[] createSections(int sectionCount, int eventCapacity, int customers, InventoryMode mode) {
+        AllocationPolicy policy = allocationSettings.getPolicy();
+        int cap = allocationSettings.getMaxTicketsPerCustomer();
+        CustomerWaitStats waitStats = new CustomerWaitStats(policy, customers);
+        TicketSection[] created = new TicketSection[sectionCount];
+        for (int i = 1; i <= sectionCount; i++) {
+            int capacity = TicketSection.capacityOf(i, sectionCount, eventCapacity);
+            TicketAllocator allocator = policy == AllocationPolicy.BARGING
+                    ? new BargingTicketAllocator(waitStats, cap)
+                    : new QueuedTicketAllocator(policy, waitStats, cap, allocationSettings.getTierWeights());
+            TicketSource source = mode == InventoryMode.DISTRIBUTED
+                    ? new LeasedTicketSource(inventoryLeases, simulationId, i)
+                    : new LocalTicketSource(capacity);
+            created[i - 1] = new TicketSection(i, sectionCount, capacity, source, ticketPoolFactory.create(capacity),
+                    allocator);
+        }
+        customerWaitStats = waitStats;
+        return created;
+    }
+
+    private SalesStats createSalesStats(long issued, long claimed) {
+        return new SalesStats(vendorTotal, customerTotal, maxTicketCapacity, statsSettings.getBucketMillis(),
+                statsSettings.getMaxBuckets(), issued, claimed);
+    }
+
+    private TicketSection sectionOf(int actorID) {
+        TicketSection[] currentSections = sections;
+        return currentSections[TicketSection.sectionOf(actorID, currentSections.length) - 1];
+    }
+
+    /**
+     * Returns the highest ticket ID issued in the current run. Sections issue their
+     * interleaved IDs independently, so IDs below it may still be unissued.
+     */
+    private int highestIssuedTicketId() {
+        long highest = 0;
+        for (TicketSection section : sections) {
+            highest = Math.max(highest, section.highestTicketId());
+        }
+        return (int) highest;
+    }
+
+    /**
+     * Takes a ticket the caller already holds a permit for.
+     * A producer may have claimed a slot ahead of the one that was published,
+     * so the caller spins briefly until that slot becomes visible.
+     *
+     * @param pool The pool of the section the permit was granted in.
+     * @return The ID of the ticket taken from the pool.
+     */
+    private long takeTicket(TicketPool pool) {
+        long ticketId;
+        while ((ticketId = pool.poll()) == TicketPool.EMPTY) {
+            Thread.onSpinWait();
+        }
+        return ticketId;
+    }
+
+    /**
+     * Checks if every section of the current or last run has sold out.
+     *
+     * @return True if all tickets were sold.
+     */
+    public boolean isSoldOut() {
+        return soldOutSections.get() >= sections.length;
     }
 
     /**
@@ -242,11 +1122,166 @@ public class TicketService {
     }
 
     /**
-     * Retrieves the number of tickets remaining in the pool.
+     * Returns the number of tickets vendors have released in the current run.
+     *
+     * @return The issued ticket count.
+     */
+    public int getIssuedTickets() {
+        int issued = 0;
+        for (TicketSection section : sections) {
+            issued += section.getIssuedTickets();
+        }
+        return issued;
+    }
+
+    /**
+     * Returns the number of tickets customers have retrieved in the current run.
+     *
+     * @return The claimed ticket count.
+     */
+    public int getClaimedTickets() {
+        int claimed = 0;
+        for (TicketSection section : sections) {
+            claimed += section.getClaimedTickets();
+        }
+        return claimed;
+    }
+
+    /**
+     * Retrieves the number of tickets remaining in the pools of all sections.
      *
      * @return The remaining ticket count.
      */
     public int getRemainingTickets() {
-        return remainingTickets;
+        int remaining = 0;
+        for (TicketSection section : sections) {
+            remaining += section.getRemainingTickets();
+        }
+        return remaining;
+    }
+
+    /**
+     * Retrieves the number of tickets remaining in the pool of one section.
+     * Read from the section's own pool, without touching the database or other sections.
+     *
+     * @param section The section number, starting at 1.
+     * @return The remaining ticket count.
+     * @throws IllegalArgumentException If the event has no such section.
+     */
+    public int getRemainingTickets(int section) {
+        TicketSection[] currentSections = sections;
+        if (section < 1 || section > currentSections.length) {
+            throw new IllegalArgumentException("No section " + section + " in simulation " + simulationId);
+        }
+        return currentSections[section - 1].getRemainingTickets();
+    }
+
+    /**
+     * Returns the inventory of each section of the current or last run.
+     *
+     * @return One entry per section with its capacity and its issued, claimed and remaining tickets.
+     */
+    public List<Map<String, Object>> getSectionStats() {
+        List<Map<String, Object>> stats = new ArrayList<>();
+        for (TicketSection section : sections) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("section", section.getSection());
+            entry.put("capacity", section.getCapacity());
+            entry.put("issuedTickets", section.getIssuedTickets());
+            entry.put("claimedTickets", section.getClaimedTickets());
+            entry.put("remainingTickets", section.getRemainingTickets());
+            stats.add(entry);
+        }
+        return stats;
+    }
+
+    /**
+     * Checks if the last run of this simulation has stopped and its results are persisted.
+     *
+     * @return True if the simulation has finished, false otherwise.
+     */
+    public boolean isSimulationFinished() {
+        return isSimulationFinished;
+    }
+
+    /**
+     * Checks whether this simulation never ran and has not been configured since a given time.
+     *
+     * @param since The time in epoch milliseconds.
+     * @return True if the simulation was created or last configured before that time and never started.
+     */
+    boolean isIdleSince(long since) {
+        return !hasRun && touchedAt < since;
+    }
+
+    /**
+     * Returns when the last run of this simulation finished.
+     *
+     * @return The finish time in epoch milliseconds, or 0 if it has not finished.
+     */
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * Returns why the current or last run failed.
+     *
+     * @return The reason, or null if the run has not failed.
+     */
+    public String getFailure() {
+        return failure;
+    }
+
+    /**
+     * Returns how tickets were shared among the customers of the current or last run.
+     *
+     * @return The per-customer allocation statistics.
+     */
+    public CustomerWaitStats getCustomerWaitStats() {
+        return customerWaitStats;
+    }
+
+    /**
+     * Returns the sales aggregates of the current or last run.
+     *
+     * @return The sales statistics.
+     */
+    public SalesStats getSalesStats() {
+        return salesStats;
+    }
+
+    /**
+     * Adds the tickets released and bought since the last sample to the sales histogram.
+     * Called by the SalesStatsService's sampler and before stats are computed.
+     */
+    void sampleSales() {
+        salesStats.sample(getIssuedTickets(), getClaimedTickets(), System.currentTimeMillis());
+    }
+
+    /**
+     * Returns the meters of this simulation.
+     *
+     * @return The simulation metrics.
+     */
+    public SimulationMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the ID of this simulation.
+     *
+     * @return The simulation ID.
+     */
+    public String getSimulationId() {
+        return simulationId;
+    }
+
+    /**
+     * Returns the reader over the transaction log of the current or most recent run.
+     *
+     * @return The transaction log reader.
+     */
+    public TransactionLogReader getTransactionLogReader() {
+        return transactionLogReader;
     }
 }
@@ -0,0 +1,57 @@
+package Ticketing.System.service;
+
+/**
+ * Hands out the positions of the tickets a section may release on this node.
+ * A reservation is a run of consecutive positions, packed into a long as the first
+ * position in the high half and the number of positions in the low half.
+ */
+interface TicketSource {
+
+    long NONE = 0; // Reservation of no positions
+
+    /**
+     * Reserves up to the wanted number of consecutive positions without blocking other vendors.
+     *
+     * @param wanted The most positions to reserve.
+     * @return The reservation, or NONE if no position is available.
+     */
+    long reserve(int wanted);
+
+    /**
+     * Returns the number of positions reserved so far.
+     *
+     * @return The issued ticket count.
+     */
+    int getIssued();
+
+    /**
+     * Returns the highest position reserved so far.
+     *
+     * @return The position, or 0 if nothing was reserved.
+     */
+    int getHighestPosition();
+
+    /**
+     * Checks if no more positions will be handed out.
+     *
+     * @return True once the source has run dry.
+     */
+    boolean isExhausted();
+
+    /**
+     * Gives back positions that were obtained but never reserved. Called once the run has stopped.
+     */
+    void close();
+
+    static long reservation(int firstPosition, int count) {
+        return count <= 0 ? NONE : ((long) firstPosition << 32) | count;
+    }
+
+    static int firstPosition(long reservation) {
+        return (int) (reservation >>> 32);
+    }
+
+    static int count(long reservation) {
+        return (int) reservation;
+    }
+}
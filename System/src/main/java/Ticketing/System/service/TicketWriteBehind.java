@@ -0,0 +1,528 @@
+package Ticketing.System.service;
+
+import Ticketing.System.config.TicketingProperties;
+import Ticketing.System.model.OutboxEvent;
+import Ticketing.System.model.TicketRecord;
+import Ticketing.System.repo.OutboxEventRepo;
+import Ticketing.System.repo.TicketRecordRepo;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * The TicketWriteBehind class takes ticket persistence off the vendor and customer hot path.
+ * Ticket releases and claims are put on a bounded queue, and a single flusher thread
+ * coalesces them into one transaction per batch so Hibernate can send JDBC batches.
+ * When the queue is full, callers wait for the flusher to catch up.
+ * A batch whose transaction fails for a transient reason stays at the head of the pipeline
+ * and is written again with growing backoff, a bounded number of times. A batch that fails
+ * for good, or runs out of retries, is appended to a dead-letter log and the runs it belongs
+ * to are told they failed, so one bad batch never holds up the flusher and the queue.
+ * For runs with an open outbox, each release and claim is also written to the outbox table
+ * in the same transaction, numbered in the order of the run's transaction log, and the
+ * OutboxRelay appends it to the log after the commit.
+ */
+@Component
+public class TicketWriteBehind {
+
+    private static final Logger log = LoggerFactory.getLogger(TicketWriteBehind.class);
+    static final String DEAD_LETTER_FILE = "ticket-mutations.ndjson"; // Dead-letter log, one mutation per line
+    private static final Gson gson = new Gson();
+
+    private final TicketRecordRepo ticketRecordRepository; // Repository to manage ticket records
+    private final OutboxEventRepo outboxEventRepository; // Repository to manage outbox events
+    private final OutboxRelay outboxRelay; // Relays committed outbox events to the transaction logs
+    private final Map<String, AtomicLong> outboxSequences = new ConcurrentHashMap<>(); // Last event number per run with an open outbox
+    private final TransactionTemplate transactionTemplate; // Runs each batch in a single transaction
+    private final String nodeId; // Node stamped on every ticket this pipeline writes
+    private final BlockingQueue<TicketMutation> pendingMutations; // Mutations waiting to be flushed
+    private final int flushSize; // Maximum mutations per batch
+    private final long flushIntervalMillis; // Maximum time to wait for a batch to fill up
+    private final long retryBackoffMillis; // First wait before a failed batch is written again
+    private final long maxRetryBackoffMillis; // Longest wait between attempts to write a failed batch
+    private final int maxRetries; // Retries of a batch that failed for a transient reason
+    private final int shutdownRetries; // Retries left to a failing batch once the pipeline is stopping
+    private final long drainTimeoutMillis; // Longest wait for queued mutations in drain()
+    private final Path deadLetterDirectory; // Directory of the log batches that could not be written go to
+    private final Map<String, Consumer<String>> runFailureListeners = new ConcurrentHashMap<>(); // Told when a run's batch is dead-lettered
+    private final AtomicInteger failedAttempts = new AtomicInteger(); // Failed attempts of the batch being written
+    private final Thread flusher = new Thread(this::runFlusher, "ticket-write-behind"); // Thread applying batches
+    private volatile boolean isRunning = false; // Flag indicating if the flusher accepts work
+    private volatile boolean isStopping = false; // Flag indicating the application is shutting the pipeline down
+    private final Timer batchSaveTime; // Time spent writing each batch to the database
+    private final Timer enqueueWaitTime; // Time callers spend waiting for space in a full queue
+    private final Counter batchFailures; // Attempts to write a batch that were rolled back
+    private final Counter deadLetteredMutations; // Mutations given up and written to the dead-letter log
+
+    /**
+     * Constructor to initialize the write-behind pipeline.
+     *
+     * @param ticketRecordRepository The repository to manage ticket records.
+     * @param outboxEventRepository  The repository to manage outbox events.
+     * @param outboxRelay            The relay that delivers committed outbox events.
+     * @param transactionManager     The transaction manager used for each batch.
+     * @param properties             The ticketing configuration.
+     * @param meterRegistry          The registry the persistence meters are published to.
+     */
+    public TicketWriteBehind(TicketRecordRepo ticketRecordRepository, OutboxEventRepo outboxEventRepository,
+                             OutboxRelay outboxRelay, PlatformTransactionManager transactionManager,
+                             TicketingProperties properties, MeterRegistry meterRegistry) {
+        this.ticketRecordRepository = ticketRecordRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxRelay = outboxRelay;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.nodeId = properties.getInventory().getNodeId();
+        this.pendingMutations = new ArrayBlockingQueue<>(properties.getPersistence().getQueueCapacity());
+        this.flushSize = properties.getPersistence().getFlushSize();
+        this.flushIntervalMillis = properties.getPersistence().getFlushIntervalMillis();
+        this.retryBackoffMillis = Math.max(1, properties.getPersistence().getRetryBackoffMillis());
+        this.maxRetryBackoffMillis = Math.max(retryBackoffMillis, properties.getPersistence().getMaxRetryBackoffMillis());
+        this.maxRetries = Math.max(0, properties.getPersistence().getMaxRetries());
+        this.shutdownRetries = Math.max(0, properties.getPersistence().getShutdownRetries());
+        this.drainTimeoutMillis = Math.max(1, properties.getPersistence().getDrainTimeoutMillis());
+        this.deadLetterDirectory = Paths.get(properties.getPersistence().getDeadLetterDirectory());
+        this.batchSaveTime = Timer.builder("ticketing.persistence.batch")
+                .description("Time to write one batch of ticket releases and claims to the database")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.enqueueWaitTime = Timer.builder("ticketing.persistence.enqueue.wait")
+                .description("Time vendors and customers wait for space in the write-behind queue")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("ticketing.persistence.queue.depth", pendingMutations, BlockingQueue::size)
+                .description("Ticket mutations waiting to be written to the database")
+                .register(meterRegistry);
+        this.batchFailures = Counter.builder("ticketing.persistence.batch.failures")
+                .description("Attempts to write a batch of ticket releases and claims that were rolled back")
+                .register(meterRegistry);
+        Gauge.builder("ticketing.persistence.batch.failing", failedAttempts, AtomicInteger::get)
+                .description("Failed attempts of the batch being written; above 0 while the database refuses it")
+                .register(meterRegistry);
+        this.deadLetteredMutations = Counter.builder("ticketing.persistence.dead-lettered")
+                .description("Ticket releases and claims that could not be written and went to the dead-letter log")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        isRunning = true;
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Queues tickets released by a vendor.
+     *
+     * @param simulationId     The ID of the simulation the tickets belong to.
+     * @param section          The section the tickets belong to.
+     * @param vendorID         The ID of the vendor releasing the tickets.
+     * @param ticketCount      The number of tickets released.
+     * @param remainingTickets The tickets in the section's pool once these are added.
+     */
+    public void recordRelease(String simulationId, int section, int vendorID, int ticketCount, int remainingTickets) {
+        enqueue(TicketMutation.release(simulationId, section, vendorID, ticketCount, remainingTickets));
+    }
+
+    /**
+     * Queues tickets retrieved by a customer.
+     *
+     * @param simulationId     The ID of the simulation the tickets belong to.
+     * @param section          The section the tickets belong to.
+     * @param customerID       The ID of the customer retrieving the tickets.
+     * @param ticketCount      The number of tickets retrieved.
+     * @param remainingTickets The tickets left in the section's pool afterwards.
+     */
+    public void recordClaim(String simulationId, int section, int customerID, int ticketCount, int remainingTickets) {
+        enqueue(TicketMutation.claim(simulationId, section, customerID, ticketCount, remainingTickets));
+    }
+
+    /**
+     * Starts writing outbox events for the releases and claims of a run. Call it before the
+     * run's first mutation is queued.
+     *
+     * @param simulationId The ID of the simulation.
+     * @param lastSequence The sequence number of the last event in the run's transaction log.
+     */
+    public void openOutbox(String simulationId, long lastSequence) {
+        outboxSequences.put(simulationId, new AtomicLong(lastSequence));
+    }
+
+    /**
+     * Stops writing outbox events for a run. Call it after the run's mutations have been drained.
+     *
+     * @param simulationId The ID of the simulation.
+     */
+    public void closeOutbox(String simulationId) {
+        outboxSequences.remove(simulationId);
+    }
+
+    /**
+     * Tells a run when one of its batches could not be written. Call it before the run's
+     * first mutation is queued. The listener is called on the flusher thread and must not block.
+     *
+     * @param simulationId The ID of the simulation.
+     * @param listener     Receives the reason the batch failed.
+     */
+    public void watchRun(String simulationId, Consumer<String> listener) {
+        runFailureListeners.put(simulationId, listener);
+    }
+
+    /**
+     * Stops telling a run about failed batches. Call it after the run's mutations have been drained.
+     *
+     * @param simulationId The ID of the simulation.
+     */
+    public void unwatchRun(String simulationId) {
+        runFailureListeners.remove(simulationId);
+    }
+
+    /**
+     * Blocks until every mutation queued before this call has been written to the database
+     * or dead-lettered, but no longer than the configured drain timeout.
+     *
+     * @return True if the queued mutations were all handled, false if the wait timed out.
+     */
+    public boolean drain() {
+        if (!flusher.isAlive()) {
+            return true;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(drainTimeoutMillis);
+        TicketMutation barrier = TicketMutation.barrier();
+        try {
+            if (!pendingMutations.offer(barrier, drainTimeoutMillis, TimeUnit.MILLISECONDS)
+                    || !barrier.getBarrier().await(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                log.warn("Ticket mutations were not written within {} ms.", drainTimeoutMillis);
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Writes the tickets of a ledger to the database in bulk, one transaction per flush-size
+     * chunk. Used at the end of a ledger-mode run, when the ledger has been the source of truth.
+     * Mutations already queued are written first.
+     *
+     * @param simulationId The ID of the simulation the tickets belong to.
+     * @param ledger       The ledger to persist.
+     * @param ticketCount  The highest ticket ID issued; released tickets 1 to ticketCount are written.
+     */
+    public void persistLedger(String simulationId, TicketLedger ledger, int ticketCount) {
+        drain();
+        int count = Math.min(ticketCount, ledger.getCapacity());
+        for (int first = 1; first <= count; first += flushSize) {
+            int last = Math.min(count, first + flushSize - 1);
+            List<TicketRecord> tickets = new ArrayList<>(last - first + 1);
+            for (long ticketId = first; ticketId <= last; ticketId++) {
+                int vendorId = ledger.getVendorId(ticketId);
+                int customerId = ledger.getCustomerId(ticketId);
+                if (vendorId != 0) {
+                    tickets.add(ticketRecord(simulationId, ledger.getSection(ticketId), vendorId,
+                            customerId != 0 ? (long) customerId : null));
+                }
+            }
+            transactionTemplate.executeWithoutResult(status -> ticketRecordRepository.saveAll(tickets));
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        isStopping = true; // A failing batch gets fewer retries, so shutdown is not held up
+        drain();
+        isRunning = false;
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Puts a mutation on the queue, waiting for space if necessary.
+     * Mutations describe tickets that have already moved in the pool, so an
+     * interrupt only delays the caller and never drops the mutation.
+     */
+    private void enqueue(TicketMutation mutation) {
+        if (pendingMutations.offer(mutation)) {
+            return;
+        }
+        long waitingSince = System.nanoTime();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                pendingMutations.put(mutation);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        enqueueWaitTime.record(System.nanoTime() - waitingSince, TimeUnit.NANOSECONDS);
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runFlusher() {
+        List<TicketMutation> batch = new ArrayList<>(flushSize);
+        while (isRunning || !pendingMutations.isEmpty()) {
+            try {
+                TicketMutation first = pendingMutations.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                while (batch.size() < flushSize && first.getType() != TicketMutation.Type.BARRIER) {
+                    pendingMutations.drainTo(batch, flushSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= flushSize || remaining <= 0
+                            || batch.get(batch.size() - 1).getType() == TicketMutation.Type.BARRIER) {
+                        break;
+                    }
+                    TicketMutation next = pendingMutations.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                pendingMutations.drainTo(batch);
+                isRunning = false;
+            }
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Writes one batch. A batch that failed for a transient reason is written again with
+     * backoff, at most maxRetries times, or shutdownRetries once the pipeline is stopping;
+     * its outbox events keep the sequence numbers they were given, so the log stays an ordered
+     * prefix of the database. A batch that fails for good or runs out of retries is
+     * dead-lettered, and its sequence numbers are handed out again so the log has no gap.
+     */
+    private void writeBatch(List<TicketMutation> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<AtomicLong, Long> sequencesBefore = new HashMap<>();
+        List<OutboxEvent> outboxEvents = outboxEvents(batch, sequencesBefore);
+        try {
+            long backoffMillis = retryBackoffMillis;
+            Exception failure;
+            while (hasWrites(batch) && (failure = tryWriteBatch(batch, outboxEvents)) != null) {
+                batchFailures.increment();
+                int attempts = failedAttempts.incrementAndGet();
+                int retries = isStopping || !isRunning ? Math.min(maxRetries, shutdownRetries) : maxRetries;
+                if (!isTransient(failure) || attempts > retries) {
+                    deadLetter(batch, failure, attempts);
+                    sequencesBefore.forEach(AtomicLong::set);
+                    return;
+                }
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    isRunning = false;
+                }
+                backoffMillis = Math.min(maxRetryBackoffMillis, backoffMillis * 2);
+            }
+            if (!outboxEvents.isEmpty()) {
+                outboxRelay.signal();
+            }
+        } finally {
+            failedAttempts.set(0);
+            for (TicketMutation mutation : batch) {
+                if (mutation.getType() == TicketMutation.Type.BARRIER) {
+                    mutation.getBarrier().countDown();
+                }
+            }
+        }
+    }
+
+    /**
+     * Makes one attempt to write a batch in a single transaction. Releases are inserted first so
+     * claims in the same batch always find the tickets they refer to.
+     *
+     * @return Null if the batch was committed, otherwise the exception it was rolled back with.
+     */
+    private Exception tryWriteBatch(List<TicketMutation> batch, List<OutboxEvent> outboxEvents) {
+        long startedAt = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<TicketRecord> releasedTickets = new ArrayList<>();
+                for (TicketMutation mutation : batch) {
+                    if (mutation.getType() == TicketMutation.Type.RELEASE) {
+                        for (int i = 0; i < mutation.getTicketCount(); i++) {
+                            releasedTickets.add(ticketRecord(mutation.getSimulationId(), mutation.getSection(),
+                                    mutation.getEntityId(), null));
+                        }
+                    }
+                }
+                ticketRecordRepository.saveAll(releasedTickets);
+
+                for (TicketMutation mutation : batch) {
+                    if (mutation.getType() == TicketMutation.Type.CLAIM) {
+                        ticketRecordRepository.claimTickets(mutation.getSimulationId(), mutation.getSection(), nodeId,
+                                mutation.getEntityId(), mutation.getTicketCount());
+                    }
+                }
+                outboxEvents.forEach(event -> event.setEventId(null)); // IDs of a rolled-back attempt were never stored
+                outboxEventRepository.saveAll(outboxEvents);
+            });
+            return null;
+        } catch (Exception e) {
+            log.error("Error saving ticket batch to repository (attempt {}): {}", failedAttempts.get() + 1, e.getMessage());
+            return e;
+        } finally {
+            batchSaveTime.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static boolean hasWrites(List<TicketMutation> batch) {
+        for (TicketMutation mutation : batch) {
+            if (mutation.getType() != TicketMutation.Type.BARRIER) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a failed write may succeed when tried again: timeouts, lock conflicts
+     * and a database that cannot be reached. Constraint violations and bad data fail for good.
+     *
+     * @param failure The exception the batch was rolled back with.
+     * @return True if the batch is worth retrying.
+     */
+    static boolean isTransient(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException || cause instanceof RecoverableDataAccessException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof CannotCreateTransactionException
+                    || cause instanceof SQLTransientException || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gives up on a batch: appends its mutations to the dead-letter log, so they can be
+     * inspected and replayed by hand, and fails the runs they belong to.
+     */
+    private void deadLetter(List<TicketMutation> batch, Exception failure, int attempts) {
+        String reason = "Ticket batch could not be written after " + attempts + " attempts: " + failure.getMessage();
+        log.error("Dead-lettering ticket batch of {} mutations after {} failed attempts.", batch.size(), attempts);
+        Set<String> simulationIds = new LinkedHashSet<>();
+        List<TicketMutation> mutations = new ArrayList<>(batch.size());
+        for (TicketMutation mutation : batch) {
+            if (mutation.getType() != TicketMutation.Type.BARRIER) {
+                simulationIds.add(mutation.getSimulationId());
+                mutations.add(mutation);
+            }
+        }
+        Path file = deadLetterDirectory.resolve(DEAD_LETTER_FILE);
+        try {
+            Files.createDirectories(deadLetterDirectory);
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (TicketMutation mutation : mutations) {
+                    JsonObject line = new JsonObject();
+                    line.addProperty("simulationId", mutation.getSimulationId());
+                    line.addProperty("nodeId", nodeId);
+                    line.addProperty("type", mutation.getType().name());
+                    line.addProperty("section", mutation.getSection());
+                    line.addProperty("entityId", mutation.getEntityId());
+                    line.addProperty("ticketCount", mutation.getTicketCount());
+                    line.addProperty("remainingTickets", mutation.getRemainingTickets());
+                    line.addProperty("error", failure.getMessage());
+                    writer.write(gson.toJson(line));
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to write ticket batch to the dead-letter log {}: {}", file, e.getMessage());
+        }
+        deadLetteredMutations.increment(mutations.size());
+        for (String simulationId : simulationIds) {
+            Consumer<String> listener = runFailureListeners.get(simulationId);
+            if (listener != null) {
+                listener.accept(reason);
+            }
+        }
+    }
+
+    /**
+     * Numbers the releases and claims of runs with an open outbox as the next events of their logs.
+     *
+     * @param batch           The mutations of the batch.
+     * @param sequencesBefore Receives the counters touched and their values before the batch.
+     * @return The outbox events to write with the batch.
+     */
+    private List<OutboxEvent> outboxEvents(List<TicketMutation> batch, Map<AtomicLong, Long> sequencesBefore) {
+        List<OutboxEvent> events = new ArrayList<>();
+        for (TicketMutation mutation : batch) {
+            if (mutation.getType() == TicketMutation.Type.BARRIER) {
+                continue;
+            }
+            AtomicLong sequence = outboxSequences.get(mutation.getSimulationId());
+            if (sequence == null) {
+                continue;
+            }
+            sequencesBefore.putIfAbsent(sequence, sequence.get());
+            boolean isRelease = mutation.getType() == TicketMutation.Type.RELEASE;
+            events.add(new OutboxEvent(mutation.getSimulationId(), nodeId, sequence.incrementAndGet(),
+                    isRelease ? "ADD" : "RETRIEVE", isRelease ? "Vendor" : "Customer", mutation.getEntityId(),
+                    mutation.getSection(), mutation.getTicketCount(), mutation.getRemainingTickets()));
+        }
+        return events;
+    }
+
+    private TicketRecord ticketRecord(String simulationId, int section, long vendorId, Long customerId) {
+        TicketRecord ticket = new TicketRecord(simulationId, section, vendorId, customerId);
+        ticket.setNodeId(nodeId);
+        return ticket;
+    }
+}
@@ -0,0 +1,140 @@
+package Ticketing.System.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timing wheel that fires tasks at a deadline on a worker executor.
+ * A single ticker thread advances the wheel one slot per tick; scheduling is a
+ * lock-free queue insert, and expiry costs only the tasks in the current slot,
+ * so tens of thousands of pending tasks are cheap to keep.
+ */
+public class TimingWheel {
+
+    private final long tickNanos; // Duration of one slot
+    private final int mask; // Slot count minus one; the slot count is a power of two
+    private final List<List<Timeout>> slots; // Tasks by slot; only touched by the ticker
+    private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>(); // Newly scheduled tasks
+    private final Executor workers; // Executes the expired tasks
+    private final Thread ticker; // Advances the wheel
+    private final long startNanos; // Time of tick zero
+    private volatile boolean isRunning = true; // Flag indicating the wheel is ticking
+
+    /**
+     * Constructor to initialize the wheel and start its ticker.
+     *
+     * @param tickMillis The duration of one slot.
+     * @param slotCount  The number of slots, rounded up to a power of two.
+     * @param workers    The executor the expired tasks run on.
+     * @param threadName The name of the ticker thread.
+     */
+    public TimingWheel(long tickMillis, int slotCount, Executor workers, String threadName) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickMillis));
+        int size = Integer.highestOneBit(Math.max(2, slotCount - 1)) << 1;
+        this.mask = size - 1;
+        this.slots = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            slots.add(new ArrayList<>());
+        }
+        this.workers = workers;
+        this.startNanos = System.nanoTime();
+        this.ticker = new Thread(this::runTicker, threadName);
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    /**
+     * Schedules a task. Tasks whose deadline has passed fire on the next tick.
+     *
+     * @param task          The task to run.
+     * @param deadlineNanos When to run it (System.nanoTime).
+     */
+    public void schedule(Runnable task, long deadlineNanos) {
+        pendingTimeouts.add(new Timeout(task, deadlineNanos));
+    }
+
+    /**
+     * Stops the ticker. Tasks that have not fired yet are discarded.
+     */
+    public void stop() {
+        isRunning = false;
+        ticker.interrupt();
+        try {
+            ticker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runTicker() {
+        long tick = 0;
+        while (isRunning) {
+            long sleepNanos = startNanos + (tick + 1) * tickNanos - System.nanoTime();
+            if (sleepNanos > 0) {
+                LockSupport.parkNanos(sleepNanos);
+                continue;
+            }
+            transferPendingTimeouts(tick);
+            expire(slots.get((int) (tick & mask)));
+            tick++;
+        }
+    }
+
+    /**
+     * Moves newly scheduled tasks into their slots.
+     */
+    private void transferPendingTimeouts(long currentTick) {
+        Timeout timeout;
+        while ((timeout = pendingTimeouts.poll()) != null) {
+            long elapsed = timeout.deadlineNanos - startNanos;
+            long deadlineTick = Math.max(currentTick, elapsed <= 0 ? 0 : (elapsed + tickNanos - 1) / tickNanos);
+            timeout.remainingRounds = (deadlineTick - currentTick) / (mask + 1);
+            slots.get((int) (deadlineTick & mask)).add(timeout);
+        }
+    }
+
+    /**
+     * Fires the tasks of a slot that are due in this round.
+     */
+    private void expire(List<Timeout> slot) {
+        int i = 0;
+        while (i < slot.size()) {
+            Timeout timeout = slot.get(i);
+            if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+                i++;
+                continue;
+            }
+            Timeout last = slot.remove(slot.size() - 1); // Swap-remove; slot order does not matter
+            if (i < slot.size()) {
+                slot.set(i, last);
+            }
+            try {
+                workers.execute(timeout.task);
+            } catch (RejectedExecutionException e) {
+                // The worker pool is shutting down
+            }
+        }
+    }
+
+    /**
+     * A scheduled task.
+     */
+    private static class Timeout {
+
+        private final Runnable task; // Task to run
+        private final long deadlineNanos; // When to run it
+        private long remainingRounds; // Full turns of the wheel left before the task fires
+
+        private Timeout(Runnable task, long deadlineNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package Ticketing.System.service;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * The Vendor class simulates a vendor in the ticketing system.
  * A vendor periodically adds tickets to the shared ticket pool at a specified interval.
@@ -10,6 +12,7 @@ public class Vendor implements Runnable {
 
     private final TicketService ticketService; // Reference to the TicketService to interact with the ticket pool
     private final int releaseInterval; // Time interval (in milliseconds) between ticket releases
+    private final ActorPacer pacer; // Decides when each release is due
     private final int vendorID; // Unique identifier for the vendor
 
     /**
@@ -21,27 +24,58 @@ public class Vendor implements Runnable {
      */
 
     public Vendor(TicketService ticketService, int releaseInterval, int vendorID) {
+        this(ticketService, releaseInterval, ActorPacer.steady(releaseInterval), vendorID);
+    }
+
+    /**
+     * Constructor to initialize a Vendor whose releases follow a pacer.
+     *
+     * @param ticketService   The TicketService to manage ticket operations.
+     * @param releaseInterval The configured time interval between ticket releases.
+     * @param pacer           The pacer deciding when each release is due.
+     * @param vendorID        The unique ID of the vendor.
+     */
+
+    public Vendor(TicketService ticketService, int releaseInterval, ActorPacer pacer, int vendorID) {
         this.ticketService = ticketService;
         this.releaseInterval = releaseInterval;
+        this.pacer = pacer;
         this.vendorID = vendorID;
     }
 
     /**
      * The run method is executed when the thread starts.
      * The vendor repeatedly adds tickets to the pool at specified intervals
-     * while the simulation is running.
+     * while the simulation is running. Releases are timed against deadlines
+     * rather than sleeps, so time spent adding tickets does not slow the rate.
      */
 
     @Override
     public void run() {
+        long deadline = System.nanoTime();
         while (ticketService.isSimulationRunning()) { // Check if the simulation is active
             try {
-                Thread.sleep(releaseInterval);  // Pause the thread for the specified interval
+                deadline = pacer.nextDeadline(deadline, System.nanoTime());
+                TimeUnit.NANOSECONDS.sleep(deadline - System.nanoTime()); // Pause until the next release is due
                 ticketService.addTickets(vendorID); // Add tickets to the pool
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();  // Restore the interrupted status of the thread
             }
         }
     }
-}
 
+    /**
+     * Performs a single release attempt, used when the vendor is driven by a scheduler.
+     */
+    public void releaseOnce() {
+        ticketService.addTickets(vendorID);
+    }
+
+    public int getReleaseInterval() {
+        return releaseInterval;
+    }
+
+    public ActorPacer getPacer() {
+        return pacer;
+    }
+}
@@ -2,15 +2,25 @@ package Ticketing.System.util;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 
 public class JSONFileWriter {
 
+    private static final Logger log = LoggerFactory.getLogger(JSONFileWriter.class);
+
     private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
 
     /**
@@ -22,10 +32,34 @@ public class JSONFileWriter {
     public static void writeLogsToJSON(List<JsonObject> logs, String filename) {
         try (FileWriter writer = new FileWriter(filename, false)) { // Overwrite the file
             gson.toJson(logs, writer);
-            System.out.println("Logs successfully saved to " + filename);
+            log.info("Logs successfully saved to {}", filename);
         } catch (IOException e) {
-            System.err.println("Failed to write logs to JSON file: " + e.getMessage());
+            log.error("Failed to write logs to JSON file: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the events of a transaction log, binary or JSON, to a JSON file in the form of
+     * writeLogsToJSON: one object per event with its actionType, entityName, ticketCount and
+     * remainingTickets, plus the fields the log adds. Meant for tools that read that file;
+     * the whole log is held in memory, so it is not for the running system.
+     *
+     * @param logDirectory The directory holding the log segments.
+     * @param filename     The filename where the logs will be saved.
+     */
+    public static void writeTransactionLogToJSON(Path logDirectory, String filename) {
+        ByteArrayOutputStream events = new ByteArrayOutputStream();
+        try {
+            new TransactionLogReader(logDirectory).writeJsonArray(0, 0, 0, null, null, events);
+        } catch (IOException e) {
+            log.error("Failed to read transaction log {}: {}", logDirectory, e.getMessage());
+            return;
+        }
+        List<JsonObject> logs = new ArrayList<>();
+        for (JsonElement event : JsonParser.parseString(events.toString(StandardCharsets.US_ASCII)).getAsJsonArray()) {
+            logs.add(event.getAsJsonObject());
         }
+        writeLogsToJSON(logs, filename);
     }
 
     /**
@@ -38,7 +72,7 @@ public class JSONFileWriter {
         try (FileReader reader = new FileReader(filename)) {
             return gson.fromJson(reader, List.class); // Parse the JSON array into a list of JsonObjects
         } catch (IOException e) {
-            System.err.println("Failed to read logs from JSON file: " + e.getMessage());
+            log.error("Failed to read logs from JSON file: {}", e.getMessage());
             return null;
         }
     }
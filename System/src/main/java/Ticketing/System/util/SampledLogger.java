@@ -0,0 +1,38 @@
+package Ticketing.System.util;
+
+import org.slf4j.Logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logs only one in every N calls, for messages on the ticket hot path.
+ * Calls that are not sampled cost a single atomic increment: arguments are
+ * passed as primitives and only boxed when the message is actually logged.
+ */
+public class SampledLogger {
+
+    private final Logger logger; // Logger the sampled messages are written to
+    private final int sampleRate; // One in this many calls is logged
+    private final AtomicLong calls = new AtomicLong(); // Calls seen so far
+
+    /**
+     * Constructor to initialize the sampled logger.
+     *
+     * @param logger     The logger to write to.
+     * @param sampleRate Log one call in this many (1 logs every call, 0 or less logs nothing).
+     */
+    public SampledLogger(Logger logger, int sampleRate) {
+        this.logger = logger;
+        this.sampleRate = sampleRate;
+    }
+
+    public void info(String format, long first, long second, long third) {
+        if (isSampled()) {
+            logger.info(format, first, second, third);
+        }
+    }
+
+    private boolean isSampled() {
+        return sampleRate > 0 && calls.getAndIncrement() % sampleRate == 0 && logger.isInfoEnabled();
+    }
+}
@@ -0,0 +1,126 @@
+package Ticketing.System.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A bounded window onto a log segment, filled with positional FileChannel reads into one
+ * reusable heap buffer. Unlike a memory mapping, which stays alive until it is garbage
+ * collected, the window keeps no hold on the file once its channel is closed, so a segment
+ * can be deleted, truncated or recreated as soon as it has been read, on every platform.
+ * A window is not thread-safe; each reader uses its own.
+ */
+final class SegmentWindow {
+
+    static final int DEFAULT_CAPACITY = 64 * 1024; // Bytes read from a segment at a time
+
+    private final ByteBuffer buffer; // Bytes of the segment from start up to the buffer's limit
+    private long start; // Offset in the segment of the first byte in the buffer
+
+    /**
+     * Constructor to initialize a window.
+     *
+     * @param capacity The most bytes held at once; at least the longest line or record read through it.
+     */
+    SegmentWindow(int capacity) {
+        this.buffer = ByteBuffer.allocate(capacity);
+        reset();
+    }
+
+    /**
+     * Empties the window, before it is used on another segment.
+     */
+    void reset() {
+        buffer.clear().limit(0);
+        start = 0;
+    }
+
+    /**
+     * Makes sure bytes of the segment are in the window, reading from the offset on if they are not.
+     *
+     * @param channel The open segment.
+     * @param offset  The offset of the first byte needed.
+     * @param length  The number of bytes needed.
+     * @param end     The offset the segment is read up to.
+     * @return The index of the offset in data(), or -1 if the segment ends before the bytes needed.
+     * @throws IOException If the segment cannot be read.
+     */
+    int ensure(FileChannel channel, long offset, int length, long end) throws IOException {
+        if (offset < start || offset + length > start + buffer.limit()) {
+            load(channel, offset, end);
+        }
+        return offset + length <= start + buffer.limit() ? (int) (offset - start) : -1;
+    }
+
+    /**
+     * Makes sure a whole line of the segment is in the window. The line then starts at
+     * index offset - start() of data().
+     *
+     * @param channel The open segment.
+     * @param offset  The offset the line starts at.
+     * @param end     The offset the segment is read up to.
+     * @return The index in data() of the newline ending the line, or -1 if the segment ends first.
+     * @throws IOException If the segment cannot be read.
+     */
+    int lineEnd(FileChannel channel, long offset, long end) throws IOException {
+        int at = ensure(channel, offset, 1, end);
+        if (at < 0) {
+            return -1;
+        }
+        int newline = indexOf(at);
+        if (newline < 0 && at > 0) {
+            load(channel, offset, end); // The line runs past the window; read it from its start
+            newline = indexOf(0);
+        }
+        return newline;
+    }
+
+    /**
+     * Refills the window with the bytes of the segment from an offset on.
+     *
+     * @param channel The open segment.
+     * @param offset  The offset to read from.
+     * @param end     The offset the segment is read up to.
+     * @return The number of bytes now in the window.
+     * @throws IOException If the segment cannot be read.
+     */
+    int load(FileChannel channel, long offset, long end) throws IOException {
+        buffer.clear().limit((int) Math.max(0, Math.min(buffer.capacity(), end - offset)));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                break; // The segment is shorter than expected
+            }
+        }
+        buffer.flip();
+        start = offset;
+        return buffer.limit();
+    }
+
+    /**
+     * Returns the buffer holding the window; index 0 is the byte at start().
+     *
+     * @return The buffer.
+     */
+    ByteBuffer data() {
+        return buffer;
+    }
+
+    /**
+     * Returns the offset in the segment of the first byte in the window.
+     *
+     * @return The offset.
+     */
+    long start() {
+        return start;
+    }
+
+    private int indexOf(int from) {
+        for (int i = from; i < buffer.limit(); i++) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
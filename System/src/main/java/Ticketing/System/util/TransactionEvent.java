@@ -0,0 +1,316 @@
+package Ticketing.System.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * Fixed-width binary form of one transaction log event, and a reusable view that encodes and
+ * decodes events in place. A binary segment starts with a header (magic, version, record size)
+ * followed by records of RECORD_BYTES each:
+ * <pre>
+ *  0  long   sequence number
+ *  8  long   timestamp (epoch milliseconds)
+ * 16  long   entity ID
+ * 24  int    section
+ * 28  int    ticket count
+ * 32  int    remaining tickets
+ * 36  byte   action code
+ * 37  byte   entity type code
+ * 38  short  reserved, zero
+ * 40  int    CRC32C of bytes 0 to 39
+ * </pre>
+ * Numbers are big-endian, as ByteBuffer writes them. One view is wrapped around record after
+ * record, so neither encoding nor decoding creates objects per event; a view is not thread-safe.
+ */
+public final class TransactionEvent {
+
+    /**
+     * What happened to the tickets.
+     */
+    public enum Action {
+        ADD, // Tickets released by a vendor
+        RETRIEVE; // Tickets bought by a customer
+
+        private static final Action[] BY_CODE = values(); // Actions in code order, looked up without copying
+        private final byte[] label = name().getBytes(StandardCharsets.US_ASCII); // Name as written in JSON
+
+        /**
+         * Returns the code the action is stored as.
+         *
+         * @return The code, starting at 1.
+         */
+        public int getCode() {
+            return ordinal() + 1;
+        }
+
+        /**
+         * Looks up an action by name.
+         *
+         * @param name The name, for example ADD.
+         * @return The action, or null if there is none of that name.
+         */
+        public static Action find(String name) {
+            if (name == null) {
+                return null;
+            }
+            switch (name) {
+                case "ADD":
+                    return ADD;
+                case "RETRIEVE":
+                    return RETRIEVE;
+                default:
+                    return null;
+            }
+        }
+
+        static Action ofCode(int code) {
+            return code >= 1 && code <= BY_CODE.length ? BY_CODE[code - 1] : null;
+        }
+    }
+
+    /**
+     * The kind of actor an event is about.
+     */
+    public enum EntityType {
+        VENDOR("Vendor"),
+        CUSTOMER("Customer");
+
+        private static final EntityType[] BY_CODE = values(); // Entity types in code order, looked up without copying
+        private final String label; // Name used in entity names such as Vendor-3
+        private final byte[] asciiLabel; // The label as ASCII bytes
+
+        EntityType(String label) {
+            this.label = label;
+            this.asciiLabel = label.getBytes(StandardCharsets.US_ASCII);
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * Returns the code the entity type is stored as.
+         *
+         * @return The code, starting at 1.
+         */
+        public int getCode() {
+            return ordinal() + 1;
+        }
+
+        /**
+         * Looks up an entity type by its label.
+         *
+         * @param label The label, for example Vendor.
+         * @return The entity type, or null if there is none with that label.
+         */
+        public static EntityType find(String label) {
+            if (label == null) {
+                return null;
+            }
+            switch (label) {
+                case "Vendor":
+                    return VENDOR;
+                case "Customer":
+                    return CUSTOMER;
+                default:
+                    return null;
+            }
+        }
+
+        static EntityType ofCode(int code) {
+            return code >= 1 && code <= BY_CODE.length ? BY_CODE[code - 1] : null;
+        }
+    }
+
+    public static final int HEADER_BYTES = 8; // Bytes before the first record of a binary segment
+    public static final int RECORD_BYTES = 44; // Bytes of one encoded event
+    static final int MAX_JSON_BYTES = 256; // Upper bound for one event rendered as JSON
+    private static final int MAGIC = 0x544C4F47; // "TLOG"
+    private static final short VERSION = 1; // Version of the record layout
+    private static final int CHECKSUMMED_BYTES = 40; // Bytes covered by the CRC
+
+    private static final int SEQUENCE = 0;
+    private static final int TIMESTAMP = 8;
+    private static final int ENTITY_ID = 16;
+    private static final int SECTION = 24;
+    private static final int TICKET_COUNT = 28;
+    private static final int REMAINING_TICKETS = 32;
+    private static final int ACTION = 36;
+    private static final int ENTITY_TYPE = 37;
+    private static final int CRC = 40;
+
+    private final byte[] scratch = new byte[CHECKSUMMED_BYTES]; // Copy of a record's checksummed bytes
+    private final CRC32C crc = new CRC32C(); // Checksum of the record being encoded or checked
+    private ByteBuffer data; // Buffer the current record is read from
+    private int offset; // Offset of the current record in data
+
+    /**
+     * Points this view at a record.
+     *
+     * @param data   The buffer holding the record.
+     * @param offset The offset of the record in the buffer.
+     * @return This view.
+     */
+    public TransactionEvent wrap(ByteBuffer data, int offset) {
+        this.data = data;
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * Appends one record at the buffer's position and advances it.
+     *
+     * @param buffer           The buffer to write to, with at least RECORD_BYTES remaining.
+     * @param sequence         The sequence number of the event.
+     * @param timestamp        The time of the event (epoch milliseconds).
+     * @param action           The action that happened.
+     * @param entityType       The kind of actor.
+     * @param entityId         The ID of the actor.
+     * @param section          The section of the tickets, starting at 1.
+     * @param ticketCount      The number of tickets involved.
+     * @param remainingTickets The number of tickets left in the section's pool afterwards.
+     */
+    public void encode(ByteBuffer buffer, long sequence, long timestamp, Action action, EntityType entityType,
+                       long entityId, int section, int ticketCount, int remainingTickets) {
+        int start = buffer.position();
+        buffer.putLong(sequence)
+                .putLong(timestamp)
+                .putLong(entityId)
+                .putInt(section)
+                .putInt(ticketCount)
+                .putInt(remainingTickets)
+                .put((byte) action.getCode())
+                .put((byte) entityType.getCode())
+                .putShort((short) 0);
+        buffer.putInt((int) checksum(buffer, start));
+    }
+
+    /**
+     * Checks the current record's checksum and codes.
+     *
+     * @return True if the record is intact.
+     */
+    public boolean isValid() {
+        return data.getInt(offset + CRC) == (int) checksum(data, offset)
+                && getAction() != null && getEntityType() != null;
+    }
+
+    public long getSequence() {
+        return data.getLong(offset + SEQUENCE);
+    }
+
+    public long getTimestamp() {
+        return data.getLong(offset + TIMESTAMP);
+    }
+
+    public Action getAction() {
+        return Action.ofCode(data.get(offset + ACTION));
+    }
+
+    public EntityType getEntityType() {
+        return EntityType.ofCode(data.get(offset + ENTITY_TYPE));
+    }
+
+    public long getEntityId() {
+        return data.getLong(offset + ENTITY_ID);
+    }
+
+    public int getSection() {
+        return data.getInt(offset + SECTION);
+    }
+
+    public int getTicketCount() {
+        return data.getInt(offset + TICKET_COUNT);
+    }
+
+    public int getRemainingTickets() {
+        return data.getInt(offset + REMAINING_TICKETS);
+    }
+
+    /**
+     * Renders the current record as one JSON object with the fields of a JSON segment line,
+     * plus its timestamp and without the line checksum.
+     *
+     * @param target The array to write to, at least MAX_JSON_BYTES long.
+     * @return The number of bytes written.
+     */
+    public int writeJson(byte[] target) {
+        int length = putAscii(target, 0, "{\"seq\":");
+        length = putNumber(target, length, getSequence());
+        length = putAscii(target, length, ",\"timestamp\":");
+        length = putNumber(target, length, getTimestamp());
+        length = putAscii(target, length, ",\"actionType\":\"");
+        length = putBytes(target, length, getAction().label);
+        length = putAscii(target, length, "\",\"entityName\":\"");
+        length = putBytes(target, length, getEntityType().asciiLabel);
+        target[length++] = '-';
+        length = putNumber(target, length, getEntityId());
+        length = putAscii(target, length, "\",\"section\":");
+        length = putNumber(target, length, getSection());
+        length = putAscii(target, length, ",\"ticketCount\":");
+        length = putNumber(target, length, getTicketCount());
+        length = putAscii(target, length, ",\"remainingTickets\":");
+        length = putNumber(target, length, getRemainingTickets());
+        target[length++] = '}';
+        return length;
+    }
+
+    /**
+     * Writes the header a binary segment starts with.
+     *
+     * @param buffer The buffer to write to, at its position.
+     */
+    public static void writeHeader(ByteBuffer buffer) {
+        buffer.putInt(MAGIC).putShort(VERSION).putShort((short) RECORD_BYTES);
+    }
+
+    /**
+     * Checks that a binary segment starts with a header of this layout.
+     *
+     * @param data The segment contents.
+     * @return True if the header is present and matches.
+     */
+    public static boolean hasHeader(ByteBuffer data) {
+        return data.limit() >= HEADER_BYTES && data.getInt(0) == MAGIC && data.getShort(4) == VERSION
+                && data.getShort(6) == RECORD_BYTES;
+    }
+
+    /**
+     * Returns the CRC32C of the checksummed bytes of the record at an offset.
+     */
+    private long checksum(ByteBuffer buffer, int start) {
+        buffer.get(start, scratch, 0, CHECKSUMMED_BYTES);
+        crc.reset();
+        crc.update(scratch, 0, CHECKSUMMED_BYTES);
+        return crc.getValue();
+    }
+
+    private static int putAscii(byte[] target, int at, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            target[at++] = (byte) value.charAt(i);
+        }
+        return at;
+    }
+
+    private static int putBytes(byte[] target, int at, byte[] value) {
+        System.arraycopy(value, 0, target, at, value.length);
+        return at + value.length;
+    }
+
+    private static int putNumber(byte[] target, int at, long value) {
+        if (value < 0) {
+            target[at++] = '-';
+            value = -value;
+        }
+        long divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        while (divisor > 0) {
+            target[at++] = (byte) ('0' + (value / divisor) % 10);
+            divisor /= 10;
+        }
+        return at;
+    }
+}
@@ -0,0 +1,186 @@
+package Ticketing.System.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Running totals of a transaction log up to one sequence number: the tickets added and
+ * retrieved in each section, and whether a finished run closed the log.
+ * TransactionLogWriter stores a checkpoint whenever it rotates a segment and when it is
+ * closed, in a small checksummed file next to the segments, so recovery only has to
+ * replay the events written after it.
+ */
+public final class TransactionLogCheckpoint {
+
+    public static final String FILE_NAME = "checkpoint.bin"; // File the checkpoint is stored in
+    private static final int MAGIC = 0x54434B50; // "TCKP"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 * Integer.BYTES + Long.BYTES;
+
+    private final long lastSequence; // Sequence number of the last event counted
+    private final boolean isFinished; // Flag indicating the run closed the log normally
+    private final long[] added; // Tickets added, by section - 1
+    private final long[] retrieved; // Tickets retrieved, by section - 1
+
+    /**
+     * Constructor to initialize a checkpoint.
+     *
+     * @param lastSequence The sequence number of the last event counted, or 0 for none.
+     * @param isFinished   Whether the run closed the log normally.
+     * @param added        The tickets added, by section - 1.
+     * @param retrieved    The tickets retrieved, by section - 1; as long as added.
+     */
+    public TransactionLogCheckpoint(long lastSequence, boolean isFinished, long[] added, long[] retrieved) {
+        if (added.length != retrieved.length) {
+            throw new IllegalArgumentException("Added and retrieved totals must cover the same sections");
+        }
+        this.lastSequence = lastSequence;
+        this.isFinished = isFinished;
+        this.added = added.clone();
+        this.retrieved = retrieved.clone();
+    }
+
+    /**
+     * Returns the checkpoint of a log without events.
+     *
+     * @param sections The number of sections.
+     * @return The checkpoint.
+     */
+    public static TransactionLogCheckpoint empty(int sections) {
+        return new TransactionLogCheckpoint(0, false, new long[sections], new long[sections]);
+    }
+
+    /**
+     * Writes the checkpoint to a log directory. The file is written next to the target
+     * and moved into place, so a crash never leaves a torn checkpoint.
+     *
+     * @param directory The log directory.
+     * @throws IOException If the checkpoint cannot be written.
+     */
+    public void write(Path directory) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + 2 * added.length * Long.BYTES + Long.BYTES);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(isFinished ? 1 : 0).putInt(added.length).putLong(lastSequence);
+        for (long tickets : added) {
+            buffer.putLong(tickets);
+        }
+        for (long tickets : retrieved) {
+            buffer.putLong(tickets);
+        }
+        buffer.putLong(checksum(buffer, buffer.position()));
+        buffer.flip();
+
+        Files.createDirectories(directory);
+        Path file = directory.resolve(FILE_NAME);
+        Path temporary = directory.resolve(FILE_NAME + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads the checkpoint of a log directory.
+     *
+     * @param directory The log directory.
+     * @return The checkpoint, or null if none was written.
+     * @throws IOException If the file cannot be read or is not a valid checkpoint.
+     */
+    public static TransactionLogCheckpoint read(Path directory) throws IOException {
+        Path file = directory.resolve(FILE_NAME);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.remaining() < HEADER_BYTES + Long.BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a transaction log checkpoint: " + file);
+        }
+        int sections = buffer.getInt(12);
+        int end = HEADER_BYTES + 2 * sections * Long.BYTES;
+        if (sections < 0 || buffer.limit() != end + Long.BYTES || buffer.getLong(end) != checksum(buffer, end)) {
+            throw new IOException("Corrupt transaction log checkpoint: " + file);
+        }
+        long[] added = new long[sections];
+        long[] retrieved = new long[sections];
+        buffer.position(HEADER_BYTES);
+        for (int i = 0; i < sections; i++) {
+            added[i] = buffer.getLong();
+        }
+        for (int i = 0; i < sections; i++) {
+            retrieved[i] = buffer.getLong();
+        }
+        return new TransactionLogCheckpoint(buffer.getLong(16), buffer.getInt(8) == 1, added, retrieved);
+    }
+
+    /**
+     * Returns a copy of this checkpoint with the finished flag set.
+     *
+     * @return The finished checkpoint.
+     */
+    public TransactionLogCheckpoint finish() {
+        return new TransactionLogCheckpoint(lastSequence, true, added, retrieved);
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    public boolean isFinished() {
+        return isFinished;
+    }
+
+    /**
+     * Returns the number of sections with totals; sections beyond it have none.
+     *
+     * @return The section count.
+     */
+    public int getSections() {
+        return added.length;
+    }
+
+    /**
+     * Returns the tickets added to a section.
+     *
+     * @param section The section, starting at 1.
+     * @return The ticket count, 0 for a section without totals.
+     */
+    public long getAdded(int section) {
+        return section <= added.length ? added[section - 1] : 0;
+    }
+
+    /**
+     * Returns the tickets retrieved from a section.
+     *
+     * @param section The section, starting at 1.
+     * @return The ticket count, 0 for a section without totals.
+     */
+    public long getRetrieved(int section) {
+        return section <= retrieved.length ? retrieved[section - 1] : 0;
+    }
+
+    long[] copyAdded(int sections) {
+        return Arrays.copyOf(added, Math.max(sections, added.length));
+    }
+
+    long[] copyRetrieved(int sections) {
+        return Arrays.copyOf(retrieved, Math.max(sections, retrieved.length));
+    }
+
+    private static long checksum(ByteBuffer buffer, int length) {
+        CRC32 crc = new CRC32();
+        ByteBuffer content = buffer.duplicate();
+        content.position(0).limit(length);
+        crc.update(content);
+        return crc.getValue();
+    }
+}
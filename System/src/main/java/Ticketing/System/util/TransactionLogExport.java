@@ -0,0 +1,222 @@
+package Ticketing.System.util;
+
+import com.google.gson.GsonBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exports the binary segments of a transaction log to a columnar layout for offline analysis:
+ * one file per field holding that field of every event as a little-endian array, plus a
+ * schema.json naming each file's type, the number of rows and the codes of the enum columns.
+ * A column loads in one call, for example numpy.fromfile("seq.bin", "&lt;i8"). Events are
+ * exported in sequence order up to the first torn record. Only logs written with
+ * ticketing.log.format=BINARY can be exported: JSON segments are skipped, and a log without
+ * binary segments is refused, so the tool exits with an error instead of an empty export.
+ * <p>
+ * Usage: TransactionLogExport &lt;log directory&gt; &lt;output directory&gt;
+ */
+public final class TransactionLogExport {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionLogExport.class);
+
+    public static final String SCHEMA_FILE = "schema.json"; // File describing the columns
+    private static final int COLUMN_BUFFER_BYTES = 64 * 1024; // Bytes buffered per column before they are written
+
+    private TransactionLogExport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: TransactionLogExport <log directory> <output directory>");
+            System.exit(2);
+        }
+        long rows;
+        try {
+            rows = export(Paths.get(args[0]), Paths.get(args[1]));
+        } catch (IOException e) {
+            System.err.println("Export failed: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        System.out.println("Exported " + rows + " events to " + args[1]);
+    }
+
+    /**
+     * Exports the events of a log directory.
+     *
+     * @param logDirectory    The directory holding the log segments.
+     * @param outputDirectory The directory the column files and schema are written to.
+     * @return The number of events exported.
+     * @throws IOException If the log has no binary segments, a segment cannot be read or a column cannot be written.
+     */
+    public static long export(Path logDirectory, Path outputDirectory) throws IOException {
+        List<Path> segments = TransactionLogWriter.listSegments(logDirectory);
+        if (segments.stream().noneMatch(TransactionLogWriter::isBinary)) {
+            throw new IOException("No binary segments in " + logDirectory
+                    + "; export needs a log written with ticketing.log.format=BINARY");
+        }
+        Files.createDirectories(outputDirectory);
+        TransactionEvent event = new TransactionEvent();
+        SegmentWindow window = new SegmentWindow(SegmentWindow.DEFAULT_CAPACITY); // Segments are read, not mapped
+        ByteBuffer data = window.data();
+        long rows = 0;
+        try (Column sequence = new Column(outputDirectory, "seq", "int64", 8);
+             Column timestamp = new Column(outputDirectory, "timestamp", "int64", 8);
+             Column action = new Column(outputDirectory, "action", "int8", 1);
+             Column entityType = new Column(outputDirectory, "entity_type", "int8", 1);
+             Column entityId = new Column(outputDirectory, "entity_id", "int64", 8);
+             Column section = new Column(outputDirectory, "section", "int32", 4);
+             Column ticketCount = new Column(outputDirectory, "ticket_count", "int32", 4);
+             Column remainingTickets = new Column(outputDirectory, "remaining_tickets", "int32", 4)) {
+            segments:
+            for (Path segment : segments) {
+                if (!TransactionLogWriter.isBinary(segment)) {
+                    log.warn("Skipping JSON segment {}", segment);
+                    continue;
+                }
+                window.reset();
+                try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                    long end = channel.size();
+                    if (window.ensure(channel, 0, TransactionEvent.HEADER_BYTES, end) != 0
+                            || !TransactionEvent.hasHeader(data)) {
+                        log.warn("Stopping at segment {} without a valid header", segment);
+                        break;
+                    }
+                    for (long position = TransactionEvent.HEADER_BYTES;
+                         position + TransactionEvent.RECORD_BYTES <= end;
+                         position += TransactionEvent.RECORD_BYTES) {
+                        int offset = window.ensure(channel, position, TransactionEvent.RECORD_BYTES, end);
+                        if (offset < 0 || !event.wrap(data, offset).isValid()) {
+                            log.warn("Stopping at torn record at byte {} of {}", position, segment);
+                            break segments;
+                        }
+                        sequence.putLong(event.getSequence());
+                        timestamp.putLong(event.getTimestamp());
+                        action.putByte(event.getAction().getCode());
+                        entityType.putByte(event.getEntityType().getCode());
+                        entityId.putLong(event.getEntityId());
+                        section.putInt(event.getSection());
+                        ticketCount.putInt(event.getTicketCount());
+                        remainingTickets.putInt(event.getRemainingTickets());
+                        rows++;
+                    }
+                }
+            }
+            writeSchema(outputDirectory, rows, List.of(sequence, timestamp, action, entityType, entityId, section,
+                    ticketCount, remainingTickets));
+        }
+        return rows;
+    }
+
+    private static void writeSchema(Path outputDirectory, long rows, List<Column> columns) throws IOException {
+        List<Map<String, Object>> fields = new ArrayList<>();
+        for (Column column : columns) {
+            Map<String, Object> field = new LinkedHashMap<>();
+            field.put("name", column.name);
+            field.put("type", column.type);
+            field.put("file", column.fileName());
+            fields.add(field);
+        }
+        Map<String, Object> codes = new LinkedHashMap<>();
+        Map<String, Integer> actions = new LinkedHashMap<>();
+        for (TransactionEvent.Action action : TransactionEvent.Action.values()) {
+            actions.put(action.name(), action.getCode());
+        }
+        Map<String, Integer> entityTypes = new LinkedHashMap<>();
+        for (TransactionEvent.EntityType entityType : TransactionEvent.EntityType.values()) {
+            entityTypes.put(entityType.getLabel(), entityType.getCode());
+        }
+        codes.put("action", actions);
+        codes.put("entity_type", entityTypes);
+
+        Map<String, Object> schema = new LinkedHashMap<>();
+        schema.put("rows", rows);
+        schema.put("byteOrder", "little-endian");
+        schema.put("columns", fields);
+        schema.put("codes", codes);
+        Files.writeString(outputDirectory.resolve(SCHEMA_FILE),
+                new GsonBuilder().setPrettyPrinting().create().toJson(schema), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * One column file, written through a fixed buffer.
+     */
+    private static final class Column implements Closeable {
+
+        private final String name; // Name of the field
+        private final String type; // Type of each value, for example int64
+        private final FileChannel channel; // Column file
+        private final ByteBuffer buffer; // Values not yet written
+        private final int width; // Bytes per value
+
+        private Column(Path directory, String name, String type, int width) throws IOException {
+            this.name = name;
+            this.type = type;
+            this.width = width;
+            this.channel = FileChannel.open(directory.resolve(fileName(name)), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.buffer = ByteBuffer.allocateDirect(COLUMN_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        private String fileName() {
+            return fileName(name);
+        }
+
+        private static String fileName(String name) {
+            return name + ".bin";
+        }
+
+        private void putLong(long value) throws IOException {
+            reserve();
+            buffer.putLong(value);
+        }
+
+        private void putInt(int value) throws IOException {
+            reserve();
+            buffer.putInt(value);
+        }
+
+        private void putByte(int value) throws IOException {
+            reserve();
+            buffer.put((byte) value);
+        }
+
+        private void reserve() throws IOException {
+            if (buffer.remaining() < width) {
+                write();
+            }
+        }
+
+        private void write() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                write();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package Ticketing.System.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Reads the segments written by TransactionLogWriter through bounded reads into a small buffer.
+ * For every JSON segment a sparse index maps every INDEX_INTERVAL-th sequence number to its
+ * byte offset, so a query that starts at sequence N only scans a few lines before the
+ * first match. The index is extended incrementally as the segments grow, and matching
+ * events are copied from the read buffer to the caller's stream. Binary segments
+ * need no index, as the record of sequence N sits at a fixed offset; their matching events
+ * are rendered as JSON lines of the same shape.
+ * Segments are not mapped: a segment is only open while a query or an index refresh reads it,
+ * so the writer of the next run can delete and recreate the segments at any time.
+ */
+public class TransactionLogReader {
+
+    private static final int INDEX_INTERVAL = 256; // Lines between two sparse index entries
+    private static final int COPY_CHUNK = 8192; // Bytes copied to the output stream at a time
+    private static final byte[] SEQUENCE_KEY = "\"seq\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ACTION_TYPE_KEY = "\"actionType\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ENTITY_NAME_KEY = "\"entityName\":\"".getBytes(StandardCharsets.US_ASCII);
+
+    private final Path directory; // Directory holding the segment files
+    private final Map<Path, SegmentIndex> segments = new HashMap<>(); // Indexed segments by path
+
+    /**
+     * Constructor to initialize a reader for a log directory.
+     *
+     * @param directory The directory the TransactionLogWriter writes to.
+     */
+    public TransactionLogReader(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Streams matching events as a JSON array.
+     *
+     * @param after      Only events with a sequence number greater than this are returned (the cursor).
+     * @param offset     Number of matching events to skip before writing.
+     * @param limit      Maximum number of events to write, or 0 for no limit.
+     * @param actionType Only events with this action type are returned, or null for all.
+     * @param entityName Only events for this entity (for example Vendor-3) are returned, or null for all.
+     * @param out        The stream the JSON array is written to.
+     * @throws IOException If the segments cannot be read or the stream cannot be written.
+     */
+    public void writeJsonArray(long after, long offset, int limit, String actionType, String entityName,
+                               OutputStream out) throws IOException {
+        byte[] actionTypeFilter = actionType == null ? null : actionType.getBytes(StandardCharsets.US_ASCII);
+        byte[] entityNameFilter = entityName == null ? null : entityName.getBytes(StandardCharsets.US_ASCII);
+        BinaryFilter binaryFilter = new BinaryFilter(actionType, entityName);
+        TransactionEvent event = new TransactionEvent();
+        byte[] chunk = new byte[Math.max(COPY_CHUNK, TransactionEvent.MAX_JSON_BYTES)];
+        long skipped = 0;
+        int written = 0;
+
+        SegmentWindow window = new SegmentWindow(SegmentWindow.DEFAULT_CAPACITY); // Reused for every segment
+        ByteBuffer data = window.data();
+        out.write('[');
+        for (SegmentView segment : snapshot(after, window)) {
+            if (limit > 0 && written >= limit) {
+                break;
+            }
+            window.reset();
+            try (FileChannel channel = FileChannel.open(segment.path, StandardOpenOption.READ)) {
+                long position = segment.offsetOf(after + 1);
+                while (position < segment.end && (limit <= 0 || written < limit)) {
+                    int recordStart;
+                    int recordEnd;
+                    boolean isMatch;
+                    if (segment.isBinary) {
+                        recordStart = window.ensure(channel, position, TransactionEvent.RECORD_BYTES, segment.end);
+                        if (recordStart < 0) {
+                            break;
+                        }
+                        recordEnd = recordStart + TransactionEvent.RECORD_BYTES;
+                        event.wrap(data, recordStart);
+                        if (!event.isValid()) {
+                            break; // A torn record: nothing after it is readable
+                        }
+                        isMatch = event.getSequence() > after && binaryFilter.matches(event);
+                    } else {
+                        recordEnd = window.lineEnd(channel, position, segment.end);
+                        if (recordEnd < 0) {
+                            break;
+                        }
+                        recordStart = (int) (position - window.start());
+                        isMatch = readSequence(data, recordStart, recordEnd) > after
+                                && matches(data, recordStart, recordEnd, ACTION_TYPE_KEY, actionTypeFilter)
+                                && matches(data, recordStart, recordEnd, ENTITY_NAME_KEY, entityNameFilter);
+                    }
+                    if (isMatch) {
+                        if (skipped < offset) {
+                            skipped++;
+                        } else {
+                            out.write(written == 0 ? '\n' : ',');
+                            if (written > 0) {
+                                out.write('\n');
+                            }
+                            if (segment.isBinary) {
+                                out.write(chunk, 0, event.writeJson(chunk));
+                            } else {
+                                copy(data, recordStart, recordEnd, out, chunk);
+                            }
+                            written++;
+                        }
+                    }
+                    position = window.start() + recordEnd + (segment.isBinary ? 0 : 1);
+                }
+            } catch (NoSuchFileException e) {
+                break; // A new run replaced the log while it was being read
+            }
+        }
+        out.write(written == 0 ? "]".getBytes(StandardCharsets.US_ASCII) : "\n]".getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    /**
+     * Brings the segment indexes up to date with the files on disk and returns the segments
+     * that can contain events after the given sequence number.
+     */
+    private synchronized List<SegmentView> snapshot(long after, SegmentWindow window) throws IOException {
+        List<Path> paths = TransactionLogWriter.listSegments(directory);
+        segments.keySet().retainAll(paths);
+
+        List<SegmentView> views = new ArrayList<>();
+        for (int i = 0; i < paths.size(); i++) {
+            Path path = paths.get(i);
+            if (i + 1 < paths.size() && TransactionLogWriter.firstSequenceOf(paths.get(i + 1)) <= after + 1) {
+                continue; // Every event in this segment is at or before the cursor
+            }
+            SegmentIndex index = segments.get(path);
+            if (index == null || !index.isSameFile()) {
+                index = new SegmentIndex(path);
+                segments.put(path, index);
+            }
+            views.add(index.refresh(window));
+        }
+        return views;
+    }
+
+    private static int indexOf(ByteBuffer data, byte[] key, int from, int to) {
+        outer:
+        for (int i = from; i <= to - key.length; i++) {
+            for (int j = 0; j < key.length; j++) {
+                if (data.get(i + j) != key[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static long readSequence(ByteBuffer data, int lineStart, int lineEnd) {
+        int keyStart = indexOf(data, SEQUENCE_KEY, lineStart, lineEnd);
+        if (keyStart < 0) {
+            return -1;
+        }
+        long sequence = 0;
+        for (int i = keyStart + SEQUENCE_KEY.length; i < lineEnd; i++) {
+            byte digit = data.get(i);
+            if (digit < '0' || digit > '9') {
+                break;
+            }
+            sequence = sequence * 10 + (digit - '0');
+        }
+        return sequence;
+    }
+
+    private static boolean matches(ByteBuffer data, int lineStart, int lineEnd, byte[] key, byte[] expected) {
+        if (expected == null) {
+            return true;
+        }
+        int keyStart = indexOf(data, key, lineStart, lineEnd);
+        if (keyStart < 0) {
+            return false;
+        }
+        int valueStart = keyStart + key.length;
+        if (valueStart + expected.length >= lineEnd) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (data.get(valueStart + i) != expected[i]) {
+                return false;
+            }
+        }
+        return data.get(valueStart + expected.length) == '"';
+    }
+
+    private static void copy(ByteBuffer data, int from, int to, OutputStream out, byte[] chunk) throws IOException {
+        ByteBuffer line = data.duplicate();
+        line.limit(to).position(from);
+        while (line.hasRemaining()) {
+            int length = Math.min(chunk.length, line.remaining());
+            line.get(chunk, 0, length);
+            out.write(chunk, 0, length);
+        }
+    }
+
+    /**
+     * The action type and entity name filters of a query, as binary codes.
+     */
+    private static final class BinaryFilter {
+
+        private final boolean isEmpty; // Flag indicating a filter names something no binary event can be
+        private final TransactionEvent.Action action; // Action to match, or null for all
+        private final TransactionEvent.EntityType entityType; // Entity type to match, or null for all
+        private final long entityId; // Entity ID to match when entityType is set
+
+        private BinaryFilter(String actionType, String entityName) {
+            this.action = TransactionEvent.Action.find(actionType);
+            int dash = entityName == null ? -1 : entityName.lastIndexOf('-');
+            this.entityType = dash < 0 ? null : TransactionEvent.EntityType.find(entityName.substring(0, dash));
+            this.entityId = entityType == null ? -1 : parseId(entityName.substring(dash + 1));
+            this.isEmpty = (actionType != null && action == null)
+                    || (entityName != null && (entityType == null || entityId < 0));
+        }
+
+        private boolean matches(TransactionEvent event) {
+            return !isEmpty
+                    && (action == null || event.getAction() == action)
+                    && (entityType == null || (event.getEntityType() == entityType && event.getEntityId() == entityId));
+        }
+
+        private static long parseId(String value) {
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Immutable view of a segment as of the last refresh.
+     */
+    private static final class SegmentView {
+
+        private final Path path; // Segment file
+        private final int end; // Offset just after the last complete line or record
+        private final boolean isBinary; // Flag indicating the segment holds binary records
+        private final long firstSequence; // Sequence number of the first event, from the file name
+        private final long[] sequences; // Sequence numbers of the indexed lines
+        private final int[] offsets; // Byte offsets of the indexed lines
+        private final int indexSize; // Number of valid index entries
+
+        private SegmentView(Path path, int end, boolean isBinary, long firstSequence, long[] sequences,
+                            int[] offsets, int indexSize) {
+            this.path = path;
+            this.end = end;
+            this.isBinary = isBinary;
+            this.firstSequence = firstSequence;
+            this.sequences = sequences;
+            this.offsets = offsets;
+            this.indexSize = indexSize;
+        }
+
+        /**
+         * Returns the offset of the record of the given sequence number in a binary segment, or
+         * of the closest indexed line at or before it in a JSON segment.
+         */
+        private int offsetOf(long sequence) {
+            if (isBinary) {
+                long records = Math.max(0, sequence - firstSequence);
+                return (int) Math.min(end, TransactionEvent.HEADER_BYTES + records * TransactionEvent.RECORD_BYTES);
+            }
+            int found = Arrays.binarySearch(sequences, 0, indexSize, sequence);
+            if (found >= 0) {
+                return offsets[found];
+            }
+            int floor = -found - 2;
+            return floor >= 0 ? offsets[floor] : 0;
+        }
+    }
+
+    /**
+     * Sparse index of one segment, extended as the segment grows. Keeps no file open between refreshes.
+     */
+    private static final class SegmentIndex {
+
+        private final Path path; // Segment file
+        private final boolean isBinary; // Flag indicating the segment holds binary records
+        private final long firstSequence; // Sequence number of the first event, from the file name
+        private final Object fileKey; // Identity of the file, used to notice a segment being replaced
+        private boolean hasHeader; // Flag indicating a binary segment's header was read and matches
+        private int end; // Offset just after the last indexed complete line or record
+        private int linesIndexed; // Number of complete lines scanned so far
+        private long[] sequences = new long[16]; // Sequence numbers of the indexed lines
+        private int[] offsets = new int[16]; // Byte offsets of the indexed lines
+        private int indexSize; // Number of valid index entries
+
+        private SegmentIndex(Path path) throws IOException {
+            this.path = path;
+            this.isBinary = TransactionLogWriter.isBinary(path);
+            this.firstSequence = TransactionLogWriter.firstSequenceOf(path);
+            this.fileKey = fileKeyOf(path);
+        }
+
+        private boolean isSameFile() throws IOException {
+            return Files.exists(path) && Files.size(path) >= end && Objects.equals(fileKey, fileKeyOf(path));
+        }
+
+        private SegmentView refresh(SegmentWindow window) throws IOException {
+            long size = Math.min(Files.size(path), Integer.MAX_VALUE);
+            if (isBinary) {
+                // Whole records only; a segment without a valid header shows no events
+                if (!hasHeader && size >= TransactionEvent.HEADER_BYTES) {
+                    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                        window.reset();
+                        hasHeader = window.ensure(channel, 0, TransactionEvent.HEADER_BYTES, size) == 0
+                                && TransactionEvent.hasHeader(window.data());
+                    }
+                }
+                int records = hasHeader ? (int) ((size - TransactionEvent.HEADER_BYTES) / TransactionEvent.RECORD_BYTES) : 0;
+                end = records == 0 ? 0 : TransactionEvent.HEADER_BYTES + records * TransactionEvent.RECORD_BYTES;
+                return new SegmentView(path, end, true, firstSequence, sequences, offsets, 0);
+            }
+
+            if (size > end) {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    window.reset();
+                    long position = end;
+                    int lineEnd;
+                    while ((lineEnd = window.lineEnd(channel, position, size)) >= 0) {
+                        if (linesIndexed % INDEX_INTERVAL == 0) {
+                            addIndexEntry(readSequence(window.data(), (int) (position - window.start()), lineEnd),
+                                    (int) position);
+                        }
+                        linesIndexed++;
+                        position = window.start() + lineEnd + 1;
+                    }
+                    end = (int) position;
+                }
+            }
+            return new SegmentView(path, end, false, firstSequence, sequences, offsets, indexSize);
+        }
+
+        private void addIndexEntry(long sequence, int offset) {
+            if (indexSize == sequences.length) {
+                sequences = Arrays.copyOf(sequences, indexSize * 2);
+                offsets = Arrays.copyOf(offsets, indexSize * 2);
+            }
+            sequences[indexSize] = sequence;
+            offsets[indexSize] = offset;
+            indexSize++;
+        }
+
+        private static Object fileKeyOf(Path path) throws IOException {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return attributes.fileKey() != null ? attributes.fileKey() : attributes.creationTime();
+        }
+    }
+}
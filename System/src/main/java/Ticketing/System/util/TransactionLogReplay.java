@@ -0,0 +1,334 @@
+package Ticketing.System.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Replays the events of a transaction log in sequence order, starting after a checkpoint.
+ * Segments are read through one small reusable buffer and parsed in place without creating
+ * objects per event, so millions of events replay in seconds and no segment stays mapped; JSON lines and binary records are both read. Each event's sequence number must follow the
+ * previous one and its CRC32C must match; replay stops at the first event that does not,
+ * which is where a crash tore the log. The torn tail can be cut off so the log can be continued.
+ */
+public final class TransactionLogReplay {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionLogReplay.class);
+
+    private static final byte[] SEQUENCE_KEY = ascii("{\"seq\":");
+    private static final byte[] ACTION_TYPE_KEY = ascii(",\"actionType\":\"");
+    private static final byte[] ENTITY_NAME_KEY = ascii("\",\"entityName\":\"");
+    private static final byte[] SECTION_KEY = ascii("\",\"section\":");
+    private static final byte[] TICKET_COUNT_KEY = ascii(",\"ticketCount\":");
+    private static final byte[] REMAINING_KEY = ascii(",\"remainingTickets\":");
+    private static final byte[] CRC_KEY = ascii(",\"crc\":");
+    private static final byte[] ADD = ascii("ADD");
+    private static final byte[] RETRIEVE = ascii("RETRIEVE");
+
+    /**
+     * Receives the replayed events.
+     */
+    public interface Listener {
+
+        /**
+         * Called for every ADD and RETRIEVE event after the checkpoint, in sequence order.
+         *
+         * @param sequence    The sequence number of the event.
+         * @param isAdd       True for tickets added by a vendor, false for tickets retrieved by a customer.
+         * @param entityId    The ID of the vendor or customer.
+         * @param section     The section of the tickets, starting at 1.
+         * @param ticketCount The number of tickets.
+         */
+        void onEvent(long sequence, boolean isAdd, long entityId, int section, int ticketCount);
+    }
+
+    private TransactionLogReplay() {
+    }
+
+    /**
+     * Replays the events of a log directory that follow a checkpoint.
+     *
+     * @param directory        The log directory.
+     * @param from             The checkpoint to start after; its totals are carried forward.
+     * @param listener         Receives each replayed event, or null to only compute the totals.
+     * @param truncateTornTail Whether to cut the log off after the last valid event.
+     * @return A checkpoint holding the totals up to the last valid event.
+     * @throws IOException If a segment cannot be read or truncated.
+     */
+    public static TransactionLogCheckpoint replay(Path directory, TransactionLogCheckpoint from, Listener listener,
+                                                  boolean truncateTornTail) throws IOException {
+        Cursor cursor = new Cursor(from);
+        SegmentWindow window = new SegmentWindow(SegmentWindow.DEFAULT_CAPACITY);
+        List<Path> segments = TransactionLogWriter.listSegments(directory);
+        for (int i = 0; i < segments.size(); i++) {
+            if (i + 1 < segments.size()
+                    && TransactionLogWriter.firstSequenceOf(segments.get(i + 1)) <= from.getLastSequence() + 1) {
+                continue; // Every event in this segment is covered by the checkpoint
+            }
+            Path segment = segments.get(i);
+            long validBytes = replaySegment(segment, window, cursor, listener);
+            if (cursor.isTorn) {
+                log.warn("Transaction log {} is torn after sequence {}; {} later segment(s) ignored.",
+                        segment, cursor.lastSequence, segments.size() - i - 1);
+                if (truncateTornTail) {
+                    truncate(segment, validBytes);
+                    for (Path later : segments.subList(i + 1, segments.size())) {
+                        Files.deleteIfExists(later);
+                    }
+                }
+                break;
+            }
+        }
+        return new TransactionLogCheckpoint(cursor.lastSequence, false, cursor.added, cursor.retrieved);
+    }
+
+    /**
+     * Replays one segment. The segment is closed again before it is truncated or deleted.
+     *
+     * @return The number of bytes up to the end of the last valid event.
+     */
+    private static long replaySegment(Path segment, SegmentWindow window, Cursor cursor, Listener listener)
+            throws IOException {
+        window.reset();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            long end = channel.size();
+            if (TransactionLogWriter.isBinary(segment)) {
+                return replayBinarySegment(channel, end, window, cursor, listener);
+            }
+            ByteBuffer data = window.data();
+            CRC32C crc = new CRC32C();
+            long position = 0;
+            while (position < end) {
+                int lineEnd = window.lineEnd(channel, position, end);
+                if (lineEnd < 0 || !cursor.parse(data, (int) (position - window.start()), lineEnd, crc)) {
+                    cursor.isTorn = true;
+                    return position;
+                }
+                if (cursor.sequence > cursor.lastSequence) {
+                    if (cursor.sequence != cursor.lastSequence + 1) {
+                        cursor.isTorn = true; // A gap: events in between were lost
+                        return position;
+                    }
+                    cursor.apply(listener);
+                }
+                position = window.start() + lineEnd + 1;
+            }
+            return position;
+        }
+    }
+
+    /**
+     * Replays the records of one binary segment.
+     *
+     * @return The number of bytes up to the end of the last valid record.
+     */
+    private static long replayBinarySegment(FileChannel channel, long end, SegmentWindow window, Cursor cursor,
+                                            Listener listener) throws IOException {
+        ByteBuffer data = window.data();
+        if (window.ensure(channel, 0, TransactionEvent.HEADER_BYTES, end) != 0 || !TransactionEvent.hasHeader(data)) {
+            cursor.isTorn = true;
+            return 0;
+        }
+        TransactionEvent event = new TransactionEvent();
+        long position = TransactionEvent.HEADER_BYTES;
+        while (position < end) {
+            int offset = window.ensure(channel, position, TransactionEvent.RECORD_BYTES, end);
+            if (offset < 0 || !event.wrap(data, offset).isValid() || event.getSection() < 1) {
+                cursor.isTorn = true;
+                return position;
+            }
+            cursor.read(event);
+            if (cursor.sequence > cursor.lastSequence) {
+                if (cursor.sequence != cursor.lastSequence + 1) {
+                    cursor.isTorn = true; // A gap: events in between were lost
+                    return position;
+                }
+                cursor.apply(listener);
+            }
+            position += TransactionEvent.RECORD_BYTES;
+        }
+        return position;
+    }
+
+    private static void truncate(Path segment, long validBytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            if (channel.size() > validBytes) {
+                channel.truncate(validBytes);
+                channel.force(true);
+            }
+        }
+    }
+
+    private static int indexOf(ByteBuffer data, byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (data.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Parses events in the fixed field order the writer uses and accumulates the totals.
+     */
+    private static final class Cursor {
+
+        private long lastSequence; // Sequence number of the last replayed event
+        private long[] added; // Tickets added per section - 1
+        private long[] retrieved; // Tickets retrieved per section - 1
+        private boolean isTorn; // Flag indicating replay stopped at an invalid event
+
+        // Fields of the event parsed last
+        private int position;
+        private long sequence;
+        private int action; // 1 for ADD, 2 for RETRIEVE, 0 for other actions
+        private long entityId;
+        private int section;
+        private int ticketCount;
+
+        private Cursor(TransactionLogCheckpoint from) {
+            this.lastSequence = from.getLastSequence();
+            this.added = from.copyAdded(1);
+            this.retrieved = from.copyRetrieved(1);
+        }
+
+        /**
+         * Parses one line.
+         *
+         * @return False if the line is malformed or its checksum does not match.
+         */
+        private boolean parse(ByteBuffer data, int lineStart, int lineEnd, CRC32C crc) {
+            position = lineStart;
+            if (!expect(data, SEQUENCE_KEY, lineEnd)) {
+                return false;
+            }
+            sequence = number(data, lineEnd);
+            if (sequence < 0 || !expect(data, ACTION_TYPE_KEY, lineEnd)) {
+                return false;
+            }
+            int actionStart = position;
+            int actionEnd = indexOf(data, (byte) '"', actionStart, lineEnd);
+            if (actionEnd < 0) {
+                return false;
+            }
+            action = equalsAt(data, actionStart, actionEnd, ADD) ? 1 : equalsAt(data, actionStart, actionEnd, RETRIEVE) ? 2 : 0;
+            position = actionEnd;
+            if (!expect(data, ENTITY_NAME_KEY, lineEnd)) {
+                return false;
+            }
+            int dash = indexOf(data, (byte) '-', position, lineEnd);
+            if (dash < 0) {
+                return false;
+            }
+            position = dash + 1;
+            entityId = number(data, lineEnd);
+            if (entityId < 0 || !expect(data, SECTION_KEY, lineEnd)) {
+                return false;
+            }
+            section = (int) number(data, lineEnd);
+            if (section < 1 || !expect(data, TICKET_COUNT_KEY, lineEnd)) {
+                return false;
+            }
+            ticketCount = (int) number(data, lineEnd);
+            if (ticketCount < 0 || !expect(data, REMAINING_KEY, lineEnd) || number(data, lineEnd) < 0) {
+                return false;
+            }
+            int checksummedEnd = position;
+            if (!expect(data, CRC_KEY, lineEnd)) {
+                return false;
+            }
+            long expectedCrc = number(data, lineEnd);
+            if (position != lineEnd - 1 || data.get(position) != '}') {
+                return false;
+            }
+            ByteBuffer record = data.duplicate();
+            record.limit(checksummedEnd).position(lineStart);
+            crc.reset();
+            crc.update(record);
+            return crc.getValue() == expectedCrc;
+        }
+
+        /**
+         * Takes the fields of a binary record.
+         */
+        private void read(TransactionEvent event) {
+            sequence = event.getSequence();
+            action = event.getAction() == TransactionEvent.Action.ADD ? 1 : 2;
+            entityId = event.getEntityId();
+            section = event.getSection();
+            ticketCount = event.getTicketCount();
+        }
+
+        private void apply(Listener listener) {
+            lastSequence = sequence;
+            if (action == 0) {
+                return;
+            }
+            if (section > added.length) {
+                added = Arrays.copyOf(added, section);
+                retrieved = Arrays.copyOf(retrieved, section);
+            }
+            if (action == 1) {
+                added[section - 1] += ticketCount;
+            } else {
+                retrieved[section - 1] += ticketCount;
+            }
+            if (listener != null) {
+                listener.onEvent(sequence, action == 1, entityId, section, ticketCount);
+            }
+        }
+
+        private boolean expect(ByteBuffer data, byte[] key, int lineEnd) {
+            if (position + key.length > lineEnd || !equalsAt(data, position, position + key.length, key)) {
+                return false;
+            }
+            position += key.length;
+            return true;
+        }
+
+        /**
+         * Reads a non-negative decimal number at the current position.
+         *
+         * @return The number, or -1 if there is none.
+         */
+        private long number(ByteBuffer data, int lineEnd) {
+            int start = position;
+            long value = 0;
+            while (position < lineEnd && position - start < 19) {
+                byte digit = data.get(position);
+                if (digit < '0' || digit > '9') {
+                    break;
+                }
+                value = value * 10 + (digit - '0');
+                position++;
+            }
+            return position == start ? -1 : value;
+        }
+
+        private static boolean equalsAt(ByteBuffer data, int from, int to, byte[] expected) {
+            if (to - from != expected.length) {
+                return false;
+            }
+            for (int i = 0; i < expected.length; i++) {
+                if (data.get(from + i) != expected[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
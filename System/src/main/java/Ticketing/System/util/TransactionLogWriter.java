@@ -0,0 +1,576 @@
+package Ticketing.System.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only transaction log, written as fixed-width binary records (see TransactionEvent)
+ * or as line-delimited JSON. Events are encoded straight into a pre-allocated buffer and written to the current
+ * segment file through a FileChannel whenever the buffer fills up or the flush interval
+ * passes, so memory use does not grow with the length of the run. Segments are rotated
+ * once they reach the configured size and are named after the first sequence number they hold;
+ * the file suffix tells the format, so a log continued in another format stays readable.
+ * Every event carries its sequence number and a CRC32C, so recovery can tell
+ * a torn or corrupt tail from valid events. The writer keeps per-section ticket totals and
+ * stores them as a TransactionLogCheckpoint whenever it rotates a segment and when it is closed.
+ * If a write fails, the log stops: the events still buffered are lost, so no further checkpoint
+ * is stored, later events are refused and the failure listener is told.
+ */
+public class TransactionLogWriter implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionLogWriter.class);
+
+    /**
+     * When the log forces written data to disk.
+     */
+    public enum FsyncPolicy {
+        NEVER, // Leave it to the operating system
+        ON_ROTATE, // Force a segment when it is closed
+        ON_FLUSH // Force after every buffer flush
+    }
+
+    /**
+     * How events are encoded in the segments.
+     */
+    public enum Format {
+        BINARY(BINARY_SEGMENT_SUFFIX), // Fixed-width records, see TransactionEvent
+        JSON(SEGMENT_SUFFIX); // One JSON object per line
+
+        private final String suffix; // File name suffix of the segments
+
+        Format(String suffix) {
+            this.suffix = suffix;
+        }
+
+        public String getSuffix() {
+            return suffix;
+        }
+    }
+
+    public static final String SEGMENT_PREFIX = "transactions-"; // File name prefix of every segment
+    public static final String SEGMENT_SUFFIX = ".ndjson"; // File name suffix of JSON segments
+    public static final String BINARY_SEGMENT_SUFFIX = ".tlog"; // File name suffix of binary segments
+    private static final int MAX_RECORD_BYTES = 256; // Upper bound for one encoded event
+
+    private final Path directory; // Directory holding the segment files
+    private final long segmentSize; // Size in bytes after which a new segment is started
+    private final FsyncPolicy fsyncPolicy; // When data is forced to disk
+    private final Format format; // How events are encoded
+    private final ByteBuffer buffer; // Pre-allocated buffer events are encoded into
+    private final ReentrantLock lock = new ReentrantLock(); // Guards the buffer and the current segment
+    private final ScheduledExecutorService flushScheduler; // Periodically flushes a partially filled buffer
+    private FileChannel segment; // Segment currently being written
+    private long segmentBytes; // Bytes written to the current segment
+    private long nextSequence = 1; // Sequence number of the next event
+    private final CRC32C recordChecksum = new CRC32C(); // Checksum of the event being encoded as JSON
+    private final TransactionEvent binaryEvent = new TransactionEvent(); // Encoder of binary records
+    private long[] addedTickets; // Tickets added per section - 1 so far
+    private long[] retrievedTickets; // Tickets retrieved per section - 1 so far
+    private volatile IOException failure; // Write that stopped the log, or null while it is healthy
+    private Consumer<IOException> failureListener = e -> { }; // Told once when the log stops
+
+    /**
+     * Constructor to open a new JSON log in the given directory.
+     *
+     * @param directory           The directory to write segments to.
+     * @param bufferSize          The size of the in-memory buffer in bytes.
+     * @param segmentSize         The size in bytes at which segments are rotated.
+     * @param fsyncPolicy         When written data is forced to disk.
+     * @param flushIntervalMillis How often a partially filled buffer is flushed.
+     * @throws IOException If the directory or the first segment cannot be created.
+     */
+    public TransactionLogWriter(Path directory, int bufferSize, long segmentSize, FsyncPolicy fsyncPolicy,
+                                long flushIntervalMillis) throws IOException {
+        this(directory, bufferSize, segmentSize, fsyncPolicy, flushIntervalMillis, TransactionLogCheckpoint.empty(1));
+    }
+
+    /**
+     * Constructor to continue a JSON log after the last event of a checkpoint, for example a
+     * recovered run. New events go to a new segment; existing segments are kept.
+     *
+     * @param directory           The directory to write segments to.
+     * @param bufferSize          The size of the in-memory buffer in bytes.
+     * @param segmentSize         The size in bytes at which segments are rotated.
+     * @param fsyncPolicy         When written data is forced to disk.
+     * @param flushIntervalMillis How often a partially filled buffer is flushed.
+     * @param resumeFrom          The checkpoint holding the last sequence number and totals so far.
+     * @throws IOException If the directory or the first segment cannot be created.
+     */
+    public TransactionLogWriter(Path directory, int bufferSize, long segmentSize, FsyncPolicy fsyncPolicy,
+                                long flushIntervalMillis, TransactionLogCheckpoint resumeFrom) throws IOException {
+        this(directory, bufferSize, segmentSize, fsyncPolicy, flushIntervalMillis, resumeFrom, Format.JSON);
+    }
+
+    /**
+     * Constructor to continue a log after the last event of a checkpoint in the given format.
+     * New events go to a new segment; existing segments are kept, whatever their format.
+     *
+     * @param directory           The directory to write segments to.
+     * @param bufferSize          The size of the in-memory buffer in bytes.
+     * @param segmentSize         The size in bytes at which segments are rotated.
+     * @param fsyncPolicy         When written data is forced to disk.
+     * @param flushIntervalMillis How often a partially filled buffer is flushed.
+     * @param resumeFrom          The checkpoint holding the last sequence number and totals so far,
+     *                            or an empty one for a new log.
+     * @param format              How events are encoded.
+     * @throws IOException If the directory or the first segment cannot be created.
+     */
+    public TransactionLogWriter(Path directory, int bufferSize, long segmentSize, FsyncPolicy fsyncPolicy,
+                                long flushIntervalMillis, TransactionLogCheckpoint resumeFrom, Format format)
+            throws IOException {
+        this.format = format;
+        this.nextSequence = resumeFrom.getLastSequence() + 1;
+        this.addedTickets = resumeFrom.copyAdded(1);
+        this.retrievedTickets = resumeFrom.copyRetrieved(1);
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsyncPolicy = fsyncPolicy;
+        this.buffer = ByteBuffer.allocateDirect(Math.max(bufferSize, MAX_RECORD_BYTES));
+        Files.createDirectories(directory);
+        openSegment();
+
+        this.flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "transaction-log-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushScheduler.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Appends one event of the first section to the log.
+     *
+     * @param actionType       The action that happened (for example ADD or RETRIEVE).
+     * @param entityType       The kind of actor (for example Vendor or Customer).
+     * @param entityId         The ID of the actor.
+     * @param ticketCount      The number of tickets involved.
+     * @param remainingTickets The number of tickets left in the pool afterwards.
+     * @return The sequence number assigned to the event.
+     */
+    public long append(String actionType, String entityType, long entityId, int ticketCount, int remainingTickets) {
+        return append(actionType, entityType, entityId, 1, ticketCount, remainingTickets);
+    }
+
+    /**
+     * Appends one event to the log.
+     *
+     * @param actionType       The action that happened (for example ADD or RETRIEVE).
+     * @param entityType       The kind of actor (for example Vendor or Customer).
+     * @param entityId         The ID of the actor.
+     * @param section          The section of the tickets, starting at 1.
+     * @param ticketCount      The number of tickets involved.
+     * @param remainingTickets The number of tickets left in the section's pool afterwards.
+     * @return The sequence number assigned to the event, or -1 if the log has stopped after a failed write.
+     * @throws IllegalArgumentException If a binary log has no code for the action or entity type.
+     */
+    public long append(String actionType, String entityType, long entityId, int section, int ticketCount,
+                       int remainingTickets) {
+        lock.lock();
+        try {
+            long sequence = nextSequence;
+            if (!encode(sequence, actionType, entityType, entityId, section, ticketCount, remainingTickets)) {
+                return -1;
+            }
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends an event that was numbered before it reached the log, such as a relayed outbox event.
+     * An event the log already holds is skipped, so relaying it again after a crash writes it once.
+     *
+     * @param sequence         The sequence number of the event; the next one after the log's last.
+     * @param actionType       The action that happened (for example ADD or RETRIEVE).
+     * @param entityType       The kind of actor (for example Vendor or Customer).
+     * @param entityId         The ID of the actor.
+     * @param section          The section of the tickets, starting at 1.
+     * @param ticketCount      The number of tickets involved.
+     * @param remainingTickets The number of tickets left in the section's pool afterwards.
+     * @return True if the event was appended, false if the log already holds it.
+     * @throws IllegalStateException If events between the log's last and this one are missing, or the
+     *                               log has stopped after a failed write.
+     */
+    public boolean append(long sequence, String actionType, String entityType, long entityId, int section,
+                          int ticketCount, int remainingTickets) {
+        lock.lock();
+        try {
+            if (sequence < nextSequence) {
+                return false;
+            }
+            if (sequence > nextSequence) {
+                throw new IllegalStateException("Event " + sequence + " does not follow event " + (nextSequence - 1)
+                        + " in " + directory);
+            }
+            if (!encode(sequence, actionType, entityType, entityId, section, ticketCount, remainingTickets)) {
+                throw new IllegalStateException("Transaction log in " + directory + " stopped after a failed write",
+                        failure);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the sequence number of the last event appended.
+     *
+     * @return The sequence number, or 0 if the log holds no events.
+     */
+    public long getLastSequence() {
+        lock.lock();
+        try {
+            return nextSequence - 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the write failure that stopped the log.
+     *
+     * @return The failure, or null while the log is healthy.
+     */
+    public IOException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Sets the listener told when a failed write stops the log. It is called once, with the lock held.
+     *
+     * @param listener The listener.
+     */
+    public void onFailure(Consumer<IOException> listener) {
+        lock.lock();
+        try {
+            failureListener = listener;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Encodes one event into the buffer; called with the lock held.
+     *
+     * @return False if the log has stopped, in which case the event is not counted.
+     */
+    private boolean encode(long sequence, String actionType, String entityType, long entityId, int section,
+                        int ticketCount, int remainingTickets) {
+        TransactionEvent.Action action = null;
+        TransactionEvent.EntityType type = null;
+        if (format == Format.BINARY) {
+            action = TransactionEvent.Action.find(actionType);
+            type = TransactionEvent.EntityType.find(entityType);
+            if (action == null || type == null) {
+                throw new IllegalArgumentException("No binary code for " + actionType + " by " + entityType);
+            }
+        }
+        if (buffer.remaining() < MAX_RECORD_BYTES) {
+            writeBuffer();
+        }
+        if (failure != null) {
+            return false;
+        }
+        nextSequence = sequence + 1;
+        countTickets(actionType, section, ticketCount);
+        if (format == Format.BINARY) {
+            binaryEvent.encode(buffer, sequence, System.currentTimeMillis(), action, type, entityId, section,
+                    ticketCount, remainingTickets);
+            return true;
+        }
+        int recordStart = buffer.position();
+        putAscii("{\"seq\":");
+        putNumber(sequence);
+        putAscii(",\"actionType\":\"");
+        putAscii(actionType);
+        putAscii("\",\"entityName\":\"");
+        putAscii(entityType);
+        buffer.put((byte) '-');
+        putNumber(entityId);
+        putAscii("\",\"section\":");
+        putNumber(section);
+        putAscii(",\"ticketCount\":");
+        putNumber(ticketCount);
+        putAscii(",\"remainingTickets\":");
+        putNumber(remainingTickets);
+        putAscii(",\"crc\":");
+        putNumber(checksum(recordStart, buffer.position() - ",\"crc\":".length()));
+        putAscii("}\n");
+        return true;
+    }
+
+    /**
+     * Writes any buffered events to the current segment.
+     *
+     * @throws IllegalStateException If the log has stopped after a failed write, so the events are not durable.
+     */
+    public void flush() {
+        lock.lock();
+        try {
+            writeBuffer();
+            if (failure != null) {
+                throw new IllegalStateException("Transaction log in " + directory + " stopped after a failed write",
+                        failure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Flushes remaining events, forces them to disk, closes the current segment and
+     * records the log as finished in its checkpoint.
+     */
+    @Override
+    public void close() {
+        close(true);
+    }
+
+    /**
+     * Flushes remaining events, forces them to disk, closes the current segment and
+     * stores a checkpoint. A log stopped by a failed write keeps the checkpoint it had.
+     *
+     * @param isFinished Whether the run is over; false leaves the log to be continued or recovered.
+     */
+    public void close(boolean isFinished) {
+        flushScheduler.shutdown();
+        lock.lock();
+        try {
+            if (segment == null) {
+                return;
+            }
+            writeBuffer();
+            if (segment == null) {
+                return; // The write failed and stopped the log
+            }
+            try {
+                closeSegment(fsyncPolicy != FsyncPolicy.NEVER);
+            } catch (IOException e) {
+                fail(e);
+                return;
+            }
+            writeCheckpoint(isFinished);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Lists the segments in a log directory in the order they were written, in either format.
+     *
+     * @param directory The log directory.
+     * @return The segment files, oldest first.
+     */
+    public static List<Path> listSegments(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(TransactionLogWriter::isSegment)
+                    .sorted(Comparator.comparingLong(TransactionLogWriter::firstSequenceOf))
+                    .toList();
+        } catch (IOException e) {
+            log.error("Failed to list transaction log segments: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * Deletes every segment in a log directory and its checkpoint, for example before a new run starts.
+     *
+     * @param directory The log directory.
+     */
+    public static void deleteSegments(Path directory) {
+        try {
+            Files.deleteIfExists(directory.resolve(TransactionLogCheckpoint.FILE_NAME));
+        } catch (IOException e) {
+            log.error("Failed to delete transaction log checkpoint in {}: {}", directory, e.getMessage());
+        }
+        for (Path segment : listSegments(directory)) {
+            try {
+                Files.deleteIfExists(segment);
+            } catch (IOException e) {
+                log.error("Failed to delete transaction log segment {}: {}", segment, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Returns the sequence number of the first event a segment holds, from its file name.
+     *
+     * @param segment A segment file.
+     * @return The sequence number.
+     */
+    public static long firstSequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.lastIndexOf('.')));
+    }
+
+    /**
+     * Tells whether a segment holds binary records rather than JSON lines.
+     *
+     * @param segment A segment file.
+     * @return True for a binary segment.
+     */
+    public static boolean isBinary(Path segment) {
+        return segment.getFileName().toString().endsWith(BINARY_SEGMENT_SUFFIX);
+    }
+
+    private static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && (name.endsWith(SEGMENT_SUFFIX) || name.endsWith(BINARY_SEGMENT_SUFFIX));
+    }
+
+    private void writeBuffer() {
+        if (segment == null) {
+            buffer.clear(); // The log is closed; late events are dropped
+            return;
+        }
+        if (buffer.position() == 0) {
+            return;
+        }
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                segmentBytes += segment.write(buffer);
+            }
+            if (fsyncPolicy == FsyncPolicy.ON_FLUSH) {
+                segment.force(false);
+            }
+            if (segmentBytes >= segmentSize) {
+                closeSegment(fsyncPolicy == FsyncPolicy.ON_ROTATE);
+                writeCheckpoint(false); // Every buffered event is in the closed segment
+                openSegment();
+            }
+        } catch (IOException e) {
+            fail(e);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Stops the log after a failed write; the buffered events are lost, so the checkpoint stays where it was.
+     */
+    private void fail(IOException e) {
+        log.error("Failed to write transaction log in {}, stopping it after event {}: {}", directory,
+                nextSequence - 1, e.getMessage());
+        failure = e;
+        try {
+            if (segment != null) {
+                segment.close();
+            }
+        } catch (IOException closeFailure) {
+            e.addSuppressed(closeFailure);
+        }
+        segment = null;
+        failureListener.accept(e);
+    }
+
+    private void openSegment() throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSequence, format.getSuffix()));
+        segment = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        segmentBytes = 0;
+        if (format == Format.BINARY) {
+            ByteBuffer header = ByteBuffer.allocate(TransactionEvent.HEADER_BYTES);
+            TransactionEvent.writeHeader(header);
+            header.flip();
+            while (header.hasRemaining()) {
+                segmentBytes += segment.write(header);
+            }
+        }
+    }
+
+    private void closeSegment(boolean force) throws IOException {
+        if (segment == null) {
+            return;
+        }
+        FileChannel closing = segment;
+        segment = null;
+        try {
+            if (force) {
+                closing.force(true);
+            }
+        } finally {
+            closing.close();
+        }
+    }
+
+    /**
+     * Adds an event to the per-section totals, growing them for sections not seen yet.
+     */
+    private void countTickets(String actionType, int section, int ticketCount) {
+        if (section < 1) {
+            return;
+        }
+        if (section > addedTickets.length) {
+            addedTickets = Arrays.copyOf(addedTickets, section);
+            retrievedTickets = Arrays.copyOf(retrievedTickets, section);
+        }
+        if ("ADD".equals(actionType)) {
+            addedTickets[section - 1] += ticketCount;
+        } else if ("RETRIEVE".equals(actionType)) {
+            retrievedTickets[section - 1] += ticketCount;
+        }
+    }
+
+    private void writeCheckpoint(boolean isFinished) {
+        try {
+            new TransactionLogCheckpoint(nextSequence - 1, isFinished, addedTickets, retrievedTickets).write(directory);
+        } catch (IOException e) {
+            log.error("Failed to write transaction log checkpoint: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the CRC32C of the encoded bytes between two buffer positions.
+     */
+    private long checksum(int from, int to) {
+        ByteBuffer record = buffer.duplicate();
+        record.limit(to).position(from);
+        recordChecksum.reset();
+        recordChecksum.update(record);
+        return recordChecksum.getValue();
+    }
+
+    private void putAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            buffer.put((byte) value.charAt(i));
+        }
+    }
+
+    private void putNumber(long value) {
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        while (divisor > 0) {
+            buffer.put((byte) ('0' + (value / divisor) % 10));
+            divisor /= 10;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+-- Schema of the ticketing engine as mapped by the JPA entities, for embedded H2 databases (tests, load and startup benchmarks).
+-- Keep in step with db/migration/mysql.
+
+create sequence ticket_record_seq start with 1 increment by 50;
+
+create table ticket_record (
+    ticket_id bigint not null,
+    simulation_id varchar(255),
+    section integer not null,
+    node_id varchar(255),
+    vendor_id bigint,
+    customer_id bigint,
+    primary key (ticket_id)
+);
+create index idx_ticket_claim on ticket_record (simulation_id, section, node_id, customer_id, vendor_id, ticket_id);
+
+create table inventory_counter (
+    counter_id bigint generated by default as identity,
+    simulation_id varchar(255),
+    section integer not null,
+    section_total integer not null,
+    event_capacity integer not null,
+    capacity integer not null,
+    next_position integer not null,
+    version bigint,
+    primary key (counter_id),
+    constraint uk_inventory_section unique (simulation_id, section)
+);
+
+create table inventory_lease (
+    lease_id bigint generated by default as identity,
+    simulation_id varchar(255),
+    section integer not null,
+    node_id varchar(255),
+    first_position integer not null,
+    last_position integer not null,
+    version bigint,
+    primary key (lease_id)
+);
+create index idx_lease_holder on inventory_lease (simulation_id, section, node_id);
+
+create sequence outbox_event_seq start with 1 increment by 50;
+
+create table outbox_event (
+    event_id bigint not null,
+    simulation_id varchar(255),
+    node_id varchar(255),
+    sequence bigint not null,
+    action_type varchar(255),
+    entity_type varchar(255),
+    entity_id bigint not null,
+    section integer not null,
+    ticket_count integer not null,
+    remaining_tickets integer not null,
+    primary key (event_id)
+);
+create index idx_outbox_relay on outbox_event (simulation_id, node_id, sequence);
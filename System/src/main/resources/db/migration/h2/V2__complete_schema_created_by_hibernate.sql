@@ -0,0 +1,61 @@
+-- Brings a schema that Hibernate created with ddl-auto=update, and that Flyway took as version 1 on the first lean start,
+-- up to the schema of V1: tables, columns and indexes it lacks are created. On a schema created by
+-- V1 it only moves the ID sequences past the IDs in use. Keep in step with db/migration/mysql.
+
+create table if not exists ticket_record (
+    ticket_id bigint not null,
+    vendor_id bigint,
+    customer_id bigint,
+    primary key (ticket_id)
+);
+alter table ticket_record add column if not exists simulation_id varchar(255);
+alter table ticket_record add column if not exists section integer not null default 1;
+alter table ticket_record add column if not exists node_id varchar(255);
+create index if not exists idx_ticket_claim on ticket_record (simulation_id, section, node_id, customer_id, vendor_id, ticket_id);
+
+-- IDs were generated by the database before; the pooled generator hands out the block below the next value
+create sequence if not exists ticket_record_seq start with 1 increment by 50;
+alter sequence ticket_record_seq restart with (select coalesce(max(ticket_id), 0) + 50 from ticket_record);
+
+create table if not exists inventory_counter (
+    counter_id bigint generated by default as identity,
+    simulation_id varchar(255),
+    section integer not null,
+    section_total integer not null,
+    event_capacity integer not null,
+    capacity integer not null,
+    next_position integer not null,
+    version bigint,
+    primary key (counter_id),
+    constraint uk_inventory_section unique (simulation_id, section)
+);
+
+create table if not exists inventory_lease (
+    lease_id bigint generated by default as identity,
+    simulation_id varchar(255),
+    section integer not null,
+    node_id varchar(255),
+    first_position integer not null,
+    last_position integer not null,
+    version bigint,
+    primary key (lease_id)
+);
+create index if not exists idx_lease_holder on inventory_lease (simulation_id, section, node_id);
+
+create table if not exists outbox_event (
+    event_id bigint not null,
+    simulation_id varchar(255),
+    node_id varchar(255),
+    sequence bigint not null,
+    action_type varchar(255),
+    entity_type varchar(255),
+    entity_id bigint not null,
+    section integer not null,
+    ticket_count integer not null,
+    remaining_tickets integer not null,
+    primary key (event_id)
+);
+create index if not exists idx_outbox_relay on outbox_event (simulation_id, node_id, sequence);
+
+create sequence if not exists outbox_event_seq start with 1 increment by 50;
+alter sequence outbox_event_seq restart with (select coalesce(max(event_id), 0) + 50 from outbox_event);
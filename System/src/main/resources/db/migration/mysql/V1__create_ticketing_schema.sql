@@ -0,0 +1,63 @@
+-- Schema of the ticketing engine as mapped by the JPA entities; Hibernate validates it against the entities on startup.
+-- MySQL has no sequences, so the pooled ID generators use one-row tables.
+
+create table ticket_record_seq (
+    next_val bigint
+) engine=InnoDB;
+insert into ticket_record_seq values (1);
+
+create table ticket_record (
+    ticket_id bigint not null,
+    simulation_id varchar(255),
+    section integer not null,
+    node_id varchar(255),
+    vendor_id bigint,
+    customer_id bigint,
+    primary key (ticket_id)
+) engine=InnoDB;
+create index idx_ticket_claim on ticket_record (simulation_id, section, node_id, customer_id, vendor_id, ticket_id);
+
+create table inventory_counter (
+    counter_id bigint not null auto_increment,
+    simulation_id varchar(255),
+    section integer not null,
+    section_total integer not null,
+    event_capacity integer not null,
+    capacity integer not null,
+    next_position integer not null,
+    version bigint,
+    primary key (counter_id),
+    constraint uk_inventory_section unique (simulation_id, section)
+) engine=InnoDB;
+
+create table inventory_lease (
+    lease_id bigint not null auto_increment,
+    simulation_id varchar(255),
+    section integer not null,
+    node_id varchar(255),
+    first_position integer not null,
+    last_position integer not null,
+    version bigint,
+    primary key (lease_id)
+) engine=InnoDB;
+create index idx_lease_holder on inventory_lease (simulation_id, section, node_id);
+
+create table outbox_event_seq (
+    next_val bigint
+) engine=InnoDB;
+insert into outbox_event_seq values (1);
+
+create table outbox_event (
+    event_id bigint not null,
+    simulation_id varchar(255),
+    node_id varchar(255),
+    sequence bigint not null,
+    action_type varchar(255),
+    entity_type varchar(255),
+    entity_id bigint not null,
+    section integer not null,
+    ticket_count integer not null,
+    remaining_tickets integer not null,
+    primary key (event_id)
+) engine=InnoDB;
+create index idx_outbox_relay on outbox_event (simulation_id, node_id, sequence);
@@ -0,0 +1,92 @@
+-- Brings a schema that Hibernate created with ddl-auto=update, and that Flyway took as version 1 on the first lean start,
+-- up to the schema of V1: tables, columns and indexes it lacks are created. On a schema created by
+-- V1 it only moves the ID tables past the IDs in use. Keep in step with db/migration/h2.
+
+create table if not exists ticket_record (
+    ticket_id bigint not null,
+    vendor_id bigint,
+    customer_id bigint,
+    primary key (ticket_id)
+) engine=InnoDB;
+
+set @missing = (select count(*) = 0 from information_schema.columns
+    where table_schema = database() and table_name = 'ticket_record' and column_name = 'simulation_id');
+set @ddl = if(@missing, 'alter table ticket_record add column simulation_id varchar(255)', 'do 0');
+prepare statement from @ddl;
+execute statement;
+deallocate prepare statement;
+
+set @missing = (select count(*) = 0 from information_schema.columns
+    where table_schema = database() and table_name = 'ticket_record' and column_name = 'section');
+set @ddl = if(@missing, 'alter table ticket_record add column section integer not null default 1', 'do 0');
+prepare statement from @ddl;
+execute statement;
+deallocate prepare statement;
+
+set @missing = (select count(*) = 0 from information_schema.columns
+    where table_schema = database() and table_name = 'ticket_record' and column_name = 'node_id');
+set @ddl = if(@missing, 'alter table ticket_record add column node_id varchar(255)', 'do 0');
+prepare statement from @ddl;
+execute statement;
+deallocate prepare statement;
+
+set @missing = (select count(*) = 0 from information_schema.statistics
+    where table_schema = database() and table_name = 'ticket_record' and index_name = 'idx_ticket_claim');
+set @ddl = if(@missing, 'create index idx_ticket_claim on ticket_record '
+    '(simulation_id, section, node_id, customer_id, vendor_id, ticket_id)', 'do 0');
+prepare statement from @ddl;
+execute statement;
+deallocate prepare statement;
+
+-- IDs were generated by the database before; the pooled generator hands out the block below next_val
+create table if not exists ticket_record_seq (
+    next_val bigint
+) engine=InnoDB;
+insert into ticket_record_seq (next_val) select 1 from dual where not exists (select * from ticket_record_seq);
+update ticket_record_seq set next_val = greatest(next_val, (select coalesce(max(ticket_id), 0) + 50 from ticket_record));
+
+create table if not exists inventory_counter (
+    counter_id bigint not null auto_increment,
+    simulation_id varchar(255),
+    section integer not null,
+    section_total integer not null,
+    event_capacity integer not null,
+    capacity integer not null,
+    next_position integer not null,
+    version bigint,
+    primary key (counter_id),
+    constraint uk_inventory_section unique (simulation_id, section)
+) engine=InnoDB;
+
+create table if not exists inventory_lease (
+    lease_id bigint not null auto_increment,
+    simulation_id varchar(255),
+    section integer not null,
+    node_id varchar(255),
+    first_position integer not null,
+    last_position integer not null,
+    version bigint,
+    primary key (lease_id),
+    index idx_lease_holder (simulation_id, section, node_id)
+) engine=InnoDB;
+
+create table if not exists outbox_event (
+    event_id bigint not null,
+    simulation_id varchar(255),
+    node_id varchar(255),
+    sequence bigint not null,
+    action_type varchar(255),
+    entity_type varchar(255),
+    entity_id bigint not null,
+    section integer not null,
+    ticket_count integer not null,
+    remaining_tickets integer not null,
+    primary key (event_id),
+    index idx_outbox_relay (simulation_id, node_id, sequence)
+) engine=InnoDB;
+
+create table if not exists outbox_event_seq (
+    next_val bigint
+) engine=InnoDB;
+insert into outbox_event_seq (next_val) select 1 from dual where not exists (select * from outbox_event_seq);
+update outbox_event_seq set next_val = greatest(next_val, (select coalesce(max(event_id), 0) + 50 from outbox_event));
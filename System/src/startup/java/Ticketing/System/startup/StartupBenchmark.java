@@ -0,0 +1,314 @@
+package Ticketing.System.startup;
+
+import com.google.gson.GsonBuilder;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+
+/**
+ * Startup benchmark of the packaged application. The jar is extracted, as Spring Boot recommends
+ * for class data sharing, and started in a fresh JVM per run against an embedded H2 database, in
+ * each variant: the default configuration, the lean profile, the lean profile with a CDS archive
+ * recorded in a training run, and, when the jar was built with the aot profile, the lean profile
+ * with the AOT-generated context, with and without the archive. A run lasts until the health
+ * endpoint first answers 200; its resident memory is read from /proc at that moment.
+ * <p>
+ * Options are passed as --name=value: jar (required), runs, timeout-seconds and output.
+ */
+public final class StartupBenchmark {
+
+    private static final String MAIN_CLASS = "Ticketing.System.SystemApplication";
+    private static final String AOT_INITIALIZER = "Ticketing/System/SystemApplication__ApplicationContextInitializer.class";
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        if (!options.containsKey("jar")) {
+            throw new IllegalArgumentException("Missing --jar=<path of the packaged application>");
+        }
+        Path jar = Paths.get(options.get("jar")).toAbsolutePath();
+        int runs = Integer.parseInt(options.getOrDefault("runs", "3"));
+        long timeoutMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(options.getOrDefault("timeout-seconds", "120")));
+        Path output = Paths.get(options.getOrDefault("output", "target/startup-result.json"));
+        Path workDirectory = output.toAbsolutePath().getParent().resolve("startup-benchmark");
+
+        Path extracted = extract(jar, workDirectory.resolve("extracted"));
+        String classpath = extracted + java.io.File.pathSeparator + h2Jar();
+        boolean hasAot = containsEntry(extracted, AOT_INITIALIZER);
+        Path archive = workDirectory.resolve("lean.jsa");
+        Path aotArchive = workDirectory.resolve("lean-aot.jsa");
+
+        List<Variant> variants = new ArrayList<>();
+        variants.add(new Variant("default", List.of(), List.of(), null));
+        variants.add(new Variant("lean", List.of(), List.of("--spring.profiles.active=lean"), null));
+        variants.add(new Variant("lean-cds", List.of(), List.of("--spring.profiles.active=lean"), archive));
+        if (hasAot) {
+            List<String> aot = List.of("-Dspring.aot.enabled=true");
+            variants.add(new Variant("lean-aot", aot, List.of("--spring.profiles.active=lean"), null));
+            variants.add(new Variant("lean-aot-cds", aot, List.of("--spring.profiles.active=lean"), aotArchive));
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(1))
+                .build();
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (Variant variant : variants) {
+            if (variant.archive != null) {
+                train(variant, classpath, workDirectory, timeoutMillis);
+            }
+            long[] startupMillis = new long[runs];
+            long[] rssKilobytes = new long[runs];
+            for (int run = 0; run < runs; run++) {
+                long[] measured = measure(client, variant, classpath, workDirectory, timeoutMillis);
+                startupMillis[run] = measured[0];
+                rssKilobytes[run] = measured[1];
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("variant", variant.name);
+            result.put("runs", runs);
+            result.put("startupMillisMedian", median(startupMillis));
+            result.put("rssMegabytesMedian", median(rssKilobytes) / 1024.0);
+            result.put("startupMillis", startupMillis);
+            result.put("rssKilobytes", rssKilobytes);
+            results.add(result);
+            System.out.printf(Locale.ROOT, "%-14s startup %6d ms  rss %7.1f MB%n", variant.name,
+                    median(startupMillis), median(rssKilobytes) / 1024.0);
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("jar", jar.toString());
+        summary.put("java", System.getProperty("java.version"));
+        summary.put("processors", Runtime.getRuntime().availableProcessors());
+        summary.put("aot", hasAot);
+        summary.put("variants", results);
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        Files.writeString(output, new GsonBuilder().setPrettyPrinting().create().toJson(summary),
+                StandardCharsets.UTF_8);
+        System.out.println("Results written to " + output);
+    }
+
+    /**
+     * Starts the application once and waits until it is healthy.
+     *
+     * @return The milliseconds from launching the JVM to the first healthy answer, and the
+     * resident memory in kilobytes at that moment.
+     */
+    private static long[] measure(HttpClient client, Variant variant, String classpath, Path workDirectory,
+                                  long timeoutMillis) throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> jvmArgs = new ArrayList<>(variant.jvmArgs);
+        if (variant.archive != null) {
+            jvmArgs.add("-XX:SharedArchiveFile=" + variant.archive);
+        }
+        URI health = URI.create("http://localhost:" + port + "/actuator/health");
+        long launchedAt = System.nanoTime();
+        Process process = launch(jvmArgs, variant.appArgs, classpath, port, workDirectory, variant.name);
+        try {
+            long deadline = launchedAt + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            while (!isHealthy(client, health)) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(variant.name + " exited with " + process.exitValue()
+                            + ", see " + logFile(workDirectory, variant.name));
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException(variant.name + " was not healthy within " + timeoutMillis
+                            + " ms, see " + logFile(workDirectory, variant.name));
+                }
+                Thread.sleep(5);
+            }
+            long startupMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - launchedAt);
+            return new long[]{startupMillis, residentKilobytes(process.pid())};
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    /**
+     * Records the CDS archive of a variant: the application is started with the same arguments and
+     * stops once its context is refreshed, and the JVM writes the classes it loaded on exit.
+     */
+    private static void train(Variant variant, String classpath, Path workDirectory, long timeoutMillis)
+            throws IOException, InterruptedException {
+        Files.deleteIfExists(variant.archive);
+        List<String> jvmArgs = new ArrayList<>(variant.jvmArgs);
+        jvmArgs.add("-XX:ArchiveClassesAtExit=" + variant.archive);
+        jvmArgs.add("-Dspring.context.exit=onRefresh");
+        Process process = launch(jvmArgs, variant.appArgs, classpath, freePort(), workDirectory,
+                variant.name + "-training");
+        if (!process.waitFor(timeoutMillis, TimeUnit.MILLISECONDS)) {
+            process.destroyForcibly().waitFor();
+            throw new IllegalStateException("Training run of " + variant.name + " did not finish, see "
+                    + logFile(workDirectory, variant.name + "-training"));
+        }
+        if (!Files.exists(variant.archive)) {
+            throw new IllegalStateException("Training run of " + variant.name + " wrote no archive, see "
+                    + logFile(workDirectory, variant.name + "-training"));
+        }
+    }
+
+    private static Process launch(List<String> jvmArgs, List<String> appArgs, String classpath, int port,
+                                  Path workDirectory, String name) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add("-cp");
+        command.add(classpath);
+        command.add(MAIN_CLASS);
+        command.add("--server.port=" + port);
+        command.add("--spring.datasource.driver-class-name=org.h2.Driver");
+        command.add("--spring.datasource.url=jdbc:h2:mem:startup;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        command.add("--spring.datasource.username=sa");
+        command.add("--spring.datasource.password=");
+        command.add("--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect");
+        command.add("--ticketing.log.directory=" + workDirectory.resolve("transaction-logs"));
+        command.add("--ticketing.ledger.snapshot-directory=" + workDirectory.resolve("ticket-ledgers"));
+        command.add("--ticketing.recovery.enabled=false");
+        command.addAll(appArgs);
+        Path log = logFile(workDirectory, name);
+        Files.createDirectories(log.getParent());
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+    }
+
+    /**
+     * Extracts the jar into an application jar and its libraries, the layout CDS archives work with.
+     *
+     * @return The path of the extracted application jar.
+     */
+    private static Path extract(Path jar, Path destination) throws IOException, InterruptedException {
+        deleteRecursively(destination);
+        Process process = new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Djarmode=tools", "-jar", jar.toString(), "extract", "--destination", destination.toString())
+                .inheritIO()
+                .start();
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("Could not extract " + jar);
+        }
+        return destination.resolve(jar.getFileName());
+    }
+
+    private static boolean isHealthy(HttpClient client, URI health) {
+        try {
+            HttpResponse<Void> response = client.send(HttpRequest.newBuilder(health)
+                    .timeout(Duration.ofSeconds(1))
+                    .GET()
+                    .build(), HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() == 200;
+        } catch (IOException e) {
+            return false; // Not listening yet
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Reads the resident set size of a process from /proc, or -1 where there is none.
+     */
+    private static long residentKilobytes(long pid) throws IOException {
+        Path status = Paths.get("/proc", String.valueOf(pid), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        for (String line : Files.readAllLines(status, StandardCharsets.UTF_8)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("[^0-9]", ""));
+            }
+        }
+        return -1;
+    }
+
+    private static String h2Jar() throws Exception {
+        return Paths.get(Class.forName("org.h2.Driver").getProtectionDomain().getCodeSource().getLocation().toURI())
+                .toString();
+    }
+
+    private static boolean containsEntry(Path jar, String entry) throws IOException {
+        try (JarFile file = new JarFile(jar.toFile())) {
+            return file.getEntry(entry) != null;
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static Path logFile(Path workDirectory, String name) {
+        return workDirectory.resolve("logs").resolve(name + ".log");
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (var paths = Files.walk(directory)) {
+            for (Path path : paths.sorted((a, b) -> b.compareTo(a)).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value: " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+
+    /**
+     * A way of starting the application: extra JVM and application arguments, and the CDS
+     * archive to record and start with, if any.
+     */
+    private static class Variant {
+
+        private final String name; // Name the variant is reported under
+        private final List<String> jvmArgs; // Extra JVM options
+        private final List<String> appArgs; // Extra application arguments
+        private final Path archive; // CDS archive recorded for the variant, or null
+
+        private Variant(String name, List<String> jvmArgs, List<String> appArgs, Path archive) {
+            this.name = name;
+            this.jvmArgs = jvmArgs;
+            this.appArgs = appArgs;
+            this.archive = archive;
+        }
+    }
+}
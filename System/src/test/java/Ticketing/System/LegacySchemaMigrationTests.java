@@ -0,0 +1,64 @@
+package Ticketing.System;
+
+import Ticketing.System.model.TicketRecord;
+import Ticketing.System.repo.TicketRecordRepo;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Starts the lean profile against a database as the first release's ddl-auto=update left it, so
+ * Flyway baselines it and the context only loads if the migrations bring it up to the entities.
+ */
+@SpringBootTest(properties = "spring.datasource.url=" + LegacySchemaMigrationTests.URL)
+@ActiveProfiles({"test", "lean"})
+class LegacySchemaMigrationTests {
+
+	static final String URL = "jdbc:h2:mem:legacy;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TicketRecordRepo ticketRecordRepository;
+
+	@BeforeAll
+	static void createLegacySchema() throws SQLException {
+		try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+			 Statement statement = connection.createStatement()) {
+			statement.execute("create table ticket_record (ticket_id bigint generated by default as identity,"
+					+ " customer_id bigint, vendor_id bigint, primary key (ticket_id))");
+			statement.execute("insert into ticket_record (vendor_id, customer_id) values (1, 1), (1, 2), (2, null)");
+		}
+	}
+
+	@Test
+	void baselinedSchemaIsCompletedAndKeepsItsTickets() {
+		assertEquals("2", jdbcTemplate.queryForObject(
+				"select max(\"version\") from \"flyway_schema_history\" where \"success\" = true", String.class));
+
+		List<TicketRecord> records = new ArrayList<>();
+		for (long i = 1; i <= 120; i++) {
+			records.add(new TicketRecord("legacy", 1, i, null));
+		}
+		ticketRecordRepository.saveAll(records);
+
+		// New IDs start past the ones the database generated before
+		assertEquals(123, jdbcTemplate.queryForObject("select count(distinct ticket_id) from ticket_record", Integer.class));
+		assertEquals(3, jdbcTemplate.queryForObject("select count(*) from ticket_record where section = 1"
+				+ " and simulation_id is null", Integer.class));
+		assertEquals(0, jdbcTemplate.queryForObject("select count(*) from outbox_event", Integer.class));
+	}
+}
@@ -0,0 +1,44 @@
+package Ticketing.System;
+
+import Ticketing.System.model.TicketRecord;
+import Ticketing.System.repo.TicketRecordRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Starts the lean profile against its own H2 database, so the schema comes from the migrations
+ * alone and the context only loads if Hibernate finds it matching the entities.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:migrated;MODE=MySQL;DB_CLOSE_DELAY=-1")
+@ActiveProfiles({"test", "lean"})
+class SchemaMigrationTests {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TicketRecordRepo ticketRecordRepository;
+
+	@Test
+	void migratedSchemaValidatesAndHandsOutIdsAcrossAllocationBlocks() {
+		assertEquals("2", jdbcTemplate.queryForObject(
+				"select max(\"version\") from \"flyway_schema_history\" where \"success\" = true", String.class));
+
+		List<TicketRecord> records = new ArrayList<>();
+		for (long i = 1; i <= 120; i++) {
+			records.add(new TicketRecord("migrated", 1, i, null));
+		}
+		ticketRecordRepository.saveAll(records);
+
+		assertEquals(120, jdbcTemplate.queryForObject(
+				"select count(distinct ticket_id) from ticket_record where simulation_id = 'migrated'", Integer.class));
+	}
+}
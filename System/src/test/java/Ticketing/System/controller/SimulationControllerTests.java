@@ -0,0 +1,162 @@
+package Ticketing.System.controller;
+
+import Ticketing.System.service.SimulationRegistry;
+import Ticketing.System.service.TicketService;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class SimulationControllerTests {
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private SimulationRegistry simulationRegistry;
+
+	@Test
+	void streamPushesPoolStateUntilTheSimulationSellsOut() throws Exception {
+		TicketService simulation = simulationRegistry.getOrCreate("streamed");
+		simulation.setVendorTotal(2);
+		simulation.setCustomerTotal(2);
+		simulation.setSimulationConfig(5, 10, 60);
+
+		HttpClient client = HttpClient.newHttpClient();
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/simulation/streamed/stream"))
+				.timeout(Duration.ofSeconds(20))
+				.build();
+		HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+		assertEquals(200, response.statusCode());
+		assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("text/event-stream"));
+
+		simulationRegistry.start("streamed");
+		boolean soldOut = false;
+		long claimedAtFirstFrame = -1;
+		long retrieved = 0;
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+			String line;
+			while (!soldOut && (line = reader.readLine()) != null) {
+				if (line.startsWith("data:")) {
+					JsonObject frame = JsonParser.parseString(line.substring(5)).getAsJsonObject();
+					if (claimedAtFirstFrame < 0) {
+						claimedAtFirstFrame = frame.get("claimedTickets").getAsLong(); // The first frame has no deltas
+					}
+					retrieved += frame.get("ticketsRetrieved").getAsLong();
+					soldOut = frame.get("claimedTickets").getAsLong() == 60;
+				}
+			}
+		}
+		assertTrue(soldOut);
+		assertEquals(60 - claimedAtFirstFrame, retrieved); // The deltas add up, whether or not frames were dropped
+	}
+
+	@Test
+	void purchasesTakeReleasedTicketsUntilTheEventSellsOut() throws Exception {
+		// Simulated customers are too slow to act, so only the purchases below take tickets
+		TicketService simulation = simulationRegistry.getOrCreate("purchased");
+		simulation.setVendorTotal(1);
+		simulation.setCustomerTotal(2);
+		simulation.setSimulationConfig(1, 600_000, 10);
+		simulationRegistry.start("purchased");
+		long deadline = System.currentTimeMillis() + 20_000;
+		while (simulation.getRemainingTickets() < 10 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+
+		HttpClient client = HttpClient.newHttpClient();
+		HttpResponse<String> first = purchase(client, "{\"customerId\":1,\"tickets\":4}");
+		assertEquals(200, first.statusCode());
+		assertTrue(first.body().contains("\"purchasedTickets\":4"));
+		HttpResponse<String> rest = purchase(client, "{\"customerId\":2,\"tickets\":50}");
+		assertEquals(200, rest.statusCode());
+		assertTrue(rest.body().contains("\"purchasedTickets\":6"));
+		HttpResponse<String> soldOut = purchase(client, "{\"customerId\":1}");
+		assertEquals(409, soldOut.statusCode());
+		assertTrue(soldOut.body().contains("\"status\":\"SOLD_OUT\""));
+		assertTrue(soldOut.headers().firstValue("Retry-After").isEmpty());
+		assertEquals(400, purchase(client, "{\"customerId\":3}").statusCode());
+
+		while (!simulation.isSimulationFinished() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		assertTrue(simulation.isSimulationFinished());
+		assertEquals(10, simulation.getClaimedTickets());
+
+		// The sales aggregates saw every release and purchase
+		String stats = get(client, "/api/simulation/purchased/stats").body();
+		assertTrue(stats.contains("\"claimedTickets\":10"));
+		assertTrue(stats.contains("\"sellThroughPercent\":100.0"));
+		assertEquals("[{\"vendorId\":1,\"tickets\":10}]", get(client, "/api/simulation/purchased/stats/vendors").body());
+		assertEquals("[{\"customerId\":2,\"tickets\":6},{\"customerId\":1,\"tickets\":4}]",
+				get(client, "/api/simulation/purchased/stats/top-customers").body());
+	}
+
+	@Test
+	void startOfARunningSimulationIsRefusedWithoutTouchingItsConfiguration() throws Exception {
+		TicketService simulation = simulationRegistry.getOrCreate("restarted");
+		simulation.setVendorTotal(1);
+		simulation.setCustomerTotal(1);
+		HttpClient client = HttpClient.newHttpClient();
+		assertEquals(200, post(client, "/api/simulation/restarted/start",
+				"{\"ticketReleaseRate\":600000,\"ticketRetrievalRate\":600000,\"maxTicketCapacity\":100}").statusCode());
+		try {
+			// Refused before the new configuration is even checked, so nothing of it is applied
+			assertEquals(409, post(client, "/api/simulation/restarted/start",
+					"{\"ticketReleaseRate\":1,\"ticketRetrievalRate\":1,\"maxTicketCapacity\":7,\"jitterPercent\":500}")
+					.statusCode());
+			assertEquals(409, post(client, "/api/simulation/restarted/setVendorTotal", "5").statusCode());
+			assertEquals(409, post(client, "/api/simulation/restarted/setCustomerTotal", "5").statusCode());
+			assertTrue(simulation.isSimulationRunning());
+			assertEquals(100, simulation.getSectionStats().get(0).get("capacity"));
+		} finally {
+			simulation.stopSimulation();
+		}
+	}
+
+	private HttpResponse<String> post(HttpClient client, String path, String body) throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(body))
+				.build();
+		return client.send(request, HttpResponse.BodyHandlers.ofString());
+	}
+
+	private HttpResponse<String> get(HttpClient client, String path) throws Exception {
+		return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build(),
+				HttpResponse.BodyHandlers.ofString());
+	}
+
+	private HttpResponse<String> purchase(HttpClient client, String body) throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/simulation/purchased/purchase"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(body))
+				.build();
+		return client.send(request, HttpResponse.BodyHandlers.ofString());
+	}
+
+	@Test
+	void streamOfUnknownSimulationIsNotFound() throws Exception {
+		HttpResponse<String> response = HttpClient.newHttpClient().send(
+				HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/simulation/missing/stream")).build(),
+				HttpResponse.BodyHandlers.ofString());
+		assertEquals(404, response.statusCode());
+	}
+}
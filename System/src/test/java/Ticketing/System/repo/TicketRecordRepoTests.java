@@ -0,0 +1,85 @@
+package Ticketing.System.repo;
+
+import Ticketing.System.model.TicketRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TicketRecordRepoTests {
+
+	@Autowired
+	private TicketRecordRepo ticketRecordRepo;
+
+	@Test
+	void concurrentClaimersGetDisjointTickets() throws Exception {
+		List<TicketRecord> released = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			TicketRecord ticket = new TicketRecord("claimed", 1, 7L + i % 2, null);
+			ticket.setNodeId("node-a");
+			released.add(ticket);
+		}
+		Map<Long, Long> vendorOf = ticketRecordRepo.saveAll(released).stream()
+				.collect(Collectors.toMap(TicketRecord::getTicketId, TicketRecord::getVendorId));
+		TicketRecord otherNode = new TicketRecord("claimed", 1, 9L, null);
+		otherNode.setNodeId("node-b");
+		ticketRecordRepo.save(otherNode);
+
+		CountDownLatch ready = new CountDownLatch(2);
+		ExecutorService claimers = Executors.newFixedThreadPool(2);
+		try {
+			List<Future<List<Long>>> claims = new ArrayList<>();
+			for (long customerId = 1; customerId <= 2; customerId++) {
+				long claimer = customerId;
+				Callable<List<Long>> claimUntilNoneLeft = () -> {
+					ready.countDown();
+					ready.await();
+					List<Long> claimed = new ArrayList<>();
+					List<Long> batch;
+					while (!(batch = ticketRecordRepo.claimTickets("claimed", 1, "node-a", claimer, 3)).isEmpty()) {
+						claimed.addAll(batch);
+					}
+					return claimed;
+				};
+				claims.add(claimers.submit(claimUntilNoneLeft));
+			}
+			List<Long> first = claims.get(0).get(30, TimeUnit.SECONDS);
+			List<Long> second = claims.get(1).get(30, TimeUnit.SECONDS);
+
+			// Every ticket of the node went to exactly one claimer
+			Set<Long> both = new HashSet<>(first);
+			both.retainAll(second);
+			assertTrue(both.isEmpty());
+			assertEquals(200, first.size() + second.size());
+			assertEquals(vendorOf.keySet(), new HashSet<>(ticketRecordRepo.findAllById(vendorOf.keySet()).stream()
+					.map(TicketRecord::getTicketId).toList()));
+
+			// The rows carry the claiming customer and still the releasing vendor
+			for (TicketRecord ticket : ticketRecordRepo.findAllById(vendorOf.keySet())) {
+				long expectedCustomer = first.contains(ticket.getTicketId()) ? 1 : 2;
+				assertEquals(expectedCustomer, ticket.getCustomerId());
+				assertEquals(vendorOf.get(ticket.getTicketId()), ticket.getVendorId());
+			}
+			assertNull(ticketRecordRepo.findById(otherNode.getTicketId()).orElseThrow().getCustomerId());
+		} finally {
+			claimers.shutdownNow();
+		}
+	}
+}
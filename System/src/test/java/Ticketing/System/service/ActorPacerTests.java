@@ -0,0 +1,28 @@
+package Ticketing.System.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActorPacerTests {
+
+	@Test
+	void pacerKeepsTheRateAndLimitsCatchUpToTheBucket() {
+		ActorPacer pacer = new ActorPacer(10, 0, RateProfile.STEADY, 1, 0, 3);
+		long interval = TimeUnit.MILLISECONDS.toNanos(10);
+		long start = System.nanoTime();
+
+		// On time: deadlines advance by exactly one interval
+		assertEquals(start + interval, pacer.nextDeadline(start, start));
+
+		// Far behind: at most three attempts are allowed back to back
+		long now = start + 100 * interval;
+		long deadline = pacer.nextDeadline(start, now);
+		assertEquals(now - 2 * interval, deadline);
+
+		ActorPacer flashSale = new ActorPacer(10, 0, RateProfile.FLASH_SALE, 5, 60_000, 1);
+		assertEquals(start + interval / 5, flashSale.nextDeadline(start, start));
+	}
+}
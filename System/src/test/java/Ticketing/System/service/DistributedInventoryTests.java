@@ -0,0 +1,86 @@
+package Ticketing.System.service;
+
+import Ticketing.System.SystemApplication;
+import Ticketing.System.model.TicketRecord;
+import Ticketing.System.repo.TicketRecordRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"ticketing.inventory.mode=DISTRIBUTED", "ticketing.inventory.node-id=node-a",
+		"ticketing.inventory.lease-size=20"})
+@ActiveProfiles("test")
+class DistributedInventoryTests {
+
+	@Autowired
+	private SimulationRegistry simulationRegistry;
+
+	@Autowired
+	private TicketRecordRepo ticketRecordRepo;
+
+	@Test
+	void twoNodesSellOneEventWithoutOverselling() throws InterruptedException {
+		// A second instance of the application, sharing the in-memory database with this one.
+		// Settings are passed as arguments; default properties would lose to application.properties
+		try (ConfigurableApplicationContext nodeB = new SpringApplicationBuilder(SystemApplication.class)
+				.web(WebApplicationType.NONE)
+				.profiles("test")
+				.run("--ticketing.inventory.mode=DISTRIBUTED", "--ticketing.inventory.node-id=node-b",
+						"--ticketing.inventory.lease-size=20", "--spring.jpa.hibernate.ddl-auto=none")) {
+			TicketService onNodeA = configure(simulationRegistry, "shared-event");
+			TicketService onNodeB = configure(nodeB.getBean(SimulationRegistry.class), "shared-event");
+
+			simulationRegistry.start("shared-event");
+			nodeB.getBean(SimulationRegistry.class).start("shared-event");
+
+			// Node B leaves early and gives back the tickets it has not released
+			long deadline = System.currentTimeMillis() + 20_000;
+			while (onNodeB.getIssuedTickets() < 20 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(5);
+			}
+			onNodeB.stopSimulation();
+			while (!onNodeA.isSimulationFinished() && System.currentTimeMillis() < deadline) {
+				Thread.sleep(20);
+			}
+
+			assertTrue(onNodeA.isSimulationFinished());
+			assertEquals(300, onNodeA.getIssuedTickets() + onNodeB.getIssuedTickets());
+			assertEquals(onNodeA.getIssuedTickets(), onNodeA.getClaimedTickets());
+
+			List<TicketRecord> tickets = ticketRecordRepo.findAll().stream()
+					.filter(ticket -> "shared-event".equals(ticket.getSimulationId()))
+					.toList();
+			assertEquals(300, tickets.size());
+			assertEquals(onNodeA.getIssuedTickets(),
+					tickets.stream().filter(ticket -> "node-a".equals(ticket.getNodeId())).count());
+			assertEquals(onNodeA.getClaimedTickets() + onNodeB.getClaimedTickets(),
+					tickets.stream().filter(ticket -> ticket.getCustomerId() != null).count());
+		}
+	}
+
+	@Test
+	void nodesMustSplitASharedEventAlike() {
+		TicketService simulation = configure(simulationRegistry, "resized-event");
+		simulationRegistry.start("resized-event");
+		simulation.stopSimulation();
+
+		simulation.setSimulationConfig(20, 5, 500);
+		assertThrows(IllegalStateException.class, () -> simulationRegistry.start("resized-event"));
+	}
+
+	private static TicketService configure(SimulationRegistry registry, String simulationId) {
+		TicketService simulation = registry.getOrCreate(simulationId);
+		simulation.setVendorTotal(2);
+		simulation.setCustomerTotal(4);
+		simulation.setSimulationConfig(20, 5, 300);
+		return simulation;
+	}
+}
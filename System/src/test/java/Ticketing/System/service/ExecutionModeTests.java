@@ -0,0 +1,53 @@
+package Ticketing.System.service;
+
+import Ticketing.System.config.TicketingProperties;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ExecutionModeTests {
+
+	@Autowired
+	private SimulationRegistry simulationRegistry;
+
+	@Autowired
+	private TicketingProperties properties;
+
+	@ParameterizedTest
+	@EnumSource(ExecutionMode.class)
+	void everyExecutionModeSellsOut(ExecutionMode configured) throws InterruptedException {
+		ExecutionMode mode = SimulationRegistry.resolveExecutionMode(configured);
+		if (configured == ExecutionMode.VIRTUAL && !ThreadPerActorExecutor.isVirtualThreadSupported()) {
+			assertEquals(ExecutionMode.SCHEDULED, mode); // Older JVMs fall back instead of failing every start
+		} else {
+			assertEquals(configured, mode);
+		}
+
+		ExecutionMode previous = properties.getSimulation().getExecutionMode();
+		properties.getSimulation().setExecutionMode(mode);
+		try {
+			String id = "mode-" + configured.name().toLowerCase();
+			TicketService simulation = simulationRegistry.getOrCreate(id);
+			simulation.setVendorTotal(2);
+			simulation.setCustomerTotal(4);
+			simulation.setSimulationConfig(2, 3, 101);
+			simulationRegistry.start(id);
+			long deadline = System.currentTimeMillis() + 20_000;
+			while (!simulation.isSimulationFinished() && System.currentTimeMillis() < deadline) {
+				Thread.sleep(20);
+			}
+
+			assertTrue(simulation.isSimulationFinished());
+			assertEquals(101, simulation.getClaimedTickets());
+			assertEquals(0, simulation.getRemainingTickets());
+		} finally {
+			properties.getSimulation().setExecutionMode(previous);
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package Ticketing.System.service;
+
+import Ticketing.System.config.TicketingProperties;
+import Ticketing.System.dto.HeadlessSimulationDTO;
+import Ticketing.System.dto.HeadlessSimulationReport;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeadlessSimulationTests {
+
+	private final HeadlessSimulationService headlessSimulationService = new HeadlessSimulationService(new TicketingProperties());
+
+	@Test
+	void runFollowsTheBatchRulesOnTheVirtualClock() {
+		HeadlessSimulationReport report = headlessSimulationService.run(config(2, 3, 1000, 500, 203));
+
+		// Vendors add 10 tickets per second; the 203rd is released and retrieved at 21 s
+		assertTrue(report.isSoldOut());
+		assertEquals(203, report.getTicketsSold());
+		assertEquals(21_000, report.getSellOutTimeMillis());
+		assertEquals(203.0 / 3, report.getCustomerFairness().getMeanTickets(), 1e-9);
+		assertEquals(0, report.getPoolDepthTimeline().get(report.getPoolDepthTimeline().size() - 1).getPoolDepth());
+		assertEquals(0.0, report.getTicketWait().getMaxMillis());
+	}
+
+	@Test
+	void millionTicketSaleRunsWithoutWaitingForTheClock() {
+		HeadlessSimulationDTO config = config(200, 5_000, 100, 50, 1_000_000);
+		config.setRateProfile(RateProfile.FLASH_SALE);
+		config.setJitterPercent(20);
+		HeadlessSimulationReport report = headlessSimulationService.run(config);
+
+		assertTrue(report.isSoldOut());
+		assertEquals(1_000_000, report.getTicketsSold());
+		assertTrue(report.getSellOutTimeMillis() >= 100_000); // 200 vendors release at most 10,000 tickets a second
+		assertTrue(report.getPoolDepthTimeline().size() <= 201);
+		assertTrue(report.getCustomerFairness().getJainIndex() > 0.5);
+		assertNotNull(report.getTicketWait());
+	}
+
+	@Test
+	void runWithoutVendorsEndsWithoutSellingOut() {
+		HeadlessSimulationReport report = headlessSimulationService.run(config(0, 3, 1000, 500, 50));
+
+		assertFalse(report.isSoldOut());
+		assertEquals(-1, report.getSellOutTimeMillis());
+		assertEquals(0, report.getCustomerFairness().getCustomersServed());
+	}
+
+	private static HeadlessSimulationDTO config(int vendors, int customers, int releaseRate, int retrievalRate, int tickets) {
+		HeadlessSimulationDTO config = new HeadlessSimulationDTO();
+		config.setVendorTotal(vendors);
+		config.setCustomerTotal(customers);
+		config.setTicketReleaseRate(releaseRate);
+		config.setTicketRetrievalRate(retrievalRate);
+		config.setMaxTicketCapacity(tickets);
+		config.setRecordTickets(true);
+		return config;
+	}
+}
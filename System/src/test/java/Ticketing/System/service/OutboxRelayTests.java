@@ -0,0 +1,79 @@
+package Ticketing.System.service;
+
+import Ticketing.System.config.TicketingProperties;
+import Ticketing.System.model.TicketRecord;
+import Ticketing.System.repo.OutboxEventRepo;
+import Ticketing.System.repo.TicketRecordRepo;
+import Ticketing.System.util.TransactionLogCheckpoint;
+import Ticketing.System.util.TransactionLogReplay;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "ticketing.outbox.enabled=true")
+@ActiveProfiles("test")
+class OutboxRelayTests {
+
+	@Autowired
+	private SimulationRegistry simulationRegistry;
+
+	@Autowired
+	private OutboxRelay outboxRelay;
+
+	@Autowired
+	private OutboxEventRepo outboxEventRepo;
+
+	@Autowired
+	private TicketRecordRepo ticketRecordRepo;
+
+	@Autowired
+	private TicketingProperties properties;
+
+	@Test
+	void logAndSubscribersGetEveryPersistedEventOnceInOrder() throws Exception {
+		TicketService simulation = simulationRegistry.getOrCreate("outboxed");
+		simulation.setVendorTotal(3);
+		simulation.setCustomerTotal(5);
+		simulation.setSimulationConfig(2, 3, 400);
+		List<Long> sequences = new CopyOnWriteArrayList<>();
+		OutboxRelay.Listener subscriber = event -> sequences.add(event.getSequence());
+		outboxRelay.subscribe("outboxed", subscriber);
+		try {
+			simulationRegistry.start("outboxed");
+			long deadline = System.currentTimeMillis() + 30_000;
+			while (!simulation.isSimulationFinished() && System.currentTimeMillis() < deadline) {
+				Thread.sleep(20);
+			}
+		} finally {
+			outboxRelay.unsubscribe("outboxed", subscriber);
+		}
+		assertTrue(simulation.isSimulationFinished());
+
+		// Everything was relayed before the log was closed
+		String nodeId = properties.getInventory().getNodeId();
+		assertEquals(0, outboxEventRepo.countBySimulationIdAndNodeId("outboxed", nodeId));
+		TransactionLogCheckpoint logged = TransactionLogReplay.replay(
+				Paths.get(properties.getLog().getDirectory()).resolve("outboxed"), TransactionLogCheckpoint.empty(1),
+				null, false);
+		assertEquals(400, logged.getAdded(1));
+		assertEquals(400, logged.getRetrieved(1));
+		List<TicketRecord> tickets = ticketRecordRepo.findAll().stream()
+				.filter(ticket -> "outboxed".equals(ticket.getSimulationId()))
+				.toList();
+		assertEquals(400, tickets.size());
+		assertTrue(tickets.stream().allMatch(ticket -> ticket.getCustomerId() != null));
+
+		// The subscriber saw the log's events, numbered without gaps or repeats
+		assertEquals(logged.getLastSequence(), sequences.size());
+		for (int i = 0; i < sequences.size(); i++) {
+			assertEquals(i + 1, sequences.get(i));
+		}
+	}
+}
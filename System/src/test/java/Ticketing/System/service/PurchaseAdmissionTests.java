@@ -0,0 +1,67 @@
+package Ticketing.System.service;
+
+import Ticketing.System.config.TicketingProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PurchaseAdmissionTests {
+
+	@Test
+	void limitShrinksWhenPurchasesRunLateAndGrowsBackWhenTheyDoNot() {
+		PurchaseAdmission admission = new PurchaseAdmission(settings(10, 2, 20, 0, 0));
+		for (int i = 0; i < 10; i++) {
+			assertTrue(admission.tryAdmit());
+		}
+		assertFalse(admission.tryAdmit()); // No waiting room, so the eleventh is shed
+
+		admission.release(TimeUnit.MILLISECONDS.toNanos(50));
+		assertEquals(9, admission.getLimit());
+		assertEquals(9, admission.getInFlight());
+		assertFalse(admission.tryAdmit());
+
+		for (int i = 0; i < 9; i++) {
+			admission.release(0);
+		}
+		for (int i = 0; i < 500; i++) {
+			assertTrue(admission.tryAdmit());
+			admission.release(0);
+		}
+		assertEquals(20, admission.getLimit());
+	}
+
+	@Test
+	void waitingPurchaseTakesTheNextFreeSlotAndTheRestAreShed() throws Exception {
+		PurchaseAdmission admission = new PurchaseAdmission(settings(1, 1, 1, 1, 10_000));
+		assertTrue(admission.tryAdmit());
+		CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(admission::tryAdmit);
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (admission.getWaiting() == 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(1);
+		}
+		assertEquals(1, admission.getWaiting());
+
+		// The waiting room is full
+		assertFalse(admission.tryAdmit());
+		assertTrue(admission.retryAfterMillis() >= 1);
+
+		admission.release(0);
+		assertTrue(waiter.get(5, TimeUnit.SECONDS));
+		assertEquals(1, admission.getInFlight());
+	}
+
+	private static TicketingProperties.Admission settings(int initialLimit, int minLimit, int maxLimit,
+														  int waitingRoomSize, long maxWaitMillis) {
+		TicketingProperties.Admission settings = new TicketingProperties.Admission();
+		settings.setInitialLimit(initialLimit);
+		settings.setMinLimit(minLimit);
+		settings.setMaxLimit(maxLimit);
+		settings.setTargetLatencyMillis(20);
+		settings.setWaitingRoomSize(waitingRoomSize);
+		settings.setMaxWaitMillis(maxWaitMillis);
+		return settings;
+	}
+}
@@ -0,0 +1,123 @@
+package Ticketing.System.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueuedTicketAllocatorTests {
+
+	@Test
+	void parkedCustomersAreServedInArrivalOrderOneWakeupEach() throws InterruptedException {
+		QueuedTicketAllocator allocator = new QueuedTicketAllocator(AllocationPolicy.FIFO, 5, 0, List.of());
+		List<Integer> served = new CopyOnWriteArrayList<>();
+		Thread[] customers = new Thread[5];
+		for (int i = 0; i < customers.length; i++) {
+			int customerID = i + 1;
+			customers[i] = new Thread(() -> {
+				try {
+					allocator.acquire(customerID, 1);
+					served.add(customerID);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+			customers[i].start();
+			awaitParked(customers[i]); // Join the queue one after another
+		}
+
+		for (int i = 0; i < customers.length; i++) {
+			allocator.release(1);
+			customers[i].join(5_000);
+		}
+		assertEquals(List.of(1, 2, 3, 4, 5), served);
+		assertEquals(1.0, (double) allocator.getWaitStats().summary().get("jainIndex"), 1e-9);
+	}
+
+	@Test
+	void scheduledCustomersKeepTheirPlaceAndCollectTheirGrant() {
+		QueuedTicketAllocator allocator = new QueuedTicketAllocator(AllocationPolicy.FIFO, 3, 0, List.of());
+		assertEquals(0, allocator.poll(2, 4)); // Pool empty: customer 2 queues first
+		assertEquals(0, allocator.poll(1, 4));
+
+		allocator.release(5);
+		assertEquals(0, allocator.poll(3, 4)); // Everything already went to the queue
+		assertEquals(4, allocator.poll(2, 4));
+		assertEquals(1, allocator.poll(1, 4));
+	}
+
+	@Test
+	void oneShotAttemptsNeverQueueAndCollectedGrantsKeepToTheCurrentAsk() {
+		QueuedTicketAllocator allocator = new QueuedTicketAllocator(AllocationPolicy.FIFO, 3, 0, List.of());
+		assertEquals(0, allocator.tryAcquire(1, 4)); // Pool empty: nothing is reserved
+		allocator.release(2);
+		assertEquals(2, allocator.tryAcquire(1, 4));
+
+		assertEquals(0, allocator.poll(2, 4));
+		allocator.release(4);
+		assertEquals(1, allocator.poll(2, 1)); // Queued for 4, asks for 1 now
+		assertEquals(3, allocator.tryAcquire(3, 4)); // The rest went back to the pool
+	}
+
+	@Test
+	void purchasesWhileACustomerIsParkedLeaveNoReservationBehind() throws InterruptedException {
+		for (AllocationPolicy policy : new AllocationPolicy[]{AllocationPolicy.FIFO, AllocationPolicy.TIERED}) {
+			QueuedTicketAllocator allocator = new QueuedTicketAllocator(policy, 3, 4, List.of(1, 1));
+			Thread parked = new Thread(() -> {
+				try {
+					allocator.acquire(1, 4);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+			parked.start();
+			awaitParked(parked);
+
+			assertEquals(0, allocator.tryAcquire(2, 4)); // A purchase finds the pool empty and walks away
+			allocator.release(2);
+			parked.join(5_000);
+			assertFalse(parked.isAlive()); // The parked customer got the release, not the purchase
+
+			allocator.release(3);
+			assertEquals(1, allocator.tryAcquire(2, 1)); // Exactly what this purchase asks for
+			assertEquals(2, allocator.tryAcquire(3, 4)); // And nothing was stranded in a forgotten place
+		}
+	}
+
+	@Test
+	void weightedTiersAndPurchaseCapsShapeTheAllocation() {
+		QueuedTicketAllocator allocator = new QueuedTicketAllocator(AllocationPolicy.TIERED, 200, 3, List.of(3, 1));
+		for (int customerID = 1; customerID <= 200; customerID++) {
+			allocator.poll(customerID, 1); // Odd IDs wait in tier 0, even IDs in tier 1
+		}
+		allocator.release(80);
+
+		int tierZero = 0;
+		int tierOne = 0;
+		for (int customerID = 1; customerID <= 200; customerID++) {
+			int granted = allocator.poll(customerID, 1);
+			if (customerID % 2 == 1) {
+				tierZero += granted;
+			} else {
+				tierOne += granted;
+			}
+		}
+		assertEquals(60, tierZero);
+		assertEquals(20, tierOne);
+
+		QueuedTicketAllocator capped = new QueuedTicketAllocator(AllocationPolicy.FIFO, 1, 3, List.of());
+		capped.release(10);
+		assertEquals(3, capped.tryAcquire(1, 4));
+		assertEquals(0, capped.tryAcquire(1, 4));
+	}
+
+	private static void awaitParked(Thread thread) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (thread.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+			Thread.sleep(1);
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package Ticketing.System.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferTicketPoolTests {
+
+	@Test
+	void offerAndPollAreFifoAndBounded() {
+		RingBufferTicketPool pool = new RingBufferTicketPool(3);
+
+		assertEquals(4, pool.capacity());
+		for (long id = 1; id <= 4; id++) {
+			assertTrue(pool.offer(id));
+		}
+		assertFalse(pool.offer(5));
+		assertEquals(4, pool.size());
+
+		assertEquals(1, pool.poll());
+		assertEquals(2, pool.poll());
+		assertTrue(pool.offer(5));
+		assertEquals(3, pool.poll());
+		assertEquals(4, pool.poll());
+		assertEquals(5, pool.poll());
+		assertEquals(TicketPool.EMPTY, pool.poll());
+	}
+
+	@Test
+	void concurrentProducersAndConsumersSeeEveryTicketOnce() throws InterruptedException {
+		int producers = 4;
+		int ticketsPerProducer = 50_000;
+		RingBufferTicketPool pool = new RingBufferTicketPool(1024);
+		ConcurrentHashMap<Long, Boolean> seen = new ConcurrentHashMap<>();
+		AtomicInteger taken = new AtomicInteger();
+		CountDownLatch done = new CountDownLatch(producers * 2);
+		ExecutorService executor = Executors.newFixedThreadPool(producers * 2);
+
+		for (int p = 0; p < producers; p++) {
+			long base = (long) p * ticketsPerProducer;
+			executor.execute(() -> {
+				for (long id = base; id < base + ticketsPerProducer; id++) {
+					while (!pool.offer(id)) {
+						Thread.onSpinWait();
+					}
+				}
+				done.countDown();
+			});
+			executor.execute(() -> {
+				while (taken.get() < producers * ticketsPerProducer) {
+					long id = pool.poll();
+					if (id != TicketPool.EMPTY) {
+						assertNull(seen.put(id, Boolean.TRUE));
+						taken.incrementAndGet();
+					}
+				}
+				done.countDown();
+			});
+		}
+
+		assertTrue(done.await(30, TimeUnit.SECONDS));
+		executor.shutdownNow();
+		assertEquals(producers * ticketsPerProducer, seen.size());
+		assertEquals(0, pool.size());
+	}
+}
@@ -0,0 +1,165 @@
+package Ticketing.System.service;
+
+import Ticketing.System.config.TicketingProperties;
+import Ticketing.System.model.OutboxEvent;
+import Ticketing.System.model.TicketRecord;
+import Ticketing.System.repo.OutboxEventRepo;
+import Ticketing.System.repo.TicketRecordRepo;
+import Ticketing.System.util.TransactionLogCheckpoint;
+import Ticketing.System.util.TransactionLogWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"ticketing.recovery.enabled=true", "ticketing.recovery.resume=true",
+		"ticketing.log.directory=target/recovery-logs"})
+@ActiveProfiles("test")
+class RunRecoveryTests {
+
+	private static final Path LOGS = Paths.get("target/recovery-logs");
+
+	@Autowired
+	private SimulationRegistry simulationRegistry;
+
+	@Autowired
+	private TicketRecordRepo ticketRecordRepo;
+
+	@Autowired
+	private OutboxEventRepo outboxEventRepo;
+
+	@Autowired
+	private TicketingProperties properties;
+
+	@AfterEach
+	void deleteLogs() throws IOException {
+		FileSystemUtils.deleteRecursively(LOGS);
+	}
+
+	@Test
+	void soldOutRunIsFinalizedWithTheTicketsTheDatabaseMissed() throws IOException {
+		// The node crashed after logging the whole run, but only wrote the first tickets
+		Path directory = crashedRun("crashed", 40, 40, 40);
+		List<TicketRecord> persisted = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			TicketRecord ticket = new TicketRecord("crashed", 1, (long) (i % 2 + 1), i < 5 ? (long) (i % 2 + 1) : null);
+			ticket.setNodeId("crashed-node");
+			persisted.add(ticket);
+		}
+		ticketRecordRepo.saveAll(persisted);
+
+		simulationRegistry.recoverInterruptedRuns();
+
+		TicketService simulation = simulationRegistry.getOrCreate("crashed");
+		assertTrue(simulation.isSimulationFinished());
+		assertEquals(40, simulation.getIssuedTickets());
+		assertEquals(40, simulation.getClaimedTickets());
+		assertTrue(TransactionLogCheckpoint.read(directory).isFinished());
+		List<TicketRecord> tickets = ticketsOf("crashed");
+		assertEquals(40, tickets.size());
+		String nodeId = properties.getInventory().getNodeId();
+		assertTrue(tickets.stream().allMatch(ticket -> ticket.getCustomerId() != null && nodeId.equals(ticket.getNodeId())));
+
+		// A finalized run is not recovered twice
+		simulationRegistry.recoverInterruptedRuns();
+		assertEquals(40, ticketsOf("crashed").size());
+	}
+
+	@Test
+	void unfinishedRunResumesWhereTheLogEnds() throws IOException, InterruptedException {
+		crashedRun("resumed", 60, 20, 10);
+
+		simulationRegistry.recoverInterruptedRuns();
+
+		TicketService simulation = simulationRegistry.getOrCreate("resumed");
+		assertTrue(simulation.isSimulationRunning());
+		long deadline = System.currentTimeMillis() + 30_000;
+		while (!simulation.isSimulationFinished() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		assertTrue(simulation.isSimulationFinished());
+		assertEquals(60, simulation.getIssuedTickets());
+		assertEquals(60, simulation.getClaimedTickets());
+		List<TicketRecord> tickets = ticketsOf("resumed");
+		assertEquals(60, tickets.size());
+		assertTrue(tickets.stream().allMatch(ticket -> ticket.getCustomerId() != null));
+	}
+
+	@Test
+	void eventsCommittedButNotRelayedReachTheLogBeforeTheRunResumes() throws IOException, InterruptedException {
+		// The database committed seven events after the log's last: five releases and two claims
+		crashedRun("relayed", 25, 20, 10);
+		List<TicketRecord> persisted = new ArrayList<>();
+		List<OutboxEvent> outbox = new ArrayList<>();
+		for (int i = 0; i < 25; i++) {
+			TicketRecord ticket = new TicketRecord("relayed", 1, (long) (i % 2 + 1), i < 12 ? (long) (i % 2 + 1) : null);
+			ticket.setNodeId("crashed-node");
+			persisted.add(ticket);
+		}
+		for (int sequence = 31; sequence <= 37; sequence++) {
+			boolean isRelease = sequence <= 35;
+			outbox.add(new OutboxEvent("relayed", "crashed-node", sequence, isRelease ? "ADD" : "RETRIEVE",
+					isRelease ? "Vendor" : "Customer", 1, 1, 1, 0));
+		}
+		ticketRecordRepo.saveAll(persisted);
+		outboxEventRepo.saveAll(outbox);
+
+		simulationRegistry.recoverInterruptedRuns();
+
+		assertEquals(0, outboxEventRepo.countBySimulationIdAndNodeId("relayed", "crashed-node"));
+		TicketService simulation = simulationRegistry.getOrCreate("relayed");
+		assertEquals(25, simulation.getIssuedTickets());
+		long deadline = System.currentTimeMillis() + 30_000;
+		while (!simulation.isSimulationFinished() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		assertTrue(simulation.isSimulationFinished());
+		assertEquals(25, simulation.getClaimedTickets());
+		List<TicketRecord> tickets = ticketsOf("relayed");
+		assertEquals(25, tickets.size());
+		assertTrue(tickets.stream().allMatch(ticket -> ticket.getCustomerId() != null));
+	}
+
+	/**
+	 * Leaves the log of a run that was killed: a manifest, one ticket per event, no checkpoint
+	 * and half an event at the end.
+	 */
+	private static Path crashedRun(String simulationId, int capacity, int added, int retrieved) throws IOException {
+		Path directory = LOGS.resolve(simulationId);
+		new RunManifest(simulationId, "crashed-node", 2, 4, 20, 5, capacity, 1, false, InventoryMode.LOCAL)
+				.write(directory);
+		TransactionLogWriter writer = new TransactionLogWriter(directory, 1024, 4096,
+				TransactionLogWriter.FsyncPolicy.NEVER, 1000);
+		for (int i = 0; i < added; i++) {
+			writer.append("ADD", "Vendor", i % 2 + 1, 1, 1, i + 1);
+			if (i < retrieved) {
+				writer.append("RETRIEVE", "Customer", i % 2 + 1, 1, 1, i);
+			}
+		}
+		writer.close();
+		Files.delete(directory.resolve(TransactionLogCheckpoint.FILE_NAME));
+		List<Path> segments = TransactionLogWriter.listSegments(directory);
+		Files.writeString(segments.get(segments.size() - 1), "{\"seq\":", StandardCharsets.US_ASCII,
+				StandardOpenOption.APPEND);
+		return directory;
+	}
+
+	private List<TicketRecord> ticketsOf(String simulationId) {
+		return ticketRecordRepo.findAll().stream()
+				.filter(ticket -> simulationId.equals(ticket.getSimulationId()))
+				.toList();
+	}
+}
@@ -0,0 +1,52 @@
+package Ticketing.System.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SalesStatsTests {
+
+	@Test
+	void histogramMergesBucketsInsteadOfGrowingPastItsLimit() {
+		SalesStats stats = new SalesStats(2, 3, 100, 10, 4, 0, 0);
+		long start = (long) stats.summary().get("startedAt");
+		stats.sample(10, 5, start + 5);
+		stats.sample(20, 10, start + 35);
+		assertEquals(10L, stats.histogram().get("bucketMillis"));
+		assertEquals(4, buckets(stats).size());
+
+		// A sample past the fourth bucket doubles the width and keeps every ticket
+		stats.sample(30, 25, start + 45);
+		assertEquals(20L, stats.histogram().get("bucketMillis"));
+		List<Map<String, Object>> buckets = buckets(stats);
+		assertEquals(3, buckets.size());
+		assertEquals(10L, buckets.get(0).get("added"));
+		assertEquals(10L, buckets.get(1).get("added"));
+		assertEquals(15L, buckets.get(2).get("retrieved"));
+		assertEquals(25.0, buckets.get(2).get("sellThroughPercent"));
+	}
+
+	@Test
+	void topCustomersAreRankedByTicketsThenId() {
+		SalesStats stats = new SalesStats(1, 5, 100, 1000, 10, 0, 0);
+		stats.recordPurchase(1, 2);
+		stats.recordPurchase(2, 7);
+		stats.recordPurchase(3, 4);
+		stats.recordPurchase(4, 7);
+		stats.recordPurchase(6, 50); // Not a simulated customer
+		stats.recordRelease(1, 20);
+
+		List<Map<String, Object>> top = stats.topCustomers(3);
+		assertEquals(List.of(2, 4, 3), top.stream().map(customer -> customer.get("customerId")).toList());
+		assertEquals(7, top.get(0).get("tickets"));
+		assertEquals(20, stats.getVendorTickets(1));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Map<String, Object>> buckets(SalesStats stats) {
+		return (List<Map<String, Object>>) stats.histogram().get("buckets");
+	}
+}
@@ -0,0 +1,41 @@
+package Ticketing.System.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"ticketing.simulation.max-simulations=3", "ticketing.simulation.idle-ttl-millis=500"})
+@ActiveProfiles("test")
+class SimulationRegistryTests {
+
+	@Autowired
+	private SimulationRegistry simulationRegistry;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void simulationsThatNeverRanAreCappedAndEvictedOnceIdle() throws InterruptedException {
+		// The default simulation is kept from the start and counts towards the limit
+		assertNotNull(simulationRegistry.get(SimulationRegistry.DEFAULT_SIMULATION_ID));
+		assertThrows(SimulationNotFoundException.class, () -> simulationRegistry.get("unknown"));
+
+		simulationRegistry.getOrCreate("idle-a");
+		simulationRegistry.getOrCreate("idle-b");
+		assertThrows(SimulationLimitException.class, () -> simulationRegistry.getOrCreate("idle-c"));
+		assertNotNull(meterRegistry.find("ticketing.pool.depth").tag("simulation", "idle-a").gauge());
+
+		Thread.sleep(600);
+		simulationRegistry.getOrCreate("idle-b").setVendorTotal(1); // Configuring keeps a simulation
+		Thread.sleep(100);
+		simulationRegistry.getOrCreate("idle-c");
+		assertThrows(SimulationNotFoundException.class, () -> simulationRegistry.get("idle-a"));
+		assertNull(meterRegistry.find("ticketing.pool.depth").tag("simulation", "idle-a").gauge());
+		assertNotNull(simulationRegistry.get("idle-b"));
+		assertNotNull(simulationRegistry.get(SimulationRegistry.DEFAULT_SIMULATION_ID));
+	}
+}
@@ -0,0 +1,92 @@
+package Ticketing.System.service;
+
+import Ticketing.System.repo.TicketRecordRepo;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"ticketing.holds.checkout-enabled=true", "ticketing.holds.abandon-percent=50",
+		"ticketing.holds.ttl-millis=50", "ticketing.holds.timer-tick-millis=5"})
+@ActiveProfiles("test")
+class TicketHoldTests {
+
+	@Autowired
+	private SimulationRegistry simulationRegistry;
+
+	@Autowired
+	private TicketRecordRepo ticketRecordRepo;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void heldTicketsGoBackToThePoolUnlessConfirmed() throws InterruptedException {
+		// Simulated customers are too slow to act, so only the holds below take tickets
+		TicketService simulation = simulationRegistry.getOrCreate("holds");
+		simulation.setVendorTotal(1);
+		simulation.setCustomerTotal(2);
+		simulation.setSimulationConfig(1, 600_000, 10);
+		simulationRegistry.start("holds");
+		long deadline = System.currentTimeMillis() + 20_000;
+		while (simulation.getRemainingTickets() < 10 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+
+		TicketHold expiring = simulation.holdTickets(1, 4, 200);
+		assertEquals(4, expiring.getTicketCount());
+		assertEquals(6, simulation.getRemainingTickets());
+		while (simulation.getRemainingTickets() < 10 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		assertEquals(TicketHold.State.EXPIRED, expiring.getState());
+		assertNull(simulation.confirmHold(expiring.getHoldId()));
+
+		TicketHold released = simulation.holdTickets(2, 3, 0);
+		assertSame(released, simulation.releaseHold(released.getHoldId()));
+		assertEquals(10, simulation.getRemainingTickets());
+		assertNull(simulation.releaseHold(released.getHoldId()));
+
+		TicketHold confirmed = simulation.holdTickets(1, 4, 60_000);
+		assertSame(confirmed, simulation.confirmHold(confirmed.getHoldId()));
+		assertEquals(TicketHold.State.CONFIRMED, confirmed.getState());
+		assertEquals(4, simulation.getClaimedTickets());
+		assertEquals(6, simulation.getRemainingTickets());
+
+		// A hold outstanding when the run stops is released
+		TicketHold outstanding = simulation.holdTickets(2, 2, 60_000);
+		simulation.stopSimulation();
+		assertEquals(TicketHold.State.RELEASED, outstanding.getState());
+		assertEquals(0, simulation.getOutstandingHolds());
+		assertEquals(6, simulation.getRemainingTickets());
+		assertEquals(4, ticketRecordRepo.findAll().stream()
+				.filter(ticket -> "holds".equals(ticket.getSimulationId()) && ticket.getCustomerId() != null).count());
+		assertEquals(1, meterRegistry.get("ticketing.holds").tag("simulation", "holds").tag("outcome", "expired")
+				.counter().count());
+	}
+
+	@Test
+	void abandonedCheckoutsExpireAndTheEventStillSellsOut() throws InterruptedException {
+		TicketService simulation = simulationRegistry.getOrCreate("checkouts");
+		simulation.setVendorTotal(2);
+		simulation.setCustomerTotal(4);
+		simulation.setSimulationConfig(2, 3, 101);
+
+		simulationRegistry.start("checkouts");
+		long deadline = System.currentTimeMillis() + 30_000;
+		while (!simulation.isSimulationFinished() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+
+		assertTrue(simulation.isSimulationFinished());
+		assertEquals(101, simulation.getClaimedTickets());
+		assertEquals(0, simulation.getOutstandingHolds());
+		assertEquals(101, ticketRecordRepo.findAll().stream()
+				.filter(ticket -> "checkouts".equals(ticket.getSimulationId()) && ticket.getCustomerId() != null).count());
+		assertTrue(meterRegistry.get("ticketing.holds").tag("simulation", "checkouts").tag("outcome", "expired")
+				.counter().count() > 0);
+	}
+}
@@ -0,0 +1,113 @@
+package Ticketing.System.service;
+
+import Ticketing.System.config.TicketingProperties;
+import Ticketing.System.model.TicketRecord;
+import Ticketing.System.repo.TicketRecordRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"ticketing.ledger.enabled=true", "ticketing.ledger.snapshot-interval-millis=20"})
+@ActiveProfiles("test")
+class TicketLedgerTests {
+
+	@Autowired
+	private SimulationRegistry simulationRegistry;
+
+	@Autowired
+	private TicketRecordRepo ticketRecordRepo;
+
+	@Autowired
+	private TicketingProperties properties;
+
+	@Test
+	void ledgerModeWritesTheRunToTheDatabaseInBulkWhenItStops() throws InterruptedException {
+		TicketService simulation = simulationRegistry.getOrCreate("ledger-run");
+		simulation.setVendorTotal(2);
+		simulation.setCustomerTotal(3);
+		simulation.setSimulationConfig(2, 3, 150);
+
+		simulationRegistry.start("ledger-run");
+		long deadline = System.currentTimeMillis() + 20_000;
+		while (!simulation.isSimulationFinished() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+
+		List<TicketRecord> tickets = ticketsOf("ledger-run");
+		assertEquals(150, tickets.size());
+		assertTrue(tickets.stream().allMatch(ticket -> ticket.getVendorId() != null && ticket.getCustomerId() != null));
+		assertFalse(Files.exists(TicketService.ledgerSnapshotPath(properties.getLedger(), "ledger-run")));
+	}
+
+	@Test
+	void snapshotLeftByACrashIsWrittenToTheDatabaseOnStartup() throws IOException {
+		TicketLedger ledger = new TicketLedger(20);
+		for (long ticketId = 1; ticketId <= 10; ticketId++) {
+			ledger.release(ticketId, 7);
+		}
+		for (long ticketId = 1; ticketId <= 4; ticketId++) {
+			ledger.claim(ticketId, 3);
+		}
+		Path snapshot = TicketService.ledgerSnapshotPath(properties.getLedger(), "crashed");
+		ledger.writeSnapshot(snapshot, 10);
+
+		simulationRegistry.restoreLedgers();
+
+		List<TicketRecord> tickets = ticketsOf("crashed");
+		assertEquals(10, tickets.size());
+		assertEquals(4, tickets.stream().filter(ticket -> Long.valueOf(3).equals(ticket.getCustomerId())).count());
+		assertFalse(Files.exists(snapshot));
+	}
+
+	@Test
+	void restoredTicketsKeepTheirSection() throws IOException {
+		TicketLedger ledger = new TicketLedger(12, 3);
+		for (long ticketId = 1; ticketId <= 9; ticketId++) {
+			ledger.release(ticketId, 1);
+		}
+		Path snapshot = TicketService.ledgerSnapshotPath(properties.getLedger(), "crashed-sections");
+		ledger.writeSnapshot(snapshot, 9);
+
+		simulationRegistry.restoreLedgers();
+
+		List<TicketRecord> tickets = ticketsOf("crashed-sections");
+		assertEquals(9, tickets.size());
+		for (int section = 1; section <= 3; section++) {
+			assertEquals(3, ticketRecordRepo.countBySimulationIdAndSectionAndCustomerIdIsNullAndVendorIdIsNotNull(
+					"crashed-sections", section));
+		}
+	}
+
+	@Test
+	void corruptSnapshotIsRejected() throws IOException {
+		TicketLedger ledger = new TicketLedger(8);
+		ledger.release(1, 1);
+		ledger.claim(1, 2);
+		Path snapshot = Paths.get("target", "ledger-tests", "corrupt.snapshot");
+		ledger.writeSnapshot(snapshot, 1);
+
+		TicketLedger restored = TicketLedger.readSnapshot(snapshot);
+		assertEquals(1, restored.getVendorId(1));
+		assertEquals(2, restored.getCustomerId(1));
+
+		byte[] bytes = Files.readAllBytes(snapshot);
+		bytes[17] ^= 1;
+		Files.write(snapshot, bytes);
+		assertThrows(IOException.class, () -> TicketLedger.readSnapshot(snapshot));
+	}
+
+	private List<TicketRecord> ticketsOf(String simulationId) {
+		return ticketRecordRepo.findAll().stream()
+				.filter(ticket -> simulationId.equals(ticket.getSimulationId()))
+				.toList();
+	}
+}
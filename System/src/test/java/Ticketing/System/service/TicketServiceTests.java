@@ -0,0 +1,115 @@
+package Ticketing.System.service;
+
+import Ticketing.System.repo.TicketRecordRepo;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TicketServiceTests {
+
+	@Autowired
+	private SimulationRegistry simulationRegistry;
+
+	@Autowired
+	private TicketRecordRepo ticketRecordRepo;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void simulationSellsExactlyMaxCapacityAndStops() throws InterruptedException {
+		ticketRecordRepo.deleteAll();
+		TicketService ticketService = simulationRegistry.getOrCreate("sell-out");
+		ticketService.setVendorTotal(3);
+		ticketService.setCustomerTotal(5);
+		ticketService.setSimulationConfig(2, 3, 203);
+
+		simulationRegistry.start("sell-out");
+		long deadline = System.currentTimeMillis() + 20_000;
+		while (ticketService.isSimulationRunning() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		ticketService.stopSimulation();
+
+		assertFalse(ticketService.isSimulationRunning());
+		assertEquals(0, ticketService.getRemainingTickets());
+		assertEquals(203, ticketRecordRepo.count());
+		assertTrue(ticketRecordRepo.findAll().stream().allMatch(ticket -> ticket.getCustomerId() != null));
+		assertEquals(203, meterRegistry.get("ticketing.tickets.added").tag("simulation", "sell-out").counter().count());
+		assertEquals(203, meterRegistry.get("ticketing.tickets.retrieved").tag("simulation", "sell-out").counter().count());
+		assertEquals(203, meterRegistry.get("ticketing.ticket.wait").tag("simulation", "sell-out").timer().count());
+	}
+
+	@Test
+	void simulationsRunSideBySideWithoutSharingTickets() throws InterruptedException {
+		ticketRecordRepo.deleteAll();
+		for (String id : new String[]{"event-a", "event-b"}) {
+			TicketService simulation = simulationRegistry.getOrCreate(id);
+			simulation.setVendorTotal(2);
+			simulation.setCustomerTotal(3);
+			simulation.setSimulationConfig(2, 3, 101);
+			simulationRegistry.start(id);
+		}
+
+		long deadline = System.currentTimeMillis() + 20_000;
+		while (simulationRegistry.getSimulations().stream().anyMatch(TicketService::isSimulationRunning)
+				&& System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		simulationRegistry.get("event-a").stopSimulation();
+		simulationRegistry.get("event-b").stopSimulation();
+
+		assertEquals(202, ticketRecordRepo.count());
+		assertEquals(101, ticketRecordRepo.findAll().stream()
+				.filter(ticket -> "event-a".equals(ticket.getSimulationId()) && ticket.getCustomerId() != null).count());
+		assertEquals(101, ticketRecordRepo.findAll().stream()
+				.filter(ticket -> "event-b".equals(ticket.getSimulationId()) && ticket.getCustomerId() != null).count());
+	}
+
+	@Test
+	void sectionsSellOutIndependentlyFromTheirOwnPools() throws InterruptedException {
+		TicketService simulation = simulationRegistry.getOrCreate("sectioned");
+		simulation.setVendorTotal(3);
+		simulation.setCustomerTotal(6);
+		simulation.setSimulationConfig(2, 3, 101);
+		simulation.setSectionTotal(3);
+
+		simulationRegistry.start("sectioned");
+		long deadline = System.currentTimeMillis() + 20_000;
+		while (!simulation.isSimulationFinished() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+
+		List<Map<String, Object>> sections = simulation.getSectionStats();
+		assertEquals(List.of(34, 34, 33), sections.stream().map(section -> section.get("capacity")).toList());
+		assertEquals(List.of(34, 34, 33), sections.stream().map(section -> section.get("claimedTickets")).toList());
+		for (int section = 1; section <= 3; section++) {
+			assertEquals(0, simulation.getRemainingTickets(section));
+			assertEquals(0, ticketRecordRepo.countBySimulationIdAndSectionAndCustomerIdIsNullAndVendorIdIsNotNull(
+					"sectioned", section));
+		}
+		assertEquals(101, ticketRecordRepo.findAll().stream()
+				.filter(ticket -> "sectioned".equals(ticket.getSimulationId()) && ticket.getCustomerId() != null).count());
+	}
+
+	@Test
+	void everySectionNeedsAVendorAndACustomer() {
+		TicketService simulation = simulationRegistry.getOrCreate("too-many-sections");
+		simulation.setVendorTotal(2);
+		simulation.setCustomerTotal(5);
+		simulation.setSimulationConfig(2, 3, 50);
+		simulation.setSectionTotal(3);
+
+		assertThrows(IllegalArgumentException.class, () -> simulationRegistry.start("too-many-sections"));
+		assertFalse(simulation.isSimulationRunning());
+	}
+}
@@ -0,0 +1,84 @@
+package Ticketing.System.service;
+
+import Ticketing.System.repo.TicketRecordRepo;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"ticketing.persistence.max-retries=2", "ticketing.persistence.retry-backoff-millis=1",
+		"ticketing.persistence.dead-letter-directory=target/dead-letters"})
+@ActiveProfiles("test")
+class TicketWriteBehindTests {
+
+	private static final Path DEAD_LETTERS = Paths.get("target/dead-letters").resolve(TicketWriteBehind.DEAD_LETTER_FILE);
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private SimulationRegistry simulationRegistry;
+
+	@MockBean
+	private TicketRecordRepo ticketRecordRepo;
+
+	@Test
+	void stopReturnsAndTheRunFailsWhenTheDatabaseRefusesEveryBatch() throws Exception {
+		when(ticketRecordRepo.saveAll(any())).thenThrow(new TransientDataAccessResourceException("database is gone"));
+		Files.deleteIfExists(DEAD_LETTERS);
+		TicketService simulation = simulationRegistry.getOrCreate("refused");
+		simulation.setVendorTotal(2);
+		simulation.setCustomerTotal(2);
+		simulation.setSimulationConfig(5, 5, 1_000);
+		simulationRegistry.start("refused");
+		long deadline = System.currentTimeMillis() + 20_000;
+		while (simulation.getIssuedTickets() == 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+
+		HttpRequest stop = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/simulation/refused/stop"))
+				.timeout(Duration.ofSeconds(20))
+				.POST(HttpRequest.BodyPublishers.noBody())
+				.build();
+		HttpResponse<String> response = HttpClient.newHttpClient().send(stop, HttpResponse.BodyHandlers.ofString());
+		assertEquals(200, response.statusCode());
+
+		// The retries ran out, so the batches went to the dead-letter log and the run reports the failure
+		assertFalse(simulation.isSimulationRunning());
+		assertNotNull(simulation.getFailure());
+		assertTrue(Files.readString(DEAD_LETTERS, StandardCharsets.UTF_8).contains("\"simulationId\":\"refused\""));
+		HttpRequest list = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/simulation")).build();
+		JsonArray simulations = JsonParser.parseString(
+				HttpClient.newHttpClient().send(list, HttpResponse.BodyHandlers.ofString()).body()).getAsJsonArray();
+		boolean isListedAsFailed = false;
+		for (JsonElement listed : simulations) {
+			JsonObject entry = listed.getAsJsonObject();
+			if ("refused".equals(entry.get("simulationId").getAsString())) {
+				isListedAsFailed = entry.get("failed").getAsBoolean();
+			}
+		}
+		assertTrue(isListedAsFailed);
+	}
+}
@@ -0,0 +1,36 @@
+package Ticketing.System.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTests {
+
+	@Test
+	void tasksFireAtTheirDeadlinesIncludingPastAndMultiRoundOnes() throws InterruptedException {
+		ExecutorService workers = Executors.newSingleThreadExecutor();
+		TimingWheel wheel = new TimingWheel(1, 8, workers, "test-timer");
+		try {
+			List<String> fired = new CopyOnWriteArrayList<>();
+			CountDownLatch done = new CountDownLatch(3);
+			long now = System.nanoTime();
+			wheel.schedule(() -> { fired.add("late"); done.countDown(); }, now + TimeUnit.MILLISECONDS.toNanos(60));
+			wheel.schedule(() -> { fired.add("past"); done.countDown(); }, now - TimeUnit.SECONDS.toNanos(1));
+			wheel.schedule(() -> { fired.add("soon"); done.countDown(); }, now + TimeUnit.MILLISECONDS.toNanos(20));
+
+			assertTrue(done.await(5, TimeUnit.SECONDS));
+			assertEquals(List.of("past", "soon", "late"), fired);
+			assertTrue(System.nanoTime() - now >= TimeUnit.MILLISECONDS.toNanos(60));
+		} finally {
+			wheel.stop();
+			workers.shutdownNow();
+		}
+	}
+}
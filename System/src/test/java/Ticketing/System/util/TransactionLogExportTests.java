@@ -0,0 +1,78 @@
+package Ticketing.System.util;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionLogExportTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void everyEventBecomesOneRowOfEachColumn() throws IOException {
+		Path logDirectory = directory.resolve("log");
+		TransactionLogWriter writer = new TransactionLogWriter(logDirectory, 1024, 4096,
+				TransactionLogWriter.FsyncPolicy.NEVER, 1000, TransactionLogCheckpoint.empty(1),
+				TransactionLogWriter.Format.BINARY);
+		for (int i = 1; i <= 1000; i++) {
+			writer.append(i % 2 == 0 ? "RETRIEVE" : "ADD", i % 2 == 0 ? "Customer" : "Vendor", i % 7,
+					i % 3 + 1, 1, i);
+		}
+		writer.close();
+		assertTrue(TransactionLogWriter.listSegments(logDirectory).size() > 1);
+
+		Path output = directory.resolve("columns");
+		assertEquals(1000, TransactionLogExport.export(logDirectory, output));
+
+		JsonObject schema = JsonParser.parseString(Files.readString(output.resolve(TransactionLogExport.SCHEMA_FILE),
+				StandardCharsets.UTF_8)).getAsJsonObject();
+		assertEquals(1000, schema.get("rows").getAsLong());
+		assertEquals(TransactionEvent.Action.RETRIEVE.getCode(),
+				schema.getAsJsonObject("codes").getAsJsonObject("action").get("RETRIEVE").getAsInt());
+
+		ByteBuffer sequences = column(output, "seq.bin");
+		ByteBuffer actions = column(output, "action.bin");
+		ByteBuffer entityIds = column(output, "entity_id.bin");
+		ByteBuffer sections = column(output, "section.bin");
+		ByteBuffer remaining = column(output, "remaining_tickets.bin");
+		assertEquals(1000 * 8, sequences.limit());
+		assertEquals(1000, actions.limit());
+		for (int i = 1; i <= 1000; i++) {
+			assertEquals(i, sequences.getLong((i - 1) * 8));
+			assertEquals((i % 2 == 0 ? TransactionEvent.Action.RETRIEVE : TransactionEvent.Action.ADD).getCode(),
+					actions.get(i - 1));
+			assertEquals(i % 7, entityIds.getLong((i - 1) * 8));
+			assertEquals(i % 3 + 1, sections.getInt((i - 1) * 4));
+			assertEquals(i, remaining.getInt((i - 1) * 4));
+		}
+	}
+
+	@Test
+	void aLogWithoutBinarySegmentsIsRefused() throws IOException {
+		Path logDirectory = directory.resolve("log");
+		TransactionLogWriter writer = new TransactionLogWriter(logDirectory, 1024, 4096,
+				TransactionLogWriter.FsyncPolicy.NEVER, 1000);
+		writer.append("ADD", "Vendor", 1, 1, 1);
+		writer.close();
+
+		Path output = directory.resolve("columns");
+		IOException refused = assertThrows(IOException.class, () -> TransactionLogExport.export(logDirectory, output));
+		assertTrue(refused.getMessage().contains("ticketing.log.format=BINARY"));
+		assertFalse(Files.exists(output));
+	}
+
+	private static ByteBuffer column(Path output, String file) throws IOException {
+		return ByteBuffer.wrap(Files.readAllBytes(output.resolve(file))).order(ByteOrder.LITTLE_ENDIAN);
+	}
+}
@@ -0,0 +1,122 @@
+package Ticketing.System.util;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionLogReaderTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void pagesFiltersAndTailsAcrossRotatedSegments() throws IOException {
+		TransactionLogWriter writer = new TransactionLogWriter(directory, 1024, 4096,
+				TransactionLogWriter.FsyncPolicy.NEVER, 1000);
+		for (int i = 1; i <= 2000; i++) {
+			writer.append(i % 2 == 0 ? "RETRIEVE" : "ADD", i % 2 == 0 ? "Customer" : "Vendor", i % 7, 1, i);
+		}
+		writer.flush();
+		assertTrue(TransactionLogWriter.listSegments(directory).size() > 1);
+
+		TransactionLogReader reader = new TransactionLogReader(directory);
+		JsonArray all = query(reader, 0, 0, 0, null, null);
+		assertEquals(2000, all.size());
+		assertEquals(1, all.get(0).getAsJsonObject().get("seq").getAsLong());
+
+		JsonArray page = query(reader, 1500, 0, 10, null, null);
+		assertEquals(10, page.size());
+		assertEquals(1501, page.get(0).getAsJsonObject().get("seq").getAsLong());
+
+		JsonArray vendor3 = query(reader, 0, 2, 0, "ADD", "Vendor-3");
+		assertTrue(vendor3.size() > 0);
+		vendor3.forEach(event -> assertEquals("Vendor-3", event.getAsJsonObject().get("entityName").getAsString()));
+
+		writer.append("ADD", "Vendor", 1, 1, 1);
+		writer.close();
+		JsonArray tail = query(reader, 2000, 0, 0, null, null);
+		assertEquals(1, tail.size());
+		assertEquals(2001, tail.get(0).getAsJsonObject().get("seq").getAsLong());
+	}
+
+	@Test
+	void binarySegmentsAnswerQueriesLikeJsonOnes(@TempDir Path binaryDirectory) throws IOException {
+		TransactionLogWriter json = new TransactionLogWriter(directory, 1024, 4096,
+				TransactionLogWriter.FsyncPolicy.NEVER, 1000);
+		TransactionLogWriter binary = new TransactionLogWriter(binaryDirectory, 1024, 4096,
+				TransactionLogWriter.FsyncPolicy.NEVER, 1000, TransactionLogCheckpoint.empty(1),
+				TransactionLogWriter.Format.BINARY);
+		for (int i = 1; i <= 2000; i++) {
+			json.append(i % 2 == 0 ? "RETRIEVE" : "ADD", i % 2 == 0 ? "Customer" : "Vendor", i % 7, 1, i);
+			binary.append(i % 2 == 0 ? "RETRIEVE" : "ADD", i % 2 == 0 ? "Customer" : "Vendor", i % 7, 1, i);
+		}
+		json.close();
+		binary.close();
+		assertTrue(TransactionLogWriter.listSegments(binaryDirectory).size() > 1);
+
+		TransactionLogReader jsonReader = new TransactionLogReader(directory);
+		TransactionLogReader binaryReader = new TransactionLogReader(binaryDirectory);
+		assertSameEvents(query(jsonReader, 0, 0, 0, null, null), query(binaryReader, 0, 0, 0, null, null));
+		assertSameEvents(query(jsonReader, 1500, 0, 10, null, null), query(binaryReader, 1500, 0, 10, null, null));
+		assertSameEvents(query(jsonReader, 0, 2, 0, "ADD", "Vendor-3"), query(binaryReader, 0, 2, 0, "ADD", "Vendor-3"));
+		assertEquals(0, query(binaryReader, 0, 0, 0, "HOLD", null).size());
+		assertTrue(query(binaryReader, 0, 0, 1, null, null).get(0).getAsJsonObject().has("timestamp"));
+	}
+
+	@Test
+	void readsLinesAcrossReadBuffersAndLeavesSegmentsFreeToReplace() throws IOException {
+		TransactionLogWriter writer = new TransactionLogWriter(directory, 1024, 1 << 20,
+				TransactionLogWriter.FsyncPolicy.NEVER, 1000);
+		for (int i = 1; i <= 5000; i++) {
+			writer.append("ADD", "Vendor", i, 1, i); // Far more than one read buffer
+		}
+		writer.close();
+
+		TransactionLogReader reader = new TransactionLogReader(directory);
+		JsonArray all = query(reader, 0, 0, 0, null, null);
+		assertEquals(5000, all.size());
+		for (int i = 0; i < all.size(); i++) {
+			assertEquals(i + 1, all.get(i).getAsJsonObject().get("seq").getAsLong());
+		}
+		assertEquals(1, query(reader, 0, 0, 0, null, "Vendor-4321").size());
+
+		// The next run replaces the log while the reader is still around
+		TransactionLogWriter.deleteSegments(directory);
+		assertTrue(TransactionLogWriter.listSegments(directory).isEmpty());
+		TransactionLogWriter next = new TransactionLogWriter(directory, 1024, 1 << 20,
+				TransactionLogWriter.FsyncPolicy.NEVER, 1000);
+		next.append("RETRIEVE", "Customer", 1, 1, 0);
+		next.close();
+		JsonArray replaced = query(reader, 0, 0, 0, null, null);
+		assertEquals(1, replaced.size());
+		assertEquals("RETRIEVE", replaced.get(0).getAsJsonObject().get("actionType").getAsString());
+	}
+
+	/**
+	 * Compares the fields both formats carry; JSON lines add a checksum and binary records a timestamp.
+	 */
+	private static void assertSameEvents(JsonArray expected, JsonArray actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			for (String field : new String[]{"seq", "actionType", "entityName", "section", "ticketCount",
+					"remainingTickets"}) {
+				assertEquals(expected.get(i).getAsJsonObject().get(field), actual.get(i).getAsJsonObject().get(field));
+			}
+		}
+	}
+
+	private static JsonArray query(TransactionLogReader reader, long after, long offset, int limit,
+								   String actionType, String entityName) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		reader.writeJsonArray(after, offset, limit, actionType, entityName, out);
+		return JsonParser.parseString(out.toString(StandardCharsets.US_ASCII)).getAsJsonArray();
+	}
+}
@@ -0,0 +1,144 @@
+package Ticketing.System.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionLogReplayTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void replayCutsOffATornTailAndTheLogContinuesAfterIt() throws IOException {
+		writeEvents(2000);
+		List<Path> segments = TransactionLogWriter.listSegments(directory);
+		assertTrue(segments.size() > 1);
+		TransactionLogCheckpoint closed = TransactionLogCheckpoint.read(directory);
+		assertTrue(closed.isFinished());
+		assertEquals(2000, closed.getLastSequence());
+
+		// A crash in the middle of a write leaves half an event behind
+		Path last = segments.get(segments.size() - 1);
+		long validSize = Files.size(last);
+		Files.writeString(last, "{\"seq\":2001,\"actionType\":\"AD", StandardCharsets.US_ASCII, StandardOpenOption.APPEND);
+
+		TransactionLogCheckpoint replayed = TransactionLogReplay.replay(directory, TransactionLogCheckpoint.empty(2),
+				null, true);
+		assertEquals(2000, replayed.getLastSequence());
+		for (int section = 1; section <= 2; section++) {
+			assertEquals(closed.getAdded(section), replayed.getAdded(section));
+			assertEquals(closed.getRetrieved(section), replayed.getRetrieved(section));
+		}
+		assertEquals(validSize, Files.size(last));
+
+		TransactionLogWriter writer = new TransactionLogWriter(directory, 1024, 4096,
+				TransactionLogWriter.FsyncPolicy.NEVER, 1000, replayed);
+		writer.append("ADD", "Vendor", 1, 2, 1, 1);
+		writer.close();
+		TransactionLogCheckpoint continued = TransactionLogReplay.replay(directory, TransactionLogCheckpoint.empty(2),
+				null, false);
+		assertEquals(2001, continued.getLastSequence());
+		assertEquals(closed.getAdded(2) + 1, continued.getAdded(2));
+	}
+
+	@Test
+	void replayStartsAfterTheCheckpointAndStopsAtACorruptEvent() throws IOException {
+		writeEvents(2000);
+		TransactionLogCheckpoint closed = TransactionLogCheckpoint.read(directory);
+
+		// Only the events after the checkpoint reach the listener
+		AtomicLong replayedEvents = new AtomicLong();
+		AtomicLong firstSequence = new AtomicLong();
+		TransactionLogCheckpoint checkpoint = totalsUpTo(1500);
+		TransactionLogCheckpoint fromCheckpoint = TransactionLogReplay.replay(directory, checkpoint,
+				(sequence, isAdd, entityId, section, ticketCount) -> {
+					firstSequence.compareAndSet(0, sequence);
+					replayedEvents.incrementAndGet();
+				}, false);
+		assertEquals(500, replayedEvents.get());
+		assertEquals(1501, firstSequence.get());
+		for (int section = 1; section <= 2; section++) {
+			assertEquals(closed.getAdded(section), fromCheckpoint.getAdded(section));
+			assertEquals(closed.getRetrieved(section), fromCheckpoint.getRetrieved(section));
+		}
+
+		// A flipped ticket count no longer matches its checksum
+		for (Path segment : TransactionLogWriter.listSegments(directory)) {
+			String content = Files.readString(segment, StandardCharsets.US_ASCII);
+			String corrupted = content.replace("{\"seq\":1000,\"actionType\":\"RETRIEVE\",\"entityName\":\"Customer-6\","
+					+ "\"section\":1,\"ticketCount\":1", "{\"seq\":1000,\"actionType\":\"RETRIEVE\","
+					+ "\"entityName\":\"Customer-6\",\"section\":1,\"ticketCount\":2");
+			Files.writeString(segment, corrupted, StandardCharsets.US_ASCII);
+		}
+		TransactionLogCheckpoint corrupted = TransactionLogReplay.replay(directory, TransactionLogCheckpoint.empty(2),
+				null, false);
+		assertEquals(999, corrupted.getLastSequence());
+	}
+
+	@Test
+	void aJsonLogContinuedInBinaryReplaysAcrossBothAndLosesOnlyTheTornRecord() throws IOException {
+		writeEvents(1000);
+		TransactionLogWriter binary = new TransactionLogWriter(directory, 1024, 4096,
+				TransactionLogWriter.FsyncPolicy.NEVER, 1000, TransactionLogCheckpoint.read(directory),
+				TransactionLogWriter.Format.BINARY);
+		for (int i = 1001; i <= 2000; i++) {
+			binary.append(i % 2 == 0 ? "RETRIEVE" : "ADD", i % 2 == 0 ? "Customer" : "Vendor", i % 7,
+					i % 4 == 2 ? 2 : 1, 1, i);
+		}
+		binary.close();
+		TransactionLogCheckpoint closed = TransactionLogCheckpoint.read(directory);
+		assertEquals(2000, closed.getLastSequence());
+		List<Path> segments = TransactionLogWriter.listSegments(directory);
+		assertFalse(TransactionLogWriter.isBinary(segments.get(0)));
+		assertTrue(TransactionLogWriter.isBinary(segments.get(segments.size() - 1)));
+
+		// A crash in the middle of a write leaves part of a record behind
+		Path last = segments.get(segments.size() - 1);
+		long validSize = Files.size(last);
+		Files.write(last, new byte[TransactionEvent.RECORD_BYTES / 2], StandardOpenOption.APPEND);
+
+		TransactionLogCheckpoint replayed = TransactionLogReplay.replay(directory, TransactionLogCheckpoint.empty(2),
+				null, true);
+		assertEquals(2000, replayed.getLastSequence());
+		for (int section = 1; section <= 2; section++) {
+			assertEquals(closed.getAdded(section), replayed.getAdded(section));
+			assertEquals(closed.getRetrieved(section), replayed.getRetrieved(section));
+		}
+		assertEquals(validSize, Files.size(last));
+	}
+
+	/**
+	 * Writes events alternating between vendors of section 1 and customers of sections 1 and 2.
+	 */
+	private void writeEvents(int count) throws IOException {
+		TransactionLogWriter writer = new TransactionLogWriter(directory, 1024, 4096,
+				TransactionLogWriter.FsyncPolicy.NEVER, 1000);
+		for (int i = 1; i <= count; i++) {
+			writer.append(i % 2 == 0 ? "RETRIEVE" : "ADD", i % 2 == 0 ? "Customer" : "Vendor", i % 7,
+					i % 4 == 2 ? 2 : 1, 1, i);
+		}
+		writer.close();
+	}
+
+	private TransactionLogCheckpoint totalsUpTo(long lastSequence) throws IOException {
+		long[] added = new long[2];
+		long[] retrieved = new long[2];
+		TransactionLogReplay.replay(directory, TransactionLogCheckpoint.empty(2),
+				(sequence, isAdd, entityId, section, ticketCount) -> {
+					if (sequence <= lastSequence) {
+						(isAdd ? added : retrieved)[section - 1] += ticketCount;
+					}
+				}, false);
+		return new TransactionLogCheckpoint(lastSequence, false, added, retrieved);
+	}
+}
@@ -0,0 +1,170 @@
+package Ticketing.System.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionLogWriterTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void segmentsRotateAtTheirSizeAndAreNamedAfterTheirFirstEvent() throws IOException {
+		TransactionLogWriter writer = new TransactionLogWriter(directory, 512, 4096,
+				TransactionLogWriter.FsyncPolicy.NEVER, 1000);
+		for (int i = 1; i <= 1000; i++) {
+			writer.append("ADD", "Vendor", i % 5, 1, i);
+		}
+		writer.close();
+
+		List<Path> segments = TransactionLogWriter.listSegments(directory);
+		assertTrue(segments.size() > 1);
+		List<Long> firstSequences = new ArrayList<>();
+		TransactionLogReplay.replay(directory, TransactionLogCheckpoint.empty(1),
+				(sequence, isAdd, entityId, section, ticketCount) -> firstSequences.add(sequence), false);
+		assertEquals(1000, firstSequences.size());
+		assertEquals(1, TransactionLogWriter.firstSequenceOf(segments.get(0)));
+		for (int i = 0; i < segments.size() - 1; i++) {
+			assertTrue(Files.size(segments.get(i)) >= 4096); // Only the last segment may be short
+			assertTrue(TransactionLogWriter.firstSequenceOf(segments.get(i + 1))
+					> TransactionLogWriter.firstSequenceOf(segments.get(i)));
+		}
+	}
+
+	@Test
+	void checkpointsFollowRotatedSegmentsAndTheClose() throws IOException {
+		TransactionLogWriter writer = new TransactionLogWriter(directory, 512, 4096,
+				TransactionLogWriter.FsyncPolicy.NEVER, 60_000);
+		for (int i = 1; i <= 1000; i++) {
+			writer.append(i % 3 == 0 ? "RETRIEVE" : "ADD", i % 3 == 0 ? "Customer" : "Vendor", i % 5, i % 2 + 1, 1, i);
+		}
+
+		// While the log is open, the checkpoint covers exactly the events of the closed segments
+		List<Path> segments = TransactionLogWriter.listSegments(directory);
+		TransactionLogCheckpoint rotated = TransactionLogCheckpoint.read(directory);
+		assertFalse(rotated.isFinished());
+		assertEquals(TransactionLogWriter.firstSequenceOf(segments.get(segments.size() - 1)) - 1,
+				rotated.getLastSequence());
+
+		writer.close(false);
+		TransactionLogCheckpoint interrupted = TransactionLogCheckpoint.read(directory);
+		assertFalse(interrupted.isFinished());
+		assertEquals(1000, interrupted.getLastSequence());
+		TransactionLogCheckpoint replayed = TransactionLogReplay.replay(directory, TransactionLogCheckpoint.empty(2),
+				null, false);
+		for (int section = 1; section <= 2; section++) {
+			assertEquals(replayed.getAdded(section), interrupted.getAdded(section));
+			assertEquals(replayed.getRetrieved(section), interrupted.getRetrieved(section));
+		}
+
+		TransactionLogWriter continued = new TransactionLogWriter(directory, 512, 4096,
+				TransactionLogWriter.FsyncPolicy.NEVER, 60_000, interrupted);
+		assertEquals(1001, continued.append("ADD", "Vendor", 1, 1, 1));
+		continued.close();
+		TransactionLogCheckpoint finished = TransactionLogCheckpoint.read(directory);
+		assertTrue(finished.isFinished());
+		assertEquals(1001, finished.getLastSequence());
+	}
+
+	@Test
+	void aBinaryRecordThatNoLongerMatchesItsChecksumIsRejected() throws IOException {
+		TransactionLogWriter writer = new TransactionLogWriter(directory, 1024, 1 << 20,
+				TransactionLogWriter.FsyncPolicy.NEVER, 1000, TransactionLogCheckpoint.empty(1),
+				TransactionLogWriter.Format.BINARY);
+		for (int i = 1; i <= 100; i++) {
+			writer.append("ADD", "Vendor", i, 1, i);
+		}
+		writer.close();
+		Path segment = TransactionLogWriter.listSegments(directory).get(0);
+		assertEquals(100, TransactionLogReplay.replay(directory, TransactionLogCheckpoint.empty(1), null, false)
+				.getLastSequence());
+
+		// Flip one byte inside the checksummed part of the 60th record
+		long position = TransactionEvent.HEADER_BYTES + 59L * TransactionEvent.RECORD_BYTES + 20;
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer value = ByteBuffer.allocate(1);
+			channel.read(value, position);
+			value.put(0, (byte) (value.get(0) ^ 0x10)).rewind();
+			channel.write(value, position);
+		}
+		TransactionLogCheckpoint corrupted = TransactionLogReplay.replay(directory, TransactionLogCheckpoint.empty(1),
+				null, false);
+		assertEquals(59, corrupted.getLastSequence());
+		assertEquals(59, corrupted.getAdded(1));
+	}
+
+	@ParameterizedTest
+	@EnumSource(TransactionLogWriter.FsyncPolicy.class)
+	void everyFsyncPolicyKeepsEveryEvent(TransactionLogWriter.FsyncPolicy fsyncPolicy) throws IOException {
+		TransactionLogWriter writer = new TransactionLogWriter(directory, 512, 4096, fsyncPolicy, 1000);
+		for (int i = 1; i <= 500; i++) {
+			writer.append("ADD", "Vendor", i % 5, 1, i);
+			if (i % 100 == 0) {
+				writer.flush();
+			}
+		}
+		writer.close();
+
+		assertTrue(TransactionLogWriter.listSegments(directory).size() > 1);
+		TransactionLogCheckpoint closed = TransactionLogCheckpoint.read(directory);
+		assertTrue(closed.isFinished());
+		assertEquals(500, closed.getLastSequence());
+		assertEquals(500, TransactionLogReplay.replay(directory, TransactionLogCheckpoint.empty(1), null, false)
+				.getAdded(1));
+	}
+
+	@Test
+	void aFailedWriteStopsTheLogWithoutAdvancingItsCheckpoint() throws IOException {
+		// Directories in place of the segments to come make the first rotation fail
+		List<Path> blocked = new ArrayList<>();
+		for (int sequence = 2; sequence <= 1000; sequence++) {
+			blocked.add(Files.createDirectory(directory.resolve(String.format("%s%020d%s",
+					TransactionLogWriter.SEGMENT_PREFIX, sequence, TransactionLogWriter.SEGMENT_SUFFIX))));
+		}
+		TransactionLogWriter writer = new TransactionLogWriter(directory, 512, 2048,
+				TransactionLogWriter.FsyncPolicy.NEVER, 60_000);
+		AtomicReference<IOException> reported = new AtomicReference<>();
+		writer.onFailure(reported::set);
+		long lastLogged = 0;
+		for (int i = 1; i <= 1000; i++) {
+			long sequence = writer.append("ADD", "Vendor", 1, 1, i);
+			if (sequence < 0) {
+				break;
+			}
+			lastLogged = sequence;
+		}
+
+		assertNotNull(reported.get());
+		assertSame(reported.get(), writer.getFailure());
+		assertEquals(-1, writer.append("ADD", "Vendor", 1, 1, 1));
+		long nextSequence = lastLogged + 1;
+		assertThrows(IllegalStateException.class,
+				() -> writer.append(nextSequence, "ADD", "Vendor", 1, 1, 1, 1));
+		assertThrows(IllegalStateException.class, writer::flush);
+		writer.close();
+
+		// The checkpoint stays at the events that reached the closed segment, and is not marked finished
+		for (Path directoryInTheWay : blocked) {
+			Files.delete(directoryInTheWay);
+		}
+		TransactionLogCheckpoint checkpoint = TransactionLogCheckpoint.read(directory);
+		assertFalse(checkpoint.isFinished());
+		assertTrue(checkpoint.getLastSequence() <= lastLogged);
+		assertEquals(checkpoint.getLastSequence(), TransactionLogReplay.replay(directory,
+				TransactionLogCheckpoint.empty(1), null, false).getLastSequence());
+	}
+}